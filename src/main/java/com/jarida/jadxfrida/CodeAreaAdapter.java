@@ -0,0 +1,136 @@
+package com.jarida.jadxfrida;
+
+import jadx.api.ICodeInfo;
+
+import java.awt.Color;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The jadx-gui code area methods Jarida calls, bound once per code area class into
+ * {@link MethodHandle}s of a fixed erased shape. Code areas are not part of the plugin API, so a
+ * method that is missing in the running jadx version binds to a handle that returns null (or does
+ * nothing) and is listed in {@link #getMissing()}.
+ */
+final class CodeAreaAdapter {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType ADD_HIGHLIGHT = MethodType.methodType(Object.class, Object.class, int.class, Color.class);
+    private static final MethodType REMOVE_HIGHLIGHT = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<CodeAreaAdapter> AREAS = new ClassValue<CodeAreaAdapter>() {
+        @Override
+        protected CodeAreaAdapter computeValue(Class<?> type) {
+            return new CodeAreaAdapter(type);
+        }
+    };
+
+    // ContentPanel subclasses without a code area (e.g. the Jarida console) bind to the null getter
+    private static final ClassValue<MethodHandle> PANELS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return bind(type, "getCurrentCodeArea", GETTER, null);
+        }
+    };
+
+    private final String typeName;
+    private final List<String> missing = new ArrayList<>();
+    private final AtomicBoolean missingReported = new AtomicBoolean();
+    private final MethodHandle getCodeInfo;
+    private final MethodHandle getCaretPosition;
+    private final MethodHandle addLineHighlight;
+    private final MethodHandle removeLineHighlight;
+
+    private CodeAreaAdapter(Class<?> type) {
+        typeName = type.getSimpleName();
+        getCodeInfo = bind(type, "getCodeInfo", GETTER, missing);
+        getCaretPosition = bind(type, "getCaretPosition", GETTER, missing);
+        addLineHighlight = bind(type, "addLineHighlight", ADD_HIGHLIGHT, missing);
+        removeLineHighlight = bind(type, "removeLineHighlight", REMOVE_HIGHLIGHT, missing);
+    }
+
+    static CodeAreaAdapter of(Object area) {
+        return AREAS.get(area.getClass());
+    }
+
+    static Object currentCodeArea(Object panel) {
+        try {
+            return (Object) PANELS.get(panel.getClass()).invokeExact(panel);
+        } catch (Throwable ignored) {
+            return null;
+        }
+    }
+
+    String getTypeName() {
+        return typeName;
+    }
+
+    List<String> getMissing() {
+        return Collections.unmodifiableList(missing);
+    }
+
+    /**
+     * True the first time it is called for an adapter with missing methods.
+     */
+    boolean shouldReportMissing() {
+        return !missing.isEmpty() && missingReported.compareAndSet(false, true);
+    }
+
+    ICodeInfo getCodeInfo(Object area) {
+        try {
+            Object out = (Object) getCodeInfo.invokeExact(area);
+            return out instanceof ICodeInfo ? (ICodeInfo) out : null;
+        } catch (Throwable ignored) {
+            return null;
+        }
+    }
+
+    Integer getCaretPosition(Object area) {
+        try {
+            Object out = (Object) getCaretPosition.invokeExact(area);
+            return out instanceof Integer ? (Integer) out : null;
+        } catch (Throwable ignored) {
+            return null;
+        }
+    }
+
+    Object addLineHighlight(Object area, int line, Color color) {
+        try {
+            return (Object) addLineHighlight.invokeExact(area, line, color);
+        } catch (Throwable ignored) {
+            return null;
+        }
+    }
+
+    void removeLineHighlight(Object area, Object tag) {
+        try {
+            removeLineHighlight.invokeExact(area, tag);
+        } catch (Throwable ignored) {
+        }
+    }
+
+    /**
+     * Public method {@code name} of {@code type} with the parameter types of {@code shape} (minus the
+     * receiver), adapted to {@code shape}; a no-op of that shape when it cannot be bound.
+     */
+    private static MethodHandle bind(Class<?> type, String name, MethodType shape, List<String> missing) {
+        Class<?>[] params = shape.dropParameterTypes(0, 1).parameterArray();
+        try {
+            Method method = type.getMethod(name, params);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(shape);
+        } catch (Exception | LinkageError e) {
+            if (missing != null) {
+                missing.add(name);
+            }
+            // returns null, or nothing once adapted to a void shape
+            return MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, shape.parameterList())
+                    .asType(shape);
+        }
+    }
+}
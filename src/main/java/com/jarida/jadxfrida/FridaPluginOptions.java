@@ -3,6 +3,7 @@ package com.jarida.jadxfrida;
 import com.jarida.jadxfrida.model.DeviceMode;
 import com.jarida.jadxfrida.model.FridaSessionConfig;
 import com.jarida.jadxfrida.model.ScriptOptions;
+import com.jarida.jadxfrida.model.SamplingMode;
 import com.jarida.jadxfrida.model.TemplatePosition;
 import com.jarida.jadxfrida.model.TraceHighlightColor;
 import jadx.api.plugins.options.OptionFlag;
@@ -27,12 +28,15 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
     private static final String DEFAULT_FRIDA_PATH = "frida";
     private static final String DEFAULT_FRIDA_PS_PATH = "frida-ps";
     private static final String DEFAULT_ADB_PATH = "adb";
+    private static final String DEFAULT_PYTHON_PATH = FridaSessionConfig.defaultPythonPath();
     private static final boolean DEFAULT_LOG_ARGS = true;
     private static final boolean DEFAULT_LOG_RETURN = true;
     private static final boolean DEFAULT_LOG_THREAD = true;
     private static final boolean DEFAULT_PRINT_STACK = false;
     private static final boolean DEFAULT_PRINT_THIS = false;
     private static final boolean DEFAULT_PRETTY_PRINT = true;
+    private static final boolean DEFAULT_MEASURE_LATENCY = false;
+    private static final boolean DEFAULT_LAZY_OBJECTS = false;
     private static final boolean DEFAULT_TEMPLATE_APPEND = false;
     private static final String DEFAULT_TEMPLATE_NAME = "None";
     private static final String DEFAULT_TEMPLATE_CONTENT = "";
@@ -48,6 +52,7 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
     private String fridaPath = DEFAULT_FRIDA_PATH;
     private String fridaPsPath = DEFAULT_FRIDA_PS_PATH;
     private String adbPath = DEFAULT_ADB_PATH;
+    private String pythonPath = DEFAULT_PYTHON_PATH;
 
     private boolean logArgs = DEFAULT_LOG_ARGS;
     private boolean logReturn = DEFAULT_LOG_RETURN;
@@ -55,6 +60,15 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
     private boolean printStack = DEFAULT_PRINT_STACK;
     private boolean printThis = DEFAULT_PRINT_THIS;
     private boolean prettyPrint = DEFAULT_PRETTY_PRINT;
+    private boolean measureLatency = DEFAULT_MEASURE_LATENCY;
+    private boolean lazyObjects = DEFAULT_LAZY_OBJECTS;
+    private int byteCaptureLimit = 0;
+    private boolean keepFullBytes = false;
+    private SamplingMode samplingMode = SamplingMode.NONE;
+    private double samplingValue = ScriptOptions.DEFAULT_SAMPLING_VALUE;
+    private int eventBatchSize = ScriptOptions.DEFAULT_EVENT_BATCH_SIZE;
+    private int eventFlushIntervalMs = ScriptOptions.DEFAULT_EVENT_FLUSH_INTERVAL_MS;
+    private int eventBufferCapacity = ScriptOptions.DEFAULT_EVENT_BUFFER_CAPACITY;
 
     private boolean templateAppend = DEFAULT_TEMPLATE_APPEND;
     private String templateName = DEFAULT_TEMPLATE_NAME;
@@ -117,6 +131,10 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
                 .description("Path to adb executable")
                 .defaultValue(DEFAULT_ADB_PATH)
                 .setter(v -> adbPath = v);
+        hidden(strOption(PREFIX + "pythonPath"))
+                .description("Path to python executable with the frida module")
+                .defaultValue(DEFAULT_PYTHON_PATH)
+                .setter(v -> pythonPath = v);
 
         hidden(boolOption(PREFIX + "logArgs"))
                 .description("Log method arguments")
@@ -142,6 +160,42 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
                 .description("Pretty print objects")
                 .defaultValue(DEFAULT_PRETTY_PRINT)
                 .setter(v -> prettyPrint = v);
+        hidden(boolOption(PREFIX + "measureLatency"))
+                .description("Measure call latency")
+                .defaultValue(DEFAULT_MEASURE_LATENCY)
+                .setter(v -> measureLatency = v);
+        hidden(boolOption(PREFIX + "lazyObjects"))
+                .description("Send object summaries and expand on demand")
+                .defaultValue(DEFAULT_LAZY_OBJECTS)
+                .setter(v -> lazyObjects = v);
+        hidden(enumOption(PREFIX + "samplingMode", SamplingMode.values(), SamplingMode::valueOf))
+                .description("Per-hook sampling policy")
+                .defaultValue(SamplingMode.NONE)
+                .setter(v -> samplingMode = v);
+        hidden(strOption(PREFIX + "samplingValue"))
+                .description("Sampling policy parameter")
+                .defaultValue(Double.toString(ScriptOptions.DEFAULT_SAMPLING_VALUE))
+                .setter(v -> samplingValue = parseDouble(v, ScriptOptions.DEFAULT_SAMPLING_VALUE));
+        hidden(intOption(PREFIX + "byteCaptureLimit"))
+                .description("Bytes captured from byte[] values as binary data (0 = off)")
+                .defaultValue(0)
+                .setter(v -> byteCaptureLimit = v);
+        hidden(boolOption(PREFIX + "keepFullBytes"))
+                .description("Keep truncated byte[] values pinned so they can be saved in full")
+                .defaultValue(false)
+                .setter(v -> keepFullBytes = v);
+        hidden(intOption(PREFIX + "eventBatchSize"))
+                .description("Events buffered on the device before a flush")
+                .defaultValue(ScriptOptions.DEFAULT_EVENT_BATCH_SIZE)
+                .setter(v -> eventBatchSize = v);
+        hidden(intOption(PREFIX + "eventFlushIntervalMs"))
+                .description("Maximum event flush delay in milliseconds")
+                .defaultValue(ScriptOptions.DEFAULT_EVENT_FLUSH_INTERVAL_MS)
+                .setter(v -> eventFlushIntervalMs = v);
+        hidden(intOption(PREFIX + "eventBufferCapacity"))
+                .description("Device-side event ring buffer capacity")
+                .defaultValue(ScriptOptions.DEFAULT_EVENT_BUFFER_CAPACITY)
+                .setter(v -> eventBufferCapacity = v);
 
         hidden(boolOption(PREFIX + "templateAppend"))
                 .description("Append extra script")
@@ -176,6 +230,7 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
         cfg.setFridaPath(fridaPath);
         cfg.setFridaPsPath(fridaPsPath);
         cfg.setAdbPath(adbPath);
+        cfg.setPythonPath(pythonPath);
         return cfg;
     }
 
@@ -187,6 +242,15 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
         opt.setPrintStack(printStack);
         opt.setPrintThis(printThis);
         opt.setPrettyPrint(prettyPrint);
+        opt.setMeasureLatency(measureLatency);
+        opt.setLazyObjects(lazyObjects);
+        opt.setByteCaptureLimit(byteCaptureLimit);
+        opt.setKeepFullBytes(keepFullBytes);
+        opt.setSamplingMode(samplingMode);
+        opt.setSamplingValue(samplingValue);
+        opt.setEventBatchSize(eventBatchSize);
+        opt.setEventFlushIntervalMs(eventFlushIntervalMs);
+        opt.setEventBufferCapacity(eventBufferCapacity);
         return opt;
     }
 
@@ -206,6 +270,7 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
             fridaPath = cfg.getFridaPath();
             fridaPsPath = cfg.getFridaPsPath();
             adbPath = cfg.getAdbPath();
+            pythonPath = cfg.getPythonPath();
         }
         if (opt != null) {
             logArgs = opt.isLogArgs();
@@ -214,6 +279,15 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
             printStack = opt.isPrintStack();
             printThis = opt.isPrintThis();
             prettyPrint = opt.isPrettyPrint();
+            measureLatency = opt.isMeasureLatency();
+            lazyObjects = opt.isLazyObjects();
+            byteCaptureLimit = opt.getByteCaptureLimit();
+            keepFullBytes = opt.isKeepFullBytes();
+            samplingMode = opt.getSamplingMode();
+            samplingValue = opt.getSamplingValue();
+            eventBatchSize = opt.getEventBatchSize();
+            eventFlushIntervalMs = opt.getEventFlushIntervalMs();
+            eventBufferCapacity = opt.getEventBufferCapacity();
         }
         templateAppend = append;
         if (templateName != null) {
@@ -279,6 +353,17 @@ public class FridaPluginOptions extends BasePluginOptionsBuilder {
         notifyHighlightChange();
     }
 
+    private static double parseDouble(String value, double fallback) {
+        if (value == null || value.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
     private <T> OptionBuilder<T> hidden(OptionBuilder<T> builder) {
         return builder.flags(OptionFlag.HIDE_IN_GUI);
     }
@@ -1,31 +1,36 @@
 package com.jarida.jadxfrida;
 
 import com.jarida.jadxfrida.frida.FridaController;
+import com.jarida.jadxfrida.frida.HookScript;
 import com.jarida.jadxfrida.frida.HookScriptGenerator;
+import com.jarida.jadxfrida.model.CallSite;
 import com.jarida.jadxfrida.model.FridaSessionConfig;
 import com.jarida.jadxfrida.model.HookRecord;
 import com.jarida.jadxfrida.model.HookSpec;
 import com.jarida.jadxfrida.model.MethodTarget;
 import com.jarida.jadxfrida.model.ReturnPatchRule;
 import com.jarida.jadxfrida.model.ScriptOptions;
+import com.jarida.jadxfrida.model.StackDictionary;
 import com.jarida.jadxfrida.model.TemplatePosition;
+import com.jarida.jadxfrida.model.TraceEvent;
 import com.jarida.jadxfrida.state.JaridaState;
 import com.jarida.jadxfrida.state.JaridaStateManager;
 import com.jarida.jadxfrida.ui.FridaConfigDialog;
 import com.jarida.jadxfrida.ui.FridaConsolePanel;
 import com.jarida.jadxfrida.ui.FridaConsoleNode;
 import com.jarida.jadxfrida.ui.JaridaConnectionPanel;
+import com.jarida.jadxfrida.util.CallSiteIndex;
+import com.jarida.jadxfrida.util.CaretMethodResolver;
+import com.jarida.jadxfrida.util.HookHighlightIndex;
 import com.jarida.jadxfrida.util.MethodResolver;
 import com.jarida.jadxfrida.util.PackageNameResolver;
+import com.jarida.jadxfrida.util.TypeUtil;
 import jadx.api.ICodeInfo;
 import jadx.api.JavaClass;
 import jadx.api.JavaMethod;
 import jadx.api.JavaNode;
 import jadx.api.JadxDecompiler;
-import jadx.api.metadata.ICodeAnnotation;
-import jadx.api.metadata.ICodeMetadata;
 import jadx.api.metadata.ICodeNodeRef;
-import jadx.api.metadata.annotations.NodeDeclareRef;
 import jadx.api.plugins.JadxPlugin;
 import jadx.api.plugins.JadxPluginContext;
 import jadx.api.plugins.JadxPluginInfo;
@@ -43,11 +48,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.io.IOException;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.text.JTextComponent;
 import java.util.prefs.Preferences;
 
 public class FridaTracePlugin implements JadxPlugin {
@@ -64,7 +74,24 @@ public class FridaTracePlugin implements JadxPlugin {
     private String pendingScript;
     private final java.util.Map<String, HookRecord> hooks = new java.util.LinkedHashMap<>();
     private final java.util.Map<String, HookSpec> hookSpecs = new java.util.LinkedHashMap<>();
-    private final Map<Object, List<Object>> highlightTags = new WeakHashMap<>();
+    private final Map<Object, AppliedHighlights> appliedHighlights = new WeakHashMap<>();
+    private final ExecutorService highlightExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "jarida-highlight");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService targetExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "jarida-targets");
+        t.setDaemon(true);
+        return t;
+    });
+    private HookHighlightIndex highlightIndex;
+    private CallSiteIndex callSiteIndex;
+    private CaretMethodResolver caretResolver;
+    private final Map<Object, Boolean> caretWatched = new WeakHashMap<>();
+    private static final int CARET_PREFETCH_DELAY_MS = 120;
+    private final javax.swing.Timer caretPrefetchTimer = createCaretPrefetchTimer();
+    private long highlightGeneration;
     private java.lang.ref.WeakReference<TabbedPane> highlightListenerOwner;
     private int highlightRetries = 0;
     private static final int MAX_HIGHLIGHT_RETRIES = 6;
@@ -95,6 +122,11 @@ public class FridaTracePlugin implements JadxPlugin {
     public void init(JadxPluginContext context) {
         this.pluginContext = context;
         this.decompiler = context.getDecompiler();
+        MethodResolver.invalidate();
+        this.highlightIndex = new HookHighlightIndex(decompiler);
+        this.callSiteIndex = new CallSiteIndex(decompiler);
+        this.callSiteIndex.setChangeListener(this::onCallSitesIndexed);
+        this.caretResolver = new CaretMethodResolver(decompiler);
         this.guiContext = context.getGuiContext();
         this.pluginOptions = new FridaPluginOptions();
         this.pluginOptions.setHighlightColorChangeListener(this::updateHighlights);
@@ -125,6 +157,19 @@ public class FridaTracePlugin implements JadxPlugin {
                 showWarning("Jarida connection lost. The Frida session ended.");
             }
         });
+        fridaController.setOnEvent(this::handleTraceEvent);
+        fridaController.setOnStats(stats -> {
+            if (consolePanel != null) {
+                consolePanel.updateHookStats(stats);
+            }
+        });
+    }
+
+    private void handleTraceEvent(TraceEvent event) {
+        appendLog(event.toLogLine());
+        if (consolePanel != null) {
+            consolePanel.addTraceEvent(event);
+        }
     }
 
     @Override
@@ -135,21 +180,36 @@ public class FridaTracePlugin implements JadxPlugin {
 
     private void initGui() {
         guiContext.addMenuAction("Jarida Console", this::openConsole);
+        guiContext.addMenuAction("Jarida: Trace Class or Package...", this::traceScopeFromPrompt);
 
         guiContext.addPopupMenuAction(
                 "Jarida: Start Tracing",
-                ref -> resolveMethodForPopup(ref) != null,
+                this::canHookFromPopup,
                 null,
                 ref -> openSettings(ref, false, false, false, false)
         );
 
         guiContext.addPopupMenuAction(
                 "Jarida: Patch Return Value",
-                ref -> resolveMethodForPopup(ref) != null,
+                this::canHookFromPopup,
                 null,
                 ref -> openSettings(ref, true, true, true, false)
         );
 
+        guiContext.addPopupMenuAction(
+                "Jarida: Trace All Methods in Class",
+                ref -> resolveClassForPopup(ref) != null,
+                null,
+                this::traceClass
+        );
+
+        guiContext.addPopupMenuAction(
+                "Jarida: Trace All Methods in Package",
+                ref -> resolveClassForPopup(ref) != null,
+                null,
+                this::tracePackage
+        );
+
         guiContext.addPopupMenuAction(
                 "Jarida: Stop Tracing",
                 ref -> isMethodTraced(ref),
@@ -206,6 +266,11 @@ public class FridaTracePlugin implements JadxPlugin {
                 if (consolePanel != null) {
                     consolePanel.setSessionActive(fridaController.isRunning());
                     consolePanel.setCustomScripts(customScriptPaths);
+                    consolePanel.setHandleExpander(fridaController::expandHandle);
+                    consolePanel.setBytesReader(fridaController::readBytes);
+                    consolePanel.setStackSource(fridaController.getStackProfile(), fridaController.getStacks());
+                    consolePanel.setFrameNavigator(this::jumpToFrame);
+                    consolePanel.setCallSiteNavigator(this::jumpToCallSite, () -> refreshCallSites(true));
                 }
                 if (consolePanel != null && !pendingLogs.isEmpty()) {
                     for (String line : pendingLogs) {
@@ -248,6 +313,11 @@ public class FridaTracePlugin implements JadxPlugin {
         }
     }
 
+    /**
+     * Opens the hook dialog for the method at {@code ref}. When neither the popup ref nor the nodes
+     * under mouse/caret resolve, the caret's method is resolved in the background and the dialog
+     * opens once it is known, so the popup never waits on a metadata scan.
+     */
     private void openSettings(ICodeNodeRef ref, boolean patchDefault, boolean showReturnTab,
                               boolean focusReturnTab, boolean requireConnection) {
         MethodTarget target = resolveMethod(ref);
@@ -258,11 +328,37 @@ public class FridaTracePlugin implements JadxPlugin {
                 ref = caretRef;
             }
         }
-        if (target == null) {
-            JOptionPane.showMessageDialog(guiContext.getMainFrame(), "No method selected.", "Jarida", JOptionPane.WARNING_MESSAGE);
+        if (target != null) {
+            openSettings(target, ref, patchDefault, showReturnTab, focusReturnTab, requireConnection);
             return;
         }
+        CompletableFuture<CaretMethodResolver.Resolution> pending = resolveMethodAtCaret();
+        if (pending == null) {
+            warnNoMethodSelected();
+            return;
+        }
+        ICodeNodeRef nodeRef = ref;
+        pending.whenComplete((resolution, error) -> guiContext.uiRun(() -> {
+            if (error != null || resolution == null || resolution.isEmpty()) {
+                JOptionPane.showMessageDialog(guiContext.getMainFrame(), "No method at caret.", "Jarida",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            MethodTarget resolved = chooseTarget(resolution);
+            if (resolved == null) {
+                // the lambda choice was cancelled
+                return;
+            }
+            openSettings(resolved, nodeRef, patchDefault, showReturnTab, focusReturnTab, requireConnection);
+        }));
+    }
+
+    private void warnNoMethodSelected() {
+        JOptionPane.showMessageDialog(guiContext.getMainFrame(), "No method selected.", "Jarida", JOptionPane.WARNING_MESSAGE);
+    }
 
+    private void openSettings(MethodTarget target, ICodeNodeRef ref, boolean patchDefault, boolean showReturnTab,
+                              boolean focusReturnTab, boolean requireConnection) {
         String pkg = PackageNameResolver.resolvePackageName(decompiler);
         if (pkg != null && !pkg.trim().isEmpty()) {
             lastSessionConfig.setTargetPackage(pkg);
@@ -298,16 +394,24 @@ public class FridaTracePlugin implements JadxPlugin {
                 dialog.getExtraScript(), dialog.getTemplatePosition(), hookKey,
                 dialog.isTemplateAppend(), dialog.getTemplateName(), dialog.getTemplateContent());
         hookSpecs.put(hookKey, spec);
-        String script = buildCombinedScript();
+        applyHookChange(fixedConfig);
+    }
+
+    /**
+     * Regenerates the script after a hook was added and pushes it to the running session, reusing it
+     * when the connection settings allow.
+     */
+    private void applyHookChange(FridaSessionConfig fixedConfig) {
+        HookScript script = buildHookScript();
         boolean canReuseNow = fridaController.isRunning()
                 && activeSessionConfig != null
                 && fixedConfig != null
                 && fixedConfig.isCompatibleForReuse(activeSessionConfig);
 
         if (consolePanel != null) {
-            consolePanel.setScript(script);
+            consolePanel.setScript(script.getSource());
         } else {
-            pendingScript = script;
+            pendingScript = script.getSource();
         }
         updateHooksUi();
         updateHighlights();
@@ -322,7 +426,7 @@ public class FridaTracePlugin implements JadxPlugin {
         }
         try {
             if (canReuseNow) {
-                fridaController.updateSessionScript(script, this::appendLog);
+                fridaController.updateHooks(script, this::appendLog);
                 if (consolePanel != null) {
                     consolePanel.setSessionActive(true);
                 }
@@ -342,6 +446,150 @@ public class FridaTracePlugin implements JadxPlugin {
         }
     }
 
+    private void traceClass(ICodeNodeRef ref) {
+        JavaClass cls = resolveClassForPopup(ref);
+        if (cls == null) {
+            return;
+        }
+        String className = TypeUtil.normalizeClassName(cls.getRawName());
+        traceScopeAsync(className + ".*", () -> MethodResolver.fromJavaClass(cls));
+    }
+
+    private void tracePackage(ICodeNodeRef ref) {
+        JavaClass cls = resolveClassForPopup(ref);
+        if (cls == null) {
+            return;
+        }
+        String className = TypeUtil.normalizeClassName(cls.getRawName());
+        int dot = className.lastIndexOf('.');
+        if (dot <= 0) {
+            showWarning("Class " + className + " is in the default package.");
+            return;
+        }
+        String pkg = className.substring(0, dot);
+        traceScopeAsync(pkg + ".**", () -> collectPackageTargets(pkg));
+    }
+
+    private void traceScopeFromPrompt() {
+        Object input = JOptionPane.showInputDialog(guiContext.getMainFrame(),
+                "Class name or package prefix to trace:", "Jarida", JOptionPane.QUESTION_MESSAGE,
+                null, null, "");
+        if (input == null || input.toString().trim().isEmpty()) {
+            return;
+        }
+        String name = input.toString().trim();
+        if (name.endsWith(".**")) {
+            name = name.substring(0, name.length() - 3);
+        } else if (name.endsWith(".*")) {
+            name = name.substring(0, name.length() - 2);
+        }
+        JavaClass cls = lookupJavaClass(name);
+        if (cls != null) {
+            traceScopeAsync(TypeUtil.normalizeClassName(cls.getRawName()) + ".*", () -> MethodResolver.fromJavaClass(cls));
+        } else {
+            String pkg = name;
+            traceScopeAsync(pkg + ".**", () -> collectPackageTargets(pkg));
+        }
+    }
+
+    /**
+     * Collects the targets of {@code scope} on a background thread, since walking every class of a
+     * large app (and loading their methods) would freeze the UI, then configures the trace on the EDT.
+     */
+    private void traceScopeAsync(String scope, Supplier<List<MethodTarget>> collector) {
+        appendLog("Collecting methods in " + scope + "...");
+        CompletableFuture.supplyAsync(collector, targetExecutor).whenComplete((targets, error) -> guiContext.uiRun(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showError("Failed to collect methods in " + scope + ": " + cause.getMessage());
+                return;
+            }
+            traceScope(scope, targets);
+        }));
+    }
+
+    /**
+     * Methods of every class (inner classes included) in {@code pkg} and its sub-packages.
+     */
+    private List<MethodTarget> collectPackageTargets(String pkg) {
+        List<MethodTarget> targets = new ArrayList<>();
+        if (decompiler == null || pkg == null || pkg.isEmpty()) {
+            return targets;
+        }
+        String prefix = pkg + ".";
+        for (JavaClass cls : decompiler.getClassesWithInners()) {
+            String raw = cls.getRawName();
+            String alias = cls.getFullName();
+            if ((raw != null && raw.startsWith(prefix)) || (alias != null && alias.startsWith(prefix))) {
+                targets.addAll(MethodResolver.fromJavaClass(cls));
+            }
+        }
+        return targets;
+    }
+
+    private void traceScope(String scope, List<MethodTarget> targets) {
+        if (targets == null || targets.isEmpty()) {
+            showWarning("No hookable methods found in " + scope + ".");
+            return;
+        }
+        String pkg = PackageNameResolver.resolvePackageName(decompiler);
+        if (pkg != null && !pkg.trim().isEmpty()) {
+            lastSessionConfig.setTargetPackage(pkg);
+        }
+        HookRecord record = hooks.get(scope);
+        HookSpec existing = hookSpecs.get(scope);
+        ScriptOptions initialOptions = existing != null ? existing.getOptions() : lastScriptOptions;
+        FridaSessionConfig fixedConfig = activeSessionConfig != null ? activeSessionConfig : lastSessionConfig;
+        FridaConfigDialog dialog = new FridaConfigDialog(guiContext.getMainFrame(), fridaController, null, pkg,
+                false, lastSessionConfig, initialOptions, null,
+                pluginOptions.getTemplateName(), pluginOptions.getTemplateContent(), pluginOptions.isTemplateAppend(),
+                pluginOptions.getTemplatePosition(),
+                fixedConfig, false, false, false);
+        dialog.setVisible(true);
+        if (!dialog.isConfirmed()) {
+            return;
+        }
+        lastSessionConfig = dialog.getSessionConfig();
+        lastScriptOptions = dialog.getScriptOptions();
+        pluginOptions.updateFrom(lastSessionConfig, lastScriptOptions,
+                dialog.isTemplateAppend(), dialog.getTemplateName(), dialog.getTemplateContent());
+        HookSpec spec = new HookSpec(scope, targets, lastScriptOptions, scope);
+        if (record == null) {
+            record = new HookRecord(scope, bulkDisplay(spec), null);
+            hooks.put(scope, record);
+        } else {
+            appendLog("Updating hook: " + record.getDisplay());
+            hooks.put(scope, copyRecord(record, bulkDisplay(spec)));
+        }
+        hookSpecs.put(scope, spec);
+        appendLog("Tracing " + targets.size() + " method(s) in " + scope);
+        applyHookChange(fixedConfig);
+    }
+
+    private static String bulkDisplay(HookSpec spec) {
+        return spec.getScope() + " (" + spec.getTargets().size() + " methods)";
+    }
+
+    private static HookRecord copyRecord(HookRecord record, String display) {
+        HookRecord copy = new HookRecord(record.getKey(), display, record.getNodeRef());
+        copy.setActive(record.isActive());
+        return copy;
+    }
+
+    private JavaClass resolveClassForPopup(ICodeNodeRef ref) {
+        if (decompiler == null || ref == null) {
+            return null;
+        }
+        JavaNode node = decompiler.getJavaNodeByRef(ref);
+        if (node instanceof JavaClass) {
+            return (JavaClass) node;
+        }
+        if (node instanceof JavaMethod) {
+            return ((JavaMethod) node).getDeclaringClass();
+        }
+        return null;
+    }
+
     private MethodTarget resolveMethod(ICodeNodeRef ref) {
         MethodTarget target = MethodResolver.resolve(decompiler, ref);
         if (target != null) {
@@ -364,11 +612,20 @@ public class FridaTracePlugin implements JadxPlugin {
                 }
             }
         }
-        return resolveMethodFromEditor();
+        return null;
     }
 
-    private MethodTarget resolveMethodFromEditor() {
-        if (guiContext == null) {
+    /**
+     * Editor fallback for {@link #resolveMethod}: the caret's resolution from {@link CaretMethodResolver},
+     * usually already prefetched while the caret moved; null when no code view is selected.
+     */
+    private CompletableFuture<CaretMethodResolver.Resolution> resolveMethodAtCaret() {
+        CaretContext caret = getCaretContext();
+        return caret == null ? null : caretResolver.resolve(caret.codeInfo, caret.javaClass, caret.offset);
+    }
+
+    private CaretContext getCaretContext() {
+        if (guiContext == null || caretResolver == null) {
             return null;
         }
         JFrame frame = guiContext.getMainFrame();
@@ -376,7 +633,7 @@ public class FridaTracePlugin implements JadxPlugin {
             return null;
         }
         TabbedPane tabs = ((MainWindow) frame).getTabbedPane();
-        ContentPanel panel = tabs.getSelectedContentPanel();
+        ContentPanel panel = tabs == null ? null : tabs.getSelectedContentPanel();
         if (panel == null) {
             return null;
         }
@@ -385,143 +642,52 @@ public class FridaTracePlugin implements JadxPlugin {
             return null;
         }
         Integer offset = getCaretPosition(area);
-        if (offset == null) {
-            return null;
-        }
-        ICodeInfo codeInfo = getCodeInfo(area);
+        ICodeInfo codeInfo = offset == null ? null : getCodeInfo(area);
         if (codeInfo == null || !codeInfo.hasMetadata()) {
             return null;
         }
-        ICodeMetadata metadata = codeInfo.getCodeMetadata();
-        if (metadata == null) {
-            return null;
-        }
-        ICodeNodeRef nodeRef = null;
-        ICodeAnnotation ann = metadata.searchUp(offset, ICodeAnnotation.AnnType.METHOD);
-        nodeRef = extractNodeRef(ann);
-        if (nodeRef == null) {
-            ann = metadata.searchUp(offset, ICodeAnnotation.AnnType.DECLARATION);
-            nodeRef = extractNodeRef(ann);
-        }
-        MethodTarget resolved = null;
-        if (nodeRef != null) {
-            resolved = MethodResolver.resolve(decompiler, nodeRef);
-        }
-        if (resolved == null) {
-            nodeRef = findNearestMethodRef(metadata, area, offset);
-            if (nodeRef != null) {
-                resolved = MethodResolver.resolve(decompiler, nodeRef);
-            }
-        }
-        if (resolved == null) {
-            resolved = resolveLambdaFromContext(panel, area, codeInfo, offset);
-        }
-        return resolved;
+        return new CaretContext(area, codeInfo, getJavaClass(panel), offset);
     }
 
-    private ICodeNodeRef extractNodeRef(ICodeAnnotation ann) {
-        if (ann == null) {
-            return null;
-        }
-        if (ann instanceof NodeDeclareRef) {
-            return ((NodeDeclareRef) ann).getNode();
-        }
-        if (ann instanceof ICodeNodeRef) {
-            return (ICodeNodeRef) ann;
+    /**
+     * Starts resolving the caret's method shortly after the caret of the selected code view stops
+     * moving, so the popup action finds it cached.
+     */
+    private void watchCaret() {
+        CaretContext caret = getCaretContext();
+        if (caret == null || !(caret.area instanceof JTextComponent) || caretWatched.containsKey(caret.area)) {
+            return;
         }
-        return null;
+        caretWatched.put(caret.area, Boolean.TRUE);
+        ((JTextComponent) caret.area).addCaretListener(e -> caretPrefetchTimer.restart());
+        caretPrefetchTimer.restart();
     }
 
-    private ICodeNodeRef findNearestMethodRef(ICodeMetadata metadata, Object area, int offset) {
-        if (metadata == null) {
-            return null;
-        }
-        Map<Integer, ICodeAnnotation> map = metadata.getAsMap();
-        if (map == null || map.isEmpty()) {
-            return null;
-        }
-        Integer caretLine = getLineOfOffset(area, offset);
-        ICodeNodeRef best = null;
-        int bestDistance = Integer.MAX_VALUE;
-        for (Map.Entry<Integer, ICodeAnnotation> entry : map.entrySet()) {
-            ICodeAnnotation ann = entry.getValue();
-            if (ann == null) {
-                continue;
-            }
-            ICodeAnnotation.AnnType type = ann.getAnnType();
-            if (type != ICodeAnnotation.AnnType.METHOD && type != ICodeAnnotation.AnnType.DECLARATION) {
-                continue;
-            }
-            ICodeNodeRef ref = extractNodeRef(ann);
-            if (ref == null) {
-                continue;
-            }
-            if (MethodResolver.resolve(decompiler, ref) == null) {
-                continue;
-            }
-            if (caretLine != null) {
-                Integer line = getLineOfOffset(area, entry.getKey());
-                if (line != null && line.equals(caretLine)) {
-                    return ref;
-                }
-            }
-            int distance = Math.abs(entry.getKey() - offset);
-            if (distance < bestDistance) {
-                bestDistance = distance;
-                best = ref;
-            }
-        }
-        if (bestDistance > 3000) {
-            return null;
-        }
-        return best;
+    private javax.swing.Timer createCaretPrefetchTimer() {
+        javax.swing.Timer timer = new javax.swing.Timer(CARET_PREFETCH_DELAY_MS, e -> prefetchCaretMethod());
+        timer.setRepeats(false);
+        return timer;
     }
 
-    private MethodTarget resolveLambdaFromContext(ContentPanel panel, Object area, ICodeInfo codeInfo, int offset) {
-        if (panel == null || codeInfo == null) {
-            return null;
-        }
-        String lineText = getLineAtOffset(codeInfo, area, offset);
-        if (lineText == null) {
-            return null;
-        }
-        String trimmed = lineText.trim();
-        if (!(trimmed.contains("->") || trimmed.contains("lambda$") || trimmed.contains("Lambda"))) {
-            return null;
+    private void prefetchCaretMethod() {
+        CaretContext caret = getCaretContext();
+        if (caret != null) {
+            caretResolver.resolve(caret.codeInfo, caret.javaClass, caret.offset);
         }
-        JavaClass javaClass = getJavaClass(panel);
-        if (javaClass == null) {
-            return null;
-        }
-        List<JavaMethod> lambdaMethods = new ArrayList<>();
-        for (JavaMethod method : javaClass.getMethods()) {
-            if (method == null) {
-                continue;
-            }
-            String name = method.getName();
-            if (name == null) {
-                continue;
-            }
-            if (name.contains("lambda$") || name.contains("$lambda$") || name.startsWith("lambda$")) {
-                lambdaMethods.add(method);
-            }
-        }
-        if (lambdaMethods.isEmpty()) {
+    }
+
+    /**
+     * The single target of {@code resolution}, asking the user when the caret sits on a lambda and the
+     * class has several lambda methods. Runs on the EDT.
+     */
+    private MethodTarget chooseTarget(CaretMethodResolver.Resolution resolution) {
+        if (resolution == null || resolution.isEmpty()) {
             return null;
         }
-        if (lambdaMethods.size() == 1) {
-            return MethodResolver.fromJavaMethod(lambdaMethods.get(0));
-        }
-        List<MethodTarget> targets = new ArrayList<>();
-        for (JavaMethod method : lambdaMethods) {
-            MethodTarget target = MethodResolver.fromJavaMethod(method);
-            if (target != null) {
-                targets.add(target);
-            }
-        }
-        if (targets.isEmpty()) {
-            return null;
+        if (resolution.getTarget() != null) {
+            return resolution.getTarget();
         }
+        List<MethodTarget> targets = resolution.getLambdaCandidates();
         String[] options = new String[targets.size()];
         for (int i = 0; i < targets.size(); i++) {
             options[i] = targets.get(i).getDisplaySignature();
@@ -540,27 +706,18 @@ public class FridaTracePlugin implements JadxPlugin {
         return null;
     }
 
-    private String getLineAtOffset(ICodeInfo codeInfo, Object area, int offset) {
-        if (codeInfo == null) {
-            return null;
-        }
-        String code = codeInfo.getCodeStr();
-        if (code == null) {
-            return null;
-        }
-        Integer line = getLineOfOffset(area, offset);
-        if (line == null) {
-            return null;
-        }
-        String[] lines = code.split("\\R", -1);
-        int idx = line;
-        if (idx < 0 || idx >= lines.length) {
-            idx = line - 1;
-        }
-        if (idx < 0 || idx >= lines.length) {
-            return null;
+    private static final class CaretContext {
+        final Object area;
+        final ICodeInfo codeInfo;
+        final JavaClass javaClass;
+        final int offset;
+
+        CaretContext(Object area, ICodeInfo codeInfo, JavaClass javaClass, int offset) {
+            this.area = area;
+            this.codeInfo = codeInfo;
+            this.javaClass = javaClass;
+            this.offset = offset;
         }
-        return lines[idx];
     }
 
     private JavaClass getJavaClass(ContentPanel panel) {
@@ -582,21 +739,7 @@ public class FridaTracePlugin implements JadxPlugin {
     }
 
     private Integer getCaretPosition(Object area) {
-        if (area == null) {
-            return null;
-        }
-        java.lang.reflect.Method method = lookupMethod(area.getClass(), "getCaretPosition");
-        if (method == null) {
-            return null;
-        }
-        try {
-            Object out = method.invoke(area);
-            if (out instanceof Integer) {
-                return (Integer) out;
-            }
-        } catch (Exception ignored) {
-        }
-        return null;
+        return area == null ? null : areaAdapter(area).getCaretPosition(area);
     }
 
     private void appendLog(String line) {
@@ -657,15 +800,15 @@ public class FridaTracePlugin implements JadxPlugin {
 
     private void applyCustomScriptsFromConsole(String paths) {
         customScriptPaths = paths == null ? "" : paths;
-        String script = buildCombinedScript();
+        HookScript script = buildHookScript();
         if (consolePanel != null) {
-            consolePanel.setScript(script);
+            consolePanel.setScript(script.getSource());
         } else {
-            pendingScript = script;
+            pendingScript = script.getSource();
         }
         if (fridaController.isRunning()) {
             try {
-                fridaController.updateSessionScript(script, this::appendLog);
+                fridaController.updateHooks(script, this::appendLog);
             } catch (IOException e) {
                 appendLog("Failed to update Jarida session: " + e.getMessage());
             }
@@ -688,6 +831,7 @@ public class FridaTracePlugin implements JadxPlugin {
         String adb = cfg.getAdbPath();
         String frida = cfg.getFridaPath();
         String fridaPs = cfg.getFridaPsPath();
+        String python = cfg.getPythonPath();
         try {
             if (adb != null && !adb.trim().isEmpty()) {
                 PREFS.put("path.adb", adb.trim());
@@ -701,6 +845,10 @@ public class FridaTracePlugin implements JadxPlugin {
                 PREFS.put("path.fridaPs", fridaPs.trim());
                 lastSessionConfig.setFridaPsPath(fridaPs.trim());
             }
+            if (python != null && !python.trim().isEmpty()) {
+                PREFS.put("path.python", python.trim());
+                lastSessionConfig.setPythonPath(python.trim());
+            }
         } catch (Exception ignored) {
         }
         pluginOptions.updateFrom(lastSessionConfig, lastScriptOptions,
@@ -712,6 +860,7 @@ public class FridaTracePlugin implements JadxPlugin {
             String adb = PREFS.get("path.adb", null);
             String frida = PREFS.get("path.frida", null);
             String fridaPs = PREFS.get("path.fridaPs", null);
+            String python = PREFS.get("path.python", null);
             String savedScripts = PREFS.get("customScripts", null);
             if (adb != null && !adb.trim().isEmpty()) {
                 lastSessionConfig.setAdbPath(adb.trim());
@@ -722,6 +871,9 @@ public class FridaTracePlugin implements JadxPlugin {
             if (fridaPs != null && !fridaPs.trim().isEmpty()) {
                 lastSessionConfig.setFridaPsPath(fridaPs.trim());
             }
+            if (python != null && !python.trim().isEmpty()) {
+                lastSessionConfig.setPythonPath(python.trim());
+            }
             if (savedScripts != null) {
                 customScriptPaths = savedScripts;
             }
@@ -747,14 +899,14 @@ public class FridaTracePlugin implements JadxPlugin {
             return;
         }
         try {
-            String script = buildCombinedScript();
+            HookScript script = buildHookScript();
             fridaController.startWithScript(cfg, script, this::appendLog);
             activeSessionConfig = cfg;
             if (consolePanel != null) {
-                consolePanel.setScript(script);
+                consolePanel.setScript(script.getSource());
                 consolePanel.setSessionActive(true);
             } else {
-                pendingScript = script;
+                pendingScript = script.getSource();
             }
         } catch (Exception e) {
             showError("Failed to start Jarida session: " + e.getMessage());
@@ -784,14 +936,81 @@ public class FridaTracePlugin implements JadxPlugin {
         if (consolePanel != null) {
             consolePanel.updateHooks(new java.util.ArrayList<>(hooks.values()));
         }
+        refreshCallSites(false);
         highlightRetries = 0;
         updateHighlights();
     }
 
+    /**
+     * Schedules a background scan for the call sites of hooks that are not indexed yet (or of every
+     * hook when {@code rescan} is set) and shows what is already known.
+     */
+    private void refreshCallSites(boolean rescan) {
+        if (callSiteIndex == null) {
+            return;
+        }
+        Map<String, MethodTarget> targets = new java.util.LinkedHashMap<>();
+        for (HookRecord record : hooks.values()) {
+            HookSpec spec = hookSpecs.get(record.getKey());
+            if (spec == null) {
+                continue;
+            }
+            if (spec.isBulk()) {
+                for (MethodTarget target : spec.getTargets()) {
+                    targets.putIfAbsent(target.getDisplaySignature(), target);
+                }
+            } else if (spec.getTarget() != null) {
+                targets.put(record.getKey(), spec.getTarget());
+            }
+        }
+        callSiteIndex.update(targets, rescan);
+        if (consolePanel != null) {
+            consolePanel.updateCallSites(callSiteIndex.getAllSites(), callSiteIndex.isScanning());
+        }
+    }
+
+    private void onCallSitesIndexed() {
+        if (guiContext == null) {
+            return;
+        }
+        guiContext.uiRun(() -> {
+            List<CallSite> sites = callSiteIndex.getAllSites();
+            if (consolePanel != null) {
+                consolePanel.updateCallSites(sites, callSiteIndex.isScanning());
+            }
+            if (stateManager != null && guiContext.getMainFrame() != null) {
+                stateManager.saveCallSites(guiContext.getMainFrame(), sites, callSiteIndex.getValidityKey());
+            }
+            updateHighlights();
+        });
+    }
+
     private MethodTarget resolveMethodForPopup(ICodeNodeRef ref) {
         return MethodResolver.resolve(decompiler, ref);
     }
 
+    /**
+     * Hook actions are offered for a method ref, or whenever a code view has a caret: the action waits
+     * for the caret's method itself, so they are only hidden once that resolution is known to be empty.
+     * Starts the resolution (a cached future) if the caret prefetch has not yet.
+     */
+    private boolean canHookFromPopup(ICodeNodeRef ref) {
+        if (resolveMethodForPopup(ref) != null) {
+            return true;
+        }
+        CaretContext caret = getCaretContext();
+        if (caret == null) {
+            return false;
+        }
+        CompletableFuture<CaretMethodResolver.Resolution> pending =
+                caretResolver.resolve(caret.codeInfo, caret.javaClass, caret.offset);
+        if (!pending.isDone() || pending.isCompletedExceptionally()) {
+            return true;
+        }
+        CaretMethodResolver.Resolution resolution = pending.join();
+        return resolution != null && !resolution.isEmpty();
+    }
+
     private boolean isMethodTraced(ICodeNodeRef ref) {
         MethodTarget target = resolveMethodForPopup(ref);
         if (target == null) {
@@ -834,7 +1053,7 @@ public class FridaTracePlugin implements JadxPlugin {
             return;
         }
         MethodTarget target = spec.getTarget();
-        if (target == null) {
+        if (target == null && !spec.isBulk()) {
             appendLog("Hook target not available.");
             return;
         }
@@ -850,7 +1069,7 @@ public class FridaTracePlugin implements JadxPlugin {
         FridaConfigDialog dialog = new FridaConfigDialog(guiContext.getMainFrame(), fridaController, target, pkg,
                 patchDefault, lastSessionConfig, spec.getOptions(), initialRule,
                 spec.getTemplateName(), spec.getTemplateContent(), spec.isTemplateEnabled(),
-                templatePosition, fixedConfig, false, true, false);
+                templatePosition, fixedConfig, false, !spec.isBulk(), false);
         dialog.setVisible(true);
         if (!dialog.isConfirmed()) {
             return;
@@ -862,20 +1081,22 @@ public class FridaTracePlugin implements JadxPlugin {
                 dialog.isTemplateAppend(), dialog.getTemplateName(), dialog.getTemplateContent());
         pluginOptions.setTemplatePosition(dialog.getTemplatePosition());
 
-        HookSpec updated = new HookSpec(target, lastScriptOptions, dialog.getReturnPatchRule(),
+        HookSpec updated = spec.isBulk()
+                ? new HookSpec(spec.getScope(), spec.getTargets(), lastScriptOptions, record.getKey())
+                : new HookSpec(target, lastScriptOptions, dialog.getReturnPatchRule(),
                 dialog.getExtraScript(), dialog.getTemplatePosition(), record.getKey(),
                 dialog.isTemplateAppend(), dialog.getTemplateName(), dialog.getTemplateContent());
         hookSpecs.put(record.getKey(), updated);
 
-        String script = buildCombinedScript();
+        HookScript script = buildHookScript();
         if (consolePanel != null) {
-            consolePanel.setScript(script);
+            consolePanel.setScript(script.getSource());
         } else {
-            pendingScript = script;
+            pendingScript = script.getSource();
         }
         if (fridaController.isRunning()) {
             try {
-                fridaController.updateSessionScript(script, this::appendLog);
+                fridaController.updateHooks(script, this::appendLog);
             } catch (Exception e) {
                 appendLog("Failed to reload hooks: " + e.getMessage());
             }
@@ -913,11 +1134,59 @@ public class FridaTracePlugin implements JadxPlugin {
         });
     }
 
+    private void jumpToFrame(StackDictionary.Frame frame) {
+        if (frame == null || guiContext == null) {
+            return;
+        }
+        openMethod(frame.getClassName(), frame.getMethodName(), frame.toString());
+    }
+
+    private void jumpToCallSite(CallSite site) {
+        if (site == null || guiContext == null) {
+            return;
+        }
+        String className = lookupJavaClass(site.getCallerClass()) != null ? site.getCallerClass() : site.getClassName();
+        openMethod(className, site.getCallerName(), site.getCallerClass() + ":" + (site.getLine() + 1));
+    }
+
+    /**
+     * Opens the first method named {@code methodName} in {@code className}, or the class itself.
+     */
+    private void openMethod(String className, String methodName, String label) {
+        JavaClass cls = lookupJavaClass(className);
+        if (cls == null) {
+            showWarning("Class " + className + " is not part of the decompiled code.");
+            return;
+        }
+        ICodeNodeRef ref = cls.getCodeNodeRef();
+        for (JavaMethod method : cls.getMethods()) {
+            try {
+                if (method != null && methodName != null
+                        && methodName.equals(method.getMethodNode().getMethodInfo().getName())) {
+                    ref = method.getMethodNode();
+                    break;
+                }
+            } catch (Exception ignored) {
+                // keep the class reference
+            }
+        }
+        final ICodeNodeRef finalRef = ref;
+        guiContext.uiRun(() -> {
+            if (!guiContext.open(finalRef)) {
+                showWarning("Unable to open " + label + " in Jadx.");
+            }
+        });
+    }
+
     private ICodeNodeRef resolveNodeRefFromSpec(HookRecord record) {
         if (record == null || decompiler == null) {
             return null;
         }
         HookSpec spec = hookSpecs.get(record.getKey());
+        if (spec != null && spec.isBulk() && !spec.getTargets().isEmpty()) {
+            JavaClass cls = lookupJavaClass(spec.getTargets().get(0).getClassName());
+            return cls != null ? cls.getCodeNodeRef() : null;
+        }
         if (spec == null || spec.getTarget() == null) {
             return null;
         }
@@ -978,17 +1247,17 @@ public class FridaTracePlugin implements JadxPlugin {
     }
 
     private void reloadCombinedHooks() {
-        String script = buildCombinedScript();
+        HookScript script = buildHookScript();
         if (consolePanel != null) {
-            consolePanel.setScript(script);
+            consolePanel.setScript(script.getSource());
         } else {
-            pendingScript = script;
+            pendingScript = script.getSource();
         }
         if (!fridaController.isRunning()) {
             return;
         }
         try {
-            fridaController.updateSessionScript(script, this::appendLog);
+            fridaController.updateHooks(script, this::appendLog);
         } catch (Exception e) {
             appendLog("Failed to reload hooks: " + e.getMessage());
         }
@@ -1005,7 +1274,7 @@ public class FridaTracePlugin implements JadxPlugin {
         return active;
     }
 
-    private String buildCombinedScript() {
+    private HookScript buildHookScript() {
         java.util.List<String> globals = new java.util.ArrayList<>();
         java.util.List<CustomScriptEntry> scripts = parseCustomScriptPaths(customScriptPaths);
         for (CustomScriptEntry entry : scripts) {
@@ -1022,7 +1291,7 @@ public class FridaTracePlugin implements JadxPlugin {
                 }
             }
         }
-        return HookScriptGenerator.generateCombined(getActiveSpecs(), globals);
+        return HookScriptGenerator.generateScript(getActiveSpecs(), globals, lastScriptOptions);
     }
 
     private static final class CustomScriptEntry {
@@ -1113,18 +1382,27 @@ public class FridaTracePlugin implements JadxPlugin {
             if (existing == tabs) {
                 return;
             }
-            tabs.addChangeListener(e -> updateHighlights());
+            tabs.addChangeListener(e -> {
+                updateHighlights();
+                watchCaret();
+            });
             highlightListenerOwner = new java.lang.ref.WeakReference<>(tabs);
+            watchCaret();
         });
     }
 
+    /**
+     * Recomputes hook highlights for the open code tabs. The EDT only snapshots the tabs and hooks;
+     * line sets come from {@link HookHighlightIndex} on a background thread, and only the resulting
+     * per-tab differences are applied back on the EDT. Tabs whose class neither declares nor uses a
+     * changed hook are left alone.
+     */
     private void updateHighlights() {
         if (guiContext == null) {
             return;
         }
         Runnable task = () -> {
             installHighlightListener();
-            clearAllHighlights();
             JFrame frame = guiContext.getMainFrame();
             if (!(frame instanceof MainWindow)) {
                 return;
@@ -1137,24 +1415,37 @@ public class FridaTracePlugin implements JadxPlugin {
             if (panels == null) {
                 return;
             }
-            Set<ICodeNodeRef> activeRefs = new HashSet<>();
-            Map<String, HookRecord> activeBySignature = new java.util.HashMap<>();
+            Set<String> signatures = new HashSet<>();
+            Set<String> unresolved = new HashSet<>();
             for (HookRecord record : hooks.values()) {
                 if (!record.isActive()) {
                     continue;
                 }
-                if (record.getNodeRef() != null) {
-                    activeRefs.add(record.getNodeRef());
+                if (record.getNodeRef() == null) {
+                    unresolved.add(record.getKey());
                 }
-                activeBySignature.put(record.getKey(), record);
+                HookSpec spec = hookSpecs.get(record.getKey());
+                if (spec != null && spec.isBulk()) {
+                    // the record's node is the class; its methods are matched by signature
+                    for (MethodTarget target : spec.getTargets()) {
+                        signatures.add(target.getDisplaySignature());
+                    }
+                    continue;
+                }
+                signatures.add(record.getKey());
             }
-            if (activeBySignature.isEmpty()) {
+            long generation = ++highlightGeneration;
+            if (signatures.isEmpty()) {
+                clearAllHighlights();
                 highlightRetries = 0;
                 return;
             }
             boolean highlightAllInstances = pluginOptions != null && pluginOptions.isHighlightAllInstances();
+            Color highlight = getHookHighlightColor();
             boolean metadataPending = false;
             boolean anyPanelSeen = false;
+            Set<Object> openAreas = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            List<HighlightJob> jobs = new ArrayList<>();
             for (ContentPanel panel : panels) {
                 Object area = getCurrentCodeArea(panel);
                 if (area == null) {
@@ -1162,74 +1453,67 @@ public class FridaTracePlugin implements JadxPlugin {
                 }
                 anyPanelSeen = true;
                 ICodeInfo codeInfo = getCodeInfo(area);
-                if (codeInfo == null || !codeInfo.hasMetadata()) {
-                    metadataPending = true;
-                    continue;
-                }
-                ICodeMetadata metadata = codeInfo.getCodeMetadata();
-                if (metadata == null) {
+                if (codeInfo == null || !codeInfo.hasMetadata() || codeInfo.getCodeMetadata() == null) {
                     metadataPending = true;
                     continue;
                 }
-                Map<Integer, ICodeAnnotation> map = metadata.getAsMap();
-                if (map == null || map.isEmpty()) {
-                    continue;
-                }
-                Color highlight = getHookHighlightColor();
-                List<Object> tags = new ArrayList<>();
-                Set<Integer> highlightedLines = new HashSet<>();
-                Map<ICodeNodeRef, Boolean> resolvedCache = new java.util.HashMap<>();
-                for (Map.Entry<Integer, ICodeAnnotation> entry : map.entrySet()) {
-                    ICodeAnnotation ann = entry.getValue();
-                    if (ann == null) {
-                        continue;
-                    }
-                    ICodeNodeRef nodeRef = extractNodeRef(ann);
-                    if (nodeRef == null) {
-                        continue;
-                    }
-                    boolean isDeclaration = ann instanceof NodeDeclareRef;
-                    if (!highlightAllInstances && !isDeclaration) {
-                        continue;
-                    }
-                    boolean matches = activeRefs.contains(nodeRef);
-                    if (!matches) {
-                        Boolean cached = resolvedCache.get(nodeRef);
-                        if (Boolean.TRUE.equals(cached)) {
-                            matches = true;
-                        } else if (cached == null) {
-                            MethodTarget resolved = MethodResolver.resolve(decompiler, nodeRef);
-                            boolean matched = false;
-                            if (resolved != null) {
-                                HookRecord pending = activeBySignature.get(resolved.getDisplaySignature());
-                                if (pending != null) {
-                                    if (pending.getNodeRef() != nodeRef) {
-                                        pending.setNodeRef(nodeRef);
-                                    }
-                                    activeRefs.add(nodeRef);
-                                    matched = true;
-                                }
-                            }
-                            resolvedCache.put(nodeRef, matched);
-                            matches = matched;
+                openAreas.add(area);
+                AppliedHighlights applied = appliedHighlights.get(area);
+                boolean full = applied == null || applied.codeInfo != codeInfo
+                        || applied.allInstances != highlightAllInstances || !applied.color.equals(highlight);
+                Set<String> changed = new HashSet<>();
+                if (!full) {
+                    for (String signature : signatures) {
+                        if (!applied.signatures.contains(signature)) {
+                            changed.add(signature);
                         }
                     }
-                    if (!matches) {
-                        continue;
-                    }
-                    Integer line = getLineOfOffset(area, entry.getKey());
-                    if (line == null || !highlightedLines.add(line)) {
-                        continue;
-                    }
-                    Object tag = addLineHighlight(area, line, highlight);
-                    if (tag != null) {
-                        tags.add(tag);
+                    for (String signature : applied.signatures) {
+                        if (!signatures.contains(signature)) {
+                            changed.add(signature);
+                        }
                     }
                 }
-                if (!tags.isEmpty()) {
-                    highlightTags.put(area, tags);
+                jobs.add(new HighlightJob(area, codeInfo, getTopClassName(panel), full, changed));
+            }
+            for (Object area : new ArrayList<>(appliedHighlights.keySet())) {
+                if (area != null && !openAreas.contains(area)) {
+                    removeHighlights(area, appliedHighlights.remove(area));
                 }
             }
+            if (!jobs.isEmpty()) {
+                HookHighlightIndex index = highlightIndex;
+                CallSiteIndex sites = callSiteIndex;
+                highlightExecutor.execute(() -> {
+                    Map<String, ICodeNodeRef> declared = new java.util.HashMap<>();
+                    boolean indexed = sites != null && sites.covers(signatures);
+                    for (HighlightJob job : jobs) {
+                        Set<String> refsWanted = signatures;
+                        if (indexed && job.className != null) {
+                            // lines come from the project-wide call site index; the metadata is only
+                            // scanned when this class declares a hook whose node ref is still missing
+                            job.lines = sites.lines(job.className, signatures, highlightAllInstances);
+                            refsWanted = sites.declaredIn(job.className, unresolved);
+                            if (refsWanted.isEmpty()) {
+                                continue;
+                            }
+                        }
+                        HookHighlightIndex.ClassIndex classIndex = index.get(job.codeInfo);
+                        if (job.lines == null
+                                && (job.full || classIndex.mentionsAny(job.changed, highlightAllInstances))) {
+                            job.lines = classIndex.lines(signatures, highlightAllInstances);
+                        }
+                        for (String signature : refsWanted) {
+                            ICodeNodeRef ref = classIndex.getDeclaredRef(signature);
+                            if (ref != null) {
+                                declared.putIfAbsent(signature, ref);
+                            }
+                        }
+                    }
+                    SwingUtilities.invokeLater(() -> applyHighlights(generation, jobs, signatures,
+                            highlightAllInstances, highlight, declared));
+                });
+            }
             if ((metadataPending || !anyPanelSeen) && highlightRetries < MAX_HIGHLIGHT_RETRIES) {
                 highlightRetries++;
                 javax.swing.Timer timer = new javax.swing.Timer(HIGHLIGHT_RETRY_DELAY_MS, e -> updateHighlights());
@@ -1246,132 +1530,156 @@ public class FridaTracePlugin implements JadxPlugin {
         }
     }
 
-    private void clearAllHighlights() {
-        if (highlightTags.isEmpty()) {
+    private void applyHighlights(long generation, List<HighlightJob> jobs, Set<String> signatures,
+                                 boolean allInstances, Color color, Map<String, ICodeNodeRef> declared) {
+        if (generation != highlightGeneration) {
+            // a newer update is in flight and will diff against whatever is applied now
             return;
         }
-        Map<Object, List<Object>> snapshot = new java.util.HashMap<>(highlightTags);
-        highlightTags.clear();
-        for (Map.Entry<Object, List<Object>> entry : snapshot.entrySet()) {
-            Object area = entry.getKey();
-            List<Object> tags = entry.getValue();
-            if (area == null || tags == null) {
+        for (Map.Entry<String, ICodeNodeRef> entry : declared.entrySet()) {
+            HookRecord record = hooks.get(entry.getKey());
+            if (record != null && record.getNodeRef() == null) {
+                record.setNodeRef(entry.getValue());
+            }
+        }
+        for (HighlightJob job : jobs) {
+            AppliedHighlights applied = appliedHighlights.get(job.area);
+            if (job.full && applied != null) {
+                removeHighlights(job.area, applied);
+                applied = null;
+            }
+            if (applied == null) {
+                applied = new AppliedHighlights(job.codeInfo, allInstances, color);
+                appliedHighlights.put(job.area, applied);
+            }
+            applied.signatures = signatures;
+            if (job.lines == null) {
                 continue;
             }
-            for (Object tag : tags) {
-                removeLineHighlight(area, tag);
+            java.util.Iterator<Map.Entry<Integer, Object>> it = applied.tags.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Object> entry = it.next();
+                if (!job.lines.contains(entry.getKey())) {
+                    removeLineHighlight(job.area, entry.getValue());
+                    it.remove();
+                }
+            }
+            for (Integer line : job.lines) {
+                if (!applied.tags.containsKey(line)) {
+                    Object tag = addLineHighlight(job.area, line, color);
+                    if (tag != null) {
+                        applied.tags.put(line, tag);
+                    }
+                }
             }
         }
     }
 
-    private final java.util.concurrent.ConcurrentMap<String, java.lang.reflect.Method> reflectionCache = new java.util.concurrent.ConcurrentHashMap<>();
-    private final java.util.Set<String> reflectionMissReported = java.util.Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
+    private void clearAllHighlights() {
+        if (appliedHighlights.isEmpty()) {
+            return;
+        }
+        Map<Object, AppliedHighlights> snapshot = new java.util.HashMap<>(appliedHighlights);
+        appliedHighlights.clear();
+        for (Map.Entry<Object, AppliedHighlights> entry : snapshot.entrySet()) {
+            removeHighlights(entry.getKey(), entry.getValue());
+        }
+    }
 
-    private java.lang.reflect.Method lookupMethod(Class<?> cls, String name, Class<?>... params) {
-        return lookupMethod(cls, name, true, params);
+    private void removeHighlights(Object area, AppliedHighlights applied) {
+        if (area == null || applied == null) {
+            return;
+        }
+        for (Object tag : applied.tags.values()) {
+            removeLineHighlight(area, tag);
+        }
+        applied.tags.clear();
     }
 
-    private java.lang.reflect.Method lookupMethod(Class<?> cls, String name, boolean reportMissing, Class<?>... params) {
-        if (cls == null) {
-            return null;
+    /**
+     * Highlights currently shown in one code area, and the inputs they were computed from.
+     */
+    private static final class AppliedHighlights {
+        final ICodeInfo codeInfo;
+        final boolean allInstances;
+        final Color color;
+        final Map<Integer, Object> tags = new java.util.HashMap<>();
+        Set<String> signatures = java.util.Collections.emptySet();
+
+        AppliedHighlights(ICodeInfo codeInfo, boolean allInstances, Color color) {
+            this.codeInfo = codeInfo;
+            this.allInstances = allInstances;
+            this.color = color;
         }
-        String key = cls.getName() + "#" + name;
-        java.lang.reflect.Method cached = reflectionCache.get(key);
-        if (cached != null) {
-            return cached;
+    }
+
+    /**
+     * One code area to refresh; {@code lines} is filled in the background and stays null when the
+     * area is unaffected by the {@code changed} signatures.
+     */
+    private static final class HighlightJob {
+        final Object area;
+        final ICodeInfo codeInfo;
+        final String className;
+        final boolean full;
+        final Set<String> changed;
+        volatile Set<Integer> lines;
+
+        HighlightJob(Object area, ICodeInfo codeInfo, String className, boolean full, Set<String> changed) {
+            this.area = area;
+            this.codeInfo = codeInfo;
+            this.className = className;
+            this.full = full;
+            this.changed = changed;
         }
-        try {
-            java.lang.reflect.Method m = cls.getMethod(name, params);
-            reflectionCache.put(key, m);
-            return m;
-        } catch (NoSuchMethodException e) {
-            if (reportMissing && reflectionMissReported.add(key)) {
-                appendLog("Jarida: jadx API method missing: " + cls.getSimpleName() + "." + name
-                        + " — highlight/code-area features may be degraded.");
-            }
-            return null;
+    }
+
+    /**
+     * Adapter bound to {@code area}'s class; methods missing in this jadx version are logged once.
+     */
+    private CodeAreaAdapter areaAdapter(Object area) {
+        CodeAreaAdapter adapter = CodeAreaAdapter.of(area);
+        if (adapter.shouldReportMissing()) {
+            appendLog("Jarida: jadx API method(s) missing: " + adapter.getTypeName() + " "
+                    + adapter.getMissing() + " — highlight/code-area features may be degraded.");
         }
+        return adapter;
     }
 
     private Object getCurrentCodeArea(ContentPanel panel) {
-        if (panel == null) {
-            return null;
-        }
         // Not all ContentPanel subclasses (e.g. our own FridaConsolePanel) expose
         // getCurrentCodeArea — absence here is expected, not a jadx API drift signal.
-        java.lang.reflect.Method method = lookupMethod(panel.getClass(), "getCurrentCodeArea", false);
-        if (method == null) {
-            return null;
-        }
-        try {
-            return method.invoke(panel);
-        } catch (Exception ignored) {
-            return null;
-        }
+        return panel == null ? null : CodeAreaAdapter.currentCodeArea(panel);
     }
 
-    private ICodeInfo getCodeInfo(Object area) {
-        if (area == null) {
-            return null;
-        }
-        java.lang.reflect.Method method = lookupMethod(area.getClass(), "getCodeInfo");
-        if (method == null) {
-            return null;
-        }
+    /**
+     * Raw name of the top-level class shown by {@code panel}, or null for other content.
+     */
+    private String getTopClassName(ContentPanel panel) {
         try {
-            Object out = method.invoke(area);
-            if (out instanceof ICodeInfo) {
-                return (ICodeInfo) out;
+            JNode node = panel.getNode();
+            JavaNode javaNode = node != null ? node.getJavaNode() : null;
+            if (javaNode instanceof JavaClass) {
+                JavaClass top = javaNode.getTopParentClass();
+                return (top != null ? top : (JavaClass) javaNode).getRawName();
             }
         } catch (Exception ignored) {
         }
         return null;
     }
 
-    private Integer getLineOfOffset(Object area, int offset) {
-        if (area == null) {
-            return null;
-        }
-        java.lang.reflect.Method method = lookupMethod(area.getClass(), "getLineOfOffset", int.class);
-        if (method == null) {
-            return null;
-        }
-        try {
-            Object out = method.invoke(area, offset);
-            if (out instanceof Integer) {
-                return (Integer) out;
-            }
-        } catch (Exception ignored) {
-        }
-        return null;
+    private ICodeInfo getCodeInfo(Object area) {
+        return area == null ? null : areaAdapter(area).getCodeInfo(area);
     }
 
+
     private Object addLineHighlight(Object area, int line, Color color) {
-        if (area == null) {
-            return null;
-        }
-        java.lang.reflect.Method method = lookupMethod(area.getClass(), "addLineHighlight", int.class, Color.class);
-        if (method == null) {
-            return null;
-        }
-        try {
-            return method.invoke(area, line, color);
-        } catch (Exception ignored) {
-            return null;
-        }
+        return area == null ? null : areaAdapter(area).addLineHighlight(area, line, color);
     }
 
     private void removeLineHighlight(Object area, Object tag) {
-        if (area == null) {
-            return;
-        }
-        java.lang.reflect.Method method = lookupMethod(area.getClass(), "removeLineHighlight", Object.class);
-        if (method == null) {
-            return;
-        }
-        try {
-            method.invoke(area, tag);
-        } catch (Exception ignored) {
+        if (area != null) {
+            areaAdapter(area).removeLineHighlight(area, tag);
         }
     }
 
@@ -1400,6 +1708,8 @@ public class FridaTracePlugin implements JadxPlugin {
             return;
         }
         stateLoaded = true;
+        // a stale index is dropped here and the hooks are scanned again by updateHooksUi
+        callSiteIndex.restore(stateManager.loadCallSites(mainFrame, callSiteIndex.getValidityKey()));
         // Restore custom script paths
         if (state.getCustomScriptPaths() != null && !state.getCustomScriptPaths().isEmpty()) {
             customScriptPaths = state.getCustomScriptPaths();
@@ -1412,7 +1722,7 @@ public class FridaTracePlugin implements JadxPlugin {
             HookSpec spec = entry.getValue();
             hookSpecs.put(hookKey, spec);
             MethodTarget target = spec.getTarget();
-            String display = target != null ? target.getDisplaySignature() : hookKey;
+            String display = spec.isBulk() ? bulkDisplay(spec) : target != null ? target.getDisplaySignature() : hookKey;
             HookRecord record = new HookRecord(hookKey, display, null);
             record.setActive(activeStates.getOrDefault(hookKey, true));
             hooks.put(hookKey, record);
@@ -0,0 +1,174 @@
+package com.jarida.jadxfrida.frida;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps the "extra frida arguments" of a session config, written for the frida CLI, onto attach
+ * parameters of the session bridge. Options without a bridge equivalent are rejected rather than
+ * silently dropped, so {@link #validate(String)} can refuse them when the config is saved.
+ * <p>
+ * Supported: {@code -D/--device}, {@code -U/--usb}, {@code -H/--host}, {@code --certificate},
+ * {@code --origin}, {@code --token}, {@code --keepalive-interval}, {@code --runtime},
+ * {@code --realm}, {@code --stdio} and {@code --kill-on-exit}. {@code -q/--quiet},
+ * {@code --no-pause}, {@code --auto-reload} and {@code --no-auto-reload} are accepted and have no
+ * effect: the bridge has no REPL, always resumes a spawned app once the script is loaded and
+ * replaces the script in place.
+ */
+public final class FridaArgs {
+    private static final Set<String> NO_OPS = new HashSet<>(Arrays.asList(
+            "-q", "--quiet", "--no-pause", "--auto-reload", "--no-auto-reload"));
+    private static final Map<String, String> VALUE_OPTIONS = new LinkedHashMap<>();
+    private static final Map<String, List<String>> CHOICES = new LinkedHashMap<>();
+
+    static {
+        VALUE_OPTIONS.put("-D", "deviceId");
+        VALUE_OPTIONS.put("--device", "deviceId");
+        VALUE_OPTIONS.put("-H", "host");
+        VALUE_OPTIONS.put("--host", "host");
+        VALUE_OPTIONS.put("--certificate", "certificate");
+        VALUE_OPTIONS.put("--origin", "origin");
+        VALUE_OPTIONS.put("--token", "token");
+        VALUE_OPTIONS.put("--keepalive-interval", "keepaliveInterval");
+        VALUE_OPTIONS.put("--runtime", "runtime");
+        VALUE_OPTIONS.put("--realm", "realm");
+        VALUE_OPTIONS.put("--stdio", "stdio");
+        CHOICES.put("runtime", Arrays.asList("qjs", "v8"));
+        CHOICES.put("realm", Arrays.asList("native", "emulated"));
+        CHOICES.put("stdio", Arrays.asList("inherit", "pipe"));
+    }
+
+    private FridaArgs() {
+    }
+
+    /**
+     * Error message for arguments the bridge cannot honour, or null when all are supported.
+     */
+    public static String validate(String extraArgs) {
+        try {
+            toAttachParams(extraArgs);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Attach parameters for {@code extraArgs}; they override the ones derived from the connection
+     * settings ({@code -H} switches to a remote device, {@code -U} back to USB).
+     *
+     * @throws IllegalArgumentException listing every unsupported or malformed argument
+     */
+    public static Map<String, Object> toAttachParams(String extraArgs) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        List<String> args = split(extraArgs);
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            String name = arg;
+            String value = null;
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 0) {
+                name = arg.substring(0, eq);
+                value = arg.substring(eq + 1);
+            }
+            if (NO_OPS.contains(name) && value == null) {
+                continue;
+            }
+            if (name.equals("-U") || name.equals("--usb")) {
+                params.put("mode", "usb");
+                continue;
+            }
+            if (name.equals("--kill-on-exit") && value == null) {
+                params.put("killOnExit", Boolean.TRUE);
+                continue;
+            }
+            String key = VALUE_OPTIONS.get(name);
+            if (key == null) {
+                errors.add(arg);
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 >= args.size()) {
+                    errors.add(arg + " (missing value)");
+                    continue;
+                }
+                value = args.get(++i);
+            }
+            List<String> choices = CHOICES.get(key);
+            if (choices != null && !choices.contains(value)) {
+                errors.add(name + "=" + value + " (expected one of " + String.join(", ", choices) + ")");
+                continue;
+            }
+            if (key.equals("keepaliveInterval")) {
+                try {
+                    params.put(key, Integer.parseInt(value));
+                } catch (NumberFormatException e) {
+                    errors.add(name + "=" + value + " (expected seconds)");
+                }
+                continue;
+            }
+            if (key.equals("host")) {
+                params.put("mode", "remote");
+            }
+            params.put(key, value);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Unsupported frida arguments: " + String.join(" ", errors));
+        }
+        return params;
+    }
+
+    /**
+     * Splits a command line the way a shell would for plain and quoted words.
+     */
+    static List<String> split(String extra) {
+        if (extra == null || extra.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> args = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        char quoteChar = 0;
+        for (int i = 0; i < extra.length(); i++) {
+            char c = extra.charAt(i);
+            if (inQuotes) {
+                if (c == quoteChar) {
+                    inQuotes = false;
+                } else if (c == '\\' && i + 1 < extra.length()) {
+                    char next = extra.charAt(i + 1);
+                    if (next == quoteChar || next == '\\') {
+                        current.append(next);
+                        i++;
+                    } else {
+                        current.append(c);
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else {
+                if (c == '"' || c == '\'') {
+                    inQuotes = true;
+                    quoteChar = c;
+                } else if (Character.isWhitespace(c)) {
+                    if (current.length() > 0) {
+                        args.add(current.toString());
+                        current.setLength(0);
+                    }
+                } else {
+                    current.append(c);
+                }
+            }
+        }
+        if (current.length() > 0) {
+            args.add(current.toString());
+        }
+        return args;
+    }
+}
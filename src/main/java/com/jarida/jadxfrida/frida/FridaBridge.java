@@ -0,0 +1,267 @@
+package com.jarida.jadxfrida.frida;
+
+import com.jarida.jadxfrida.util.JsEscaper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Client for the bundled {@code jarida_bridge.py} helper: line-delimited JSON requests on stdin,
+ * responses and notifications on stdout. Any process speaking the same protocol can be used,
+ * which keeps the client testable against a local stub.
+ */
+public class FridaBridge {
+    private static final String HELPER_RESOURCE = "/jarida/jarida_bridge.py";
+    private static volatile Path extractedHelper;
+
+    private final List<String> command;
+    private final Map<Long, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private Process process;
+    private OutputStream stdin;
+
+    public FridaBridge(List<String> command) {
+        this.command = new ArrayList<>(command);
+    }
+
+    /**
+     * Command running the bundled helper with the given Python interpreter.
+     */
+    public static List<String> defaultCommand(String pythonPath) throws IOException {
+        return Arrays.asList(pythonPath, extractHelper().toString());
+    }
+
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * Starts the bridge process. Notifications are delivered to {@code onEvent} and any
+     * non-protocol output (stderr, stray prints) to {@code onOutput}, both on reader threads.
+     */
+    public synchronized void start(Consumer<Map<String, Object>> onEvent, Consumer<String> onOutput) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(false);
+        process = builder.start();
+        stdin = process.getOutputStream();
+        startReader(process.getInputStream(), onEvent, onOutput, "jarida-bridge-out");
+        startReader(process.getErrorStream(), null, onOutput, "jarida-bridge-err");
+    }
+
+    public synchronized Process getProcess() {
+        return process;
+    }
+
+    public synchronized boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    public Object call(String method, Map<String, Object> params, long timeoutMs) throws IOException {
+        try {
+            return callAsync(method, params).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for bridge: " + method);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new IOException("Bridge call timed out after " + timeoutMs + " ms: " + method);
+        }
+    }
+
+    public CompletableFuture<Object> callAsync(String method, Map<String, Object> params) {
+        long id = nextId.incrementAndGet();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        pending.put(id, future);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"id\":").append(id)
+                .append(",\"method\":").append(JsEscaper.quote(method))
+                .append(",\"params\":");
+        appendJson(sb, params);
+        sb.append("}\n");
+        try {
+            write(sb.toString());
+        } catch (IOException e) {
+            pending.remove(id);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Asks the helper to detach and exit, then destroys the process if it lingers.
+     */
+    public void close() {
+        Process current;
+        synchronized (this) {
+            current = process;
+        }
+        if (current == null) {
+            return;
+        }
+        if (current.isAlive()) {
+            try {
+                call("shutdown", null, 2000);
+            } catch (IOException ignored) {
+            }
+            try {
+                if (!current.waitFor(1000, TimeUnit.MILLISECONDS)) {
+                    current.destroy();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                current.destroy();
+            }
+        }
+        failPending("Bridge closed");
+    }
+
+    private synchronized void write(String line) throws IOException {
+        if (process == null || !process.isAlive()) {
+            throw new IOException("Bridge process not running");
+        }
+        stdin.write(line.getBytes(StandardCharsets.UTF_8));
+        stdin.flush();
+    }
+
+    private void startReader(InputStream stream, Consumer<Map<String, Object>> onEvent, Consumer<String> onOutput,
+                             String name) {
+        Thread t = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (onEvent == null || !dispatch(line, onEvent)) {
+                        if (onOutput != null && !line.isEmpty()) {
+                            onOutput.accept(line);
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+            if (onEvent != null) {
+                failPending("Bridge process exited");
+            }
+        }, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean dispatch(String line, Consumer<Map<String, Object>> onEvent) {
+        if (!line.startsWith("{")) {
+            return false;
+        }
+        Object parsed;
+        try {
+            parsed = new LiteralParser(line, 0).parseValue();
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (!(parsed instanceof Map)) {
+            return false;
+        }
+        Map<String, Object> msg = (Map<String, Object>) parsed;
+        Object id = msg.get("id");
+        if (id instanceof Number) {
+            CompletableFuture<Object> future = pending.remove(((Number) id).longValue());
+            if (future != null) {
+                if (msg.get("error") != null) {
+                    future.completeExceptionally(new IOException(String.valueOf(msg.get("error"))));
+                } else {
+                    future.complete(msg.get("result"));
+                }
+            }
+            return true;
+        }
+        if (msg.containsKey("event")) {
+            onEvent.accept(msg);
+            return true;
+        }
+        return false;
+    }
+
+    private void failPending(String reason) {
+        for (Long id : new ArrayList<>(pending.keySet())) {
+            CompletableFuture<Object> future = pending.remove(id);
+            if (future != null) {
+                future.completeExceptionally(new IOException(reason));
+            }
+        }
+    }
+
+    private static Path extractHelper() throws IOException {
+        Path helper = extractedHelper;
+        if (helper != null && Files.exists(helper)) {
+            return helper;
+        }
+        synchronized (FridaBridge.class) {
+            if (extractedHelper != null && Files.exists(extractedHelper)) {
+                return extractedHelper;
+            }
+            try (InputStream in = FridaBridge.class.getResourceAsStream(HELPER_RESOURCE)) {
+                if (in == null) {
+                    throw new IOException("Bundled bridge helper missing: " + HELPER_RESOURCE);
+                }
+                helper = Files.createTempFile("jarida-bridge-", ".py");
+                Files.copy(in, helper, StandardCopyOption.REPLACE_EXISTING);
+                helper.toFile().deleteOnExit();
+            }
+            extractedHelper = helper;
+            return helper;
+        }
+    }
+
+    static void appendJson(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof String) {
+            sb.append(JsEscaper.quote((String) value));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append(JsEscaper.quote(String.valueOf(entry.getKey()))).append(':');
+                appendJson(sb, entry.getValue());
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : (List<?>) value) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                appendJson(sb, item);
+            }
+            sb.append(']');
+        } else {
+            sb.append(JsEscaper.quote(String.valueOf(value)));
+        }
+    }
+}
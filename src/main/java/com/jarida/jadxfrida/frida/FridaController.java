@@ -3,57 +3,96 @@ package com.jarida.jadxfrida.frida;
 import com.jarida.jadxfrida.model.FridaProcessInfo;
 import com.jarida.jadxfrida.model.FridaSessionConfig;
 import com.jarida.jadxfrida.model.HookSpec;
+import com.jarida.jadxfrida.model.HookStats;
+import com.jarida.jadxfrida.model.StackDictionary;
+import com.jarida.jadxfrida.model.StackProfile;
 import com.jarida.jadxfrida.model.DeviceMode;
+import com.jarida.jadxfrida.model.TraceEvent;
 import com.jarida.jadxfrida.util.ProcessResult;
 import com.jarida.jadxfrida.util.ProcessUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public class FridaController {
-    private Process process;
-    private Thread stdoutThread;
-    private Thread stderrThread;
-    private final List<Path> tempScripts = new CopyOnWriteArrayList<>();
-    private volatile Boolean noPauseSupported;
-    private volatile Boolean autoReloadSupported;
-    private volatile String lastFridaPath;
-    private Path sessionScriptPath;
+    private static final long ATTACH_TIMEOUT_MS = 30000;
+    private static final long LOAD_TIMEOUT_MS = 30000;
+    private static final long CALL_TIMEOUT_MS = 10000;
+    // fails export calls that get no answer; CompletableFuture.orTimeout needs Java 9
+    private static final ScheduledThreadPoolExecutor CALL_TIMEOUTS = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "jarida-rpc-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        CALL_TIMEOUTS.setRemoveOnCancelPolicy(true);
+    }
+
+    private FridaBridge bridge;
+    private ExecutorService rpcExecutor;
     private volatile String lastScriptContent;
+    private String loadedRuntime;
+    private final Map<String, String> installedUnits = new LinkedHashMap<>();
     private java.util.function.Consumer<Integer> onExit;
     private final AtomicBoolean exitNotified = new AtomicBoolean(false);
-    private volatile boolean sessionAutoReloadEnabled = false;
+    private final TraceEventDecoder eventDecoder = new TraceEventDecoder();
+    private volatile Consumer<TraceEvent> onEvent;
 
     public synchronized boolean isRunning() {
-        return process != null && process.isAlive();
+        return bridge != null && bridge.isAlive();
     }
 
     public synchronized void stop() {
-        if (process != null) {
-            process.destroy();
-        }
-        sessionScriptPath = null;
+        FridaBridge current = bridge;
+        bridge = null;
         lastScriptContent = null;
-        sessionAutoReloadEnabled = false;
-        cleanupTempScripts();
+        loadedRuntime = null;
+        installedUnits.clear();
+        if (rpcExecutor != null) {
+            rpcExecutor.shutdownNow();
+            rpcExecutor = null;
+        }
+        if (current != null) {
+            Thread closer = new Thread(current::close, "jarida-bridge-stop");
+            closer.setDaemon(true);
+            closer.start();
+        }
     }
 
     public void setOnExit(java.util.function.Consumer<Integer> onExit) {
         this.onExit = onExit;
     }
 
+    /**
+     * Receives structured hook events; when unset, events are formatted into the session log.
+     */
+    public void setOnEvent(Consumer<TraceEvent> onEvent) {
+        this.onEvent = onEvent;
+    }
+
+    /**
+     * Receives per-hook aggregates (latency histograms) keyed by hook key as the agent reports them.
+     */
+    public void setOnStats(Consumer<Map<String, HookStats>> onStats) {
+        eventDecoder.setStatsListener(onStats);
+    }
+
     public String getFridaVersion() {
         return getFridaVersion("frida");
     }
@@ -123,41 +162,71 @@ public class FridaController {
         startWithScript(config, script, log);
     }
 
+    /**
+     * Starts a session with the composed script and remembers its runtime and units, so later
+     * {@link #updateHooks} calls only send the hooks that changed.
+     */
+    public synchronized void startWithScript(FridaSessionConfig config, HookScript script, Consumer<String> log) throws IOException {
+        startWithScript(config, script.getSource(), log);
+        loadedRuntime = script.getRuntime();
+        installedUnits.putAll(script.getUnits());
+    }
+
+    /**
+     * Starts the bridge helper and attaches/spawns in the background; progress and failures are
+     * reported through {@code log}, a failed start ends the session via the exit callback.
+     */
     public synchronized void startWithScript(FridaSessionConfig config, String script, Consumer<String> log) throws IOException {
         stop();
         exitNotified.set(false);
-        sessionScriptPath = Files.createTempFile("jarida-session-", ".js");
-        Files.write(sessionScriptPath, script.getBytes(StandardCharsets.UTF_8));
-        lastScriptContent = script;
-        tempScripts.add(sessionScriptPath);
+        eventDecoder.reset();
 
-        String fridaPath = config.getFridaPath();
-        if (fridaPath == null || fridaPath.trim().isEmpty()) {
-            fridaPath = "frida";
-        }
-        if (!isExecutableAvailable(fridaPath)) {
-            throw new IOException("Frida executable not found: " + fridaPath);
-        }
-        boolean useNoPause = config.isSpawn() && isNoPauseSupported(fridaPath, log);
-        boolean useAutoReload = isAutoReloadSupported(fridaPath, log);
-        List<String> command = buildCommand(config, sessionScriptPath.toFile(), useNoPause, useAutoReload);
-        sessionAutoReloadEnabled = command.contains("--auto-reload");
-        log.accept("Starting Jarida (frida): " + String.join(" ", command));
-
-        ProcessBuilder builder = new ProcessBuilder(command);
-        builder.redirectErrorStream(false);
-        process = builder.start();
-        final Process started = process;
-        stdoutThread = startReader(process.getInputStream(), log::accept, false);
-        stderrThread = startReader(process.getErrorStream(), log::accept, true);
+        String pythonPath = config.getPythonPath();
+        if (pythonPath == null || pythonPath.trim().isEmpty()) {
+            pythonPath = FridaSessionConfig.defaultPythonPath();
+        }
+        if (!isExecutableAvailable(pythonPath)) {
+            throw new IOException("Python executable not found: " + pythonPath);
+        }
+        Map<String, Object> attachParams = buildAttachParams(config);
+        FridaBridge started = new FridaBridge(FridaBridge.defaultCommand(pythonPath));
+        log.accept("Starting Jarida bridge: " + String.join(" ", started.getCommand()));
+        started.start(msg -> handleBridgeEvent(started, msg, log), line -> handleBridgeOutput(line, log));
+        bridge = started;
+        lastScriptContent = script;
+        rpcExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "jarida-rpc");
+            t.setDaemon(true);
+            return t;
+        });
+        rpcExecutor.execute(() -> {
+            try {
+                Object pong = started.call("ping", null, CALL_TIMEOUT_MS);
+                Object fridaVersion = pong instanceof Map ? ((Map<?, ?>) pong).get("frida") : null;
+                if (fridaVersion == null) {
+                    throw new IOException("frida python module not found for " + started.getCommand().get(0));
+                }
+                log.accept("Frida " + fridaVersion + " bridge ready.");
+                Object attached = started.call("attach", attachParams, ATTACH_TIMEOUT_MS);
+                if (attached instanceof Map && ((Map<?, ?>) attached).get("pid") != null) {
+                    log.accept("Attached to pid " + ((Map<?, ?>) attached).get("pid") + ".");
+                }
+                started.call("load", Collections.singletonMap("source", script), LOAD_TIMEOUT_MS);
+            } catch (IOException e) {
+                if (isCurrent(started)) {
+                    log.accept("Failed to start Jarida session: " + e.getMessage());
+                    handleSessionTerminated(-1);
+                }
+            }
+        });
 
-        if (config.isSpawn() && !useNoPause) {
-            scheduleResume(process, log);
-        }
+        Process proc = started.getProcess();
         Thread waiter = new Thread(() -> {
             try {
-                int code = started.waitFor();
-                notifyExit(code);
+                int code = proc.waitFor();
+                if (isCurrent(started) || !isRunning()) {
+                    notifyExit(code);
+                }
             } catch (InterruptedException ignored) {
             }
         }, "frida-exit");
@@ -165,55 +234,220 @@ public class FridaController {
         waiter.start();
     }
 
+    /**
+     * Replaces the loaded script inside the running session; the session itself stays attached.
+     */
     public synchronized void updateSessionScript(String script, Consumer<String> log) throws IOException {
-        if (sessionScriptPath == null) {
+        if (bridge == null) {
             throw new IOException("No session script to update");
         }
         if (script != null && script.equals(lastScriptContent)) {
             return;
         }
-        Files.write(sessionScriptPath, script.getBytes(StandardCharsets.UTF_8));
         lastScriptContent = script;
-        // Do not warn here; some Frida builds reload scripts without requiring a flag.
-    }
-
-    private Thread startReader(java.io.InputStream stream, Consumer<String> out, boolean stderr) {
-        Thread t = new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (stderr && shouldSuppressStderr(line)) {
-                        if (line.startsWith("Fatal Python error")) {
-                            emit(out, true, "Frida exited (Python runtime shutdown).");
-                            handleSessionTerminated(-1);
-                        }
-                        continue;
-                    }
-                    boolean terminated = shouldNotifyExit(line);
-                    String marker = "]-> ";
-                    int idx = line.indexOf(marker);
-                    if (idx >= 0 && idx + marker.length() < line.length()) {
-                        String after = line.substring(idx + marker.length());
-                        if (after.startsWith("[JARIDA]")) {
-                            emit(out, stderr, line.substring(0, idx + marker.length() - 1));
-                            emit(out, stderr, after);
-                            if (terminated) {
-                                handleSessionTerminated(0);
-                            }
-                            continue;
-                        }
-                    }
-                    emit(out, stderr, line);
-                    if (terminated) {
-                        handleSessionTerminated(0);
-                    }
+        loadedRuntime = null;
+        installedUnits.clear();
+        // the reloaded runtime numbers its hooks and stacks from 0 again
+        eventDecoder.resetScript();
+        submitCall("load", Collections.singletonMap("source", script), LOAD_TIMEOUT_MS, log);
+    }
+
+    /**
+     * Brings the running session in line with {@code script}. When the runtime (helpers, batching,
+     * custom scripts) is unchanged only the added, changed and removed hook units are sent over RPC;
+     * otherwise the composed script is reloaded.
+     */
+    public synchronized void updateHooks(HookScript script, Consumer<String> log) throws IOException {
+        if (bridge == null) {
+            throw new IOException("No session script to update");
+        }
+        if (loadedRuntime == null || !loadedRuntime.equals(script.getRuntime())) {
+            updateSessionScript(script.getSource(), log);
+            loadedRuntime = script.getRuntime();
+            installedUnits.putAll(script.getUnits());
+            return;
+        }
+        Map<String, String> desired = script.getUnits();
+        for (String key : new ArrayList<>(installedUnits.keySet())) {
+            if (!desired.containsKey(key)) {
+                uninstallHook(key, log);
+                installedUnits.remove(key);
+            }
+        }
+        for (Map.Entry<String, String> unit : desired.entrySet()) {
+            if (!unit.getValue().equals(installedUnits.get(unit.getKey()))) {
+                installHook(unit.getKey(), unit.getValue(), log);
+                installedUnits.put(unit.getKey(), unit.getValue());
+            }
+        }
+        lastScriptContent = script.getSource();
+    }
+
+    /**
+     * Installs or replaces one hook unit in the loaded runtime via its {@code installHook} RPC export.
+     */
+    public synchronized void installHook(String key, String source, Consumer<String> log) throws IOException {
+        submitCall("call", exportCall("installHook", key, source), CALL_TIMEOUT_MS, log);
+    }
+
+    public synchronized void uninstallHook(String key, Consumer<String> log) throws IOException {
+        submitCall("call", exportCall("uninstallHook", key), CALL_TIMEOUT_MS, log);
+    }
+
+    public StackDictionary getStacks() {
+        return eventDecoder.getStacks();
+    }
+
+    public StackProfile getStackProfile() {
+        return eventDecoder.getStackProfile();
+    }
+
+    /**
+     * Fetches the full rendering of an object pinned by the agent in lazy-objects mode. Completes
+     * with null when the handle has already been evicted on the device.
+     */
+    public CompletableFuture<String> expandHandle(long handle) {
+        return callExport("expandHandle", handle)
+                .thenApply(result -> result == null ? null : String.valueOf(result));
+    }
+
+    /**
+     * Reads the whole of a captured {@code byte[]} that the agent pinned because it was longer than
+     * the capture limit. Completes with null when the handle has already been evicted on the device.
+     */
+    public CompletableFuture<byte[]> readBytes(long handle) {
+        return callExport("readBytes", handle).thenApply(result -> {
+            if (result instanceof Map && ((Map<?, ?>) result).get("$bytes") instanceof String) {
+                return Base64.getDecoder().decode((String) ((Map<?, ?>) result).get("$bytes"));
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<Object> callExport(String fn, Object... args) {
+        FridaBridge current;
+        synchronized (this) {
+            current = bridge;
+        }
+        if (current == null || !current.isAlive()) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IOException("Frida session not running"));
+            return failed;
+        }
+        CompletableFuture<Object> result = current.callAsync("call", exportCall(fn, args));
+        ScheduledFuture<?> timeout = CALL_TIMEOUTS.schedule(() -> result.completeExceptionally(
+                new IOException("Bridge call timed out after " + CALL_TIMEOUT_MS + " ms: " + fn)),
+                CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> timeout.cancel(false));
+        return result;
+    }
+
+    private void submitCall(String method, Map<String, Object> params, long timeoutMs, Consumer<String> log) throws IOException {
+        FridaBridge current = bridge;
+        ExecutorService executor = rpcExecutor;
+        if (current == null || executor == null) {
+            throw new IOException("Frida session not running");
+        }
+        executor.execute(() -> {
+            try {
+                current.call(method, params, timeoutMs);
+            } catch (IOException e) {
+                log.accept("Jarida bridge " + method + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private static Map<String, Object> exportCall(String fn, Object... args) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("fn", fn);
+        params.put("args", Arrays.asList(args));
+        return params;
+    }
+
+    private Map<String, Object> buildAttachParams(FridaSessionConfig config) throws IOException {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (config.getDeviceMode() == DeviceMode.REMOTE) {
+            params.put("mode", "remote");
+            params.put("host", config.getRemoteHost() + ":" + config.getRemotePort());
+        } else {
+            params.put("mode", "usb");
+            if (config.getDeviceId() != null && !config.getDeviceId().isEmpty()) {
+                params.put("deviceId", config.getDeviceId());
+            }
+        }
+        params.put("spawn", config.isSpawn());
+        if (config.isSpawn()) {
+            params.put("target", config.getTargetPackage());
+        } else if (config.getTargetPid() > 0) {
+            params.put("pid", config.getTargetPid());
+        } else if (config.getTargetProcess() != null && !config.getTargetProcess().isEmpty()) {
+            params.put("target", config.getTargetProcess());
+        } else {
+            params.put("target", config.getTargetPackage());
+        }
+        try {
+            params.putAll(FridaArgs.toAttachParams(config.getExtraFridaArgs()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleBridgeEvent(FridaBridge source, Map<String, Object> msg, Consumer<String> log) {
+        String event = String.valueOf(msg.get("event"));
+        switch (event) {
+            case "message": {
+                Object raw = msg.get("message");
+                if (!(raw instanceof Map)) {
+                    return;
+                }
+                Map<String, Object> message = (Map<String, Object>) raw;
+                Object data = msg.get("data");
+                if (eventDecoder.decodeMessage(message, data == null ? null : String.valueOf(data), ev -> dispatchEvent(log, ev))) {
+                    return;
                 }
-            } catch (IOException ignored) {
+                if ("error".equals(message.get("type"))) {
+                    Object stack = message.get("stack");
+                    emit(log, false, "[JARIDA] Script error: " + message.get("description")
+                            + (stack != null ? "\n" + stack : ""));
+                } else {
+                    emit(log, false, "message: " + message.get("payload"));
+                }
+                return;
             }
-        }, "frida-reader");
-        t.setDaemon(true);
-        t.start();
-        return t;
+            case "log":
+                emit(log, false, String.valueOf(msg.get("text")));
+                return;
+            case "detached":
+                if (isCurrent(source)) {
+                    emit(log, false, "Frida session detached: " + msg.get("reason"));
+                    handleSessionTerminated(0);
+                }
+                return;
+            default:
+                emit(log, false, "Jarida bridge: unknown event " + event);
+        }
+    }
+
+    private synchronized boolean isCurrent(FridaBridge candidate) {
+        return bridge == candidate;
+    }
+
+    private void handleBridgeOutput(String line, Consumer<String> log) {
+        if (shouldSuppressStderr(line)) {
+            return;
+        }
+        emit(log, true, line);
+    }
+
+    private void dispatchEvent(Consumer<String> out, TraceEvent event) {
+        Consumer<TraceEvent> listener = onEvent;
+        if (listener != null) {
+            listener.accept(event);
+        } else {
+            emit(out, false, event.toLogLine());
+        }
     }
 
     private void emit(Consumer<String> out, boolean stderr, String line) {
@@ -231,16 +465,6 @@ public class FridaController {
         }
     }
 
-    private boolean shouldNotifyExit(String line) {
-        if (line == null) {
-            return false;
-        }
-        String trimmed = line.trim().toLowerCase();
-        return trimmed.contains("process terminated")
-                || trimmed.contains("process crashed")
-                || trimmed.contains("thank you for using frida");
-    }
-
     private boolean shouldSuppressStderr(String line) {
         if (line == null) {
             return false;
@@ -275,210 +499,6 @@ public class FridaController {
     }
 
 
-    private List<String> buildCommand(FridaSessionConfig config, File scriptFile, boolean useNoPause, boolean useAutoReload) {
-        List<String> cmd = new ArrayList<>();
-        String fridaPath = config.getFridaPath();
-        if (fridaPath == null || fridaPath.trim().isEmpty()) {
-            fridaPath = "frida";
-        }
-        cmd.add(fridaPath);
-        if (config.getDeviceMode() == DeviceMode.USB) {
-            if (config.getDeviceId() != null && !config.getDeviceId().isEmpty()) {
-                cmd.add("-D");
-                cmd.add(config.getDeviceId());
-            } else {
-                cmd.add("-U");
-            }
-        } else {
-            cmd.add("-H");
-            cmd.add(config.getRemoteHost() + ":" + config.getRemotePort());
-        }
-        if (config.isSpawn()) {
-            cmd.add("-f");
-            cmd.add(config.getTargetPackage());
-            if (useNoPause) {
-                cmd.add("--no-pause");
-            }
-        } else {
-            if (config.getTargetPid() > 0) {
-                cmd.add("-p");
-                cmd.add(String.valueOf(config.getTargetPid()));
-            } else if (config.getTargetProcess() != null && !config.getTargetProcess().isEmpty()) {
-                cmd.add("-n");
-                cmd.add(config.getTargetProcess());
-            } else {
-                cmd.add("-n");
-                cmd.add(config.getTargetPackage());
-            }
-        }
-        cmd.add("-l");
-        cmd.add(scriptFile.getAbsolutePath());
-        if (useAutoReload) {
-            cmd.add("--auto-reload");
-        }
-        if (config.getExtraFridaArgs() != null && !config.getExtraFridaArgs().trim().isEmpty()) {
-            cmd.addAll(splitArgs(config.getExtraFridaArgs()));
-        }
-        return cmd;
-    }
-
-    private boolean isNoPauseSupported(String fridaPath, Consumer<String> log) {
-        if (lastFridaPath == null || !lastFridaPath.equals(fridaPath)) {
-            noPauseSupported = null;
-            lastFridaPath = fridaPath;
-        }
-        if (noPauseSupported != null) {
-            return noPauseSupported;
-        }
-        synchronized (this) {
-            if (noPauseSupported != null) {
-                return noPauseSupported;
-            }
-            boolean supported = false;
-            try {
-                ProcessResult result = ProcessUtils.run(Arrays.asList(fridaPath, "--help"), 3000);
-                String output = (result.getStdout() + "\n" + result.getStderr());
-                supported = output.contains("--no-pause");
-            } catch (Exception e) {
-                log.accept("Unable to detect frida --no-pause support: " + e.getMessage());
-            }
-            noPauseSupported = supported;
-            return supported;
-        }
-    }
-
-    private boolean isAutoReloadSupported(String fridaPath, Consumer<String> log) {
-        if (lastFridaPath == null || !lastFridaPath.equals(fridaPath)) {
-            autoReloadSupported = null;
-            lastFridaPath = fridaPath;
-        }
-        if (autoReloadSupported != null) {
-            return autoReloadSupported;
-        }
-        synchronized (this) {
-            if (autoReloadSupported != null) {
-                return autoReloadSupported;
-            }
-            boolean supported = false;
-            try {
-                ProcessResult result = ProcessUtils.run(Arrays.asList(fridaPath, "--help"), 3000);
-                String output = (result.getStdout() + "\n" + result.getStderr());
-                supported = output.contains("--auto-reload");
-            } catch (Exception e) {
-                log.accept("Unable to detect frida --auto-reload support: " + e.getMessage());
-            }
-            if (!supported) {
-                String version = getFridaVersion(fridaPath);
-                int major = parseMajorVersion(version);
-                if (major >= 16) {
-                    supported = true;
-                }
-            }
-            autoReloadSupported = supported;
-            return supported;
-        }
-    }
-
-    private int parseMajorVersion(String version) {
-        if (version == null || version.trim().isEmpty()) {
-            return -1;
-        }
-        String v = version.trim();
-        if (v.toLowerCase().startsWith("frida")) {
-            v = v.replaceAll("[^0-9.]", "");
-        }
-        String[] parts = v.split("\\.");
-        if (parts.length == 0) {
-            return -1;
-        }
-        try {
-            return Integer.parseInt(parts[0]);
-        } catch (NumberFormatException e) {
-            return -1;
-        }
-    }
-
-    private void scheduleResume(Process proc, Consumer<String> log) {
-        Thread t = new Thread(() -> {
-            try {
-                Thread.sleep(500);
-                sendCommand("%resume", log);
-                log.accept("Sent %resume to Frida (no --no-pause support detected).");
-            } catch (Exception e) {
-                log.accept("Failed to send %resume: " + e.getMessage());
-            }
-        }, "frida-resume");
-        t.setDaemon(true);
-        t.start();
-    }
-
-    private List<String> splitArgs(String extra) {
-        List<String> args = new ArrayList<>();
-        if (extra == null || extra.trim().isEmpty()) {
-            return args;
-        }
-        StringBuilder current = new StringBuilder();
-        boolean inQuotes = false;
-        char quoteChar = 0;
-        for (int i = 0; i < extra.length(); i++) {
-            char c = extra.charAt(i);
-            if (inQuotes) {
-                if (c == quoteChar) {
-                    inQuotes = false;
-                } else if (c == '\\' && i + 1 < extra.length()) {
-                    char next = extra.charAt(i + 1);
-                    if (next == quoteChar || next == '\\') {
-                        current.append(next);
-                        i++;
-                    } else {
-                        current.append(c);
-                    }
-                } else {
-                    current.append(c);
-                }
-            } else {
-                if (c == '"' || c == '\'') {
-                    inQuotes = true;
-                    quoteChar = c;
-                } else if (Character.isWhitespace(c)) {
-                    if (current.length() > 0) {
-                        args.add(current.toString());
-                        current.setLength(0);
-                    }
-                } else {
-                    current.append(c);
-                }
-            }
-        }
-        if (current.length() > 0) {
-            args.add(current.toString());
-        }
-        return args;
-    }
-
-    private void cleanupTempScripts() {
-        for (Path path : tempScripts) {
-            try {
-                Files.deleteIfExists(path);
-            } catch (IOException ignored) {
-            }
-        }
-        tempScripts.clear();
-    }
-
-    private synchronized void sendCommand(String command, Consumer<String> log) throws IOException {
-        Process current = process;
-        if (current == null || !current.isAlive()) {
-            throw new IOException("Frida process not running");
-        }
-        OutputStream os = current.getOutputStream();
-        os.write((command + "\n").getBytes(StandardCharsets.UTF_8));
-        os.flush();
-        if (log != null) {
-            log.accept("Frida cmd: " + command);
-        }
-    }
-
     private boolean isExecutableAvailable(String path) {
         if (path == null || path.trim().isEmpty()) {
             return false;
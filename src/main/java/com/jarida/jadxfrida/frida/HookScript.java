@@ -0,0 +1,39 @@
+package com.jarida.jadxfrida.frida;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generated agent split into the hook-independent runtime and one installer unit per hook key.
+ * {@link #getSource()} is the composed script that loads the runtime with every unit installed.
+ */
+public final class HookScript {
+    private final String runtime;
+    private final Map<String, String> units;
+    private final String source;
+
+    HookScript(String runtime, LinkedHashMap<String, String> units, String source) {
+        this.runtime = runtime;
+        this.units = Collections.unmodifiableMap(units);
+        this.source = source;
+    }
+
+    /**
+     * Runtime script without any hook units; a change here requires a full reload.
+     */
+    public String getRuntime() {
+        return runtime;
+    }
+
+    /**
+     * Installer function sources keyed by hook key, in hook order.
+     */
+    public Map<String, String> getUnits() {
+        return units;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -11,6 +11,11 @@ import com.jarida.jadxfrida.util.TypeUtil;
 import java.util.List;
 
 public final class HookScriptGenerator {
+    static final int STATS_INTERVAL_MS = 1000;
+    private static final int HANDLE_CAPACITY = 4096;
+    private static final int MAX_BLOB_BYTES = 4 * 1024 * 1024;
+    private static final int STACK_FRAME_LIMIT = 64;
+
     private HookScriptGenerator() {
     }
 
@@ -23,27 +28,151 @@ public final class HookScriptGenerator {
     }
 
     public static String generateCombined(java.util.Collection<HookSpec> specs, java.util.List<String> globalScripts) {
+        return generateCombined(specs, globalScripts, null);
+    }
+
+    /**
+     * @param runtimeOptions script-wide settings (event batching); falls back to the first hook's options
+     */
+    public static String generateCombined(java.util.Collection<HookSpec> specs, java.util.List<String> globalScripts,
+                                          ScriptOptions runtimeOptions) {
+        return generateScript(specs, globalScripts, runtimeOptions).getSource();
+    }
+
+    /**
+     * Generates the runtime and per-hook units separately so a running session can apply only the
+     * units that changed; the composed source is equivalent to {@link #generateCombined}.
+     */
+    public static HookScript generateScript(java.util.Collection<HookSpec> specs, java.util.List<String> globalScripts,
+                                            ScriptOptions runtimeOptions) {
+        java.util.LinkedHashMap<String, String> units = new java.util.LinkedHashMap<>();
+        if (specs != null) {
+            for (HookSpec spec : specs) {
+                if (spec == null || (spec.getTarget() == null && !spec.isBulk())) {
+                    continue;
+                }
+                units.put(unitKey(spec), generateUnit(spec));
+            }
+        }
+        ScriptOptions runtime = resolveRuntimeOptions(specs, runtimeOptions);
+        return new HookScript(compose(globalScripts, runtime, null), units, compose(globalScripts, runtime, units));
+    }
+
+    /**
+     * Installer function for one hook: {@code function(HOOK_ID, HOOK_KEY) { ...; return uninstaller; }}.
+     */
+    public static String generateUnit(HookSpec spec) {
+        StringBuilder sb = new StringBuilder();
+        if (spec.isBulk()) {
+            appendBulkHook(sb, spec);
+        } else {
+            appendHook(sb, spec);
+        }
+        return sb.toString();
+    }
+
+    private static String compose(java.util.List<String> globalScripts, ScriptOptions runtime,
+                                  java.util.Map<String, String> units) {
         StringBuilder sb = new StringBuilder();
         sb.append("'use strict';\n");
         appendGlobalScripts(sb, globalScripts);
+        appendRpcExports(sb);
         sb.append("Java.perform(function() {\n");
-        appendHelpers(sb);
-        int idx = 0;
-        if (specs == null || specs.isEmpty()) {
+        appendHelpers(sb, runtime);
+        appendUnitRegistry(sb);
+        if (units == null || units.isEmpty()) {
             sb.append("    // no hooks\n");
         } else {
-            for (HookSpec spec : specs) {
-                if (spec == null || spec.getTarget() == null) {
-                    continue;
-                }
-                idx++;
-                appendHook(sb, spec, idx);
+            for (java.util.Map.Entry<String, String> unit : units.entrySet()) {
+                sb.append("    JARIDA_installUnit(").append(JsEscaper.quote(unit.getKey())).append(", ")
+                        .append(unit.getValue()).append(");\n");
             }
         }
         sb.append("});\n");
         return sb.toString();
     }
 
+    /**
+     * Key a hook unit is registered under in the agent; matches {@code HookRecord.getKey()}.
+     */
+    public static String unitKey(HookSpec spec) {
+        String key = spec.getHookId();
+        if (key == null || key.trim().isEmpty()) {
+            key = spec.isBulk() ? spec.getScope() : spec.getTarget().getDisplaySignature();
+        }
+        return key;
+    }
+
+    private static void appendRpcExports(StringBuilder sb) {
+        // Exports are assigned one by one so custom scripts can still contribute their own.
+        sb.append("var JARIDA_runtime = {};\n");
+        sb.append("function JARIDA_perform(fn) {\n");
+        sb.append("  return new Promise(function(resolve, reject) {\n");
+        sb.append("    Java.perform(function() {\n");
+        sb.append("      try { resolve(fn()); } catch (e) { reject(e); }\n");
+        sb.append("    });\n");
+        sb.append("  });\n");
+        sb.append("}\n");
+        sb.append("rpc.exports.installHook = function(key, source) {\n");
+        sb.append("  return JARIDA_perform(function() { return JARIDA_runtime.install(key, source); });\n");
+        sb.append("};\n");
+        sb.append("rpc.exports.uninstallHook = function(key) {\n");
+        sb.append("  return JARIDA_perform(function() { return JARIDA_runtime.uninstall(key); });\n");
+        sb.append("};\n");
+        sb.append("rpc.exports.expandHandle = function(id) {\n");
+        sb.append("  return JARIDA_perform(function() { return JARIDA_runtime.expand(id); });\n");
+        sb.append("};\n");
+        sb.append("rpc.exports.readBytes = function(id) {\n");
+        sb.append("  return JARIDA_perform(function() { return JARIDA_runtime.readBytes(id); });\n");
+        sb.append("};\n");
+        sb.append("rpc.exports.listHooks = function() {\n");
+        sb.append("  return JARIDA_perform(function() { return JARIDA_runtime.keys(); });\n");
+        sb.append("};\n");
+    }
+
+    private static void appendUnitRegistry(StringBuilder sb) {
+        // Each hook unit is an installer function(HOOK_ID, HOOK_KEY) returning its uninstaller.
+        sb.append("    var JARIDA_units = {};\n");
+        sb.append("    var JARIDA_nextHookId = 0;\n");
+        sb.append("    function JARIDA_uninstallUnit(key) {\n");
+        sb.append("      var unit = JARIDA_units[key];\n");
+        sb.append("      if (!unit) return false;\n");
+        sb.append("      delete JARIDA_units[key];\n");
+        sb.append("      if (unit.uninstall) {\n");
+        sb.append("        try { unit.uninstall(); } catch (e) { console.log('[JARIDA] Unhook error: ' + e); }\n");
+        sb.append("      }\n");
+        sb.append("      return true;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_installUnit(key, installer) {\n");
+        sb.append("      JARIDA_uninstallUnit(key);\n");
+        sb.append("      var id = ++JARIDA_nextHookId;\n");
+        sb.append("      var uninstall = null;\n");
+        sb.append("      try { uninstall = installer(id, key); } catch (e) { console.log('[JARIDA] Hook error: ' + e); }\n");
+        sb.append("      JARIDA_units[key] = { id: id, uninstall: uninstall };\n");
+        sb.append("      return id;\n");
+        sb.append("    }\n");
+        // direct eval keeps the helpers above in scope for units sent later over RPC
+        sb.append("    JARIDA_runtime.install = function(key, source) {\n");
+        sb.append("      return JARIDA_installUnit(key, eval('(' + source + ')'));\n");
+        sb.append("    };\n");
+        sb.append("    JARIDA_runtime.uninstall = JARIDA_uninstallUnit;\n");
+        sb.append("    JARIDA_runtime.keys = function() { return Object.keys(JARIDA_units); };\n");
+    }
+
+    private static ScriptOptions resolveRuntimeOptions(java.util.Collection<HookSpec> specs, ScriptOptions runtimeOptions) {
+        if (runtimeOptions != null) {
+            return runtimeOptions;
+        }
+        if (specs != null) {
+            for (HookSpec spec : specs) {
+                if (spec != null && spec.getOptions() != null) {
+                    return spec.getOptions();
+                }
+            }
+        }
+        return new ScriptOptions();
+    }
+
     private static String buildConstantLiteral(ReturnPatchRule patch, String returnType) {
         if (patch == null) {
             return "null";
@@ -108,13 +237,70 @@ public final class HookScriptGenerator {
         sb.append("\n");
     }
 
-    private static void appendHelpers(StringBuilder sb) {
+    private static void appendHelpers(StringBuilder sb, ScriptOptions runtime) {
         sb.append("    var JARIDA_MAX_DEPTH = 3;\n");
         sb.append("    var JARIDA_MAX_STR = 2000;\n");
         sb.append("    var JARIDA_MAX_COLLECTION = 50;\n");
         sb.append("    var JARIDA_MAX_FIELDS = 24;\n");
+        // Class wrappers and overload handles are shared by every unit installed into this script and
+        // dropped only when Java.classFactory.loader is switched (e.g. by a custom script).
+        sb.append("    var JARIDA_classCache = {};\n");
+        sb.append("    var JARIDA_overloadCache = {};\n");
+        sb.append("    var JARIDA_cacheLoader = null;\n");
+        sb.append("    function JARIDA_checkLoader() {\n");
+        sb.append("      var loader = null;\n");
+        sb.append("      try { loader = Java.classFactory ? Java.classFactory.loader : null; } catch (e) {}\n");
+        sb.append("      if (loader !== JARIDA_cacheLoader) {\n");
+        sb.append("        JARIDA_classCache = {};\n");
+        sb.append("        JARIDA_overloadCache = {};\n");
+        sb.append("        JARIDA_fieldCache = {};\n");
+        sb.append("        JARIDA_kindCache = {};\n");
+        sb.append("        JARIDA_cacheLoader = loader;\n");
+        sb.append("      }\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_use(name) {\n");
+        sb.append("      JARIDA_checkLoader();\n");
+        sb.append("      var wrapper = JARIDA_classCache[name];\n");
+        sb.append("      if (wrapper === undefined) { wrapper = JARIDA_classCache[name] = Java.use(name); }\n");
+        sb.append("      return wrapper;\n");
+        sb.append("    }\n");
         sb.append("    function JARIDA_tryUse(name) {\n");
-        sb.append("      try { return Java.use(name); } catch (e) { return null; }\n");
+        sb.append("      try { return JARIDA_use(name); } catch (e) { return null; }\n");
+        sb.append("    }\n");
+        // null when the class has no such member; throws when no overload matches the types
+        sb.append("    function JARIDA_overload(className, methodName, types) {\n");
+        sb.append("      JARIDA_checkLoader();\n");
+        sb.append("      var key = className + '.' + methodName + '(' + types.join(',') + ')';\n");
+        sb.append("      var overload = JARIDA_overloadCache[key];\n");
+        sb.append("      if (overload !== undefined) return overload;\n");
+        sb.append("      var method = JARIDA_use(className)[methodName];\n");
+        sb.append("      if (!method) return null;\n");
+        sb.append("      overload = method.overload.apply(method, types);\n");
+        sb.append("      JARIDA_overloadCache[key] = overload;\n");
+        sb.append("      return overload;\n");
+        sb.append("    }\n");
+        // A single hook and a class/package hook on the same method share the cached overload, so
+        // every unit that hooks an overload holds a claim on it. The installed implementation is that
+        // of the latest single hook, else of the latest bulk hook; releasing a claim restores the
+        // implementation of whichever unit is left, or the original method.
+        sb.append("    var JARIDA_claims = new Map();\n");
+        sb.append("    function JARIDA_applyClaims(overload, claims) {\n");
+        sb.append("      var top = null;\n");
+        sb.append("      for (var i = 0; i < claims.length; i++) {\n");
+        sb.append("        if (top === null || top.bulk || !claims[i].bulk) top = claims[i];\n");
+        sb.append("      }\n");
+        sb.append("      overload.implementation = top === null ? null : top.impl;\n");
+        sb.append("    }\n");
+        // throws, recording nothing, when the implementation cannot be set
+        sb.append("    function JARIDA_claim(overload, key, impl, bulk) {\n");
+        sb.append("      var claims = (JARIDA_claims.get(overload) || []).concat([{ key: key, impl: impl, bulk: bulk }]);\n");
+        sb.append("      JARIDA_applyClaims(overload, claims);\n");
+        sb.append("      JARIDA_claims.set(overload, claims);\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_release(overload, key) {\n");
+        sb.append("      var claims = (JARIDA_claims.get(overload) || []).filter(function(c) { return c.key !== key; });\n");
+        sb.append("      if (claims.length > 0) { JARIDA_claims.set(overload, claims); } else { JARIDA_claims.delete(overload); }\n");
+        sb.append("      try { JARIDA_applyClaims(overload, claims); } catch (e) {}\n");
         sb.append("    }\n");
         sb.append("    var J_Collection = JARIDA_tryUse('java.util.Collection');\n");
         sb.append("    var J_Map = JARIDA_tryUse('java.util.Map');\n");
@@ -143,18 +329,9 @@ public final class HookScriptGenerator {
         sb.append("        if (typeof obj === 'number' || typeof obj === 'boolean') return String(obj);\n");
         sb.append("        if (depth > JARIDA_MAX_DEPTH) return '<max-depth>';\n");
         sb.append("        if (obj.$className) {\n");
-        sb.append("          for (var si = 0; si < seen.length; si++) { if (seen[si] === obj) return '<cycle>'; }\n");
-        sb.append("          seen.push(obj);\n");
-        sb.append("          try {\n");
-        sb.append("            var cn = obj.$className;\n");
-        sb.append("            if (cn === '[B' || cn === 'byte[]') return byteArrayToString(obj);\n");
-        sb.append("            if (cn.charAt(0) === '[') return arrayToString(obj);\n");
-        sb.append("            if (isBundle(obj)) return bundleToString(obj, opts, depth, seen);\n");
-        sb.append("            if (isIntent(obj)) return intentToString(obj, opts, depth, seen);\n");
-        sb.append("            if (isMap(obj)) return mapToString(obj, opts, depth, seen);\n");
-        sb.append("            if (isCollection(obj)) return collectionToString(obj, opts, depth, seen);\n");
-        sb.append("            return objectToString(obj, opts, depth, seen);\n");
-        sb.append("          } finally { seen.pop(); }\n");
+        sb.append("          var cn = obj.$className;\n");
+        sb.append("          var kind = cn === '[B' || cn === 'byte[]' ? 'y' : cn.charAt(0) === '[' ? 'a' : JARIDA_kindOf(obj, cn);\n");
+        sb.append("          return JARIDA_formatKind(obj, kind, opts, depth, seen);\n");
         sb.append("        }\n");
         sb.append("        return JARIDA_truncate(String(obj));\n");
         sb.append("      } catch (e) {\n");
@@ -179,6 +356,365 @@ public final class HookScriptGenerator {
         sb.append("      return call;\n");
         sb.append("    }\n");
 
+        // Object handles (lazyObjects): events carry only "Class@hash" plus a handle id, and the
+        // object stays pinned in a bounded LRU until the host expands it via expandHandle.
+        sb.append("    var JARIDA_HANDLE_CAPACITY = ").append(HANDLE_CAPACITY).append(";\n");
+        sb.append("    var JARIDA_handles = new Map();\n");
+        sb.append("    var JARIDA_nextHandle = 0;\n");
+        sb.append("    var JARIDA_BOXED = { 'java.lang.Boolean': 1, 'java.lang.Byte': 1, 'java.lang.Character': 1, 'java.lang.Short': 1,\n");
+        sb.append("      'java.lang.Integer': 1, 'java.lang.Long': 1, 'java.lang.Float': 1, 'java.lang.Double': 1, 'java.lang.String': 1 };\n");
+        sb.append("    function JARIDA_pin(obj) {\n");
+        sb.append("      if (obj === null || typeof obj !== 'object' || !obj.$className) return 0;\n");
+        sb.append("      var cn = obj.$className;\n");
+        sb.append("      if (JARIDA_BOXED[cn] || cn.charAt(0) === '[') return 0;\n");
+        sb.append("      return JARIDA_keep(obj);\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_keep(obj) {\n");
+        sb.append("      var kept = obj;\n");
+        sb.append("      try { kept = Java.retain(obj); } catch (e) {}\n");
+        sb.append("      var id = ++JARIDA_nextHandle;\n");
+        sb.append("      JARIDA_handles.set(id, kept);\n");
+        sb.append("      if (JARIDA_handles.size > JARIDA_HANDLE_CAPACITY) {\n");
+        sb.append("        var oldest = JARIDA_handles.keys().next().value;\n");
+        sb.append("        var old = JARIDA_handles.get(oldest);\n");
+        sb.append("        JARIDA_handles.delete(oldest);\n");
+        sb.append("        try { if (old !== obj && old.$dispose) old.$dispose(); } catch (e) {}\n");
+        sb.append("      }\n");
+        sb.append("      return id;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_summary(obj) {\n");
+        sb.append("      var hash = 0;\n");
+        sb.append("      try { hash = J_System.identityHashCode(obj); } catch (e) {}\n");
+        sb.append("      return obj.$className + '@' + (hash >>> 0).toString(16);\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_setArgs(ev, args, opts) {\n");
+        sb.append("      var out = [];\n");
+        sb.append("      var handles = [];\n");
+        sb.append("      var pinned = false;\n");
+        sb.append("      for (var i = 0; i < args.length; i++) {\n");
+        sb.append("        var ref = opts.bytes > 0 ? JARIDA_captureBytes(args[i], opts) : null;\n");
+        sb.append("        if (ref !== null) {\n");
+        sb.append("          if (!ev.ab) ev.ab = [];\n");
+        sb.append("          ev.ab.push([i].concat(ref));\n");
+        sb.append("          handles.push(ref[3]);\n");
+        sb.append("          if (ref[3]) pinned = true;\n");
+        sb.append("          out.push('byte[' + ref[2] + ']');\n");
+        sb.append("          continue;\n");
+        sb.append("        }\n");
+        sb.append("        var h = opts.lazyObjects ? JARIDA_pin(args[i]) : 0;\n");
+        sb.append("        handles.push(h);\n");
+        sb.append("        if (h) pinned = true;\n");
+        sb.append("        out.push(h ? JARIDA_summary(args[i]) : safeToString(args[i], opts, 0, []));\n");
+        sb.append("      }\n");
+        sb.append("      ev.a = out;\n");
+        sb.append("      if (pinned) ev.ah = handles;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_setValue(ev, obj, opts) {\n");
+        sb.append("      var ref = opts.bytes > 0 ? JARIDA_captureBytes(obj, opts) : null;\n");
+        sb.append("      if (ref !== null) {\n");
+        sb.append("        ev.vb = ref;\n");
+        sb.append("        ev.v = 'byte[' + ref[2] + ']';\n");
+        sb.append("        if (ref[3]) ev.vh = ref[3];\n");
+        sb.append("        return;\n");
+        sb.append("      }\n");
+        sb.append("      var h = opts.lazyObjects ? JARIDA_pin(obj) : 0;\n");
+        sb.append("      ev.v = h ? JARIDA_summary(obj) : safeToString(obj, opts);\n");
+        sb.append("      if (h) ev.vh = h;\n");
+        sb.append("    }\n");
+        sb.append("    JARIDA_runtime.expand = function(id) {\n");
+        sb.append("      var obj = JARIDA_handles.get(id);\n");
+        sb.append("      if (obj === undefined) return null;\n");
+        sb.append("      JARIDA_handles.delete(id);\n");
+        sb.append("      JARIDA_handles.set(id, obj);\n");
+        sb.append("      return safeToString(obj, { prettyPrint: true }, 0, []);\n");
+        sb.append("    };\n");
+        sb.append("    JARIDA_runtime.readBytes = function(id) {\n");
+        sb.append("      var arr = JARIDA_handles.get(id);\n");
+        sb.append("      if (arr === undefined || (arr.$className !== '[B' && arr.$className !== 'byte[]')) return null;\n");
+        sb.append("      return JARIDA_readBytes(arr, Infinity).data;\n");
+        sb.append("    };\n");
+        sb.append("    function JARIDA_tid() {\n");
+        sb.append("      try { return Process.getCurrentThreadId(); } catch (e) { return 0; }\n");
+        sb.append("    }\n");
+        // Thread names are read through JNI once per native thread id and announced as
+        // {j, k: 'tn', tid, n}; events only carry the tid. Nesting depth of hooked calls is tracked per tid.
+        sb.append("    var JARIDA_threadNames = {};\n");
+        sb.append("    var JARIDA_depth = {};\n");
+        sb.append("    function JARIDA_threadName(tid) {\n");
+        sb.append("      var name = JARIDA_threadNames[tid];\n");
+        sb.append("      if (name === undefined) {\n");
+        sb.append("        name = null;\n");
+        sb.append("        if (J_Thread) { try { name = J_Thread.currentThread().getName(); } catch (e) {} }\n");
+        sb.append("        JARIDA_threadNames[tid] = name;\n");
+        sb.append("        if (name !== null) { try { send({ j: 1, k: 'tn', tid: tid, n: name }); } catch (e) {} }\n");
+        sb.append("      }\n");
+        sb.append("      return name;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_enter(tid) {\n");
+        sb.append("      var d = JARIDA_depth[tid] || 0;\n");
+        sb.append("      JARIDA_depth[tid] = d + 1;\n");
+        sb.append("      return d;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_exit(tid) {\n");
+        sb.append("      var d = (JARIDA_depth[tid] || 1) - 1;\n");
+        sb.append("      if (d > 0) { JARIDA_depth[tid] = d; } else { delete JARIDA_depth[tid]; }\n");
+        sb.append("    }\n");
+        // Structured events: {k, h, c, tid, ts, d, a, v, ab, vb}; buffered in a ring and flushed as
+        // {j, k: 'b', ev: [...], d: dropped}, decoded host-side by TraceEventDecoder. Flushes always run
+        // from a timer, never inside a hook: a full batch only schedules an immediate one, so a burst on
+        // hooked threads can fill the ring and the overflow is dropped and reported with the next batch.
+        sb.append("    var JARIDA_BATCH_SIZE = ")
+                .append(Math.min(runtime.getEventBatchSize(), runtime.getEventBufferCapacity())).append(";\n");
+        sb.append("    var JARIDA_FLUSH_MS = ").append(runtime.getEventFlushIntervalMs()).append(";\n");
+        sb.append("    var JARIDA_BUFFER_CAP = ").append(runtime.getEventBufferCapacity()).append(";\n");
+        sb.append("    var JARIDA_ring = new Array(JARIDA_BUFFER_CAP);\n");
+        sb.append("    var JARIDA_head = 0;\n");
+        sb.append("    var JARIDA_size = 0;\n");
+        sb.append("    var JARIDA_dropped = 0;\n");
+        sb.append("    var JARIDA_flushTimer = null;\n");
+        sb.append("    var JARIDA_flushSoon = false;\n");
+        // byte[] values (opts.bytes > 0) are copied straight out of the array with JNI
+        // GetByteArrayRegion; the event keeps the ArrayBuffer until JARIDA_flush lays the batch's
+        // buffers out in one binary blob, sent as the batch's send() data, and swaps each buffer for
+        // its offset. Events carry [offset, length, total] ("ab" per argument, "vb" for a value), and
+        // the bytes of events dropped from the ring go with them. With opts.keepBytes, arrays longer
+        // than the capture limit are also pinned like lazy objects, their handle going out in
+        // "ah" / "vh", so the host can read the whole array later through readBytes. Captures are
+        // copied through one scratch buffer, grown up to JARIDA_MAX_BLOB; the JNI calls keep the JS lock
+        // ('exclusive') so no other thread can write to it before it is read back.
+        sb.append("    var JARIDA_MAX_BLOB = ").append(MAX_BLOB_BYTES).append(";\n");
+        sb.append("    var JARIDA_jni = null;\n");
+        sb.append("    var JARIDA_scratch = null;\n");
+        sb.append("    var JARIDA_scratchSize = 0;\n");
+        sb.append("    function JARIDA_jniFunctions(env) {\n");
+        sb.append("      if (JARIDA_jni === null) {\n");
+        sb.append("        var table = env.handle.readPointer();\n");
+        sb.append("        var fn = function(index) { return table.add(index * Process.pointerSize).readPointer(); };\n");
+        sb.append("        JARIDA_jni = {\n");
+        sb.append("          length: new NativeFunction(fn(171), 'int32', ['pointer', 'pointer'], { scheduling: 'exclusive' }),\n");
+        sb.append("          region: new NativeFunction(fn(200), 'void', ['pointer', 'pointer', 'int32', 'int32', 'pointer'], { scheduling: 'exclusive' })\n");
+        sb.append("        };\n");
+        sb.append("      }\n");
+        sb.append("      return JARIDA_jni;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_readBytes(arr, limit) {\n");
+        sb.append("      try {\n");
+        sb.append("        var env = Java.vm.getEnv();\n");
+        sb.append("        var jni = JARIDA_jniFunctions(env);\n");
+        sb.append("        var total = jni.length(env.handle, arr.$h);\n");
+        sb.append("        var n = Math.min(total, limit);\n");
+        sb.append("        var mem;\n");
+        sb.append("        if (n > JARIDA_MAX_BLOB) {\n");
+        sb.append("          mem = Memory.alloc(n);\n");
+        sb.append("        } else {\n");
+        sb.append("          if (n > JARIDA_scratchSize || JARIDA_scratch === null) {\n");
+        sb.append("            JARIDA_scratchSize = Math.min(JARIDA_MAX_BLOB, Math.max(n, 4096, JARIDA_scratchSize * 2));\n");
+        sb.append("            JARIDA_scratch = Memory.alloc(JARIDA_scratchSize);\n");
+        sb.append("          }\n");
+        sb.append("          mem = JARIDA_scratch;\n");
+        sb.append("        }\n");
+        sb.append("        if (n > 0) jni.region(env.handle, arr.$h, 0, n, mem);\n");
+        sb.append("        return { total: total, data: n > 0 ? mem.readByteArray(n) : new ArrayBuffer(0) };\n");
+        sb.append("      } catch (e) {}\n");
+        sb.append("      var len = arr.length;\n");
+        sb.append("      var count = Math.min(len, limit);\n");
+        sb.append("      var bytes = new Uint8Array(count);\n");
+        sb.append("      for (var i = 0; i < count; i++) { bytes[i] = arr[i] & 0xff; }\n");
+        sb.append("      return { total: len, data: bytes.buffer };\n");
+        sb.append("    }\n");
+        // [buffer, length, total, handle]; the buffer becomes a blob offset when the batch is flushed
+        sb.append("    function JARIDA_captureBytes(obj, opts) {\n");
+        sb.append("      if (obj === null || typeof obj !== 'object' || (obj.$className !== '[B' && obj.$className !== 'byte[]')) return null;\n");
+        sb.append("      try {\n");
+        sb.append("        var read = JARIDA_readBytes(obj, Math.min(opts.bytes, JARIDA_MAX_BLOB));\n");
+        sb.append("        var n = read.data.byteLength;\n");
+        sb.append("        return [read.data, n, read.total, opts.keepBytes && read.total > n ? JARIDA_keep(obj) : 0];\n");
+        sb.append("      } catch (e) { return null; }\n");
+        sb.append("    }\n");
+        // Appends ref[at] (a captured buffer) to the blob parts, clipped to what is left of
+        // JARIDA_MAX_BLOB, and replaces it with its offset and kept length; returns the new blob size.
+        sb.append("    function JARIDA_placeBytes(ref, at, parts, size) {\n");
+        sb.append("      var data = ref[at];\n");
+        sb.append("      var n = Math.min(data.byteLength, Math.max(0, JARIDA_MAX_BLOB - size));\n");
+        sb.append("      ref[at] = size;\n");
+        sb.append("      ref[at + 1] = n;\n");
+        sb.append("      if (n > 0) parts.push(n < data.byteLength ? data.slice(0, n) : data);\n");
+        sb.append("      return size + n;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_joinBlob(parts, size) {\n");
+        sb.append("      if (size === 0) return null;\n");
+        sb.append("      var out = new Uint8Array(size);\n");
+        sb.append("      var pos = 0;\n");
+        sb.append("      for (var i = 0; i < parts.length; i++) {\n");
+        sb.append("        out.set(new Uint8Array(parts[i]), pos);\n");
+        sb.append("        pos += parts[i].byteLength;\n");
+        sb.append("      }\n");
+        sb.append("      return out.buffer;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_flush() {\n");
+        sb.append("      JARIDA_flushTimer = null;\n");
+        sb.append("      JARIDA_flushSoon = false;\n");
+        sb.append("      if (JARIDA_size === 0 && JARIDA_dropped === 0) return;\n");
+        sb.append("      var batch = new Array(JARIDA_size);\n");
+        sb.append("      var parts = [];\n");
+        sb.append("      var size = 0;\n");
+        sb.append("      for (var i = 0; i < JARIDA_size; i++) {\n");
+        sb.append("        var slot = (JARIDA_head + i) % JARIDA_BUFFER_CAP;\n");
+        sb.append("        var ev = batch[i] = JARIDA_ring[slot];\n");
+        sb.append("        JARIDA_ring[slot] = null;\n");
+        sb.append("        if (ev.ab) { for (var j = 0; j < ev.ab.length; j++) { size = JARIDA_placeBytes(ev.ab[j], 1, parts, size); } }\n");
+        sb.append("        if (ev.vb) size = JARIDA_placeBytes(ev.vb, 0, parts, size);\n");
+        sb.append("      }\n");
+        sb.append("      var msg = { j: 1, k: 'b', ev: batch, d: JARIDA_dropped };\n");
+        sb.append("      JARIDA_head = (JARIDA_head + JARIDA_size) % JARIDA_BUFFER_CAP;\n");
+        sb.append("      JARIDA_size = 0;\n");
+        sb.append("      JARIDA_dropped = 0;\n");
+        sb.append("      var blob = JARIDA_joinBlob(parts, size);\n");
+        sb.append("      try { if (blob !== null) { send(msg, blob); } else { send(msg); } } catch (e) {}\n");
+        sb.append("    }\n");
+        // rough wire size of an event: fixed fields plus formatted text and captured byte[] payloads
+        sb.append("    function JARIDA_eventBytes(ev) {\n");
+        sb.append("      var n = 48;\n");
+        sb.append("      if (ev.a) { for (var i = 0; i < ev.a.length; i++) { n += ev.a[i] === null ? 4 : String(ev.a[i]).length + 3; } }\n");
+        sb.append("      if (typeof ev.v === 'string') n += ev.v.length;\n");
+        sb.append("      if (ev.ab) { for (var j = 0; j < ev.ab.length; j++) { n += ev.ab[j][2]; } }\n");
+        sb.append("      if (ev.vb) n += ev.vb[1];\n");
+        sb.append("      return n;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_send(ev) {\n");
+        sb.append("      if (JARIDA_size >= JARIDA_BUFFER_CAP) {\n");
+        sb.append("        JARIDA_dropped++;\n");
+        sb.append("      } else {\n");
+        sb.append("        JARIDA_ring[(JARIDA_head + JARIDA_size) % JARIDA_BUFFER_CAP] = ev;\n");
+        sb.append("        JARIDA_size++;\n");
+        sb.append("        JARIDA_statsFor(ev.h).e += JARIDA_eventBytes(ev);\n");
+        sb.append("      }\n");
+        sb.append("      if (JARIDA_size >= JARIDA_BATCH_SIZE || JARIDA_FLUSH_MS <= 0) {\n");
+        sb.append("        if (!JARIDA_flushSoon) {\n");
+        sb.append("          if (JARIDA_flushTimer !== null) { clearTimeout(JARIDA_flushTimer); }\n");
+        sb.append("          JARIDA_flushSoon = true;\n");
+        sb.append("          JARIDA_flushTimer = setTimeout(JARIDA_flush, 0);\n");
+        sb.append("        }\n");
+        sb.append("      } else if (JARIDA_flushTimer === null) {\n");
+        sb.append("        JARIDA_flushTimer = setTimeout(JARIDA_flush, JARIDA_FLUSH_MS);\n");
+        sb.append("      }\n");
+        sb.append("    }\n");
+
+        // Per-hook aggregates: call latency timed with a monotonic clock (microseconds) in log buckets
+        // matching LatencyHistogram, sampled/dropped counts, and calls / exceptions / patched returns /
+        // estimated bytes emitted; deltas are shipped as
+        // {j, k: 'st', ms, hs: [{h, n, sum, max, b, s, d, c, x, p, e}]} at most once per JARIDA_STATS_MS,
+        // ms being the length of the window they cover.
+        sb.append("    var JARIDA_STATS_MS = ").append(STATS_INTERVAL_MS).append(";\n");
+        sb.append("    var JARIDA_stats = {};\n");
+        sb.append("    var JARIDA_statsTimer = null;\n");
+        sb.append("    var JARIDA_statsSince = Date.now();\n");
+        // JARIDA_now reads CLOCK_MONOTONIC through libc clock_gettime, resolved once. The call keeps the
+        // JS lock ('exclusive') so the shared timespec is not overwritten by another thread. Without
+        // the export it falls back to System.nanoTime (one JNI call per read), then to Date.now, which
+        // is not monotonic and only has millisecond resolution.
+        sb.append("    var JARIDA_now = (function() {\n");
+        sb.append("      try {\n");
+        sb.append("        var addr = typeof Module.findGlobalExportByName === 'function'\n");
+        sb.append("          ? Module.findGlobalExportByName('clock_gettime') : Module.findExportByName(null, 'clock_gettime');\n");
+        sb.append("        if (addr) {\n");
+        sb.append("          var clockGettime = new NativeFunction(addr, 'int', ['int', 'pointer'], { scheduling: 'exclusive' });\n");
+        sb.append("          var ts = Memory.alloc(16);\n");
+        sb.append("          var nsec = ts.add(Process.pointerSize);\n");
+        sb.append("          var wide = Process.pointerSize === 8;\n");
+        sb.append("          return function() {\n");
+        sb.append("            clockGettime(1, ts);\n");
+        sb.append("            return wide ? ts.readS64().toNumber() * 1e6 + nsec.readS64().toNumber() / 1000\n");
+        sb.append("              : ts.readS32() * 1e6 + nsec.readS32() / 1000;\n");
+        sb.append("          };\n");
+        sb.append("        }\n");
+        sb.append("      } catch (e) {}\n");
+        sb.append("      if (J_System) { return function() { return J_System.nanoTime() / 1000; }; }\n");
+        sb.append("      return function() { return Date.now() * 1000; };\n");
+        sb.append("    })();\n");
+        sb.append("    function JARIDA_statsFor(hookId) {\n");
+        sb.append("      var st = JARIDA_stats[hookId];\n");
+        sb.append("      if (!st) { st = JARIDA_stats[hookId] = { n: 0, sum: 0, max: 0, b: {}, s: 0, d: 0, c: 0, x: 0, p: 0, e: 0 }; }\n");
+        sb.append("      if (JARIDA_statsTimer === null) {\n");
+        sb.append("        JARIDA_statsSince = Date.now();\n");
+        sb.append("        JARIDA_statsTimer = setTimeout(JARIDA_flushStats, JARIDA_STATS_MS);\n");
+        sb.append("      }\n");
+        sb.append("      return st;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_bucket(us) {\n");
+        sb.append("      var v = us < 0 ? 0 : Math.floor(us);\n");
+        sb.append("      if (v < 16) return v;\n");
+        sb.append("      if (v > 4294967295) v = 4294967295;\n");
+        sb.append("      var e = 31 - Math.clz32(v);\n");
+        sb.append("      return 16 + (e - 4) * 8 + ((v >>> (e - 3)) & 7);\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_recordLatency(hookId, us) {\n");
+        sb.append("      var st = JARIDA_statsFor(hookId);\n");
+        sb.append("      var idx = JARIDA_bucket(us);\n");
+        sb.append("      st.b[idx] = (st.b[idx] || 0) + 1;\n");
+        sb.append("      st.n++;\n");
+        sb.append("      st.sum += us;\n");
+        sb.append("      if (us > st.max) st.max = us;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_flushStats() {\n");
+        sb.append("      JARIDA_statsTimer = null;\n");
+        sb.append("      var out = [];\n");
+        sb.append("      for (var id in JARIDA_stats) {\n");
+        sb.append("        var st = JARIDA_stats[id];\n");
+        sb.append("        var b = [];\n");
+        sb.append("        for (var idx in st.b) { b.push(+idx, st.b[idx]); }\n");
+        sb.append("        out.push({ h: +id, n: st.n, sum: Math.round(st.sum), max: Math.round(st.max), b: b, s: st.s, d: st.d, c: st.c, x: st.x, p: st.p, e: st.e });\n");
+        sb.append("      }\n");
+        sb.append("      JARIDA_stats = {};\n");
+        sb.append("      if (out.length > 0) { try { send({ j: 1, k: 'st', ms: Date.now() - JARIDA_statsSince, hs: out }); } catch (e) {} }\n");
+        sb.append("    }\n");
+        // Sampling policies (SamplingMode); null means every call is traced.
+        sb.append("    function JARIDA_makeSampler(mode, value, methodSig) {\n");
+        sb.append("      if (mode === 'EVERY_NTH') {\n");
+        sb.append("        var every = Math.max(1, Math.floor(value));\n");
+        sb.append("        var seen = 0;\n");
+        sb.append("        return function() { return (seen++ % every) === 0; };\n");
+        sb.append("      }\n");
+        sb.append("      if (mode === 'PROBABILISTIC') {\n");
+        sb.append("        var p = Math.min(100, Math.max(0, value)) / 100;\n");
+        sb.append("        return function() { return Math.random() < p; };\n");
+        sb.append("      }\n");
+        sb.append("      if (mode === 'RATE_LIMIT') {\n");
+        sb.append("        var rate = Math.max(0, value);\n");
+        sb.append("        var burst = Math.max(1, rate);\n");
+        sb.append("        var tokens = burst;\n");
+        sb.append("        var last = Date.now();\n");
+        sb.append("        return function() {\n");
+        sb.append("          var now = Date.now();\n");
+        sb.append("          tokens = Math.min(burst, tokens + (now - last) * rate / 1000);\n");
+        sb.append("          last = now;\n");
+        sb.append("          if (tokens < 1) return false;\n");
+        sb.append("          tokens -= 1;\n");
+        sb.append("          return true;\n");
+        sb.append("        };\n");
+        sb.append("      }\n");
+        sb.append("      if (mode === 'FIRST_N') {\n");
+        sb.append("        var limit = Math.max(0, Math.floor(value));\n");
+        sb.append("        var count = 0;\n");
+        sb.append("        return function() {\n");
+        sb.append("          count++;\n");
+        sb.append("          if (count <= limit) return true;\n");
+        sb.append("          if (count === limit + 1) {\n");
+        sb.append("            console.log('[JARIDA] ' + methodSig + ': first ' + limit + ' call(s) traced, further calls are only counted');\n");
+        sb.append("          }\n");
+        sb.append("          return false;\n");
+        sb.append("        };\n");
+        sb.append("      }\n");
+        sb.append("      return null;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_sample(hookId, sampler) {\n");
+        sb.append("      var ok = sampler();\n");
+        sb.append("      var st = JARIDA_statsFor(hookId);\n");
+        sb.append("      if (ok) { st.s++; } else { st.d++; }\n");
+        sb.append("      return ok;\n");
+        sb.append("    }\n");
+        appendBulkDispatcher(sb);
+
         sb.append("    function isCollection(obj) {\n");
         sb.append("      if (!J_Collection) return false;\n");
         sb.append("      try { return J_Collection.class.isInstance(obj); } catch (e) { return false; }\n");
@@ -196,6 +732,64 @@ public final class HookScriptGenerator {
         sb.append("      try { return J_Map.class.isInstance(obj); } catch (e) { return false; }\n");
         sb.append("    }\n");
 
+        // Kinds are cached per $className. When that names java.lang.Object, an interface or an abstract
+        // class (the declared type of the wrapper on some Frida versions), it does not settle the kind,
+        // and the runtime class name is read from JNI instead, one getObjectClassName call per value.
+        sb.append("    var JARIDA_kindCache = {};\n");
+        sb.append("    var JARIDA_openTypes = { 'java.lang.Object': true };\n");
+        sb.append("    function JARIDA_classNameOf(obj) {\n");
+        sb.append("      try { return Java.vm.getEnv().getObjectClassName(obj.$h); } catch (e) {}\n");
+        sb.append("      try { return obj.getClass().getName(); } catch (e) { return obj.$className; }\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_isOpenType(name) {\n");
+        sb.append("      var open = JARIDA_openTypes[name];\n");
+        sb.append("      if (open === undefined) {\n");
+        sb.append("        open = false;\n");
+        sb.append("        try { open = (Java.use(name).class.getModifiers() & 0x600) !== 0; } catch (e) {}\n");
+        sb.append("        JARIDA_openTypes[name] = open;\n");
+        sb.append("      }\n");
+        sb.append("      return open;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_kindOf(obj, className) {\n");
+        sb.append("      var name = JARIDA_isOpenType(className) ? JARIDA_classNameOf(obj) : className;\n");
+        sb.append("      var kind = JARIDA_kindCache[name];\n");
+        sb.append("      if (kind === undefined) {\n");
+        sb.append("        kind = isBundle(obj) ? 'b' : isIntent(obj) ? 'i' : isMap(obj) ? 'm' : isCollection(obj) ? 'c' : 'o';\n");
+        sb.append("        JARIDA_kindCache[name] = kind;\n");
+        sb.append("      }\n");
+        sb.append("      return kind;\n");
+        sb.append("    }\n");
+        // Kinds: y = byte[], a = other array, b = Bundle, i = Intent, m = Map, c = Collection, o = object.
+        sb.append("    function JARIDA_formatKind(obj, kind, opts, depth, seen) {\n");
+        sb.append("      for (var si = 0; si < seen.length; si++) { if (seen[si] === obj) return '<cycle>'; }\n");
+        sb.append("      seen.push(obj);\n");
+        sb.append("      try {\n");
+        sb.append("        switch (kind) {\n");
+        sb.append("          case 'y': return byteArrayToString(obj);\n");
+        sb.append("          case 'a': return arrayToString(obj);\n");
+        sb.append("          case 'b': return bundleToString(obj, opts, depth, seen);\n");
+        sb.append("          case 'i': return intentToString(obj, opts, depth, seen);\n");
+        sb.append("          case 'm': return mapToString(obj, opts, depth, seen);\n");
+        sb.append("          case 'c': return collectionToString(obj, opts, depth, seen);\n");
+        sb.append("          default: return objectToString(obj, opts, depth, seen);\n");
+        sb.append("        }\n");
+        sb.append("      } finally { seen.pop(); }\n");
+        sb.append("    }\n");
+        // Kind of every value of a field, known from its declared type alone when that type is an
+        // array, final, or a Bundle / Intent (nothing ranks above those); null when the runtime class
+        // decides, e.g. an Object or List field holding a value that is also a Map.
+        sb.append("    function JARIDA_declaredKind(type, typeName) {\n");
+        sb.append("      if (typeName === '[B') return 'y';\n");
+        sb.append("      if (typeName.charAt(0) === '[') return 'a';\n");
+        sb.append("      try {\n");
+        sb.append("        if (J_Bundle && J_Bundle.class.isAssignableFrom(type)) return 'b';\n");
+        sb.append("        if (J_Intent && J_Intent.class.isAssignableFrom(type)) return 'i';\n");
+        sb.append("        if ((type.getModifiers() & 16) === 0) return null;\n");
+        sb.append("        if (J_Map && J_Map.class.isAssignableFrom(type)) return 'm';\n");
+        sb.append("        if (J_Collection && J_Collection.class.isAssignableFrom(type)) return 'c';\n");
+        sb.append("        return 'o';\n");
+        sb.append("      } catch (e) { return null; }\n");
+        sb.append("    }\n");
         sb.append("    function collectionToString(obj, opts, depth, seen) {\n");
         sb.append("      try {\n");
         sb.append("        var arr = obj.toArray();\n");
@@ -268,14 +862,67 @@ public final class HookScriptGenerator {
         sb.append("      return '<byte[]>';\n");
         sb.append("    }\n");
 
+        // Stacks come from Java.backtrace() (no Throwable, no string formatting on the device). Each
+        // unique stack is announced once as {j, k: 'sd', si, f: [[class, method, file, line], ...]} and
+        // calls then reference it by id; older Frida versions fall back to the formatted text.
+        sb.append("    var JARIDA_STACK_LIMIT = ").append(STACK_FRAME_LIMIT).append(";\n");
+        sb.append("    var JARIDA_stackIds = {};\n");
+        sb.append("    var JARIDA_nextStackId = 0;\n");
+        sb.append("    function JARIDA_stackEvent(hookId, callId) {\n");
+        sb.append("      if (typeof Java.backtrace === 'function') {\n");
+        sb.append("        try {\n");
+        sb.append("          var bt = Java.backtrace({ limit: JARIDA_STACK_LIMIT });\n");
+        sb.append("          var si = JARIDA_stackIds[bt.id];\n");
+        sb.append("          if (si === undefined) {\n");
+        sb.append("            si = JARIDA_stackIds[bt.id] = ++JARIDA_nextStackId;\n");
+        sb.append("            var frames = [];\n");
+        sb.append("            for (var i = 0; i < bt.frames.length; i++) {\n");
+        sb.append("              var f = bt.frames[i];\n");
+        sb.append("              frames.push([f.className, f.methodName, f.fileName, f.lineNumber]);\n");
+        sb.append("            }\n");
+        sb.append("            try { send({ j: 1, k: 'sd', si: si, f: frames }); } catch (e) {}\n");
+        sb.append("          }\n");
+        sb.append("          return { k: 's', h: hookId, c: callId, si: si };\n");
+        sb.append("        } catch (e) {}\n");
+        sb.append("      }\n");
+        sb.append("      return { k: 's', h: hookId, c: callId, v: getStackTrace() };\n");
+        sb.append("    }\n");
         sb.append("    function getStackTrace() {\n");
         sb.append("      if (!J_Exception || !J_Log) return '<stack unavailable>';\n");
         sb.append("      try { return J_Log.getStackTraceString(J_Exception.$new()); } catch (e) { return '<stack unavailable: ' + e + '>'; }\n");
         sb.append("    }\n");
+        // Field plans are resolved once per runtime class: the accessible fields (setAccessible already
+        // applied), whether each value can be printed directly (primitives, String, boxed primitives)
+        // and, where the declared type settles it, the value's kind so no per-value class check is made.
+        sb.append("    var JARIDA_DIRECT_TYPES = { 'java.lang.String': 1, 'java.lang.Integer': 1, 'java.lang.Long': 1,\n");
+        sb.append("      'java.lang.Short': 1, 'java.lang.Byte': 1, 'java.lang.Boolean': 1, 'java.lang.Character': 1,\n");
+        sb.append("      'java.lang.Float': 1, 'java.lang.Double': 1 };\n");
+        sb.append("    var JARIDA_fieldCache = {};\n");
+        sb.append("    function JARIDA_fieldPlan(obj, name) {\n");
+        sb.append("      var plan = JARIDA_fieldCache[name];\n");
+        sb.append("      if (plan !== undefined) return plan;\n");
+        sb.append("      plan = { fields: [], more: 0 };\n");
+        sb.append("      try {\n");
+        sb.append("        var fields = obj.getClass().getDeclaredFields();\n");
+        sb.append("        var limit = Math.min(fields.length, JARIDA_MAX_FIELDS);\n");
+        sb.append("        for (var i = 0; i < limit; i++) {\n");
+        sb.append("          var f = fields[i];\n");
+        sb.append("          try {\n");
+        sb.append("            f.setAccessible(true);\n");
+        sb.append("            var type = f.getType();\n");
+        sb.append("            var typeName = type.getName();\n");
+        sb.append("            var direct = type.isPrimitive() || JARIDA_DIRECT_TYPES[typeName] === 1;\n");
+        sb.append("            plan.fields.push({ f: f, name: f.getName(), direct: direct, kind: direct ? null : JARIDA_declaredKind(type, typeName) });\n");
+        sb.append("          } catch (e) {}\n");
+        sb.append("        }\n");
+        sb.append("        plan.more = fields.length - limit;\n");
+        sb.append("      } catch (e) {}\n");
+        sb.append("      JARIDA_fieldCache[name] = plan;\n");
+        sb.append("      return plan;\n");
+        sb.append("    }\n");
         sb.append("    function objectToString(obj, opts, depth, seen) {\n");
         sb.append("      try {\n");
-        sb.append("        var cls = obj.getClass();\n");
-        sb.append("        var name = cls.getName();\n");
+        sb.append("        var name = JARIDA_classNameOf(obj);\n");
         sb.append("        var id = 0;\n");
         sb.append("        if (J_System) { try { id = J_System.identityHashCode(obj); } catch (e) {} }\n");
         sb.append("        if (!opts || !opts.prettyPrint) {\n");
@@ -286,17 +933,22 @@ public final class HookScriptGenerator {
         sb.append("          if (s && s !== '[object Object]') return JARIDA_truncate(s);\n");
         sb.append("        } catch (e2) {}\n");
         sb.append("        try {\n");
-        sb.append("          var fields = cls.getDeclaredFields();\n");
+        sb.append("          var plan = JARIDA_fieldPlan(obj, name);\n");
         sb.append("          var out = [];\n");
-        sb.append("          var limit = Math.min(fields.length, JARIDA_MAX_FIELDS);\n");
-        sb.append("          for (var i = 0; i < limit; i++) {\n");
-        sb.append("            var f = fields[i];\n");
+        sb.append("          for (var i = 0; i < plan.fields.length; i++) {\n");
+        sb.append("            var pf = plan.fields[i];\n");
         sb.append("            try {\n");
-        sb.append("              f.setAccessible(true);\n");
-        sb.append("              out.push(f.getName() + '=' + safeToString(f.get(obj), opts, depth + 1, seen));\n");
+        sb.append("              var v = pf.f.get(obj);\n");
+        sb.append("              if (pf.direct || v === null || v === undefined) {\n");
+        sb.append("                out.push(pf.name + '=' + (v === null || v === undefined ? 'null' : JARIDA_truncate(String(v))));\n");
+        sb.append("              } else if (pf.kind && typeof v === 'object' && depth + 1 <= JARIDA_MAX_DEPTH) {\n");
+        sb.append("                out.push(pf.name + '=' + JARIDA_formatKind(v, pf.kind, opts, depth + 1, seen));\n");
+        sb.append("              } else {\n");
+        sb.append("                out.push(pf.name + '=' + safeToString(v, opts, depth + 1, seen));\n");
+        sb.append("              }\n");
         sb.append("            } catch (e3) {}\n");
         sb.append("          }\n");
-        sb.append("          if (fields.length > limit) out.push('...+' + (fields.length - limit));\n");
+        sb.append("          if (plan.more > 0) out.push('...+' + plan.more);\n");
         sb.append("          if (out.length > 0) return name + '{' + out.join(', ') + '}';\n");
         sb.append("        } catch (e4) {}\n");
         sb.append("        return id ? (name + '@' + id) : name;\n");
@@ -367,6 +1019,32 @@ public final class HookScriptGenerator {
         sb.append("      } catch (e) { return val; }\n");
         sb.append("    }\n");
 
+        // Patch rules are compiled once when the hook unit installs; a rule that fails to compile is
+        // reported once and disabled instead of failing on every call.
+        sb.append("    var JARIDA_PATCH_PARAMS = ['ret', 'args', 'thiz', 'Java', 'send', 'console'];\n");
+        sb.append("    function JARIDA_compileFn(body) {\n");
+        sb.append("      return Function.apply(null, JARIDA_PATCH_PARAMS.concat([body]));\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_compilePatch(patch, methodSig) {\n");
+        sb.append("      if (!patch || !patch.enabled) return patch;\n");
+        sb.append("      try {\n");
+        sb.append("        if (patch.mode === 'EXPRESSION') {\n");
+        sb.append("          patch.fn = JARIDA_compileFn(patch.expr);\n");
+        sb.append("        } else if (patch.mode === 'CONDITIONAL') {\n");
+        sb.append("          patch.condFn = JARIDA_compileFn('return (' + patch.cond + ');');\n");
+        sb.append("          patch.thenFn = JARIDA_compileFn('return (' + patch.thenValue + ');');\n");
+        sb.append("          if (patch.elseValue && patch.elseValue.trim() !== '') {\n");
+        sb.append("            patch.elseFn = JARIDA_compileFn('return (' + patch.elseValue + ');');\n");
+        sb.append("          }\n");
+        sb.append("        } else if (patch.mode === 'SCRIPT') {\n");
+        sb.append("          patch.fn = JARIDA_compileFn(patch.script);\n");
+        sb.append("        }\n");
+        sb.append("      } catch (e) {\n");
+        sb.append("        console.log('[JARIDA] Patch compile error for ' + methodSig + ': ' + e);\n");
+        sb.append("        patch.enabled = false;\n");
+        sb.append("      }\n");
+        sb.append("      return patch;\n");
+        sb.append("    }\n");
         sb.append("    function applyPatch(ret, args, thiz, patch) {\n");
         sb.append("      if (!patch || !patch.enabled) return ret;\n");
         sb.append("      try {\n");
@@ -374,25 +1052,19 @@ public final class HookScriptGenerator {
         sb.append("          return patch.constValue;\n");
         sb.append("        }\n");
         sb.append("        if (patch.mode === 'EXPRESSION') {\n");
-        sb.append("          var fn = new Function('ret', 'args', 'thiz', 'Java', 'send', 'console', patch.expr);\n");
-        sb.append("          return fn(ret, args, thiz, Java, send, console);\n");
+        sb.append("          return patch.fn(ret, args, thiz, Java, send, console);\n");
         sb.append("        }\n");
         sb.append("        if (patch.mode === 'CONDITIONAL') {\n");
-        sb.append("          var cfn = new Function('ret', 'args', 'thiz', 'Java', 'send', 'console', 'return (' + patch.cond + ');');\n");
-        sb.append("          var cond = cfn(ret, args, thiz, Java, send, console);\n");
-        sb.append("          if (cond) {\n");
-        sb.append("            var tfn = new Function('ret', 'args', 'thiz', 'Java', 'send', 'console', 'return (' + patch.thenValue + ');');\n");
-        sb.append("            return tfn(ret, args, thiz, Java, send, console);\n");
+        sb.append("          if (patch.condFn(ret, args, thiz, Java, send, console)) {\n");
+        sb.append("            return patch.thenFn(ret, args, thiz, Java, send, console);\n");
         sb.append("          }\n");
-        sb.append("          if (patch.elseValue && patch.elseValue.trim() !== '') {\n");
-        sb.append("            var efn = new Function('ret', 'args', 'thiz', 'Java', 'send', 'console', 'return (' + patch.elseValue + ');');\n");
-        sb.append("            return efn(ret, args, thiz, Java, send, console);\n");
+        sb.append("          if (patch.elseFn) {\n");
+        sb.append("            return patch.elseFn(ret, args, thiz, Java, send, console);\n");
         sb.append("          }\n");
         sb.append("          return ret;\n");
         sb.append("        }\n");
         sb.append("        if (patch.mode === 'SCRIPT') {\n");
-        sb.append("          var sfn = new Function('ret', 'args', 'thiz', 'Java', 'send', 'console', patch.script);\n");
-        sb.append("          var out = sfn(ret, args, thiz, Java, send, console);\n");
+        sb.append("          var out = patch.fn(ret, args, thiz, Java, send, console);\n");
         sb.append("          if (out === undefined) return ret;\n");
         sb.append("          return out;\n");
         sb.append("        }\n");
@@ -404,7 +1076,144 @@ public final class HookScriptGenerator {
         sb.append("    }\n");
     }
 
-    private static void appendHook(StringBuilder sb, HookSpec spec, int idx) {
+    /**
+     * Shared dispatcher for bulk hooks. A bulk unit is only a table of methods; every installed
+     * overload gets a one-line closure over its table entry that calls JARIDA_dispatch, so the
+     * script grows by a row per method instead of a full hook body.
+     */
+    private static void appendBulkDispatcher(StringBuilder sb) {
+        sb.append("    function JARIDA_overloadType(t) {\n");
+        sb.append("      var dims = 0;\n");
+        sb.append("      while (t.length > 2 && t.substring(t.length - 2) === '[]') { dims++; t = t.substring(0, t.length - 2); }\n");
+        sb.append("      if (dims === 0) return t;\n");
+        sb.append("      var prim = { boolean: 'Z', byte: 'B', char: 'C', short: 'S', int: 'I', long: 'J', float: 'F', double: 'D' }[t];\n");
+        sb.append("      return new Array(dims + 1).join('[') + (prim ? prim : 'L' + t + ';');\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_dispatch(e, thiz, argsObj) {\n");
+        sb.append("      var args = [].slice.call(argsObj);\n");
+        sb.append("      var opts = e.opts;\n");
+        sb.append("      var callId = ++e.calls;\n");
+        sb.append("      JARIDA_statsFor(e.id).c++;\n");
+        sb.append("      var sampled = e.sampler === null || JARIDA_sample(e.id, e.sampler);\n");
+        sb.append("      var tid = JARIDA_tid();\n");
+        sb.append("      var depth = JARIDA_enter(tid);\n");
+        sb.append("      var startUs, ret;\n");
+        sb.append("      try {\n");
+        sb.append("        if (sampled) {\n");
+        sb.append("          if (opts.logThread) { JARIDA_threadName(tid); }\n");
+        sb.append("          var callEvent = { k: 'c', h: e.id, c: callId, tid: tid, ts: Date.now() };\n");
+        sb.append("          if (depth > 0) { callEvent.d = depth; }\n");
+        sb.append("          if (opts.logArgs) { JARIDA_setArgs(callEvent, args, opts); }\n");
+        sb.append("          JARIDA_send(callEvent);\n");
+        sb.append("          if (opts.printThis) {\n");
+        sb.append("            try { var thisEvent = { k: 't', h: e.id, c: callId }; JARIDA_setValue(thisEvent, thiz, opts); JARIDA_send(thisEvent); } catch (err) {}\n");
+        sb.append("          }\n");
+        sb.append("          if (opts.printStack) { JARIDA_send(JARIDA_stackEvent(e.id, callId)); }\n");
+        sb.append("        }\n");
+        sb.append("        startUs = opts.measureLatency ? JARIDA_now() : 0;\n");
+        sb.append("        try { ret = e.overload.apply(thiz, args); } catch (err) { JARIDA_statsFor(e.id).x++; throw err; }\n");
+        sb.append("      } finally {\n");
+        sb.append("        JARIDA_exit(tid);\n");
+        sb.append("      }\n");
+        sb.append("      if (opts.measureLatency) { JARIDA_recordLatency(e.id, JARIDA_now() - startUs); }\n");
+        sb.append("      if (sampled && opts.logReturn) {\n");
+        sb.append("        var retEvent = { k: 'r', h: e.id, c: callId, tid: tid, ts: Date.now() };\n");
+        sb.append("        if (depth > 0) { retEvent.d = depth; }\n");
+        sb.append("        if (e.ret !== 'void') { JARIDA_setValue(retEvent, ret, opts); }\n");
+        sb.append("        JARIDA_send(retEvent);\n");
+        sb.append("      }\n");
+        sb.append("      return ret;\n");
+        sb.append("    }\n");
+        sb.append("    function JARIDA_dispatcher(e) {\n");
+        sb.append("      return function() { return JARIDA_dispatch(e, this, arguments); };\n");
+        sb.append("    }\n");
+        // rows: [classIndex, methodName, returnType, argTypes, displaySignature?]
+        sb.append("    function JARIDA_installTable(key, scope, opts, sampling, classes, rows) {\n");
+        sb.append("      var missing = {};\n");
+        sb.append("      var installed = [];\n");
+        sb.append("      for (var i = 0; i < rows.length; i++) {\n");
+        sb.append("        var row = rows[i];\n");
+        sb.append("        var className = classes[row[0]];\n");
+        sb.append("        if (missing[className] || !JARIDA_tryUse(className)) { missing[className] = true; continue; }\n");
+        sb.append("        var argTypes = row[3];\n");
+        sb.append("        var sig = row.length > 4 ? row[4] : className + '.' + row[1] + '(' + argTypes.join(', ') + '):' + row[2];\n");
+        sb.append("        var overload = null;\n");
+        sb.append("        try { overload = JARIDA_overload(className, row[1], argTypes.map(JARIDA_overloadType)); } catch (err) {}\n");
+        sb.append("        if (!overload) continue;\n");
+        sb.append("        var e = { id: ++JARIDA_nextHookId, ret: row[2], overload: overload, opts: opts, calls: 0,\n");
+        sb.append("          sampler: JARIDA_makeSampler(sampling[0], sampling[1], sig) };\n");
+        sb.append("        try { send({ j: 1, k: 'h', h: e.id, key: key, sig: sig }); } catch (err) {}\n");
+        sb.append("        try {\n");
+        sb.append("          JARIDA_claim(overload, key, JARIDA_dispatcher(e), true);\n");
+        sb.append("          installed.push(overload);\n");
+        sb.append("        } catch (err) {}\n");
+        sb.append("      }\n");
+        sb.append("      console.log('[JARIDA] ' + scope + ': hooked ' + installed.length + '/' + rows.length + ' method(s)');\n");
+        sb.append("      return function() {\n");
+        sb.append("        for (var j = 0; j < installed.length; j++) {\n");
+        sb.append("          JARIDA_release(installed[j], key);\n");
+        sb.append("        }\n");
+        sb.append("      };\n");
+        sb.append("    }\n");
+    }
+
+    private static void appendBulkHook(StringBuilder sb, HookSpec spec) {
+        ScriptOptions opt = spec.getOptions() != null ? spec.getOptions() : new ScriptOptions();
+        java.util.Map<String, Integer> classIndex = new java.util.LinkedHashMap<>();
+        StringBuilder rows = new StringBuilder();
+        for (MethodTarget target : spec.getTargets()) {
+            Integer index = classIndex.get(target.getClassName());
+            if (index == null) {
+                index = classIndex.size();
+                classIndex.put(target.getClassName(), index);
+            }
+            List<String> argTypes = target.getArgTypes();
+            rows.append(rows.length() == 0 ? "\n      [" : ",\n      [");
+            rows.append(index).append(", ").append(JsEscaper.quote(target.getMethodName())).append(", ")
+                    .append(JsEscaper.quote(target.getReturnType())).append(", [");
+            for (int i = 0; i < argTypes.size(); i++) {
+                if (i > 0) {
+                    rows.append(", ");
+                }
+                rows.append(JsEscaper.quote(argTypes.get(i)));
+            }
+            rows.append("]");
+            // the agent derives the signature; only renamed methods need it spelled out
+            String derived = target.getClassName() + "." + target.getMethodName()
+                    + "(" + String.join(", ", argTypes) + "):" + target.getReturnType();
+            if (!derived.equals(target.getDisplaySignature())) {
+                rows.append(", ").append(JsEscaper.quote(target.getDisplaySignature()));
+            }
+            rows.append("]");
+        }
+        sb.append("function(HOOK_ID, HOOK_KEY) {\n");
+        sb.append("    // Bulk hook: ").append(spec.getScope()).append(" (").append(spec.getTargets().size()).append(" methods)\n");
+        sb.append("    return JARIDA_installTable(HOOK_KEY, ").append(JsEscaper.quote(spec.getScope())).append(", {\n");
+        sb.append("      logArgs: ").append(opt.isLogArgs()).append(",\n");
+        sb.append("      logReturn: ").append(opt.isLogReturn()).append(",\n");
+        sb.append("      logThread: ").append(opt.isLogThread()).append(",\n");
+        sb.append("      printStack: ").append(opt.isPrintStack()).append(",\n");
+        sb.append("      printThis: ").append(opt.isPrintThis()).append(",\n");
+        sb.append("      prettyPrint: ").append(opt.isPrettyPrint()).append(",\n");
+        sb.append("      measureLatency: ").append(opt.isMeasureLatency()).append(",\n");
+        sb.append("      lazyObjects: ").append(opt.isLazyObjects()).append(",\n");
+        sb.append("      bytes: ").append(opt.getByteCaptureLimit()).append(",\n");
+        sb.append("      keepBytes: ").append(opt.isKeepFullBytes()).append("\n");
+        sb.append("    }, [").append(JsEscaper.quote(opt.getSamplingMode().name())).append(", ")
+                .append(formatNumber(opt.getSamplingValue())).append("], [");
+        boolean first = true;
+        for (String className : classIndex.keySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(JsEscaper.quote(className));
+        }
+        sb.append("], [").append(rows).append("\n    ]);\n");
+        sb.append("    }");
+    }
+
+    private static void appendHook(StringBuilder sb, HookSpec spec) {
         MethodTarget target = spec.getTarget();
         ScriptOptions opt = spec.getOptions();
         ReturnPatchRule patch = spec.getReturnPatchRule();
@@ -413,11 +1222,13 @@ public final class HookScriptGenerator {
         for (String argType : argTypes) {
             overloadArgTypes.add(TypeUtil.toOverloadType(argType));
         }
-        String suffix = "_" + idx;
+        // units run in their own function scope; the suffix only keeps template aliases below unambiguous
+        String suffix = "_h";
         String extraScript = spec.getExtraScript();
         boolean hasExtra = extraScript != null && !extraScript.trim().isEmpty();
         TemplatePosition position = spec.getTemplatePosition();
 
+        sb.append("function(HOOK_ID, HOOK_KEY) {\n");
         sb.append("    try {\n");
         sb.append("    // Hook: ").append(target.getDisplaySignature()).append("\n");
         sb.append("    var TARGET_CLASS").append(suffix).append(" = ").append(JsEscaper.quote(target.getClassName())).append(";\n");
@@ -439,10 +1250,14 @@ public final class HookScriptGenerator {
         sb.append("      logThread: ").append(opt.isLogThread()).append(",\n");
         sb.append("      printStack: ").append(opt.isPrintStack()).append(",\n");
         sb.append("      printThis: ").append(opt.isPrintThis()).append(",\n");
-        sb.append("      prettyPrint: ").append(opt.isPrettyPrint()).append("\n");
+        sb.append("      prettyPrint: ").append(opt.isPrettyPrint()).append(",\n");
+        sb.append("      measureLatency: ").append(opt.isMeasureLatency()).append(",\n");
+        sb.append("      lazyObjects: ").append(opt.isLazyObjects()).append(",\n");
+        sb.append("      bytes: ").append(opt.getByteCaptureLimit()).append(",\n");
+        sb.append("      keepBytes: ").append(opt.isKeepFullBytes()).append("\n");
         sb.append("    };\n");
         boolean enabled = patch != null && patch.isEnabled() && !TypeUtil.isVoid(target.getReturnType());
-        sb.append("    var PATCH").append(suffix).append(" = {\n");
+        sb.append("    var PATCH").append(suffix).append(" = JARIDA_compilePatch({\n");
         sb.append("      enabled: ").append(enabled).append(",\n");
         sb.append("      mode: ").append(JsEscaper.quote(patch == null ? "" : patch.getMode().name())).append(",\n");
         sb.append("      constValue: ").append(buildConstantLiteral(patch, target.getReturnType())).append(",\n");
@@ -451,95 +1266,123 @@ public final class HookScriptGenerator {
         sb.append("      thenValue: ").append(JsEscaper.quote(safe(patch == null ? null : patch.getThenValue()))).append(",\n");
         sb.append("      elseValue: ").append(JsEscaper.quote(safe(patch == null ? null : patch.getElseValue()))).append(",\n");
         sb.append("      script: ").append(JsEscaper.quote(safe(patch == null ? null : patch.getScriptBody()))).append("\n");
-        sb.append("    };\n");
+        sb.append("    }, METHOD_SIG").append(suffix).append(");\n");
+        sb.append("    var SAMPLER").append(suffix).append(" = JARIDA_makeSampler(")
+                .append(JsEscaper.quote(opt.getSamplingMode().name())).append(", ")
+                .append(formatNumber(opt.getSamplingValue())).append(", METHOD_SIG").append(suffix).append(");\n");
 
-        sb.append("    var clazz").append(suffix).append(" = Java.use(TARGET_CLASS").append(suffix).append(");\n");
         sb.append("    var CALL_COUNT").append(suffix).append(" = 0;\n");
         sb.append("    var overload").append(suffix).append(" = null;\n");
-        if (target.isConstructor()) {
-            sb.append("    var ctor").append(suffix).append(" = clazz").append(suffix).append(".$init;\n");
-            sb.append("    if (!ctor").append(suffix).append(") {\n");
-            sb.append("      console.log('[JARIDA] Hook skipped, constructor not found: ' + TARGET_CLASS").append(suffix).append(");\n");
-            sb.append("    } else {\n");
-            sb.append("      try {\n");
-            sb.append("        overload").append(suffix).append(" = ctor").append(suffix);
-        } else {
-            sb.append("    var methodRef").append(suffix).append(" = clazz").append(suffix).append("[TARGET_METHOD").append(suffix).append("];\n");
-            sb.append("    if (!methodRef").append(suffix).append(") {\n");
-            sb.append("      console.log('[JARIDA] Hook skipped, method not found: ' + METHOD_SIG").append(suffix).append(");\n");
-            sb.append("    } else {\n");
-            sb.append("      try {\n");
-            sb.append("        overload").append(suffix).append(" = methodRef").append(suffix);
+        sb.append("    try {\n");
+        sb.append("      overload").append(suffix).append(" = JARIDA_overload(TARGET_CLASS").append(suffix)
+                .append(", TARGET_METHOD").append(suffix).append(", [");
+        for (int i = 0; i < overloadArgTypes.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(JsEscaper.quote(overloadArgTypes.get(i)));
         }
-        if (argTypes.isEmpty()) {
-            sb.append(".overload();\n");
+        sb.append("]);\n");
+        sb.append("      if (!overload").append(suffix).append(") {\n");
+        if (target.isConstructor()) {
+            sb.append("        console.log('[JARIDA] Hook skipped, constructor not found: ' + TARGET_CLASS").append(suffix).append(");\n");
         } else {
-            sb.append(".overload(");
-            for (int i = 0; i < overloadArgTypes.size(); i++) {
-                if (i > 0) {
-                    sb.append(", ");
-                }
-                sb.append(JsEscaper.quote(overloadArgTypes.get(i)));
-            }
-            sb.append(");\n");
+            sb.append("        console.log('[JARIDA] Hook skipped, method not found: ' + METHOD_SIG").append(suffix).append(");\n");
         }
-        sb.append("      } catch (e) {\n");
-        sb.append("        console.log('[JARIDA] Hook skipped (no overload): ' + METHOD_SIG").append(suffix).append(" + ' => ' + e);\n");
         sb.append("      }\n");
+        sb.append("    } catch (e) {\n");
+        sb.append("      console.log('[JARIDA] Hook skipped (no overload): ' + METHOD_SIG").append(suffix).append(" + ' => ' + e);\n");
         sb.append("    }\n");
 
         sb.append("    if (overload").append(suffix).append(") {\n");
-        sb.append("    overload").append(suffix).append(".implementation = function() {\n");
+        // registrations bypass the ring buffer so overflow never loses a hook's signature
+        sb.append("    try { send({ j: 1, k: 'h', h: HOOK_ID, key: HOOK_KEY, sig: METHOD_SIG").append(suffix).append(" }); } catch (e) {}\n");
+        sb.append("    JARIDA_claim(overload").append(suffix).append(", HOOK_KEY, function() {\n");
         sb.append("      var args = [].slice.call(arguments);\n");
-        sb.append("      var threadName = null;\n");
-        sb.append("      if (OPTIONS").append(suffix).append(".logThread && J_Thread) {\n");
-        sb.append("        try { threadName = J_Thread.currentThread().getName(); } catch (e) {}\n");
-        sb.append("      }\n");
         sb.append("      var callId = ++CALL_COUNT").append(suffix).append(";\n");
-        sb.append("      var callLine = formatCall(METHOD_SIG").append(suffix).append(", args, OPTIONS").append(suffix).append(", threadName);\n");
-        sb.append("      var prefix = '[JARIDA] #' + callId + ' ';\n");
-        sb.append("      console.log(prefix + 'CALL ' + callLine);\n");
-        sb.append("      var TARGET_CLASS = TARGET_CLASS").append(suffix).append(";\n");
-        sb.append("      var TARGET_METHOD = TARGET_METHOD").append(suffix).append(";\n");
-        sb.append("      var METHOD_SIG = METHOD_SIG").append(suffix).append(";\n");
-        sb.append("      if (OPTIONS").append(suffix).append(".printThis) {\n");
-        sb.append("        try { console.log(prefix + 'THIS ' + safeToString(this, OPTIONS").append(suffix).append(")); } catch (e) {}\n");
-        sb.append("      }\n");
-        sb.append("      if (OPTIONS").append(suffix).append(".printStack) {\n");
-        sb.append("        console.log(prefix + 'STACK\\n' + getStackTrace());\n");
-        sb.append("      }\n");
+        sb.append("      JARIDA_statsFor(HOOK_ID).c++;\n");
+        // sampling is decided before any formatting; unsampled calls still run templates and patches
+        sb.append("      var sampled = SAMPLER").append(suffix).append(" === null || JARIDA_sample(HOOK_ID, SAMPLER").append(suffix).append(");\n");
+        sb.append("      var tid = JARIDA_tid();\n");
+        sb.append("      var depth = JARIDA_enter(tid);\n");
+        // everything after JARIDA_enter runs inside the try, so the depth always comes down again
+        sb.append("      try {\n");
+        sb.append("        if (sampled) {\n");
+        sb.append("          if (OPTIONS").append(suffix).append(".logThread) { JARIDA_threadName(tid); }\n");
+        sb.append("          var callEvent = { k: 'c', h: HOOK_ID, c: callId, tid: tid, ts: Date.now() };\n");
+        sb.append("          if (depth > 0) { callEvent.d = depth; }\n");
+        sb.append("          if (OPTIONS").append(suffix).append(".logArgs) { JARIDA_setArgs(callEvent, args, OPTIONS").append(suffix).append("); }\n");
+        sb.append("          JARIDA_send(callEvent);\n");
+        sb.append("        }\n");
+        sb.append("        var TARGET_CLASS = TARGET_CLASS").append(suffix).append(";\n");
+        sb.append("        var TARGET_METHOD = TARGET_METHOD").append(suffix).append(";\n");
+        sb.append("        var METHOD_SIG = METHOD_SIG").append(suffix).append(";\n");
+        sb.append("        if (sampled && OPTIONS").append(suffix).append(".printThis) {\n");
+        sb.append("          try {\n");
+        sb.append("            var thisEvent = { k: 't', h: HOOK_ID, c: callId };\n");
+        sb.append("            JARIDA_setValue(thisEvent, this, OPTIONS").append(suffix).append(");\n");
+        sb.append("            JARIDA_send(thisEvent);\n");
+        sb.append("          } catch (e) {}\n");
+        sb.append("        }\n");
+        sb.append("        if (sampled && OPTIONS").append(suffix).append(".printStack) {\n");
+        sb.append("          JARIDA_send(JARIDA_stackEvent(HOOK_ID, callId));\n");
+        sb.append("        }\n");
         if (hasExtra && position == TemplatePosition.PREPEND) {
-            appendExtraScriptInline(sb, extraScript, "      ");
+            appendExtraScriptInline(sb, extraScript, "        ");
         }
 
-        sb.append("      var ret = overload").append(suffix).append(".call(this");
+        sb.append("        var startUs = OPTIONS").append(suffix).append(".measureLatency ? JARIDA_now() : 0;\n");
+        sb.append("        var ret;\n");
+        sb.append("        try {\n");
+        sb.append("          ret = overload").append(suffix).append(".call(this");
         if (!argTypes.isEmpty()) {
             for (int i = 0; i < argTypes.size(); i++) {
                 sb.append(", args[").append(i).append("]");
             }
         }
         sb.append(");\n");
+        sb.append("        } catch (err) {\n");
+        sb.append("          JARIDA_statsFor(HOOK_ID).x++;\n");
+        sb.append("          throw err;\n");
+        sb.append("        }\n");
+        sb.append("      } finally {\n");
+        sb.append("        JARIDA_exit(tid);\n");
+        sb.append("      }\n");
+        sb.append("      if (OPTIONS").append(suffix).append(".measureLatency) { JARIDA_recordLatency(HOOK_ID, JARIDA_now() - startUs); }\n");
 
         if (hasExtra && position == TemplatePosition.APPEND) {
             appendExtraScriptInline(sb, extraScript, "      ");
         }
-        sb.append("      if (OPTIONS").append(suffix).append(".logReturn) {\n");
-        sb.append("        if (RETURN_TYPE").append(suffix).append(" === 'void') {\n");
-        sb.append("          console.log(prefix + 'RET  ' + METHOD_SIG").append(suffix).append(" + ' => void');\n");
-        sb.append("        } else {\n");
-        sb.append("          console.log(prefix + 'RET  ' + METHOD_SIG").append(suffix).append(" + ' => ' + safeToString(ret, OPTIONS").append(suffix).append("));\n");
-        sb.append("        }\n");
+        sb.append("      if (sampled && OPTIONS").append(suffix).append(".logReturn) {\n");
+        sb.append("        var retEvent = { k: 'r', h: HOOK_ID, c: callId, tid: tid, ts: Date.now() };\n");
+        sb.append("        if (depth > 0) { retEvent.d = depth; }\n");
+        sb.append("        if (RETURN_TYPE").append(suffix).append(" !== 'void') { JARIDA_setValue(retEvent, ret, OPTIONS").append(suffix).append("); }\n");
+        sb.append("        JARIDA_send(retEvent);\n");
         sb.append("      }\n");
         sb.append("      var patched = applyPatch(ret, args, this, PATCH").append(suffix).append(");\n");
-        sb.append("      if (patched !== ret && RETURN_TYPE").append(suffix).append(" !== 'void') {\n");
-        sb.append("        console.log(prefix + 'RET  ' + METHOD_SIG").append(suffix).append(" + ' => ' + safeToString(patched, OPTIONS").append(suffix).append(") + ' (patched)');\n");
+        sb.append("      if (patched !== ret) { JARIDA_statsFor(HOOK_ID).p++; }\n");
+        sb.append("      if (sampled && patched !== ret && RETURN_TYPE").append(suffix).append(" !== 'void') {\n");
+        sb.append("        var patchEvent = { k: 'p', h: HOOK_ID, c: callId, tid: tid, ts: Date.now() };\n");
+        sb.append("        JARIDA_setValue(patchEvent, patched, OPTIONS").append(suffix).append(");\n");
+        sb.append("        JARIDA_send(patchEvent);\n");
         sb.append("      }\n");
         sb.append("      if (RETURN_TYPE").append(suffix).append(" === 'void') { return; }\n");
         sb.append("      return castReturn(patched, RETURN_TYPE").append(suffix).append(");\n");
-        sb.append("    };\n");
+        sb.append("    }, false);\n");
         sb.append("    }\n");
         // avoid noisy "Hooked" logs on auto-reload; extra scripts are injected per-call
         sb.append("    } catch (e) { console.log('[JARIDA] Hook error: ' + e); }\n");
+        sb.append("    return function() {\n");
+        sb.append("      if (overload").append(suffix).append(") { JARIDA_release(overload").append(suffix).append(", HOOK_KEY); }\n");
+        sb.append("    };\n");
+        sb.append("    }");
+    }
+
+    private static String formatNumber(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
     }
 
     private static String safe(String value) {
@@ -0,0 +1,195 @@
+package com.jarida.jadxfrida.frida;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal reader for JSON and Python literals (dict, list, str, int, float, True/False/None),
+ * used for frida CLI message lines and the bridge protocol.
+ */
+final class LiteralParser {
+    private final String text;
+    private int pos;
+
+    LiteralParser(String text, int pos) {
+        this.text = text;
+        this.pos = pos;
+    }
+
+    Object parseValue() {
+        skipWhitespace();
+        char c = peek();
+        switch (c) {
+            case '{':
+                return parseObject();
+            case '[':
+                return parseArray();
+            case '\'':
+            case '"':
+                return parseString();
+            default:
+                if (c == '-' || Character.isDigit(c)) {
+                    return parseNumber();
+                }
+                return parseKeyword();
+        }
+    }
+
+    private Map<String, Object> parseObject() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        expect('{');
+        while (true) {
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            String key = String.valueOf(parseValue());
+            skipWhitespace();
+            expect(':');
+            map.put(key, parseValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            }
+        }
+    }
+
+    private List<Object> parseArray() {
+        List<Object> list = new ArrayList<>();
+        expect('[');
+        while (true) {
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            list.add(parseValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            }
+        }
+    }
+
+    private String parseString() {
+        char quote = text.charAt(pos++);
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == quote) {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = next();
+            switch (e) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'x':
+                    sb.append((char) hex(2));
+                    break;
+                case 'u':
+                    sb.append((char) hex(4));
+                    break;
+                case 'U':
+                    sb.appendCodePoint(hex(8));
+                    break;
+                default:
+                    sb.append(e);
+            }
+        }
+    }
+
+    private Number parseNumber() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(Character.isDigit(c) || c == '-' || c == '+')) {
+                break;
+            }
+            pos++;
+        }
+        String num = text.substring(start, pos);
+        if (decimal) {
+            return Double.parseDouble(num);
+        }
+        return Long.parseLong(num);
+    }
+
+    private Object parseKeyword() {
+        int start = pos;
+        while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+            pos++;
+        }
+        String word = text.substring(start, pos);
+        switch (word) {
+            case "True":
+            case "true":
+                return Boolean.TRUE;
+            case "False":
+            case "false":
+                return Boolean.FALSE;
+            case "None":
+            case "null":
+                return null;
+            default:
+                throw new IllegalArgumentException("Unexpected token at " + start);
+        }
+    }
+
+    private int hex(int digits) {
+        if (pos + digits > text.length()) {
+            throw new IllegalArgumentException("Truncated escape");
+        }
+        int value = Integer.parseInt(text.substring(pos, pos + digits), 16);
+        pos += digits;
+        return value;
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw new IllegalArgumentException("Expected '" + c + "' at " + (pos - 1));
+        }
+    }
+
+    private char next() {
+        if (pos >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of message");
+        }
+        return text.charAt(pos++);
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of message");
+        }
+        return text.charAt(pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+}
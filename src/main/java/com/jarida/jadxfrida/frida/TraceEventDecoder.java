@@ -0,0 +1,347 @@
+package com.jarida.jadxfrida.frida;
+
+import com.jarida.jadxfrida.model.HookStats;
+import com.jarida.jadxfrida.model.LatencyHistogram;
+import com.jarida.jadxfrida.model.StackDictionary;
+import com.jarida.jadxfrida.model.StackProfile;
+import com.jarida.jadxfrida.model.TraceEvent;
+import com.jarida.jadxfrida.util.HexUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Decodes structured hook events sent by the generated agent via {@code send()}.
+ */
+public class TraceEventDecoder {
+    static final String SCHEMA_KEY = "j";
+
+    private final Map<Integer, String> hookSignatures = new ConcurrentHashMap<>();
+    private final Map<Integer, String> hookKeys = new ConcurrentHashMap<>();
+    private final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+    private final Map<String, HookStats> hookStats = new LinkedHashMap<>();
+    private final StackDictionary stacks = new StackDictionary();
+    private final StackProfile stackProfile = new StackProfile();
+    private volatile Consumer<Map<String, HookStats>> statsListener;
+
+    public void reset() {
+        resetScript();
+        threadNames.clear();
+        synchronized (hookStats) {
+            hookStats.clear();
+        }
+    }
+
+    /**
+     * Forgets what is keyed by the agent's own ids (hook ids and stack ids), which start over whenever
+     * the script is loaded again. Per-hook aggregates are keyed by hook key and thread names by tid,
+     * so they are kept.
+     */
+    public void resetScript() {
+        hookSignatures.clear();
+        hookKeys.clear();
+        stacks.clear();
+        stackProfile.clear();
+    }
+
+    /**
+     * Receives a snapshot of all hook aggregates, keyed by hook key, whenever the agent reports new ones.
+     */
+    public void setStatsListener(Consumer<Map<String, HookStats>> statsListener) {
+        this.statsListener = statsListener;
+    }
+
+    public Map<String, HookStats> getHookStats() {
+        synchronized (hookStats) {
+            Map<String, HookStats> snapshot = new LinkedHashMap<>();
+            for (Map.Entry<String, HookStats> entry : hookStats.entrySet()) {
+                snapshot.put(entry.getKey(), entry.getValue().copy());
+            }
+            return snapshot;
+        }
+    }
+
+    public StackDictionary getStacks() {
+        return stacks;
+    }
+
+    /**
+     * Stack id counts per hook signature, fed by interned stack events.
+     */
+    public StackProfile getStackProfile() {
+        return stackProfile;
+    }
+
+    /**
+     * Decodes one frida script message. Returns false when it is not a Jarida payload and should be
+     * logged verbatim; otherwise every decoded event is passed to the sink.
+     */
+    public boolean decodeMessage(Map<?, ?> message, Consumer<TraceEvent> sink) {
+        return decodeMessage(message, null, sink);
+    }
+
+    /**
+     * Same as {@link #decodeMessage(Map, Consumer)}; {@code data} is the Base64 encoded binary payload
+     * the bridge forwards with the message, holding captured {@code byte[]} values of the batch.
+     */
+    public boolean decodeMessage(Map<?, ?> message, String data, Consumer<TraceEvent> sink) {
+        if (message == null || !"send".equals(message.get("type"))) {
+            return false;
+        }
+        Object payload = message.get("payload");
+        if (!(payload instanceof Map) || !((Map<?, ?>) payload).containsKey(SCHEMA_KEY)) {
+            return false;
+        }
+        byte[] blob = null;
+        if (data != null && !data.isEmpty()) {
+            try {
+                blob = Base64.getDecoder().decode(data);
+            } catch (IllegalArgumentException ignored) {
+                // malformed binary payload: byte[] values stay as placeholders
+            }
+        }
+        handlePayload((Map<?, ?>) payload, blob, sink);
+        return true;
+    }
+
+    private void handlePayload(Map<?, ?> payload, byte[] blob, Consumer<TraceEvent> sink) {
+        String kind = asString(payload.get("k"));
+        if ("b".equals(kind)) {
+            Object events = payload.get("ev");
+            if (events instanceof List) {
+                for (Object event : (List<?>) events) {
+                    if (event instanceof Map) {
+                        handlePayload((Map<?, ?>) event, blob, sink);
+                    }
+                }
+            }
+            long dropped = asLong(payload.get("d"));
+            if (dropped > 0 && sink != null) {
+                sink.accept(new TraceEvent(TraceEvent.Kind.DROPPED, 0, null, 0, 0, null,
+                        System.currentTimeMillis(), null, String.valueOf(dropped)));
+            }
+            return;
+        }
+        if ("st".equals(kind)) {
+            long windowMs = asLong(payload.get("ms"));
+            handleStats(payload.get("hs"), windowMs > 0 ? windowMs : HookScriptGenerator.STATS_INTERVAL_MS);
+            return;
+        }
+        if ("sd".equals(kind)) {
+            handleStackDefinition(payload);
+            return;
+        }
+        if ("tn".equals(kind)) {
+            String name = asString(payload.get("n"));
+            if (name != null) {
+                threadNames.put(asLong(payload.get("tid")), name);
+            }
+            return;
+        }
+        int hookId = (int) asLong(payload.get("h"));
+        if ("h".equals(kind)) {
+            String sig = asString(payload.get("sig"));
+            if (sig != null) {
+                hookSignatures.put(hookId, sig);
+            }
+            String key = asString(payload.get("key"));
+            if (key != null) {
+                hookKeys.put(hookId, key);
+            }
+            return;
+        }
+        TraceEvent.Kind type = toKind(kind);
+        if (type == null || sink == null) {
+            return;
+        }
+        String signature = hookSignatures.get(hookId);
+        if (signature == null) {
+            signature = "hook#" + hookId;
+        }
+        List<String> args = null;
+        Object rawArgs = payload.get("a");
+        if (rawArgs instanceof List) {
+            args = new ArrayList<>();
+            for (Object arg : (List<?>) rawArgs) {
+                args.add(arg == null ? "null" : String.valueOf(arg));
+            }
+        }
+        long[] argHandles = null;
+        Object rawHandles = payload.get("ah");
+        if (rawHandles instanceof List) {
+            List<?> handles = (List<?>) rawHandles;
+            argHandles = new long[handles.size()];
+            for (int i = 0; i < argHandles.length; i++) {
+                argHandles[i] = asLong(handles.get(i));
+            }
+        }
+        byte[][] argBytes = null;
+        Object rawArgBytes = payload.get("ab");
+        if (rawArgBytes instanceof List && args != null) {
+            for (Object raw : (List<?>) rawArgBytes) {
+                if (!(raw instanceof List) || ((List<?>) raw).size() < 4) {
+                    continue;
+                }
+                List<?> ref = (List<?>) raw;
+                int index = (int) asLong(ref.get(0));
+                byte[] bytes = slice(blob, ref.subList(1, 4));
+                if (bytes == null || index < 0 || index >= args.size()) {
+                    continue;
+                }
+                if (argBytes == null) {
+                    argBytes = new byte[args.size()][];
+                }
+                argBytes[index] = bytes;
+                args.set(index, renderBytes(bytes, asLong(ref.get(3))));
+            }
+        }
+        String value = asString(payload.get("v"));
+        if (type == TraceEvent.Kind.STACK && payload.get("si") instanceof Number) {
+            int stackId = (int) asLong(payload.get("si"));
+            stackProfile.record(signature, stackId);
+            value = stacks.render(stackId);
+        }
+        byte[] valueBytes = null;
+        Object rawValueBytes = payload.get("vb");
+        if (rawValueBytes instanceof List && ((List<?>) rawValueBytes).size() >= 3) {
+            valueBytes = slice(blob, (List<?>) rawValueBytes);
+            if (valueBytes != null) {
+                value = renderBytes(valueBytes, asLong(((List<?>) rawValueBytes).get(2)));
+            }
+        }
+        long threadId = asLong(payload.get("tid"));
+        String threadName = asString(payload.get("tn"));
+        if (threadName == null && threadId != 0L) {
+            threadName = threadNames.get(threadId);
+        }
+        sink.accept(new TraceEvent(type, hookId, signature,
+                asLong(payload.get("c")),
+                threadId,
+                threadName,
+                asLong(payload.get("ts")),
+                args,
+                value,
+                argHandles,
+                asLong(payload.get("vh")),
+                argBytes,
+                valueBytes,
+                (int) asLong(payload.get("d"))));
+    }
+
+    /**
+     * Resolves an {@code [offset, length, total]} reference into the batch blob.
+     */
+    private static byte[] slice(byte[] blob, List<?> ref) {
+        if (blob == null) {
+            return null;
+        }
+        long offset = asLong(ref.get(0));
+        long length = asLong(ref.get(1));
+        if (offset < 0 || length < 0 || offset + length > blob.length) {
+            return null;
+        }
+        return Arrays.copyOfRange(blob, (int) offset, (int) (offset + length));
+    }
+
+    private static String renderBytes(byte[] bytes, long total) {
+        String hex = HexUtil.toHex(bytes);
+        return total > bytes.length ? hex + "...<" + total + "B>" : hex;
+    }
+
+    /**
+     * Registers a unique stack: {@code {si, f: [[class, method, file, line], ...]}}.
+     */
+    private void handleStackDefinition(Map<?, ?> payload) {
+        Object rawFrames = payload.get("f");
+        if (!(rawFrames instanceof List)) {
+            return;
+        }
+        List<StackDictionary.Frame> frames = new ArrayList<>();
+        for (Object raw : (List<?>) rawFrames) {
+            if (!(raw instanceof List) || ((List<?>) raw).size() < 4) {
+                continue;
+            }
+            List<?> frame = (List<?>) raw;
+            frames.add(new StackDictionary.Frame(asString(frame.get(0)), asString(frame.get(1)),
+                    asString(frame.get(2)), (int) asLong(frame.get(3))));
+        }
+        stacks.define((int) asLong(payload.get("si")), frames);
+    }
+
+    /**
+     * Merges per-hook deltas: {@code [{h, n, sum, max, b: [bucket, count, ...], s, d}, ...]}.
+     */
+    private void handleStats(Object entries, long windowMs) {
+        if (!(entries instanceof List)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (hookStats) {
+            for (Object raw : (List<?>) entries) {
+                if (!(raw instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> entry = (Map<?, ?>) raw;
+                int hookId = (int) asLong(entry.get("h"));
+                String key = hookKeys.get(hookId);
+                if (key == null) {
+                    key = hookSignatures.containsKey(hookId) ? hookSignatures.get(hookId) : "hook#" + hookId;
+                }
+                HookStats stats = hookStats.computeIfAbsent(key, HookStats::new);
+                stats.addSamplingCounts(asLong(entry.get("s")), asLong(entry.get("d")));
+                stats.addActivityCounts(asLong(entry.get("c")), asLong(entry.get("x")), asLong(entry.get("p")),
+                        asLong(entry.get("e")), windowMs, now);
+                LatencyHistogram histogram = stats.getLatency();
+                Object buckets = entry.get("b");
+                if (buckets instanceof List) {
+                    List<?> pairs = (List<?>) buckets;
+                    for (int i = 0; i + 1 < pairs.size(); i += 2) {
+                        histogram.addBucket((int) asLong(pairs.get(i)), asLong(pairs.get(i + 1)));
+                    }
+                }
+                histogram.addTotals(asLong(entry.get("sum")), asLong(entry.get("max")));
+            }
+        }
+        Consumer<Map<String, HookStats>> listener = statsListener;
+        if (listener != null) {
+            listener.accept(getHookStats());
+        }
+    }
+
+    private static TraceEvent.Kind toKind(String kind) {
+        if (kind == null) {
+            return null;
+        }
+        switch (kind) {
+            case "c":
+                return TraceEvent.Kind.CALL;
+            case "t":
+                return TraceEvent.Kind.THIS;
+            case "s":
+                return TraceEvent.Kind.STACK;
+            case "r":
+                return TraceEvent.Kind.RETURN;
+            case "p":
+                return TraceEvent.Kind.PATCHED_RETURN;
+            default:
+                return null;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private static long asLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jarida.jadxfrida.model;
+
+/**
+ * A place in the decompiled code that declares or calls a hooked method. Offsets and lines refer to
+ * the code of the top-level class {@link #getClassName()}.
+ */
+public class CallSite {
+    private final String hookSignature;
+    private final String className;
+    private final String callerClass;
+    private final String callerName;
+    private final int offset;
+    private final int line;
+    private final String code;
+    private final boolean declaration;
+
+    public CallSite(String hookSignature, String className, String callerClass, String callerName,
+                    int offset, int line, String code, boolean declaration) {
+        this.hookSignature = hookSignature;
+        this.className = className;
+        this.callerClass = callerClass;
+        this.callerName = callerName;
+        this.offset = offset;
+        this.line = line;
+        this.code = code;
+        this.declaration = declaration;
+    }
+
+    /**
+     * {@link MethodTarget#getDisplaySignature()} of the hooked method.
+     */
+    public String getHookSignature() {
+        return hookSignature;
+    }
+
+    /**
+     * Raw name of the top-level class whose code contains this site.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Raw name of the class declaring the calling method (may be an inner class).
+     */
+    public String getCallerClass() {
+        return callerClass;
+    }
+
+    /**
+     * Name of the calling method, or null for field initializers and unknown callers.
+     */
+    public String getCallerName() {
+        return callerName;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Zero-based line, as used by the code area.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Trimmed source line.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * True for the hooked method's own declaration, false for a call.
+     */
+    public boolean isDeclaration() {
+        return declaration;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jarida.jadxfrida.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Call tree aggregated from the stacks captured for one hook. In the default orientation the root
+ * children are the outermost frames (thread entry points) and the leaves are the hooked method, as in
+ * a flame graph; inverted trees start at the hooked method and branch into its callers.
+ */
+public class CallTree {
+    private final StackDictionary.Frame frame;
+    private final Map<String, CallTree> children = new LinkedHashMap<>();
+    private long count;
+
+    private CallTree(StackDictionary.Frame frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * @param stackCounts number of calls seen per stack id
+     * @param inverted    true to root the tree at the innermost frame instead of the outermost one
+     */
+    public static CallTree build(Map<Integer, Long> stackCounts, StackDictionary stacks, boolean inverted) {
+        CallTree root = new CallTree(null);
+        for (Map.Entry<Integer, Long> entry : stackCounts.entrySet()) {
+            List<StackDictionary.Frame> frames = stacks.getFrames(entry.getKey());
+            if (frames == null) {
+                continue;
+            }
+            long count = entry.getValue();
+            root.count += count;
+            CallTree node = root;
+            for (int i = 0; i < frames.size(); i++) {
+                StackDictionary.Frame frame = frames.get(inverted ? i : frames.size() - 1 - i);
+                String key = frame.getClassName() + '.' + frame.getMethodName();
+                CallTree child = node.children.get(key);
+                if (child == null) {
+                    child = new CallTree(frame);
+                    node.children.put(key, child);
+                }
+                child.count += count;
+                node = child;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Frame of this node; null for the root.
+     */
+    public StackDictionary.Frame getFrame() {
+        return frame;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Children ordered by descending count.
+     */
+    public List<CallTree> getChildren() {
+        if (children.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<CallTree> list = new ArrayList<>(children.values());
+        list.sort((a, b) -> Long.compare(b.count, a.count));
+        return list;
+    }
+
+    public int getDepth() {
+        int depth = 0;
+        for (CallTree child : children.values()) {
+            depth = Math.max(depth, child.getDepth());
+        }
+        return depth + 1;
+    }
+
+    public String getLabel() {
+        return frame == null ? "all" : frame.getClassName() + "." + frame.getMethodName();
+    }
+}
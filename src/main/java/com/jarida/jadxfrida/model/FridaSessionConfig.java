@@ -13,6 +13,7 @@ public class FridaSessionConfig {
     private String fridaPath = "frida";
     private String fridaPsPath = "frida-ps";
     private String adbPath = "adb";
+    private String pythonPath = defaultPythonPath();
 
     public DeviceMode getDeviceMode() {
         return deviceMode;
@@ -110,6 +111,22 @@ public class FridaSessionConfig {
         this.adbPath = adbPath;
     }
 
+    /**
+     * Python interpreter used to run the bundled session bridge (needs the frida module).
+     */
+    public String getPythonPath() {
+        return pythonPath;
+    }
+
+    public void setPythonPath(String pythonPath) {
+        this.pythonPath = pythonPath;
+    }
+
+    public static String defaultPythonPath() {
+        String os = System.getProperty("os.name", "").toLowerCase();
+        return os.contains("win") ? "python" : "python3";
+    }
+
     public FridaSessionConfig copy() {
         FridaSessionConfig cfg = new FridaSessionConfig();
         cfg.setDeviceMode(deviceMode);
@@ -124,6 +141,7 @@ public class FridaSessionConfig {
         cfg.setFridaPath(fridaPath);
         cfg.setFridaPsPath(fridaPsPath);
         cfg.setAdbPath(adbPath);
+        cfg.setPythonPath(pythonPath);
         return cfg;
     }
 
@@ -1,5 +1,9 @@
 package com.jarida.jadxfrida.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class HookSpec {
     private final MethodTarget target;
     private final ScriptOptions options;
@@ -10,6 +14,8 @@ public class HookSpec {
     private final boolean templateEnabled;
     private final String templateName;
     private final String templateContent;
+    private final String scope;
+    private final List<MethodTarget> targets;
 
     public HookSpec(MethodTarget target, ScriptOptions options, ReturnPatchRule returnPatchRule,
                     String extraScript, TemplatePosition templatePosition, String hookId,
@@ -23,6 +29,27 @@ public class HookSpec {
         this.templateEnabled = templateEnabled;
         this.templateName = templateName == null ? "" : templateName;
         this.templateContent = templateContent == null ? "" : templateContent;
+        this.scope = null;
+        this.targets = Collections.emptyList();
+    }
+
+    /**
+     * Bulk hook tracing every method in {@code targets} (a whole class or package); {@code scope} is
+     * what the user picked, e.g. {@code com.example.Foo.*} or {@code com.example.**}. Bulk hooks
+     * only trace: they carry no return patch or template.
+     */
+    public HookSpec(String scope, List<MethodTarget> targets, ScriptOptions options, String hookId) {
+        this.target = null;
+        this.options = options;
+        this.returnPatchRule = null;
+        this.extraScript = null;
+        this.templatePosition = TemplatePosition.APPEND;
+        this.hookId = hookId;
+        this.templateEnabled = false;
+        this.templateName = "";
+        this.templateContent = "";
+        this.scope = scope;
+        this.targets = targets == null ? Collections.emptyList() : new ArrayList<>(targets);
     }
 
     public MethodTarget getTarget() {
@@ -60,4 +87,19 @@ public class HookSpec {
     public String getTemplateContent() {
         return templateContent;
     }
+
+    public boolean isBulk() {
+        return scope != null;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * Methods covered by a bulk hook; empty for single-method hooks.
+     */
+    public List<MethodTarget> getTargets() {
+        return Collections.unmodifiableList(targets);
+    }
 }
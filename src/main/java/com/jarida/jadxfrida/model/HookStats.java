@@ -0,0 +1,123 @@
+package com.jarida.jadxfrida.model;
+
+/**
+ * Aggregates reported by the agent for one hook, keyed by {@code HookRecord.getKey()}.
+ */
+public class HookStats {
+    /**
+     * Rates older than this are reported as 0: the agent only reports hooks that were called.
+     */
+    public static final long RATE_STALE_MS = 3000L;
+
+    private final String hookKey;
+    private final LatencyHistogram latency;
+    private long sampledCount;
+    private long droppedCount;
+    private long callCount;
+    private long exceptionCount;
+    private long patchedCount;
+    private long bytesEmitted;
+    private double callsPerSecond;
+    private double bytesPerSecond;
+    private long updatedAt;
+
+    public HookStats(String hookKey) {
+        this(hookKey, new LatencyHistogram());
+    }
+
+    private HookStats(String hookKey, LatencyHistogram latency) {
+        this.hookKey = hookKey;
+        this.latency = latency;
+    }
+
+    public String getHookKey() {
+        return hookKey;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Calls traced by the hook's sampling policy; stays 0 when sampling is off.
+     */
+    public long getSampledCount() {
+        return sampledCount;
+    }
+
+    /**
+     * Calls skipped by the hook's sampling policy.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public void addSamplingCounts(long sampled, long dropped) {
+        sampledCount += sampled;
+        droppedCount += dropped;
+    }
+
+    /**
+     * Every call into the hook, sampled or not.
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Calls where the original method threw.
+     */
+    public long getExceptionCount() {
+        return exceptionCount;
+    }
+
+    /**
+     * Calls whose return value was replaced by the hook's patch rule.
+     */
+    public long getPatchedCount() {
+        return patchedCount;
+    }
+
+    /**
+     * Estimated size of the trace events the hook queued, including captured byte[] payloads.
+     */
+    public long getBytesEmitted() {
+        return bytesEmitted;
+    }
+
+    public double getCallsPerSecond(long now) {
+        return now - updatedAt > RATE_STALE_MS ? 0 : callsPerSecond;
+    }
+
+    public double getBytesPerSecond(long now) {
+        return now - updatedAt > RATE_STALE_MS ? 0 : bytesPerSecond;
+    }
+
+    /**
+     * Adds one report's deltas; rates are taken over the report window.
+     */
+    public void addActivityCounts(long calls, long exceptions, long patched, long bytes, long windowMs, long now) {
+        callCount += calls;
+        exceptionCount += exceptions;
+        patchedCount += patched;
+        bytesEmitted += bytes;
+        double seconds = Math.max(1L, windowMs) / 1000.0;
+        callsPerSecond = calls / seconds;
+        bytesPerSecond = bytes / seconds;
+        updatedAt = now;
+    }
+
+    public HookStats copy() {
+        HookStats copy = new HookStats(hookKey, latency.copy());
+        copy.sampledCount = sampledCount;
+        copy.droppedCount = droppedCount;
+        copy.callCount = callCount;
+        copy.exceptionCount = exceptionCount;
+        copy.patchedCount = patchedCount;
+        copy.bytesEmitted = bytesEmitted;
+        copy.callsPerSecond = callsPerSecond;
+        copy.bytesPerSecond = bytesPerSecond;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+}
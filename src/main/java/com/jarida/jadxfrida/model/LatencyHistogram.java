@@ -0,0 +1,114 @@
+package com.jarida.jadxfrida.model;
+
+import java.util.Arrays;
+
+/**
+ * Log-bucketed latency histogram in microseconds, bucketed exactly like the agent: values below 16
+ * get their own bucket, larger values use 8 sub-buckets per power of two (at most 12.5% error).
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Buckets up to 2^40 us, far beyond any practical call latency.
+     */
+    public static final int BUCKET_COUNT = LINEAR_BUCKETS + (40 - 4) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalMicros;
+    private long maxMicros;
+
+    public static int bucketIndex(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return Math.min(BUCKET_COUNT - 1, LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub);
+    }
+
+    /**
+     * Largest value that falls into the bucket.
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+
+    public void record(long micros) {
+        addBucket(bucketIndex(micros), 1);
+        totalMicros += Math.max(0, micros);
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    /**
+     * Merges a delta reported by the agent.
+     */
+    public void addBucket(int index, long count) {
+        if (index < 0 || index >= BUCKET_COUNT || count <= 0) {
+            return;
+        }
+        counts[index] += count;
+        totalCount += count;
+    }
+
+    public void addTotals(long micros, long max) {
+        totalMicros += micros;
+        maxMicros = Math.max(maxMicros, max);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public long getMeanMicros() {
+        return totalCount == 0 ? 0 : totalMicros / totalCount;
+    }
+
+    /**
+     * Value at the given percentile (0-100), reported as the bucket's upper bound and capped at the
+     * observed maximum; -1 when empty.
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(totalCount * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        rank = Math.max(1, rank);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.totalCount = totalCount;
+        copy.totalMicros = totalMicros;
+        copy.maxMicros = maxMicros;
+        return copy;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalMicros = 0;
+        maxMicros = 0;
+    }
+}
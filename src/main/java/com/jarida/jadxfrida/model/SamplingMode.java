@@ -0,0 +1,24 @@
+package com.jarida.jadxfrida.model;
+
+/**
+ * Per-hook sampling policy, evaluated on the device before any event is formatted. The meaning of
+ * {@link ScriptOptions#getSamplingValue()} depends on the mode.
+ */
+public enum SamplingMode {
+    NONE("Trace every call"),
+    EVERY_NTH("Every Nth call"),
+    PROBABILISTIC("Random sample (%)"),
+    RATE_LIMIT("Rate limit (calls/s)"),
+    FIRST_N("First N calls");
+
+    private final String label;
+
+    SamplingMode(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -1,12 +1,26 @@
 package com.jarida.jadxfrida.model;
 
 public class ScriptOptions {
+    public static final int DEFAULT_EVENT_BATCH_SIZE = 64;
+    public static final int DEFAULT_EVENT_FLUSH_INTERVAL_MS = 50;
+    public static final int DEFAULT_EVENT_BUFFER_CAPACITY = 4096;
+    public static final double DEFAULT_SAMPLING_VALUE = 10;
+
     private boolean logArgs = true;
     private boolean logReturn = true;
     private boolean logThread = true;
     private boolean printStack = false;
     private boolean printThis = false;
     private boolean prettyPrint = true;
+    private boolean measureLatency = false;
+    private boolean lazyObjects = false;
+    private int byteCaptureLimit = 0;
+    private boolean keepFullBytes = false;
+    private SamplingMode samplingMode = SamplingMode.NONE;
+    private double samplingValue = DEFAULT_SAMPLING_VALUE;
+    private int eventBatchSize = DEFAULT_EVENT_BATCH_SIZE;
+    private int eventFlushIntervalMs = DEFAULT_EVENT_FLUSH_INTERVAL_MS;
+    private int eventBufferCapacity = DEFAULT_EVENT_BUFFER_CAPACITY;
 
     public boolean isLogArgs() {
         return logArgs;
@@ -55,4 +69,141 @@ public class ScriptOptions {
     public void setPrettyPrint(boolean prettyPrint) {
         this.prettyPrint = prettyPrint;
     }
+
+    /**
+     * Times each call to the original method on the device and reports latency histograms.
+     */
+    public boolean isMeasureLatency() {
+        return measureLatency;
+    }
+
+    public void setMeasureLatency(boolean measureLatency) {
+        this.measureLatency = measureLatency;
+    }
+
+    /**
+     * Sends object arguments and return values as {@code Class@hash} summaries and keeps the objects
+     * pinned on the device so the full value can be fetched on demand.
+     */
+    public boolean isLazyObjects() {
+        return lazyObjects;
+    }
+
+    public void setLazyObjects(boolean lazyObjects) {
+        this.lazyObjects = lazyObjects;
+    }
+
+    /**
+     * Maximum number of bytes read from a {@code byte[]} argument or return value and shipped as raw
+     * binary data; 0 keeps the Base64 string rendering.
+     */
+    public int getByteCaptureLimit() {
+        return byteCaptureLimit;
+    }
+
+    public void setByteCaptureLimit(int byteCaptureLimit) {
+        this.byteCaptureLimit = Math.max(0, byteCaptureLimit);
+    }
+
+    /**
+     * Keeps {@code byte[]} values longer than {@link #getByteCaptureLimit()} pinned on the device, so
+     * the whole array can be saved from the Calls view. Each pin holds a JNI global reference and a
+     * slot of the lazy object handle table.
+     */
+    public boolean isKeepFullBytes() {
+        return keepFullBytes;
+    }
+
+    public void setKeepFullBytes(boolean keepFullBytes) {
+        this.keepFullBytes = keepFullBytes;
+    }
+
+    public SamplingMode getSamplingMode() {
+        return samplingMode;
+    }
+
+    public void setSamplingMode(SamplingMode samplingMode) {
+        this.samplingMode = samplingMode == null ? SamplingMode.NONE : samplingMode;
+    }
+
+    /**
+     * N for {@link SamplingMode#EVERY_NTH} and {@link SamplingMode#FIRST_N}, a percentage for
+     * {@link SamplingMode#PROBABILISTIC}, calls per second for {@link SamplingMode#RATE_LIMIT}.
+     */
+    public double getSamplingValue() {
+        return samplingValue;
+    }
+
+    public void setSamplingValue(double samplingValue) {
+        if (Double.isNaN(samplingValue) || Double.isInfinite(samplingValue)) {
+            this.samplingValue = DEFAULT_SAMPLING_VALUE;
+            return;
+        }
+        this.samplingValue = Math.max(0, samplingValue);
+    }
+
+    /**
+     * Number of buffered events that triggers an immediate flush to the host; the agent caps it at
+     * {@link #getEventBufferCapacity()}.
+     */
+    public int getEventBatchSize() {
+        return eventBatchSize;
+    }
+
+    public void setEventBatchSize(int eventBatchSize) {
+        this.eventBatchSize = Math.max(1, eventBatchSize);
+    }
+
+    /**
+     * Maximum time an event waits in the agent buffer before it is flushed.
+     */
+    public int getEventFlushIntervalMs() {
+        return eventFlushIntervalMs;
+    }
+
+    public void setEventFlushIntervalMs(int eventFlushIntervalMs) {
+        this.eventFlushIntervalMs = Math.max(0, eventFlushIntervalMs);
+    }
+
+    /**
+     * Capacity of the agent ring buffer; events arriving while it is full are dropped and counted.
+     */
+    public int getEventBufferCapacity() {
+        return eventBufferCapacity;
+    }
+
+    public void setEventBufferCapacity(int eventBufferCapacity) {
+        this.eventBufferCapacity = Math.max(1, eventBufferCapacity);
+    }
+
+    /**
+     * Error message for inconsistent event batching settings, or null when they are valid.
+     */
+    public String validateEventBatching() {
+        if (eventBatchSize > eventBufferCapacity) {
+            return "Batch size (" + eventBatchSize + ") must not exceed the buffer capacity ("
+                    + eventBufferCapacity + ").";
+        }
+        return null;
+    }
+
+    public ScriptOptions copy() {
+        ScriptOptions copy = new ScriptOptions();
+        copy.logArgs = logArgs;
+        copy.logReturn = logReturn;
+        copy.logThread = logThread;
+        copy.printStack = printStack;
+        copy.printThis = printThis;
+        copy.prettyPrint = prettyPrint;
+        copy.measureLatency = measureLatency;
+        copy.lazyObjects = lazyObjects;
+        copy.byteCaptureLimit = byteCaptureLimit;
+        copy.keepFullBytes = keepFullBytes;
+        copy.samplingMode = samplingMode;
+        copy.samplingValue = samplingValue;
+        copy.eventBatchSize = eventBatchSize;
+        copy.eventFlushIntervalMs = eventFlushIntervalMs;
+        copy.eventBufferCapacity = eventBufferCapacity;
+        return copy;
+    }
 }
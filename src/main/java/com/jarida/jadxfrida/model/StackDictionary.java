@@ -0,0 +1,98 @@
+package com.jarida.jadxfrida.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique stacks announced by the agent, keyed by the id that stack events refer to. Frames are kept
+ * as sent and formatted into text the first time a stack is rendered.
+ */
+public class StackDictionary {
+    private final Map<Integer, List<Frame>> stacks = new ConcurrentHashMap<>();
+    private final Map<Integer, String> rendered = new ConcurrentHashMap<>();
+
+    public static final class Frame {
+        private final String className;
+        private final String methodName;
+        private final String fileName;
+        private final int lineNumber;
+
+        public Frame(String className, String methodName, String fileName, int lineNumber) {
+            this.className = className;
+            this.methodName = methodName;
+            this.fileName = fileName;
+            this.lineNumber = lineNumber;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(className).append('.').append(methodName).append('(');
+            if (fileName == null) {
+                sb.append("Unknown Source");
+            } else {
+                sb.append(fileName);
+                if (lineNumber > 0) {
+                    sb.append(':').append(lineNumber);
+                }
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    public void define(int stackId, List<Frame> frames) {
+        stacks.put(stackId, frames);
+        rendered.remove(stackId);
+    }
+
+    public List<Frame> getFrames(int stackId) {
+        return stacks.get(stackId);
+    }
+
+    public int size() {
+        return stacks.size();
+    }
+
+    public void clear() {
+        stacks.clear();
+        rendered.clear();
+    }
+
+    /**
+     * Stack text in {@code Throwable.printStackTrace} layout, or a placeholder for an unknown id.
+     */
+    public String render(int stackId) {
+        String text = rendered.get(stackId);
+        if (text != null) {
+            return text;
+        }
+        List<Frame> frames = stacks.get(stackId);
+        if (frames == null) {
+            return "<stack #" + stackId + " unavailable>";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Frame frame : frames) {
+            sb.append("\tat ").append(frame).append('\n');
+        }
+        text = sb.toString();
+        rendered.put(stackId, text);
+        return text;
+    }
+}
@@ -0,0 +1,49 @@
+package com.jarida.jadxfrida.model;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-hook counts of interned stacks ({@link StackDictionary} ids), keyed by hook signature.
+ * Recording is one map update per stack event; call trees are built from snapshots on demand.
+ */
+public class StackProfile {
+    private final Map<String, Map<Integer, long[]>> counts = new LinkedHashMap<>();
+    private long version;
+
+    public synchronized void record(String hook, int stackId) {
+        Map<Integer, long[]> stacks = counts.computeIfAbsent(hook, k -> new HashMap<>());
+        long[] count = stacks.get(stackId);
+        if (count == null) {
+            stacks.put(stackId, new long[]{1L});
+        } else {
+            count[0]++;
+        }
+        version++;
+    }
+
+    /**
+     * Incremented on every change; lets viewers skip rebuilding when nothing was recorded.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized Map<String, Map<Integer, Long>> snapshot() {
+        Map<String, Map<Integer, Long>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Integer, long[]>> hook : counts.entrySet()) {
+            Map<Integer, Long> stacks = new HashMap<>();
+            for (Map.Entry<Integer, long[]> entry : hook.getValue().entrySet()) {
+                stacks.put(entry.getKey(), entry.getValue()[0]);
+            }
+            copy.put(hook.getKey(), stacks);
+        }
+        return copy;
+    }
+
+    public synchronized void clear() {
+        counts.clear();
+        version++;
+    }
+}
@@ -0,0 +1,180 @@
+package com.jarida.jadxfrida.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TraceEvent {
+    public enum Kind {
+        CALL,
+        THIS,
+        STACK,
+        RETURN,
+        PATCHED_RETURN,
+        DROPPED
+    }
+
+    private final Kind kind;
+    private final int hookId;
+    private final String signature;
+    private final long callId;
+    private final long threadId;
+    private final String threadName;
+    private final long timestamp;
+    private final List<String> args;
+    private final String value;
+    private final long[] argHandles;
+    private final long valueHandle;
+    private final byte[][] argBytes;
+    private final byte[] valueBytes;
+    private final int depth;
+
+    public TraceEvent(Kind kind, int hookId, String signature, long callId, long threadId, String threadName,
+                      long timestamp, List<String> args, String value) {
+        this(kind, hookId, signature, callId, threadId, threadName, timestamp, args, value, null, 0L, null, null, 0);
+    }
+
+    public TraceEvent(Kind kind, int hookId, String signature, long callId, long threadId, String threadName,
+                      long timestamp, List<String> args, String value, long[] argHandles, long valueHandle,
+                      byte[][] argBytes, byte[] valueBytes, int depth) {
+        this.kind = kind;
+        this.hookId = hookId;
+        this.signature = signature;
+        this.callId = callId;
+        this.threadId = threadId;
+        this.threadName = threadName;
+        this.timestamp = timestamp;
+        this.args = args == null ? null : Collections.unmodifiableList(args);
+        this.value = value;
+        this.argHandles = argHandles;
+        this.valueHandle = valueHandle;
+        this.argBytes = argBytes;
+        this.valueBytes = valueBytes;
+        this.depth = depth;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getHookId() {
+        return hookId;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public long getCallId() {
+        return callId;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Formatted argument values, or null when argument logging is disabled for the hook.
+     */
+    public List<String> getArgs() {
+        return args;
+    }
+
+    /**
+     * Return value, receiver, stack text or dropped event count depending on the kind; null for a void return.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Agent-side object handles parallel to {@link #getArgs()} (0 where the argument was sent in
+     * full), or null when no argument was pinned.
+     */
+    public long[] getArgHandles() {
+        return argHandles;
+    }
+
+    /**
+     * Agent-side object handle for {@link #getValue()}, or 0 when the value was sent in full.
+     */
+    public long getValueHandle() {
+        return valueHandle;
+    }
+
+    /**
+     * Captured {@code byte[]} contents parallel to {@link #getArgs()} (null where the argument was not
+     * captured), or null when no argument was captured.
+     */
+    public byte[][] getArgBytes() {
+        return argBytes;
+    }
+
+    /**
+     * Captured {@code byte[]} contents of {@link #getValue()}, or null.
+     */
+    public byte[] getValueBytes() {
+        return valueBytes;
+    }
+
+    /**
+     * Number of hooked calls already active on the same thread when this call entered (0 = outermost).
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public String toLogLine() {
+        String prefix = "[JARIDA] #" + callId + " ";
+        if (depth > 0 && (kind == Kind.CALL || kind == Kind.RETURN)) {
+            StringBuilder indent = new StringBuilder(prefix);
+            for (int i = 0; i < depth; i++) {
+                indent.append("  ");
+            }
+            prefix = indent.toString();
+        }
+        switch (kind) {
+            case CALL: {
+                StringBuilder sb = new StringBuilder(prefix).append("CALL ").append(signature);
+                if (args != null && !args.isEmpty()) {
+                    sb.append(" { ");
+                    for (int i = 0; i < args.size(); i++) {
+                        if (i > 0) {
+                            sb.append(", ");
+                        }
+                        sb.append("arg").append(i).append('=').append(args.get(i));
+                    }
+                    sb.append(" }");
+                }
+                if (threadName != null) {
+                    sb.append(" [thread=").append(threadName).append(']');
+                }
+                return sb.toString();
+            }
+            case THIS:
+                return prefix + "THIS " + value;
+            case STACK:
+                return prefix + "STACK\n" + value;
+            case RETURN:
+                return prefix + "RET  " + signature + " => " + (value == null ? "void" : value);
+            case PATCHED_RETURN:
+                return prefix + "RET  " + signature + " => " + value + " (patched)";
+            case DROPPED:
+                return "[JARIDA] Event buffer overflow: " + value + " event(s) dropped";
+            default:
+                return prefix + kind;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toLogLine();
+    }
+}
@@ -5,6 +5,7 @@ import com.jarida.jadxfrida.model.MethodTarget;
 import com.jarida.jadxfrida.model.ReturnPatchMode;
 import com.jarida.jadxfrida.model.ReturnPatchRule;
 import com.jarida.jadxfrida.model.ScriptOptions;
+import com.jarida.jadxfrida.model.SamplingMode;
 import com.jarida.jadxfrida.model.TemplatePosition;
 
 import java.util.ArrayList;
@@ -60,6 +61,8 @@ public class JaridaState {
         private boolean templateEnabled;
         private String templateName;
         private String templateContent;
+        private String scope;
+        private List<MethodTargetData> targets;
 
         public String getHookKey() {
             return hookKey;
@@ -141,6 +144,22 @@ public class JaridaState {
             this.templateContent = templateContent;
         }
 
+        public String getScope() {
+            return scope;
+        }
+
+        public void setScope(String scope) {
+            this.scope = scope;
+        }
+
+        public List<MethodTargetData> getTargets() {
+            return targets;
+        }
+
+        public void setTargets(List<MethodTargetData> targets) {
+            this.targets = targets;
+        }
+
         /**
          * Convert a HookSpec and active state to a HookEntry for serialization.
          */
@@ -156,6 +175,14 @@ public class JaridaState {
             entry.setTemplateEnabled(spec.isTemplateEnabled());
             entry.setTemplateName(spec.getTemplateName());
             entry.setTemplateContent(spec.getTemplateContent());
+            if (spec.isBulk()) {
+                entry.setScope(spec.getScope());
+                List<MethodTargetData> targets = new ArrayList<>();
+                for (MethodTarget target : spec.getTargets()) {
+                    targets.add(MethodTargetData.fromMethodTarget(target));
+                }
+                entry.setTargets(targets);
+            }
             return entry;
         }
 
@@ -165,6 +192,17 @@ public class JaridaState {
         public HookSpec toHookSpec() {
             MethodTarget methodTarget = target != null ? target.toMethodTarget() : null;
             ScriptOptions scriptOptions = options != null ? options.toScriptOptions() : new ScriptOptions();
+            if (scope != null) {
+                List<MethodTarget> methodTargets = new ArrayList<>();
+                if (targets != null) {
+                    for (MethodTargetData data : targets) {
+                        if (data != null) {
+                            methodTargets.add(data.toMethodTarget());
+                        }
+                    }
+                }
+                return new HookSpec(scope, methodTargets, scriptOptions, hookKey);
+            }
             ReturnPatchRule rule = patchRule != null ? patchRule.toReturnPatchRule() : null;
             TemplatePosition pos = TemplatePosition.APPEND;
             if (templatePosition != null) {
@@ -278,6 +316,15 @@ public class JaridaState {
         private boolean printStack = false;
         private boolean printThis = false;
         private boolean prettyPrint = true;
+        private boolean measureLatency = false;
+        private boolean lazyObjects = false;
+        private int byteCaptureLimit = 0;
+        private boolean keepFullBytes = false;
+        private String samplingMode = SamplingMode.NONE.name();
+        private double samplingValue = ScriptOptions.DEFAULT_SAMPLING_VALUE;
+        private int eventBatchSize = ScriptOptions.DEFAULT_EVENT_BATCH_SIZE;
+        private int eventFlushIntervalMs = ScriptOptions.DEFAULT_EVENT_FLUSH_INTERVAL_MS;
+        private int eventBufferCapacity = ScriptOptions.DEFAULT_EVENT_BUFFER_CAPACITY;
 
         public boolean isLogArgs() {
             return logArgs;
@@ -327,6 +374,78 @@ public class JaridaState {
             this.prettyPrint = prettyPrint;
         }
 
+        public boolean isMeasureLatency() {
+            return measureLatency;
+        }
+
+        public void setMeasureLatency(boolean measureLatency) {
+            this.measureLatency = measureLatency;
+        }
+
+        public boolean isLazyObjects() {
+            return lazyObjects;
+        }
+
+        public void setLazyObjects(boolean lazyObjects) {
+            this.lazyObjects = lazyObjects;
+        }
+
+        public int getByteCaptureLimit() {
+            return byteCaptureLimit;
+        }
+
+        public void setByteCaptureLimit(int byteCaptureLimit) {
+            this.byteCaptureLimit = byteCaptureLimit;
+        }
+
+        public boolean isKeepFullBytes() {
+            return keepFullBytes;
+        }
+
+        public void setKeepFullBytes(boolean keepFullBytes) {
+            this.keepFullBytes = keepFullBytes;
+        }
+
+        public String getSamplingMode() {
+            return samplingMode;
+        }
+
+        public void setSamplingMode(String samplingMode) {
+            this.samplingMode = samplingMode;
+        }
+
+        public double getSamplingValue() {
+            return samplingValue;
+        }
+
+        public void setSamplingValue(double samplingValue) {
+            this.samplingValue = samplingValue;
+        }
+
+        public int getEventBatchSize() {
+            return eventBatchSize;
+        }
+
+        public void setEventBatchSize(int eventBatchSize) {
+            this.eventBatchSize = eventBatchSize;
+        }
+
+        public int getEventFlushIntervalMs() {
+            return eventFlushIntervalMs;
+        }
+
+        public void setEventFlushIntervalMs(int eventFlushIntervalMs) {
+            this.eventFlushIntervalMs = eventFlushIntervalMs;
+        }
+
+        public int getEventBufferCapacity() {
+            return eventBufferCapacity;
+        }
+
+        public void setEventBufferCapacity(int eventBufferCapacity) {
+            this.eventBufferCapacity = eventBufferCapacity;
+        }
+
         public static ScriptOptionsData fromScriptOptions(ScriptOptions options) {
             if (options == null) {
                 return new ScriptOptionsData();
@@ -338,6 +457,15 @@ public class JaridaState {
             data.setPrintStack(options.isPrintStack());
             data.setPrintThis(options.isPrintThis());
             data.setPrettyPrint(options.isPrettyPrint());
+            data.setMeasureLatency(options.isMeasureLatency());
+            data.setLazyObjects(options.isLazyObjects());
+            data.setByteCaptureLimit(options.getByteCaptureLimit());
+            data.setKeepFullBytes(options.isKeepFullBytes());
+            data.setSamplingMode(options.getSamplingMode().name());
+            data.setSamplingValue(options.getSamplingValue());
+            data.setEventBatchSize(options.getEventBatchSize());
+            data.setEventFlushIntervalMs(options.getEventFlushIntervalMs());
+            data.setEventBufferCapacity(options.getEventBufferCapacity());
             return data;
         }
 
@@ -349,6 +477,23 @@ public class JaridaState {
             options.setPrintStack(printStack);
             options.setPrintThis(printThis);
             options.setPrettyPrint(prettyPrint);
+            options.setMeasureLatency(measureLatency);
+            options.setLazyObjects(lazyObjects);
+            options.setByteCaptureLimit(byteCaptureLimit);
+            options.setKeepFullBytes(keepFullBytes);
+            SamplingMode mode = SamplingMode.NONE;
+            if (samplingMode != null) {
+                try {
+                    mode = SamplingMode.valueOf(samplingMode);
+                } catch (IllegalArgumentException ignored) {
+                    // keep NONE
+                }
+            }
+            options.setSamplingMode(mode);
+            options.setSamplingValue(samplingValue);
+            options.setEventBatchSize(eventBatchSize);
+            options.setEventFlushIntervalMs(eventFlushIntervalMs);
+            options.setEventBufferCapacity(eventBufferCapacity);
             return options;
         }
     }
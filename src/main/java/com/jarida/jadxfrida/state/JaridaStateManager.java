@@ -1,5 +1,6 @@
 package com.jarida.jadxfrida.state;
 
+import com.jarida.jadxfrida.model.CallSite;
 import com.jarida.jadxfrida.model.HookSpec;
 import jadx.gui.settings.JadxProject;
 import jadx.gui.ui.MainWindow;
@@ -8,6 +9,7 @@ import javax.swing.JFrame;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 
 /**
@@ -16,6 +18,8 @@ import java.util.function.Consumer;
  */
 public class JaridaStateManager {
     private static final String PLUGIN_KEY = "jarida.state";
+    private static final String CALL_SITES_KEY = "jarida.callsites";
+    private static final int CALL_SITES_VERSION = 2;
 
     private final Consumer<String> logger;
 
@@ -90,6 +94,7 @@ public class JaridaStateManager {
         try {
             project.updatePluginOptions(options -> {
                 options.remove(PLUGIN_KEY);
+                options.remove(CALL_SITES_KEY);
             });
             return true;
         } catch (Exception e) {
@@ -98,6 +103,56 @@ public class JaridaStateManager {
         }
     }
 
+    /**
+     * Save the hooked call site index next to the hook state. Kept under its own key so that frequent
+     * hook saves do not rewrite it.
+     *
+     * @param key identifies the decompiled code the sites were taken from, see
+     *            {@link com.jarida.jadxfrida.util.CallSiteIndex#getValidityKey()}
+     */
+    public boolean saveCallSites(JFrame mainFrame, List<CallSite> sites, String key) {
+        JadxProject project = getProject(mainFrame);
+        if (project == null) {
+            return false;
+        }
+        try {
+            String json = callSitesToJson(sites, key);
+            project.updatePluginOptions(options -> {
+                options.put(CALL_SITES_KEY, json);
+            });
+            return true;
+        } catch (Exception e) {
+            logger.accept("Failed to save call site index: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Load the saved call site index, or an empty list when there is none or it was saved for other
+     * code (a different key), in which case the hooks are scanned again.
+     */
+    public List<CallSite> loadCallSites(JFrame mainFrame, String key) {
+        JadxProject project = getProject(mainFrame);
+        if (project == null) {
+            return new ArrayList<>();
+        }
+        try {
+            String json = project.getPluginOption(CALL_SITES_KEY);
+            if (json == null || json.trim().isEmpty()) {
+                return new ArrayList<>();
+            }
+            List<CallSite> sites = new JsonParser(json).parseCallSites(key);
+            if (sites == null) {
+                logger.accept("Saved call site index is out of date; rescanning hooked methods.");
+                return new ArrayList<>();
+            }
+            return sites;
+        } catch (Exception e) {
+            logger.accept("Failed to load call site index: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * Get the JadxProject from the MainWindow.
      */
@@ -140,6 +195,10 @@ public class JaridaStateManager {
         sb.append("\"templatePosition\":").append(escapeJsonString(entry.getTemplatePosition())).append(",");
         sb.append("\"extraScript\":").append(escapeJsonString(entry.getExtraScript())).append(",");
         sb.append("\"target\":").append(methodTargetToJson(entry.getTarget())).append(",");
+        if (entry.getScope() != null) {
+            sb.append("\"scope\":").append(escapeJsonString(entry.getScope())).append(",");
+            sb.append("\"targets\":").append(methodTargetListToJson(entry.getTargets())).append(",");
+        }
         sb.append("\"options\":").append(scriptOptionsToJson(entry.getOptions())).append(",");
         sb.append("\"patchRule\":").append(patchRuleToJson(entry.getPatchRule()));
         sb.append("}");
@@ -163,6 +222,21 @@ public class JaridaStateManager {
         return sb.toString();
     }
 
+    private String methodTargetListToJson(List<JaridaState.MethodTargetData> targets) {
+        if (targets == null || targets.isEmpty()) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < targets.size(); i++) {
+            sb.append(methodTargetToJson(targets.get(i)));
+            if (i < targets.size() - 1) {
+                sb.append(",");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
     private String scriptOptionsToJson(JaridaState.ScriptOptionsData options) {
         if (options == null) {
             return "null";
@@ -174,7 +248,16 @@ public class JaridaStateManager {
         sb.append("\"logThread\":").append(options.isLogThread()).append(",");
         sb.append("\"printStack\":").append(options.isPrintStack()).append(",");
         sb.append("\"printThis\":").append(options.isPrintThis()).append(",");
-        sb.append("\"prettyPrint\":").append(options.isPrettyPrint());
+        sb.append("\"prettyPrint\":").append(options.isPrettyPrint()).append(",");
+        sb.append("\"measureLatency\":").append(options.isMeasureLatency()).append(",");
+        sb.append("\"lazyObjects\":").append(options.isLazyObjects()).append(",");
+        sb.append("\"byteCaptureLimit\":").append(options.getByteCaptureLimit()).append(",");
+        sb.append("\"keepFullBytes\":").append(options.isKeepFullBytes()).append(",");
+        sb.append("\"samplingMode\":").append(escapeJsonString(options.getSamplingMode())).append(",");
+        sb.append("\"samplingValue\":").append(options.getSamplingValue()).append(",");
+        sb.append("\"eventBatchSize\":").append(options.getEventBatchSize()).append(",");
+        sb.append("\"eventFlushIntervalMs\":").append(options.getEventFlushIntervalMs()).append(",");
+        sb.append("\"eventBufferCapacity\":").append(options.getEventBufferCapacity());
         sb.append("}");
         return sb.toString();
     }
@@ -197,6 +280,32 @@ public class JaridaStateManager {
         return sb.toString();
     }
 
+    private String callSitesToJson(List<CallSite> sites, String key) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("\"version\":").append(CALL_SITES_VERSION).append(",");
+        sb.append("\"key\":").append(escapeJsonString(key)).append(",");
+        sb.append("\"sites\":[");
+        for (int i = 0; i < sites.size(); i++) {
+            CallSite site = sites.get(i);
+            sb.append("{");
+            sb.append("\"hook\":").append(escapeJsonString(site.getHookSignature())).append(",");
+            sb.append("\"cls\":").append(escapeJsonString(site.getClassName())).append(",");
+            sb.append("\"callerClass\":").append(escapeJsonString(site.getCallerClass())).append(",");
+            sb.append("\"caller\":").append(escapeJsonString(site.getCallerName())).append(",");
+            sb.append("\"pos\":").append(site.getOffset()).append(",");
+            sb.append("\"line\":").append(site.getLine()).append(",");
+            sb.append("\"code\":").append(escapeJsonString(site.getCode())).append(",");
+            sb.append("\"decl\":").append(site.isDeclaration());
+            sb.append("}");
+            if (i < sites.size() - 1) {
+                sb.append(",");
+            }
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
     private String stringListToJson(List<String> list) {
         if (list == null || list.isEmpty()) {
             return "[]";
@@ -363,6 +472,12 @@ public class JaridaStateManager {
                     case "target":
                         entry.setTarget(parseMethodTarget());
                         break;
+                    case "scope":
+                        entry.setScope(parseString());
+                        break;
+                    case "targets":
+                        entry.setTargets(parseMethodTargetArray());
+                        break;
                     case "options":
                         entry.setOptions(parseScriptOptions());
                         break;
@@ -380,6 +495,24 @@ public class JaridaStateManager {
             return entry;
         }
 
+        List<JaridaState.MethodTargetData> parseMethodTargetArray() {
+            List<JaridaState.MethodTargetData> list = new ArrayList<>();
+            expect('[');
+            while (true) {
+                skipWhitespace();
+                if (peek() == ']') {
+                    pos++;
+                    break;
+                }
+                list.add(parseMethodTarget());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                }
+            }
+            return list;
+        }
+
         JaridaState.MethodTargetData parseMethodTarget() {
             if (checkNull()) {
                 return null;
@@ -464,6 +597,33 @@ public class JaridaStateManager {
                     case "prettyPrint":
                         options.setPrettyPrint(parseBoolean());
                         break;
+                    case "measureLatency":
+                        options.setMeasureLatency(parseBoolean());
+                        break;
+                    case "lazyObjects":
+                        options.setLazyObjects(parseBoolean());
+                        break;
+                    case "byteCaptureLimit":
+                        options.setByteCaptureLimit(parseInt());
+                        break;
+                    case "keepFullBytes":
+                        options.setKeepFullBytes(parseBoolean());
+                        break;
+                    case "samplingMode":
+                        options.setSamplingMode(parseString());
+                        break;
+                    case "samplingValue":
+                        options.setSamplingValue(parseDouble());
+                        break;
+                    case "eventBatchSize":
+                        options.setEventBatchSize(parseInt());
+                        break;
+                    case "eventFlushIntervalMs":
+                        options.setEventFlushIntervalMs(parseInt());
+                        break;
+                    case "eventBufferCapacity":
+                        options.setEventBufferCapacity(parseInt());
+                        break;
                     default:
                         skipValue();
                 }
@@ -527,6 +687,114 @@ public class JaridaStateManager {
             return rule;
         }
 
+        /**
+         * @return the sites, or null when the saved key does not match {@code expectedKey}
+         */
+        List<CallSite> parseCallSites(String expectedKey) {
+            List<CallSite> sites = new ArrayList<>();
+            String savedKey = null;
+            expect('{');
+            while (true) {
+                skipWhitespace();
+                if (peek() == '}') {
+                    pos++;
+                    break;
+                }
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if ("version".equals(key) && parseInt() != CALL_SITES_VERSION) {
+                    return new ArrayList<>();
+                } else if ("key".equals(key)) {
+                    savedKey = parseString();
+                } else if ("sites".equals(key)) {
+                    expect('[');
+                    while (true) {
+                        skipWhitespace();
+                        if (peek() == ']') {
+                            pos++;
+                            break;
+                        }
+                        CallSite site = parseCallSite();
+                        if (site != null) {
+                            sites.add(site);
+                        }
+                        skipWhitespace();
+                        if (peek() == ',') {
+                            pos++;
+                        }
+                    }
+                } else if (!"version".equals(key)) {
+                    skipValue();
+                }
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                }
+            }
+            return Objects.equals(savedKey, expectedKey) ? sites : null;
+        }
+
+        CallSite parseCallSite() {
+            String hook = null;
+            String cls = null;
+            String callerClass = null;
+            String caller = null;
+            int offset = 0;
+            int line = 0;
+            String code = null;
+            boolean declaration = false;
+            expect('{');
+            while (true) {
+                skipWhitespace();
+                if (peek() == '}') {
+                    pos++;
+                    break;
+                }
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                switch (key) {
+                    case "hook":
+                        hook = parseString();
+                        break;
+                    case "cls":
+                        cls = parseString();
+                        break;
+                    case "callerClass":
+                        callerClass = parseString();
+                        break;
+                    case "caller":
+                        caller = parseString();
+                        break;
+                    case "pos":
+                        offset = parseInt();
+                        break;
+                    case "line":
+                        line = parseInt();
+                        break;
+                    case "code":
+                        code = parseString();
+                        break;
+                    case "decl":
+                        declaration = parseBoolean();
+                        break;
+                    default:
+                        skipValue();
+                }
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                }
+            }
+            if (hook == null || cls == null) {
+                return null;
+            }
+            return new CallSite(hook, cls, callerClass, caller, offset, line, code, declaration);
+        }
+
         List<String> parseStringArray() {
             List<String> list = new ArrayList<>();
             expect('[');
@@ -613,6 +881,15 @@ public class JaridaStateManager {
             return Integer.parseInt(json.substring(start, pos));
         }
 
+        double parseDouble() {
+            skipWhitespace();
+            int start = pos;
+            while (pos < json.length() && "+-.eE0123456789".indexOf(json.charAt(pos)) >= 0) {
+                pos++;
+            }
+            return Double.parseDouble(json.substring(start, pos));
+        }
+
         boolean parseBoolean() {
             skipWhitespace();
             if (json.regionMatches(pos, "true", 0, 4)) {
@@ -648,7 +925,7 @@ public class JaridaStateManager {
             } else if (c == 'n') {
                 checkNull();
             } else if (c == '-' || Character.isDigit(c)) {
-                parseInt();
+                parseDouble();
             }
         }
 
@@ -0,0 +1,190 @@
+package com.jarida.jadxfrida.ui;
+
+import com.jarida.jadxfrida.model.CallSite;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * "Call sites" tab: every place in the decompiled code that calls a hooked method, answered from the
+ * plugin's background call site index. Double-click a row to open the caller.
+ */
+public class CallSitesPanel extends JPanel {
+    private static final String ALL_HOOKS = "All hooks";
+
+    private final SiteTableModel model = new SiteTableModel();
+    private final JTable table = new JTable(model);
+    private final TableRowSorter<SiteTableModel> sorter = new TableRowSorter<>(model);
+    private final DefaultComboBoxModel<String> hookModel = new DefaultComboBoxModel<>();
+    private final JComboBox<String> hookBox = new JComboBox<>(hookModel);
+    private final JLabel statusLabel = new JLabel("No call sites indexed");
+    private Consumer<CallSite> siteNavigator;
+    private Runnable rescanHandler;
+    private boolean updatingHooks;
+
+    public CallSitesPanel() {
+        super(new BorderLayout());
+        table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        table.setRowSorter(sorter);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(3).setMaxWidth(80);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() != 2) {
+                    return;
+                }
+                int row = table.rowAtPoint(e.getPoint());
+                Consumer<CallSite> navigator = siteNavigator;
+                if (row >= 0 && navigator != null) {
+                    navigator.accept(model.getSiteAt(table.convertRowIndexToModel(row)));
+                }
+            }
+        });
+        hookBox.setPrototypeDisplayValue("com.example.SomeClass.someMethod(java.lang.String)");
+        hookBox.addActionListener(e -> {
+            if (!updatingHooks) {
+                applyFilter();
+            }
+        });
+        JButton rescan = new JButton("Rescan");
+        rescan.addActionListener(e -> {
+            Runnable handler = rescanHandler;
+            if (handler != null) {
+                handler.run();
+            }
+        });
+
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        toolbar.add(rescan);
+        toolbar.add(new JLabel("Hook:"));
+        toolbar.add(hookBox);
+        toolbar.add(statusLabel);
+        add(toolbar, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+    }
+
+    public void setSiteNavigator(Consumer<CallSite> siteNavigator) {
+        this.siteNavigator = siteNavigator;
+    }
+
+    public void setRescanHandler(Runnable rescanHandler) {
+        this.rescanHandler = rescanHandler;
+    }
+
+    /**
+     * Thread-safe; declarations in {@code sites} are skipped.
+     */
+    public void setSites(List<CallSite> sites, boolean scanning) {
+        List<CallSite> calls = new ArrayList<>();
+        Set<String> hooks = new LinkedHashSet<>();
+        for (CallSite site : sites) {
+            hooks.add(site.getHookSignature());
+            if (!site.isDeclaration()) {
+                calls.add(site);
+            }
+        }
+        SwingUtilities.invokeLater(() -> {
+            model.setSites(calls);
+            Object selected = hookBox.getSelectedItem();
+            updatingHooks = true;
+            try {
+                hookModel.removeAllElements();
+                hookModel.addElement(ALL_HOOKS);
+                for (String hook : hooks) {
+                    hookModel.addElement(hook);
+                }
+                hookBox.setSelectedItem(selected != null && hooks.contains(selected) ? selected : ALL_HOOKS);
+            } finally {
+                updatingHooks = false;
+            }
+            applyFilter();
+            String status = calls.size() + " call sites in " + hooks.size() + " hooks";
+            statusLabel.setText(scanning ? status + " (indexing...)" : status);
+        });
+    }
+
+    private void applyFilter() {
+        Object hook = hookBox.getSelectedItem();
+        if (hook == null || ALL_HOOKS.equals(hook)) {
+            sorter.setRowFilter(null);
+            return;
+        }
+        sorter.setRowFilter(new RowFilter<SiteTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends SiteTableModel, ? extends Integer> entry) {
+                return hook.equals(model.getSiteAt(entry.getIdentifier()).getHookSignature());
+            }
+        });
+    }
+
+    private static final class SiteTableModel extends AbstractTableModel {
+        private final String[] columns = {"Hook", "Class", "Caller", "Line", "Code"};
+        private List<CallSite> sites = new ArrayList<>();
+
+        void setSites(List<CallSite> newSites) {
+            sites = newSites;
+            fireTableDataChanged();
+        }
+
+        CallSite getSiteAt(int row) {
+            return sites.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return sites.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 3 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            CallSite site = sites.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return site.getHookSignature();
+                case 1:
+                    return site.getCallerClass();
+                case 2:
+                    return site.getCallerName() == null ? "" : site.getCallerName();
+                case 3:
+                    return site.getLine() + 1;
+                default:
+                    return site.getCode();
+            }
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.jarida.jadxfrida.ui;
+
+import com.jarida.jadxfrida.model.TraceEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar store of traced calls: one row per CALL event, completed by the matching RETURN /
+ * PATCHED_RETURN of the same (hook, call id). Columns are primitive arrays; signatures, thread
+ * names and short values are interned into a string table. Once {@code capacity} rows are held,
+ * each new call evicts the oldest one. Not thread-safe; {@link CallsPanel} confines it to the EDT.
+ * <p>
+ * Argument and return cells that are not interned are kept as UTF-8 bytes clipped to
+ * {@value #MAX_CELL_BYTES} bytes, which is what the table shows and searches. The full text of
+ * clipped cells is kept for the most recent rows only, up to {@value #MAX_FULL_CHARS} characters
+ * in total ({@link #getFullArgs}, {@link #getFullReturn}); object values stay expandable through
+ * their handles. A row thus costs about 80 bytes of columns plus at most two cells of
+ * 16 + {@value #MAX_CELL_BYTES} bytes, i.e. under 300 bytes, and much less when values repeat.
+ */
+public class CallStore {
+    /**
+     * Result of {@link #apply} when the event added a new row.
+     */
+    public static final int ROW_APPENDED = -2;
+
+    private static final int INITIAL_ROWS = 1024;
+    private static final int MAX_INTERNED_LENGTH = 64;
+    private static final int MAX_CELL_BYTES = 96;
+    private static final int MAX_FULL_CHARS = 4 * 1024 * 1024;
+    private static final int MAX_INTERNED_STRINGS = 65536;
+    private static final int MAX_OPEN_CALLS = 65536;
+    private static final byte FLAG_RETURNED = 1;
+    private static final byte FLAG_PATCHED = 2;
+    private static final byte FLAG_ARGS_CLIPPED = 4;
+    private static final byte FLAG_RETURN_CLIPPED = 8;
+
+    private final int capacity;
+    private int[] hookIds = new int[0];
+    private long[] callIds = new long[0];
+    private long[] threadIds = new long[0];
+    private int[] signatures = new int[0];
+    private int[] threadNames = new int[0];
+    private long[] startTimes = new long[0];
+    private long[] endTimes = new long[0];
+    private byte[] flags = new byte[0];
+    // a shared String for interned values, otherwise clipped UTF-8 bytes
+    private Object[] args = new Object[0];
+    private Object[] returns = new Object[0];
+    // agent-side object handles (lazy objects); null / 0 when the value was sent in full
+    private long[][] argHandles = new long[0][];
+    private long[] returnHandles = new long[0];
+    // captured byte[] contents; null unless byte capture is enabled for the hook
+    private byte[][][] argBytes = new byte[0][][];
+    private byte[][] returnBytes = new byte[0][];
+    private int head;
+    private int size;
+    private long appended;
+    private int evicted;
+
+    // full text of clipped cells, keyed by absolute row number * 2 (+1 for the return), oldest first
+    private final Map<Long, String> fullValues = new LinkedHashMap<>();
+    private long fullChars;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    // (hook, call id) -> absolute row number of calls still waiting for their return
+    private final Map<Long, Long> openCalls = new LinkedHashMap<Long, Long>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_OPEN_CALLS;
+        }
+    };
+
+    public CallStore(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        strings.add(null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Absolute number of row 0, i.e. how many rows were evicted since the last clear.
+     */
+    public long getFirstRowNumber() {
+        return appended - size;
+    }
+
+    /**
+     * Applies one event. Returns the row it completed, {@link #ROW_APPENDED} when a new row was
+     * added, or -1 when the event does not affect the table.
+     */
+    public int apply(TraceEvent event) {
+        switch (event.getKind()) {
+            case CALL:
+                append(event);
+                return ROW_APPENDED;
+            case RETURN:
+            case PATCHED_RETURN:
+                return complete(event);
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Rows evicted by appends since the last call; callers use this to shift their row indexes.
+     */
+    public int drainEvicted() {
+        int value = evicted;
+        evicted = 0;
+        return value;
+    }
+
+    private void append(TraceEvent event) {
+        int slot;
+        if (size == capacity) {
+            slot = head;
+            head = (head + 1) % capacity;
+            evicted++;
+            long evictedRow = appended - size;
+            dropFull(evictedRow * 2);
+            dropFull(evictedRow * 2 + 1);
+        } else {
+            ensureCapacity(size + 1);
+            slot = (head + size) % hookIds.length;
+            size++;
+        }
+        hookIds[slot] = event.getHookId();
+        callIds[slot] = event.getCallId();
+        threadIds[slot] = event.getThreadId();
+        signatures[slot] = intern(event.getSignature());
+        threadNames[slot] = intern(event.getThreadName());
+        startTimes[slot] = event.getTimestamp();
+        endTimes[slot] = 0L;
+        flags[slot] = 0;
+        String joined = event.getArgs() == null ? null : String.join(", ", event.getArgs());
+        if (setCell(args, slot, joined)) {
+            flags[slot] |= FLAG_ARGS_CLIPPED;
+            keepFull(appended * 2, joined);
+        }
+        returns[slot] = null;
+        argHandles[slot] = event.getArgHandles();
+        returnHandles[slot] = 0L;
+        argBytes[slot] = event.getArgBytes();
+        returnBytes[slot] = null;
+        openCalls.put(callKey(event), appended);
+        appended++;
+    }
+
+    private int complete(TraceEvent event) {
+        Long rowNumber = openCalls.get(callKey(event));
+        if (rowNumber == null) {
+            return -1;
+        }
+        long first = appended - size;
+        if (rowNumber < first) {
+            openCalls.remove(callKey(event));
+            return -1;
+        }
+        int row = (int) (rowNumber - first);
+        int slot = slot(row);
+        if (event.getKind() == TraceEvent.Kind.PATCHED_RETURN) {
+            flags[slot] |= FLAG_PATCHED;
+            openCalls.remove(callKey(event));
+        } else {
+            flags[slot] |= FLAG_RETURNED;
+            // a patched return may still follow for the same call
+        }
+        returnHandles[slot] = event.getValueHandle();
+        returnBytes[slot] = event.getValueBytes();
+        flags[slot] &= ~FLAG_RETURN_CLIPPED;
+        dropFull(rowNumber * 2 + 1);
+        if (setCell(returns, slot, event.getValue())) {
+            flags[slot] |= FLAG_RETURN_CLIPPED;
+            keepFull(rowNumber * 2 + 1, event.getValue());
+        }
+        if (event.getTimestamp() > 0) {
+            endTimes[slot] = event.getTimestamp();
+        }
+        return row;
+    }
+
+    public void clear() {
+        int length = hookIds.length;
+        Arrays.fill(args, 0, length, null);
+        Arrays.fill(returns, 0, length, null);
+        Arrays.fill(argHandles, 0, length, null);
+        Arrays.fill(argBytes, 0, length, null);
+        Arrays.fill(returnBytes, 0, length, null);
+        head = 0;
+        size = 0;
+        evicted = 0;
+        appended = 0;
+        openCalls.clear();
+        fullValues.clear();
+        fullChars = 0;
+        strings.clear();
+        strings.add(null);
+        stringIds.clear();
+    }
+
+    public int getHookId(int row) {
+        return hookIds[slot(row)];
+    }
+
+    public long getCallId(int row) {
+        return callIds[slot(row)];
+    }
+
+    public String getSignature(int row) {
+        return strings.get(signatures[slot(row)]);
+    }
+
+    /**
+     * Thread name when it was logged, otherwise the native thread id.
+     */
+    public String getThread(int row) {
+        int slot = slot(row);
+        String name = strings.get(threadNames[slot]);
+        if (name != null) {
+            return name;
+        }
+        return threadIds[slot] == 0L ? "" : Long.toString(threadIds[slot]);
+    }
+
+    /**
+     * Argument text as shown in the table; clipped values end with "...".
+     */
+    public String getArgs(int row) {
+        int slot = slot(row);
+        return text(args[slot], (flags[slot] & FLAG_ARGS_CLIPPED) != 0);
+    }
+
+    public String getReturn(int row) {
+        int slot = slot(row);
+        return text(returns[slot], (flags[slot] & FLAG_RETURN_CLIPPED) != 0);
+    }
+
+    public boolean isArgsClipped(int row) {
+        return (flags[slot(row)] & FLAG_ARGS_CLIPPED) != 0;
+    }
+
+    public boolean isReturnClipped(int row) {
+        return (flags[slot(row)] & FLAG_RETURN_CLIPPED) != 0;
+    }
+
+    /**
+     * Unclipped argument text, or null when the row is clipped and its full text was already
+     * dropped to stay within the budget.
+     */
+    public String getFullArgs(int row) {
+        return isArgsClipped(row) ? fullValues.get(rowNumber(row) * 2) : getArgs(row);
+    }
+
+    public String getFullReturn(int row) {
+        return isReturnClipped(row) ? fullValues.get(rowNumber(row) * 2 + 1) : getReturn(row);
+    }
+
+    /**
+     * Object handles for the row's arguments, or null when none was pinned on the device.
+     */
+    public long[] getArgHandles(int row) {
+        return argHandles[slot(row)];
+    }
+
+    public long getReturnHandle(int row) {
+        return returnHandles[slot(row)];
+    }
+
+    /**
+     * Captured {@code byte[]} arguments of the row (null entries where not captured), or null.
+     */
+    public byte[][] getArgBytes(int row) {
+        return argBytes[slot(row)];
+    }
+
+    public byte[] getReturnBytes(int row) {
+        return returnBytes[slot(row)];
+    }
+
+    public boolean isReturned(int row) {
+        return (flags[slot(row)] & (FLAG_RETURNED | FLAG_PATCHED)) != 0;
+    }
+
+    public boolean isPatched(int row) {
+        return (flags[slot(row)] & FLAG_PATCHED) != 0;
+    }
+
+    public long getStartTime(int row) {
+        return startTimes[slot(row)];
+    }
+
+    /**
+     * End timestamp, or 0 while the call has not returned (or return logging is off).
+     */
+    public long getEndTime(int row) {
+        return endTimes[slot(row)];
+    }
+
+    private long rowNumber(int row) {
+        return appended - size + row;
+    }
+
+    private int slot(int row) {
+        return (head + row) % hookIds.length;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= hookIds.length) {
+            return;
+        }
+        // rows never wrap before the store is full, so growing keeps slot == row
+        int length = Math.min(capacity, Math.max(needed, Math.max(INITIAL_ROWS, hookIds.length * 2)));
+        hookIds = Arrays.copyOf(hookIds, length);
+        callIds = Arrays.copyOf(callIds, length);
+        threadIds = Arrays.copyOf(threadIds, length);
+        signatures = Arrays.copyOf(signatures, length);
+        threadNames = Arrays.copyOf(threadNames, length);
+        startTimes = Arrays.copyOf(startTimes, length);
+        endTimes = Arrays.copyOf(endTimes, length);
+        flags = Arrays.copyOf(flags, length);
+        args = Arrays.copyOf(args, length);
+        returns = Arrays.copyOf(returns, length);
+        argHandles = Arrays.copyOf(argHandles, length);
+        returnHandles = Arrays.copyOf(returnHandles, length);
+        argBytes = Arrays.copyOf(argBytes, length);
+        returnBytes = Arrays.copyOf(returnBytes, length);
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * Stores {@code value} in {@code cells}: a shared instance for short, frequently repeated values
+     * (booleans, small numbers, "null"), otherwise its UTF-8 bytes clipped to
+     * {@link #MAX_CELL_BYTES}. Returns true when the value was clipped.
+     */
+    private boolean setCell(Object[] cells, int slot, String value) {
+        if (value == null) {
+            cells[slot] = null;
+            return false;
+        }
+        if (value.length() <= MAX_INTERNED_LENGTH) {
+            Integer id = stringIds.get(value);
+            if (id == null && strings.size() < MAX_INTERNED_STRINGS) {
+                id = intern(value);
+            }
+            if (id != null) {
+                cells[slot] = strings.get(id);
+                return false;
+            }
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length <= MAX_CELL_BYTES) {
+            cells[slot] = utf8;
+            return false;
+        }
+        int end = MAX_CELL_BYTES;
+        while (end > 0 && (utf8[end] & 0xC0) == 0x80) {
+            // do not cut a multi-byte character
+            end--;
+        }
+        cells[slot] = Arrays.copyOf(utf8, end);
+        return true;
+    }
+
+    private static String text(Object cell, boolean clipped) {
+        if (cell == null || cell instanceof String) {
+            return (String) cell;
+        }
+        String value = new String((byte[]) cell, StandardCharsets.UTF_8);
+        return clipped ? value + "..." : value;
+    }
+
+    private void keepFull(long key, String value) {
+        if (value.length() > MAX_FULL_CHARS) {
+            return;
+        }
+        fullValues.put(key, value);
+        fullChars += value.length();
+        Iterator<String> it = fullValues.values().iterator();
+        while (fullChars > MAX_FULL_CHARS && it.hasNext()) {
+            fullChars -= it.next().length();
+            it.remove();
+        }
+    }
+
+    private void dropFull(long key) {
+        String value = fullValues.remove(key);
+        if (value != null) {
+            fullChars -= value.length();
+        }
+    }
+
+    private static long callKey(TraceEvent event) {
+        return ((long) event.getHookId() << 40) ^ event.getCallId();
+    }
+}
@@ -0,0 +1,532 @@
+package com.jarida.jadxfrida.ui;
+
+import com.jarida.jadxfrida.model.TraceEvent;
+import com.jarida.jadxfrida.util.HexUtil;
+
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Dimension;
+import java.awt.Insets;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * "Calls" tab: one row per traced call, backed by a {@link CallStore}. Events may be added from any
+ * thread; they are applied on the EDT in batches at most once per frame.
+ */
+public class CallsPanel extends JPanel {
+    private static final int MAX_CALLS = 1000000;
+    private static final int FLUSH_INTERVAL_MS = 50;
+    private static final int MAX_EVENTS_PER_FLUSH = 50000;
+
+    private final CallStore store = new CallStore(MAX_CALLS);
+    private final CallTableModel model = new CallTableModel(store);
+    private final JTable table = new JTable(model);
+    private final TableRowSorter<CallTableModel> sorter = new TableRowSorter<>(model);
+    private final JTextField search = new JTextField(22);
+    private final JLabel countLabel = new JLabel("0 calls");
+    private final ConcurrentLinkedQueue<TraceEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer flushTimer;
+    private volatile Function<Long, CompletableFuture<String>> handleExpander;
+    private volatile Function<Long, CompletableFuture<byte[]>> bytesReader;
+
+    public CallsPanel() {
+        super(new BorderLayout());
+        table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        table.setRowHeight(22);
+        table.setFillsViewportHeight(true);
+        table.setRowSorter(sorter);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        int[] widths = {360, 60, 120, 360, 240, 60, 100, 90};
+        for (int i = 0; i < widths.length; i++) {
+            table.getColumnModel().getColumn(i).setPreferredWidth(widths[i]);
+        }
+        table.getColumnModel().getColumn(CallTableModel.COL_START).setCellRenderer(new TimeRenderer());
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() != 2 || !SwingUtilities.isLeftMouseButton(e)) {
+                    return;
+                }
+                int viewRow = table.rowAtPoint(e.getPoint());
+                int viewColumn = table.columnAtPoint(e.getPoint());
+                if (viewRow < 0 || viewColumn < 0) {
+                    return;
+                }
+                int row = table.convertRowIndexToModel(viewRow);
+                int column = table.convertColumnIndexToModel(viewColumn);
+                if (!showBytes(row, column)) {
+                    expandValues(row, column);
+                }
+            }
+        });
+
+        JButton clear = new JButton("Clear");
+        clear.addActionListener(e -> clear());
+        JPanel toolbar = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.insets = new Insets(2, 2, 2, 2);
+        c.gridy = 0;
+        c.gridx = 0;
+        c.anchor = GridBagConstraints.WEST;
+        toolbar.add(clear, c);
+        c.gridx++;
+        toolbar.add(countLabel, c);
+        c.gridx++;
+        c.weightx = 1;
+        c.fill = GridBagConstraints.HORIZONTAL;
+        toolbar.add(new JPanel(), c);
+        c.gridx++;
+        c.weightx = 0;
+        c.fill = GridBagConstraints.NONE;
+        toolbar.add(new JLabel("Search:"), c);
+        c.gridx++;
+        toolbar.add(search, c);
+        search.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateFilter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateFilter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateFilter();
+            }
+        });
+
+        add(toolbar, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        flushTimer = new Timer(FLUSH_INTERVAL_MS, e -> flushPending());
+        flushTimer.setRepeats(false);
+    }
+
+    /**
+     * Thread-safe; the event is applied on the EDT with the next batch.
+     */
+    public void addEvent(TraceEvent event) {
+        if (event == null) {
+            return;
+        }
+        pending.offer(event);
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushTimer.restart();
+        }
+    }
+
+    /**
+     * Fetches the full value behind an agent-side object handle; used when lazy objects are enabled.
+     */
+    public void setHandleExpander(Function<Long, CompletableFuture<String>> handleExpander) {
+        this.handleExpander = handleExpander;
+    }
+
+    /**
+     * Reads the whole of a truncated {@code byte[]} capture by its handle; used by "Save full array".
+     */
+    public void setBytesReader(Function<Long, CompletableFuture<byte[]>> bytesReader) {
+        this.bytesReader = bytesReader;
+    }
+
+    public void clear() {
+        pending.clear();
+        store.clear();
+        model.fireTableDataChanged();
+        updateCount();
+    }
+
+    private void flushPending() {
+        flushScheduled.set(false);
+        int oldSize = store.size();
+        long oldFirst = store.getFirstRowNumber();
+        long minUpdated = Long.MAX_VALUE;
+        long maxUpdated = Long.MIN_VALUE;
+        int processed = 0;
+        TraceEvent event;
+        while (processed < MAX_EVENTS_PER_FLUSH && (event = pending.poll()) != null) {
+            processed++;
+            int row = store.apply(event);
+            if (row >= 0) {
+                long rowNumber = store.getFirstRowNumber() + row;
+                minUpdated = Math.min(minUpdated, rowNumber);
+                maxUpdated = Math.max(maxUpdated, rowNumber);
+            }
+        }
+        if (!pending.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            flushTimer.restart();
+        }
+        if (processed == 0) {
+            return;
+        }
+        int evicted = store.drainEvicted();
+        if (evicted >= oldSize && evicted > 0) {
+            model.fireTableDataChanged();
+            updateCount();
+            return;
+        }
+        if (evicted > 0) {
+            model.fireTableRowsDeleted(0, evicted - 1);
+        }
+        int kept = oldSize - evicted;
+        if (maxUpdated >= 0) {
+            long first = store.getFirstRowNumber();
+            int from = (int) Math.max(0, minUpdated - first);
+            int to = (int) Math.min(kept - 1, maxUpdated - first);
+            if (from <= to) {
+                model.fireTableRowsUpdated(from, to);
+            }
+        }
+        if (store.size() > kept) {
+            model.fireTableRowsInserted(kept, store.size() - 1);
+        }
+        if (oldFirst != store.getFirstRowNumber() || store.size() != oldSize) {
+            updateCount();
+        }
+    }
+
+    /**
+     * Opens the byte viewer when the clicked cell holds captured {@code byte[]} values.
+     */
+    private boolean showBytes(int row, int column) {
+        if (row >= store.size()) {
+            return false;
+        }
+        List<String> labels = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        // non-zero for arrays longer than the capture limit, which the agent keeps pinned
+        List<Long> handles = new ArrayList<>();
+        if (column == CallTableModel.COL_ARGS) {
+            byte[][] bytes = store.getArgBytes(row);
+            long[] argHandles = store.getArgHandles(row);
+            if (bytes != null) {
+                for (int i = 0; i < bytes.length; i++) {
+                    if (bytes[i] != null) {
+                        labels.add("arg" + i);
+                        values.add(bytes[i]);
+                        handles.add(argHandles != null && i < argHandles.length ? argHandles[i] : 0L);
+                    }
+                }
+            }
+        } else if (column == CallTableModel.COL_RETURN && store.getReturnBytes(row) != null) {
+            labels.add("return");
+            values.add(store.getReturnBytes(row));
+            handles.add(store.getReturnHandle(row));
+        }
+        if (values.isEmpty()) {
+            return false;
+        }
+        JTabbedPane tabs = new JTabbedPane();
+        for (int i = 0; i < values.size(); i++) {
+            boolean truncated = handles.get(i) != 0L;
+            tabs.addTab(labels.get(i) + " (" + values.get(i).length + " B" + (truncated ? " captured" : "") + ")",
+                    buildBytesView(labels.get(i), values.get(i), handles.get(i)));
+        }
+        tabs.setPreferredSize(new Dimension(720, 400));
+        JOptionPane.showMessageDialog(this, tabs, store.getSignature(row) + " #" + store.getCallId(row),
+                JOptionPane.PLAIN_MESSAGE);
+        return true;
+    }
+
+    private JPanel buildBytesView(String label, byte[] data, long handle) {
+        JTabbedPane formats = new JTabbedPane(JTabbedPane.BOTTOM);
+        formats.addTab("Hex", new JScrollPane(readOnlyArea(HexUtil.hexDump(data))));
+        JTextArea base64 = readOnlyArea(Base64.getEncoder().encodeToString(data));
+        base64.setLineWrap(true);
+        formats.addTab("Base64", new JScrollPane(base64));
+        JButton save = new JButton(handle != 0L ? "Save full array..." : "Save...");
+        save.addActionListener(e -> {
+            if (handle == 0L) {
+                saveBytes(label, data);
+            } else {
+                saveFullBytes(save, label, data, handle);
+            }
+        });
+        JPanel buttons = new JPanel(new BorderLayout());
+        buttons.add(save, BorderLayout.EAST);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(formats, BorderLayout.CENTER);
+        panel.add(buttons, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    /**
+     * Reads the whole array from the device and saves it; offers the captured prefix when the array
+     * can no longer be read.
+     */
+    private void saveFullBytes(JButton save, String label, byte[] prefix, long handle) {
+        Function<Long, CompletableFuture<byte[]>> reader = bytesReader;
+        CompletableFuture<byte[]> full;
+        if (reader == null) {
+            full = new CompletableFuture<>();
+            full.completeExceptionally(new IOException("Frida session not running"));
+        } else {
+            full = reader.apply(handle);
+        }
+        save.setEnabled(false);
+        full.whenComplete((bytes, error) -> SwingUtilities.invokeLater(() -> {
+            save.setEnabled(true);
+            if (error == null && bytes != null) {
+                saveBytes(label, bytes);
+                return;
+            }
+            String reason = "it is no longer pinned on the device";
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                reason = cause.getMessage();
+            }
+            int choice = JOptionPane.showConfirmDialog(this, "Could not read the full array: " + reason
+                            + "\nSave the captured " + prefix.length + " B prefix instead?", "Jarida",
+                    JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (choice == JOptionPane.YES_OPTION) {
+                saveBytes(label + "-prefix", prefix);
+            }
+        }));
+    }
+
+    private void saveBytes(String label, byte[] data) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(label + ".bin"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Files.write(chooser.getSelectedFile().toPath(), data);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Failed to save: " + e.getMessage(), "Jarida",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static JTextArea readOnlyArea(String text) {
+        JTextArea area = new JTextArea(text);
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        area.setCaretPosition(0);
+        return area;
+    }
+
+    private void expandValues(int row, int column) {
+        if (row >= store.size()) {
+            return;
+        }
+        String title = store.getSignature(row) + " #" + store.getCallId(row);
+        String stored = clippedValue(row, column);
+        Function<Long, CompletableFuture<String>> expander = handleExpander;
+        List<String> labels = new ArrayList<>();
+        List<CompletableFuture<String>> values = new ArrayList<>();
+        if (expander != null && column == CallTableModel.COL_ARGS) {
+            long[] handles = store.getArgHandles(row);
+            if (handles != null) {
+                for (int i = 0; i < handles.length; i++) {
+                    if (handles[i] != 0L) {
+                        labels.add("arg" + i);
+                        values.add(expander.apply(handles[i]));
+                    }
+                }
+            }
+        } else if (expander != null && column == CallTableModel.COL_RETURN && store.getReturnHandle(row) != 0L) {
+            labels.add("return");
+            values.add(expander.apply(store.getReturnHandle(row)));
+        }
+        if (values.isEmpty()) {
+            if (stored != null) {
+                showExpansion(title, stored);
+            }
+            return;
+        }
+        CompletableFuture.allOf(values.toArray(new CompletableFuture[0])).handle((ignored, error) -> {
+            StringBuilder sb = new StringBuilder();
+            if (stored != null) {
+                sb.append(stored).append("\n\n");
+            }
+            for (int i = 0; i < values.size(); i++) {
+                sb.append(labels.get(i)).append(" = ");
+                try {
+                    String value = values.get(i).getNow(null);
+                    sb.append(value == null ? "<released on device>" : value);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    sb.append("<expand failed: ").append(cause.getMessage()).append('>');
+                }
+                sb.append('\n');
+            }
+            SwingUtilities.invokeLater(() -> showExpansion(title, sb.toString()));
+            return null;
+        });
+    }
+
+    /**
+     * Full text of a clipped cell, or null when the cell shows its whole value.
+     */
+    private String clippedValue(int row, int column) {
+        String full;
+        if (column == CallTableModel.COL_ARGS && store.isArgsClipped(row)) {
+            full = store.getFullArgs(row);
+            return full != null ? full : store.getArgs(row) + "\n<full value no longer kept>";
+        }
+        if (column == CallTableModel.COL_RETURN && store.isReturnClipped(row)) {
+            full = store.getFullReturn(row);
+            return full != null ? full : store.getReturn(row) + "\n<full value no longer kept>";
+        }
+        return null;
+    }
+
+    private void showExpansion(String title, String text) {
+        JScrollPane scroll = new JScrollPane(readOnlyArea(text));
+        scroll.setPreferredSize(new Dimension(640, 360));
+        JOptionPane.showMessageDialog(this, scroll, title, JOptionPane.PLAIN_MESSAGE);
+    }
+
+    private void updateCount() {
+        countLabel.setText(store.size() + " calls");
+    }
+
+    private void updateFilter() {
+        String text = search.getText();
+        if (text == null || text.trim().isEmpty()) {
+            sorter.setRowFilter(null);
+            return;
+        }
+        String needle = text.trim().toLowerCase();
+        sorter.setRowFilter(new RowFilter<CallTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends CallTableModel, ? extends Integer> entry) {
+                int row = entry.getIdentifier();
+                return contains(store.getSignature(row), needle)
+                        || contains(store.getThread(row), needle)
+                        || contains(store.getArgs(row), needle)
+                        || contains(store.getReturn(row), needle);
+            }
+        });
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase().contains(needle);
+    }
+
+    private static final class CallTableModel extends AbstractTableModel {
+        static final int COL_ARGS = 3;
+        static final int COL_RETURN = 4;
+        static final int COL_START = 6;
+        private final String[] columns = {"Method", "Call", "Thread", "Arguments", "Return", "Patched", "Start", "Duration (ms)"};
+        private final CallStore store;
+
+        CallTableModel(CallStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public int getRowCount() {
+            return store.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            switch (columnIndex) {
+                case 1:
+                case 6:
+                case 7:
+                    return Long.class;
+                case 5:
+                    return Boolean.class;
+                default:
+                    return String.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            if (rowIndex < 0 || rowIndex >= store.size()) {
+                return null;
+            }
+            switch (columnIndex) {
+                case 0:
+                    return store.getSignature(rowIndex);
+                case 1:
+                    return store.getCallId(rowIndex);
+                case 2:
+                    return store.getThread(rowIndex);
+                case 3:
+                    return store.getArgs(rowIndex);
+                case 4:
+                    if (!store.isReturned(rowIndex)) {
+                        return "";
+                    }
+                    String value = store.getReturn(rowIndex);
+                    return value == null ? "void" : value;
+                case 5:
+                    return store.isPatched(rowIndex);
+                case 6:
+                    return store.getStartTime(rowIndex);
+                case 7: {
+                    long end = store.getEndTime(rowIndex);
+                    long start = store.getStartTime(rowIndex);
+                    return end > 0 && start > 0 ? end - start : null;
+                }
+                default:
+                    return "";
+            }
+        }
+    }
+
+    private static final class TimeRenderer extends DefaultTableCellRenderer {
+        private final SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+
+        @Override
+        protected void setValue(Object value) {
+            if (value instanceof Long && (Long) value > 0) {
+                setText(format.format(new Date((Long) value)));
+            } else {
+                setText("");
+            }
+        }
+    }
+}
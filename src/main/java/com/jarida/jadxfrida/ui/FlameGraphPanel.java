@@ -0,0 +1,283 @@
+package com.jarida.jadxfrida.ui;
+
+import com.jarida.jadxfrida.model.CallTree;
+import com.jarida.jadxfrida.model.StackDictionary;
+import com.jarida.jadxfrida.model.StackProfile;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.Scrollable;
+import javax.swing.Timer;
+import javax.swing.ToolTipManager;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * "Flame" tab: call trees built from the stacks captured per hook, drawn as a flame graph (root at
+ * the bottom) or an icicle (root at the top). Clicking a frame asks the plugin to open it in Jadx.
+ */
+public class FlameGraphPanel extends JPanel {
+    private static final int REFRESH_INTERVAL_MS = 1000;
+    private static final int ROW_HEIGHT = 18;
+    private static final String FLAME = "Flame graph";
+    private static final String ICICLE = "Icicle";
+
+    private final DefaultComboBoxModel<String> hookModel = new DefaultComboBoxModel<>();
+    private final JComboBox<String> hookBox = new JComboBox<>(hookModel);
+    private final JComboBox<String> layoutBox = new JComboBox<>(new String[]{FLAME, ICICLE});
+    private final JCheckBox inverted = new JCheckBox("Callers of hook", false);
+    private final JLabel samplesLabel = new JLabel("No stacks captured");
+    private final GraphCanvas canvas = new GraphCanvas();
+    private final Timer refreshTimer;
+    private StackProfile profile;
+    private StackDictionary stacks;
+    private Consumer<StackDictionary.Frame> frameNavigator;
+    private Map<String, Map<Integer, Long>> snapshot = Collections.emptyMap();
+    private long lastVersion = -1;
+    private boolean updatingHooks;
+
+    public FlameGraphPanel() {
+        super(new BorderLayout());
+        JButton clear = new JButton("Clear");
+        clear.addActionListener(e -> {
+            if (profile != null) {
+                profile.clear();
+            }
+            refresh(true);
+        });
+        hookBox.setPrototypeDisplayValue("com.example.SomeClass.someMethod(java.lang.String)");
+        hookBox.addActionListener(e -> {
+            if (!updatingHooks) {
+                rebuild();
+            }
+        });
+        layoutBox.addActionListener(e -> canvas.repaint());
+        inverted.setToolTipText("Root the tree at the hooked method and branch into its callers");
+        inverted.addActionListener(e -> rebuild());
+
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        toolbar.add(clear);
+        toolbar.add(new JLabel("Hook:"));
+        toolbar.add(hookBox);
+        toolbar.add(layoutBox);
+        toolbar.add(inverted);
+        toolbar.add(samplesLabel);
+        add(toolbar, BorderLayout.NORTH);
+        add(new JScrollPane(canvas), BorderLayout.CENTER);
+
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refresh(false));
+    }
+
+    /**
+     * Stacks are recorded by the trace decoder; the panel polls them while it is visible.
+     */
+    public void setStackSource(StackProfile profile, StackDictionary stacks) {
+        this.profile = profile;
+        this.stacks = stacks;
+        lastVersion = -1;
+    }
+
+    public void setFrameNavigator(Consumer<StackDictionary.Frame> frameNavigator) {
+        this.frameNavigator = frameNavigator;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private void refresh(boolean force) {
+        if (profile == null || (!force && !isShowing())) {
+            return;
+        }
+        long version = profile.getVersion();
+        if (!force && version == lastVersion) {
+            return;
+        }
+        lastVersion = version;
+        snapshot = profile.snapshot();
+        Object selected = hookBox.getSelectedItem();
+        updatingHooks = true;
+        try {
+            hookModel.removeAllElements();
+            for (String hook : snapshot.keySet()) {
+                hookModel.addElement(hook);
+            }
+            if (selected != null && snapshot.containsKey(selected)) {
+                hookBox.setSelectedItem(selected);
+            } else if (hookModel.getSize() > 0) {
+                hookBox.setSelectedIndex(0);
+            }
+        } finally {
+            updatingHooks = false;
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        Object hook = hookBox.getSelectedItem();
+        Map<Integer, Long> counts = hook == null ? null : snapshot.get(hook);
+        if (counts == null || stacks == null) {
+            canvas.setTree(null);
+            samplesLabel.setText("No stacks captured");
+            return;
+        }
+        CallTree tree = CallTree.build(counts, stacks, inverted.isSelected());
+        canvas.setTree(tree);
+        samplesLabel.setText(tree.getCount() + " stacks, " + counts.size() + " unique");
+    }
+
+    private static Color colorFor(String className) {
+        int hash = className == null ? 0 : className.hashCode();
+        float hue = 0.02f + ((hash >>> 8) & 0xff) / 255f * 0.12f;
+        float saturation = 0.55f + (hash & 0x3f) / 63f * 0.25f;
+        return Color.getHSBColor(hue, saturation, 0.95f);
+    }
+
+    private final class GraphCanvas extends JComponent implements Scrollable {
+        private CallTree tree;
+        private int rows;
+        private final List<Rectangle> hitBoxes = new ArrayList<>();
+        private final List<CallTree> hitNodes = new ArrayList<>();
+
+        GraphCanvas() {
+            setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+            ToolTipManager.sharedInstance().registerComponent(this);
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    CallTree node = nodeAt(e.getX(), e.getY());
+                    Consumer<StackDictionary.Frame> navigator = frameNavigator;
+                    if (node != null && node.getFrame() != null && navigator != null) {
+                        navigator.accept(node.getFrame());
+                    }
+                }
+            });
+        }
+
+        void setTree(CallTree tree) {
+            this.tree = tree;
+            this.rows = tree == null ? 0 : tree.getDepth();
+            revalidate();
+            repaint();
+        }
+
+        private CallTree nodeAt(int x, int y) {
+            for (int i = hitBoxes.size() - 1; i >= 0; i--) {
+                if (hitBoxes.get(i).contains(x, y)) {
+                    return hitNodes.get(i);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String getToolTipText(MouseEvent event) {
+            CallTree node = nodeAt(event.getX(), event.getY());
+            if (node == null || tree == null || tree.getCount() == 0) {
+                return null;
+            }
+            String label = node.getFrame() == null ? node.getLabel() : node.getFrame().toString();
+            return String.format("%s: %d (%.1f%%)", label, node.getCount(), 100.0 * node.getCount() / tree.getCount());
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            hitBoxes.clear();
+            hitNodes.clear();
+            g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            if (tree == null || tree.getCount() == 0) {
+                return;
+            }
+            paintNode(g, tree, 0, 0, getWidth());
+        }
+
+        private void paintNode(Graphics g, CallTree node, int level, double x, double width) {
+            if (width < 1) {
+                return;
+            }
+            boolean flame = FLAME.equals(layoutBox.getSelectedItem());
+            int y = flame ? Math.max(getHeight(), rows * ROW_HEIGHT) - (level + 1) * ROW_HEIGHT : level * ROW_HEIGHT;
+            Rectangle box = new Rectangle((int) x, y, Math.max(1, (int) Math.round(width) - 1), ROW_HEIGHT - 1);
+            g.setColor(node.getFrame() == null ? new Color(0xc8c8c8) : colorFor(node.getFrame().getClassName()));
+            g.fillRect(box.x, box.y, box.width, box.height);
+            hitBoxes.add(box);
+            hitNodes.add(node);
+            FontMetrics metrics = g.getFontMetrics();
+            String text = node.getLabel() + " (" + node.getCount() + ")";
+            if (box.width > metrics.charWidth('m') * 3) {
+                int available = box.width - 4;
+                if (metrics.stringWidth(text) > available) {
+                    int chars = Math.max(0, available / Math.max(1, metrics.charWidth('m')) - 2);
+                    text = chars <= 0 ? "" : text.substring(0, Math.min(chars, text.length())) + "..";
+                }
+                g.setColor(Color.BLACK);
+                g.drawString(text, box.x + 2, box.y + ROW_HEIGHT - 5);
+            }
+            double childX = x;
+            for (CallTree child : node.getChildren()) {
+                double childWidth = width * child.getCount() / node.getCount();
+                paintNode(g, child, level + 1, childX, childWidth);
+                childX += childWidth;
+            }
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(400, Math.max(ROW_HEIGHT, rows * ROW_HEIGHT));
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return getPreferredSize();
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return ROW_HEIGHT;
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return ROW_HEIGHT * 10;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return true;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return getParent() != null && getParent().getHeight() > getPreferredSize().height;
+        }
+    }
+}
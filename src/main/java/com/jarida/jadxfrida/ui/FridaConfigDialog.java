@@ -9,6 +9,7 @@ import com.jarida.jadxfrida.model.FridaServerStatus;
 import com.jarida.jadxfrida.model.FridaSessionConfig;
 import com.jarida.jadxfrida.model.MethodTarget;
 import com.jarida.jadxfrida.model.ReturnPatchRule;
+import com.jarida.jadxfrida.model.SamplingMode;
 import com.jarida.jadxfrida.model.ScriptTemplate;
 import com.jarida.jadxfrida.model.ScriptTemplateStore;
 import com.jarida.jadxfrida.model.ScriptOptions;
@@ -29,6 +30,8 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
@@ -59,6 +62,7 @@ public class FridaConfigDialog extends JDialog {
     private final JTextField adbPath;
     private final JTextField fridaPath;
     private final JTextField fridaPsPath;
+    private final JTextField pythonPath;
 
     private final JCheckBox logArgs;
     private final JCheckBox logReturn;
@@ -66,6 +70,15 @@ public class FridaConfigDialog extends JDialog {
     private final JCheckBox printStack;
     private final JCheckBox printThis;
     private final JCheckBox prettyPrint;
+    private final JCheckBox measureLatency;
+    private final JCheckBox lazyObjects;
+    private final JComboBox<SamplingMode> samplingMode;
+    private final JSpinner samplingValue;
+    private final JSpinner eventBatchSize;
+    private final JSpinner byteCaptureLimit;
+    private final JCheckBox keepFullBytes;
+    private final JSpinner eventFlushInterval;
+    private final JSpinner eventBufferCapacity;
 
     private final ReturnValueRulePanel returnPanel;
     private final JTextArea statusArea;
@@ -78,6 +91,7 @@ public class FridaConfigDialog extends JDialog {
     private final boolean showReturnTab;
     private final FridaSessionConfig fixedSessionConfig;
     private final FridaSessionConfig baseSessionConfig;
+    private final ScriptOptions baseScriptOptions;
 
     private final FridaController fridaController;
     private final MethodTarget target;
@@ -99,6 +113,7 @@ public class FridaConfigDialog extends JDialog {
         this.target = target;
         this.fixedSessionConfig = fixedSessionConfig;
         this.baseSessionConfig = initialConfig.copy();
+        this.baseScriptOptions = initialOptions != null ? initialOptions.copy() : new ScriptOptions();
         this.showReturnTab = showReturnTab;
 
         deviceMode = new JComboBox<>(DeviceMode.values());
@@ -117,12 +132,22 @@ public class FridaConfigDialog extends JDialog {
         adbPath = new JTextField("adb", 30);
         fridaPath = new JTextField("frida", 30);
         fridaPsPath = new JTextField("frida-ps", 30);
+        pythonPath = new JTextField(FridaSessionConfig.defaultPythonPath(), 30);
         logArgs = new JCheckBox("Log args", true);
         logReturn = new JCheckBox("Log return", true);
         logThread = new JCheckBox("Log thread name", true);
         printStack = new JCheckBox("Print stack", false);
         printThis = new JCheckBox("Print this", false);
         prettyPrint = new JCheckBox("Pretty print", true);
+        measureLatency = new JCheckBox("Measure latency", false);
+        lazyObjects = new JCheckBox("Lazy objects", false);
+        samplingMode = new JComboBox<>(SamplingMode.values());
+        samplingValue = new JSpinner(new SpinnerNumberModel(ScriptOptions.DEFAULT_SAMPLING_VALUE, 0.0, 1000000.0, 1.0));
+        byteCaptureLimit = new JSpinner(new SpinnerNumberModel(0, 0, 16 * 1024 * 1024, 256));
+        keepFullBytes = new JCheckBox("Keep full arrays for saving", false);
+        eventBatchSize = new JSpinner(new SpinnerNumberModel(ScriptOptions.DEFAULT_EVENT_BATCH_SIZE, 1, 4096, 8));
+        eventFlushInterval = new JSpinner(new SpinnerNumberModel(ScriptOptions.DEFAULT_EVENT_FLUSH_INTERVAL_MS, 0, 5000, 10));
+        eventBufferCapacity = new JSpinner(new SpinnerNumberModel(ScriptOptions.DEFAULT_EVENT_BUFFER_CAPACITY, 1, 1 << 20, 256));
 
         returnPanel = new ReturnValueRulePanel();
         returnPanel.setEnabledDefault(patchDefault);
@@ -202,6 +227,7 @@ public class FridaConfigDialog extends JDialog {
             adbPath.setText(config.getAdbPath());
             fridaPath.setText(config.getFridaPath());
             fridaPsPath.setText(config.getFridaPsPath());
+            pythonPath.setText(config.getPythonPath());
         }
         if (options != null) {
             logArgs.setSelected(options.isLogArgs());
@@ -210,6 +236,15 @@ public class FridaConfigDialog extends JDialog {
             printStack.setSelected(options.isPrintStack());
             printThis.setSelected(options.isPrintThis());
             prettyPrint.setSelected(options.isPrettyPrint());
+            measureLatency.setSelected(options.isMeasureLatency());
+            lazyObjects.setSelected(options.isLazyObjects());
+            samplingMode.setSelectedItem(options.getSamplingMode());
+            samplingValue.setValue(options.getSamplingValue());
+            eventBatchSize.setValue(options.getEventBatchSize());
+            byteCaptureLimit.setValue(options.getByteCaptureLimit());
+            keepFullBytes.setSelected(options.isKeepFullBytes());
+            eventFlushInterval.setValue(options.getEventFlushIntervalMs());
+            eventBufferCapacity.setValue(options.getEventBufferCapacity());
         }
     }
 
@@ -396,6 +431,18 @@ public class FridaConfigDialog extends JDialog {
         panel.add(fridaPsPath, c);
         c.gridwidth = 1;
 
+        c.gridx = 0;
+        c.gridy++;
+        c.weightx = 0;
+        c.fill = GridBagConstraints.NONE;
+        panel.add(new JLabel("Python path:"), c);
+        c.gridx = 1;
+        c.weightx = 1;
+        c.gridwidth = 3;
+        c.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(pythonPath, c);
+        c.gridwidth = 1;
+
         JButton checkBtn = new JButton("Check connectivity");
         checkBtn.addActionListener(e -> {
             checkBtn.setEnabled(false);
@@ -411,13 +458,48 @@ public class FridaConfigDialog extends JDialog {
     }
 
     private JPanel buildScriptPanel() {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        panel.add(logArgs);
-        panel.add(logReturn);
-        panel.add(logThread);
-        panel.add(printStack);
-        panel.add(printThis);
-        panel.add(prettyPrint);
+        JPanel flags = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        flags.add(logArgs);
+        flags.add(logReturn);
+        flags.add(logThread);
+        flags.add(printStack);
+        flags.add(printThis);
+        flags.add(prettyPrint);
+        flags.add(measureLatency);
+        flags.add(lazyObjects);
+
+        JPanel batching = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        batching.setBorder(BorderFactory.createTitledBorder("Event batching"));
+        batching.add(new JLabel("Batch size:"));
+        batching.add(eventBatchSize);
+        batching.add(new JLabel("Flush interval (ms):"));
+        batching.add(eventFlushInterval);
+        batching.add(new JLabel("Buffer capacity:"));
+        batching.add(eventBufferCapacity);
+
+        JPanel sampling = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        sampling.setBorder(BorderFactory.createTitledBorder("Sampling"));
+        sampling.add(new JLabel("Policy:"));
+        sampling.add(samplingMode);
+        sampling.add(new JLabel("Value:"));
+        sampling.add(samplingValue);
+        samplingMode.addActionListener(e -> samplingValue.setEnabled(samplingMode.getSelectedItem() != SamplingMode.NONE));
+        samplingValue.setEnabled(samplingMode.getSelectedItem() != SamplingMode.NONE);
+
+        JPanel bytes = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bytes.setBorder(BorderFactory.createTitledBorder("byte[] capture"));
+        bytes.add(new JLabel("Max bytes (0 = Base64 text):"));
+        bytes.add(byteCaptureLimit);
+        bytes.add(keepFullBytes);
+
+        JPanel center = new JPanel(new BorderLayout());
+        center.add(batching, BorderLayout.NORTH);
+        center.add(sampling, BorderLayout.CENTER);
+        center.add(bytes, BorderLayout.SOUTH);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(flags, BorderLayout.NORTH);
+        panel.add(center, BorderLayout.CENTER);
         return panel;
     }
 
@@ -476,13 +558,27 @@ public class FridaConfigDialog extends JDialog {
             cfg = new FridaSessionConfig();
         }
 
-        ScriptOptions opt = new ScriptOptions();
+        ScriptOptions opt = baseScriptOptions.copy();
         opt.setLogArgs(logArgs.isSelected());
         opt.setLogReturn(logReturn.isSelected());
         opt.setLogThread(logThread.isSelected());
         opt.setPrintStack(printStack.isSelected());
         opt.setPrintThis(printThis.isSelected());
         opt.setPrettyPrint(prettyPrint.isSelected());
+        opt.setMeasureLatency(measureLatency.isSelected());
+        opt.setLazyObjects(lazyObjects.isSelected());
+        opt.setSamplingMode((SamplingMode) samplingMode.getSelectedItem());
+        opt.setSamplingValue(((Number) samplingValue.getValue()).doubleValue());
+        opt.setEventBatchSize(((Number) eventBatchSize.getValue()).intValue());
+        opt.setByteCaptureLimit(((Number) byteCaptureLimit.getValue()).intValue());
+        opt.setKeepFullBytes(keepFullBytes.isSelected());
+        opt.setEventFlushIntervalMs(((Number) eventFlushInterval.getValue()).intValue());
+        opt.setEventBufferCapacity(((Number) eventBufferCapacity.getValue()).intValue());
+        String batchingError = opt.validateEventBatching();
+        if (batchingError != null) {
+            JOptionPane.showMessageDialog(this, batchingError, "Invalid event batching", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         ReturnPatchRule rule = null;
         if (showReturnTab) {
@@ -679,6 +775,21 @@ public class FridaConfigDialog extends JDialog {
             } catch (Exception e) {
                 sb.append("frida-ps not found: ").append(e.getMessage()).append("\n");
             }
+            try {
+                String python = pythonPath.getText().trim();
+                if (python.isEmpty()) {
+                    python = FridaSessionConfig.defaultPythonPath();
+                }
+                ProcessResult pyRes = ProcessUtils.run(java.util.Arrays.asList(python, "-c",
+                        "import frida; print(frida.__version__)"), 7000);
+                if (pyRes.getExitCode() == 0) {
+                    sb.append("python frida module: ").append(pyRes.getStdout().trim()).append("\n");
+                } else {
+                    sb.append("python frida module missing: ").append(lastLine(pyRes.getStderr())).append("\n");
+                }
+            } catch (Exception e) {
+                sb.append("python not found: ").append(e.getMessage()).append("\n");
+            }
             DeviceMode mode = (DeviceMode) deviceMode.getSelectedItem();
             if (mode == DeviceMode.USB) {
                 AdbDevice dev = (AdbDevice) deviceList.getSelectedItem();
@@ -713,6 +824,12 @@ public class FridaConfigDialog extends JDialog {
         return sessionConfig;
     }
 
+    private static String lastLine(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        int idx = trimmed.lastIndexOf('\n');
+        return idx >= 0 ? trimmed.substring(idx + 1).trim() : trimmed;
+    }
+
     public ScriptOptions getScriptOptions() {
         return scriptOptions;
     }
@@ -1,6 +1,12 @@
 package com.jarida.jadxfrida.ui;
 
+import com.jarida.jadxfrida.model.CallSite;
 import com.jarida.jadxfrida.model.HookRecord;
+import com.jarida.jadxfrida.model.HookStats;
+import com.jarida.jadxfrida.model.LatencyHistogram;
+import com.jarida.jadxfrida.model.StackDictionary;
+import com.jarida.jadxfrida.model.StackProfile;
+import com.jarida.jadxfrida.model.TraceEvent;
 import jadx.gui.treemodel.JNode;
 import jadx.gui.ui.panel.ContentPanel;
 import jadx.gui.ui.tab.TabbedPane;
@@ -8,7 +14,7 @@ import jadx.gui.ui.tab.TabbedPane;
 import javax.swing.JButton;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
-import javax.swing.JTextPane;
+import javax.swing.JList;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.JTable;
@@ -26,9 +32,6 @@ import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableRowSorter;
-import javax.swing.text.DefaultCaret;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.StyledDocument;
 import java.awt.BorderLayout;
 import java.awt.Font;
 import java.awt.GridBagConstraints;
@@ -40,17 +43,26 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.datatransfer.StringSelection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.swing.JSplitPane;
 import javax.swing.JLabel;
 import javax.swing.JFileChooser;
 import java.io.File;
 
 public class FridaConsolePanel extends ContentPanel {
-    private final JTextPane logArea;
+    private final JList<String> logArea;
+    private final LogListModel logModel = new LogListModel(MAX_LOG_LINES);
     private final JTextArea scriptArea;
+    private final CallsPanel callsPanel = new CallsPanel();
+    private final FlameGraphPanel flamePanel = new FlameGraphPanel();
+    private final ThreadTimelinePanel threadsPanel = new ThreadTimelinePanel();
+    private final CallSitesPanel callSitesPanel = new CallSitesPanel();
     private final Consumer<HookRecord> onRemoveHook;
     private final BiConsumer<HookRecord, Boolean> onSetHookActive;
     private final BiConsumer<List<HookRecord>, Boolean> onSetHooksActive;
@@ -60,6 +72,11 @@ public class FridaConsolePanel extends ContentPanel {
     private final HookTableModel hooksModel = new HookTableModel();
     private final JTable hooksTable = new JTable(hooksModel);
     private final TableRowSorter<HookTableModel> hooksSorter = new TableRowSorter<>(hooksModel);
+    private final javax.swing.Timer hooksRefreshTimer = new javax.swing.Timer(HOOKS_REFRESH_MS, e -> {
+        if (hooksTable.isShowing()) {
+            hooksModel.refreshRates();
+        }
+    });
     private final JTextField hooksSearch = new JTextField(22);
     private JScrollPane hooksScroll;
     private final JaridaConnectionPanel connectionPanel;
@@ -71,6 +88,9 @@ public class FridaConsolePanel extends ContentPanel {
     private final JTable customScriptsTable = new JTable(customScriptsModel);
     private JScrollPane logScroll;
     private volatile boolean autoScrollEnabled = true;
+    private final java.util.concurrent.ConcurrentLinkedQueue<String> pendingLogLines = new java.util.concurrent.ConcurrentLinkedQueue<>();
+    private final java.util.concurrent.atomic.AtomicBoolean logFlushScheduled = new java.util.concurrent.atomic.AtomicBoolean();
+    private final javax.swing.Timer logFlushTimer;
     private static final java.util.regex.Pattern ANSI_PATTERN = java.util.regex.Pattern.compile("\u001B\\[[0-9;]*m");
 
     public FridaConsolePanel(TabbedPane tabbedPane, JNode node, JaridaConnectionPanel connectionPanel,
@@ -100,11 +120,14 @@ public class FridaConsolePanel extends ContentPanel {
             }
         });
         setLayout(new BorderLayout());
-        logArea = new JTextPane();
-        logArea.setEditable(false);
+        logArea = new JList<>(logModel);
         logArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        DefaultCaret caret = (DefaultCaret) logArea.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+        // fixed cell metrics keep JList from measuring every row; only visible rows are painted
+        java.awt.FontMetrics logMetrics = logArea.getFontMetrics(logArea.getFont());
+        logArea.setFixedCellHeight(logMetrics.getHeight() + 2);
+        logArea.setFixedCellWidth(1);
+        logFlushTimer = new javax.swing.Timer(LOG_FLUSH_INTERVAL_MS, e -> flushPendingLogs());
+        logFlushTimer.setRepeats(false);
 
         scriptArea = new JTextArea();
         scriptArea.setEditable(false);
@@ -115,7 +138,11 @@ public class FridaConsolePanel extends ContentPanel {
             tabs.addTab("Connection", connectionPanel);
         }
         tabs.addTab("Console", buildConsolePanel());
+        tabs.addTab("Calls", callsPanel);
+        tabs.addTab("Flame", flamePanel);
+        tabs.addTab("Threads", threadsPanel);
         tabs.addTab("Hooks", buildHooksPanel());
+        tabs.addTab("Call sites", callSitesPanel);
         tabs.addTab("Script", buildScriptPanel());
         tabs.addTab("Info", buildInfoPanel());
         add(tabs, BorderLayout.CENTER);
@@ -128,7 +155,20 @@ public class FridaConsolePanel extends ContentPanel {
         hooksTable.setRowSorter(hooksSorter);
         hooksTable.getColumnModel().getColumn(0).setMaxWidth(90);
         hooksTable.getColumnModel().getColumn(0).setMinWidth(70);
-        // Only two columns now: Enabled + Method
+        for (int i = HookTableModel.FIRST_ACTIVITY_COLUMN; i < HookTableModel.FIRST_LATENCY_COLUMN; i++) {
+            hooksTable.getColumnModel().getColumn(i).setPreferredWidth(LATENCY_COLUMN_WIDTH);
+            hooksTable.getColumnModel().getColumn(i).setMinWidth(LATENCY_COLUMN_WIDTH);
+        }
+        hooksTable.getColumnModel().getColumn(HookTableModel.CALL_RATE_COLUMN).setCellRenderer(new RateRenderer(false));
+        hooksTable.getColumnModel().getColumn(HookTableModel.EMITTED_COLUMN).setCellRenderer(new RateRenderer(true));
+        hooksTable.getColumnModel().getColumn(HookTableModel.EMITTED_RATE_COLUMN).setCellRenderer(new RateRenderer(true));
+        // the agent only reports hooks that ran, so idle hooks' rates decay on this tick
+        hooksRefreshTimer.start();
+        for (int i = HookTableModel.FIRST_LATENCY_COLUMN; i < hooksModel.getColumnCount(); i++) {
+            hooksTable.getColumnModel().getColumn(i).setPreferredWidth(LATENCY_COLUMN_WIDTH);
+            hooksTable.getColumnModel().getColumn(i).setMinWidth(LATENCY_COLUMN_WIDTH);
+            hooksTable.getColumnModel().getColumn(i).setCellRenderer(new LatencyRenderer());
+        }
 
         JPopupMenu hooksMenu = new JPopupMenu();
         JMenuItem editItem = new JMenuItem("Edit");
@@ -262,21 +302,57 @@ public class FridaConsolePanel extends ContentPanel {
         return panel;
     }
 
-    private static final int MAX_LOG_LENGTH = 2000000;
+    private static final int MAX_LOG_LINES = 100000;
+    private static final int MAX_LOG_LINE_LENGTH = 8000;
 
+    private static final int LOG_FLUSH_INTERVAL_MS = 33;
+    private static final int MAX_LOG_LINES_PER_FLUSH = 20000;
+
+    /**
+     * Thread-safe; lines are queued and appended on the EDT in batches at most once per frame.
+     */
     public void appendLog(String line) {
-        SwingUtilities.invokeLater(() -> {
-            trimLogIfNeeded();
-            String stripped = stripAnsi(line);
-            StyledDocument doc = logArea.getStyledDocument();
-            try {
-                doc.insertString(doc.getLength(), stripped + "\n", null);
-            } catch (BadLocationException ignored) {
-            }
-            if (autoScrollEnabled) {
-                SwingUtilities.invokeLater(this::scrollLogToBottom);
+        pendingLogLines.offer(line == null ? "" : line);
+        if (logFlushScheduled.compareAndSet(false, true)) {
+            logFlushTimer.restart();
+        }
+    }
+
+    private void flushPendingLogs() {
+        logFlushScheduled.set(false);
+        int appended = 0;
+        List<String> batch = new ArrayList<>();
+        String line;
+        while (appended < MAX_LOG_LINES_PER_FLUSH && (line = pendingLogLines.poll()) != null) {
+            // list cells are labels, which do not expand tabs (stack traces indent with them)
+            for (String part : stripAnsi(line).replace("\t", "    ").split("\\R", -1)) {
+                if (part.length() > MAX_LOG_LINE_LENGTH) {
+                    part = part.substring(0, MAX_LOG_LINE_LENGTH) + "...<" + part.length() + " chars>";
+                }
+                batch.add(part);
             }
-        });
+            appended++;
+        }
+        logModel.addAll(batch);
+        if (!pendingLogLines.isEmpty() && logFlushScheduled.compareAndSet(false, true)) {
+            logFlushTimer.restart();
+        }
+        if (appended == 0) {
+            return;
+        }
+        updateLogWidth();
+        if (autoScrollEnabled) {
+            SwingUtilities.invokeLater(this::scrollLogToBottom);
+        }
+    }
+
+    private void updateLogWidth() {
+        // monospaced font: width follows from the longest line without measuring rows
+        int charWidth = logArea.getFontMetrics(logArea.getFont()).charWidth('m');
+        int width = logModel.getMaxLineLength() * charWidth + 8;
+        if (width > logArea.getFixedCellWidth()) {
+            logArea.setFixedCellWidth(width);
+        }
     }
 
     private String stripAnsi(String text) {
@@ -286,18 +362,6 @@ public class FridaConsolePanel extends ContentPanel {
         return ANSI_PATTERN.matcher(text).replaceAll("");
     }
 
-    private void trimLogIfNeeded() {
-        StyledDocument doc = logArea.getStyledDocument();
-        int len = doc.getLength();
-        if (len > MAX_LOG_LENGTH) {
-            try {
-                int removeLen = len - MAX_LOG_LENGTH + MAX_LOG_LENGTH / 4;
-                doc.remove(0, removeLen);
-            } catch (BadLocationException ignored) {
-            }
-        }
-    }
-
     private void scrollLogToBottom() {
         JScrollBar bar = logScroll.getVerticalScrollBar();
         if (bar != null) {
@@ -317,6 +381,42 @@ public class FridaConsolePanel extends ContentPanel {
         autoScrollEnabled = (value + extent >= max - 50);
     }
 
+    /**
+     * Thread-safe; feeds the Calls tab.
+     */
+    public void addTraceEvent(TraceEvent event) {
+        callsPanel.addEvent(event);
+        threadsPanel.addEvent(event);
+    }
+
+    public void setHandleExpander(Function<Long, CompletableFuture<String>> handleExpander) {
+        callsPanel.setHandleExpander(handleExpander);
+    }
+
+    public void setBytesReader(Function<Long, CompletableFuture<byte[]>> bytesReader) {
+        callsPanel.setBytesReader(bytesReader);
+    }
+
+    public void setStackSource(StackProfile profile, StackDictionary stacks) {
+        flamePanel.setStackSource(profile, stacks);
+    }
+
+    public void setFrameNavigator(Consumer<StackDictionary.Frame> frameNavigator) {
+        flamePanel.setFrameNavigator(frameNavigator);
+    }
+
+    /**
+     * Thread-safe; refreshes the Call sites tab.
+     */
+    public void updateCallSites(List<CallSite> sites, boolean scanning) {
+        callSitesPanel.setSites(sites, scanning);
+    }
+
+    public void setCallSiteNavigator(Consumer<CallSite> navigator, Runnable rescanHandler) {
+        callSitesPanel.setSiteNavigator(navigator);
+        callSitesPanel.setRescanHandler(rescanHandler);
+    }
+
     public void setScript(String script) {
         SwingUtilities.invokeLater(() -> {
             scriptArea.setText(script == null ? "" : script);
@@ -504,17 +604,28 @@ public class FridaConsolePanel extends ContentPanel {
         });
     }
 
+    /**
+     * Thread-safe; refreshes the activity, sampling and latency columns of the Hooks table.
+     */
+    public void updateHookStats(Map<String, HookStats> stats) {
+        SwingUtilities.invokeLater(() -> hooksModel.setStats(stats));
+    }
+
     public void clearLog() {
         SwingUtilities.invokeLater(() -> {
             autoScrollEnabled = true;
-            logArea.setText("");
+            logModel.clear();
+            logArea.setFixedCellWidth(1);
         });
     }
 
     public void clearAll() {
         SwingUtilities.invokeLater(() -> {
             autoScrollEnabled = true;
-            logArea.setText("");
+            logModel.clear();
+            logArea.setFixedCellWidth(1);
+            callsPanel.clear();
+            threadsPanel.clear();
             scriptArea.setText("");
             hooksModel.setHooks(new java.util.ArrayList<>());
             updateHooksColumnWidth();
@@ -540,8 +651,13 @@ public class FridaConsolePanel extends ContentPanel {
         int viewportWidth = hooksScroll != null && hooksScroll.getViewport() != null
                 ? hooksScroll.getViewport().getWidth()
                 : hooksTable.getParent() != null ? hooksTable.getParent().getWidth() : 0;
-        int enabledColWidth = hooksTable.getColumnModel().getColumn(0).getWidth();
-        int minWidth = Math.max(0, viewportWidth - enabledColWidth);
+        int otherColsWidth = 0;
+        for (int i = 0; i < hooksTable.getColumnModel().getColumnCount(); i++) {
+            if (i != 1) {
+                otherColsWidth += hooksTable.getColumnModel().getColumn(i).getWidth();
+            }
+        }
+        int minWidth = Math.max(0, viewportWidth - otherColsWidth);
         int maxTextWidth = 0;
         java.awt.FontMetrics fm = hooksTable.getFontMetrics(hooksTable.getFont());
         for (HookRecord record : hooksModel.getHooks()) {
@@ -568,7 +684,7 @@ public class FridaConsolePanel extends ContentPanel {
         clearButton.addActionListener(e -> clearLog());
         JButton copyLog = new JButton("Copy Log");
         copyLog.addActionListener(e -> {
-            copyToClipboard(logArea.getText());
+            copyToClipboard(logModel.getText());
             flashButton(copyLog, "Copied");
         });
         toolBar.add(clearButton);
@@ -726,9 +842,21 @@ public class FridaConsolePanel extends ContentPanel {
         return panel;
     }
 
+    private static final int LATENCY_COLUMN_WIDTH = 72;
+    private static final int HOOKS_REFRESH_MS = 1000;
+
     private static final class HookTableModel extends AbstractTableModel {
-        private final String[] columns = {"Enabled", "Method"};
+        static final int FIRST_ACTIVITY_COLUMN = 2;
+        static final int CALL_RATE_COLUMN = 3;
+        static final int EMITTED_COLUMN = 6;
+        static final int EMITTED_RATE_COLUMN = 7;
+        static final int FIRST_COUNT_COLUMN = 8;
+        static final int FIRST_LATENCY_COLUMN = 10;
+        private static final double[] PERCENTILES = {50, 90, 99};
+        private final String[] columns = {"Enabled", "Method", "Calls", "Calls/s", "Exceptions", "Patched",
+                "Emitted", "Emitted/s", "Sampled", "Dropped", "p50", "p90", "p99", "max"};
         private final List<HookRecord> hooks = new ArrayList<>();
+        private Map<String, HookStats> stats = new HashMap<>();
         private BiConsumer<HookRecord, Boolean> toggleHandler;
 
         public void setToggleHandler(BiConsumer<HookRecord, Boolean> toggleHandler) {
@@ -747,6 +875,22 @@ public class FridaConsolePanel extends ContentPanel {
             return new ArrayList<>(hooks);
         }
 
+        public void setStats(Map<String, HookStats> newStats) {
+            stats = newStats == null ? new HashMap<>() : newStats;
+            if (!hooks.isEmpty()) {
+                fireTableRowsUpdated(0, hooks.size() - 1);
+            }
+        }
+
+        /**
+         * Repaints the live columns so that rates of hooks that stopped reporting drop to 0.
+         */
+        public void refreshRates() {
+            if (!hooks.isEmpty() && !stats.isEmpty()) {
+                fireTableRowsUpdated(0, hooks.size() - 1);
+            }
+        }
+
         public HookRecord getHookAt(int row) {
             if (row < 0 || row >= hooks.size()) {
                 return null;
@@ -774,6 +918,12 @@ public class FridaConsolePanel extends ContentPanel {
             if (columnIndex == 0) {
                 return Boolean.class;
             }
+            if (columnIndex == CALL_RATE_COLUMN || columnIndex == EMITTED_RATE_COLUMN) {
+                return Double.class;
+            }
+            if (columnIndex >= FIRST_ACTIVITY_COLUMN) {
+                return Long.class;
+            }
             return String.class;
         }
 
@@ -793,9 +943,62 @@ public class FridaConsolePanel extends ContentPanel {
                     return record.isActive();
                 case 1:
                     return record.getDisplay();
+                case 2:
+                case 3:
+                case 4:
+                case 5:
+                case 6:
+                case 7:
+                    return activityAt(record, columnIndex);
+                case 8:
+                case 9:
+                    return samplingAt(record, columnIndex);
+                default:
+                    return latencyAt(record, columnIndex);
+            }
+        }
+
+        private Object activityAt(HookRecord record, int columnIndex) {
+            HookStats hookStats = stats.get(record.getKey());
+            if (hookStats == null || hookStats.getCallCount() == 0) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            switch (columnIndex) {
+                case FIRST_ACTIVITY_COLUMN:
+                    return hookStats.getCallCount();
+                case CALL_RATE_COLUMN:
+                    return hookStats.getCallsPerSecond(now);
+                case 4:
+                    return hookStats.getExceptionCount();
+                case 5:
+                    return hookStats.getPatchedCount();
+                case EMITTED_COLUMN:
+                    return hookStats.getBytesEmitted();
                 default:
-                    return "";
+                    return hookStats.getBytesPerSecond(now);
+            }
+        }
+
+        private Long samplingAt(HookRecord record, int columnIndex) {
+            HookStats hookStats = stats.get(record.getKey());
+            if (hookStats == null || hookStats.getSampledCount() + hookStats.getDroppedCount() == 0) {
+                return null;
             }
+            return columnIndex == FIRST_COUNT_COLUMN ? hookStats.getSampledCount() : hookStats.getDroppedCount();
+        }
+
+        private Long latencyAt(HookRecord record, int columnIndex) {
+            HookStats hookStats = stats.get(record.getKey());
+            if (hookStats == null || hookStats.getLatency().getCount() == 0) {
+                return null;
+            }
+            LatencyHistogram latency = hookStats.getLatency();
+            int percentileIndex = columnIndex - FIRST_LATENCY_COLUMN;
+            if (percentileIndex < PERCENTILES.length) {
+                return latency.getPercentile(PERCENTILES[percentileIndex]);
+            }
+            return latency.getMaxMicros();
         }
 
         @Override
@@ -814,6 +1017,56 @@ public class FridaConsolePanel extends ContentPanel {
         }
     }
 
+    private static final class LatencyRenderer extends javax.swing.table.DefaultTableCellRenderer {
+        LatencyRenderer() {
+            setHorizontalAlignment(javax.swing.SwingConstants.RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value instanceof Long ? formatMicros((Long) value) : "");
+        }
+
+        static String formatMicros(long micros) {
+            if (micros < 1000) {
+                return micros + " us";
+            }
+            if (micros < 1000000) {
+                return String.format("%.1f ms", micros / 1000.0);
+            }
+            return String.format("%.2f s", micros / 1000000.0);
+        }
+    }
+
+    private static final class RateRenderer extends javax.swing.table.DefaultTableCellRenderer {
+        private final boolean bytes;
+
+        RateRenderer(boolean bytes) {
+            this.bytes = bytes;
+            setHorizontalAlignment(javax.swing.SwingConstants.RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            if (!(value instanceof Number)) {
+                setText("");
+                return;
+            }
+            double amount = ((Number) value).doubleValue();
+            setText(bytes ? formatBytes(amount) : String.format("%.1f", amount));
+        }
+
+        static String formatBytes(double bytes) {
+            if (bytes < 1024) {
+                return String.format("%.0f B", bytes);
+            }
+            if (bytes < 1024 * 1024) {
+                return String.format("%.1f KB", bytes / 1024);
+            }
+            return String.format("%.1f MB", bytes / (1024 * 1024));
+        }
+    }
+
     private static final class CustomScriptEntry {
         final String path;
         boolean enabled;
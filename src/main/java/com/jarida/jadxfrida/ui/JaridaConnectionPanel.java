@@ -1,5 +1,6 @@
 package com.jarida.jadxfrida.ui;
 
+import com.jarida.jadxfrida.frida.FridaArgs;
 import com.jarida.jadxfrida.frida.FridaController;
 import com.jarida.jadxfrida.frida.FridaServerChecker;
 import com.jarida.jadxfrida.model.AdbDevice;
@@ -45,6 +46,7 @@ public class JaridaConnectionPanel extends JPanel {
     private final JTextField adbPath;
     private final JTextField fridaPath;
     private final JTextField fridaPsPath;
+    private final JTextField pythonPath;
     private final JTextArea statusArea;
     private final JButton stopButton;
     private final JLabel statusLabel;
@@ -87,6 +89,7 @@ public class JaridaConnectionPanel extends JPanel {
         adbPath = new JTextField("adb", 30);
         fridaPath = new JTextField("frida", 30);
         fridaPsPath = new JTextField("frida-ps", 30);
+        pythonPath = new JTextField(FridaSessionConfig.defaultPythonPath(), 30);
 
         statusArea = new JTextArea(4, 60);
         statusArea.setEditable(false);
@@ -159,6 +162,7 @@ public class JaridaConnectionPanel extends JPanel {
             adbPath.setText(config.getAdbPath());
             fridaPath.setText(config.getFridaPath());
             fridaPsPath.setText(config.getFridaPsPath());
+            pythonPath.setText(config.getPythonPath());
         } else if (defaultPackage != null && !defaultPackage.trim().isEmpty()) {
             targetPackage.setText(defaultPackage);
         }
@@ -340,6 +344,18 @@ public class JaridaConnectionPanel extends JPanel {
         panel.add(fridaPsPath, c);
         c.gridwidth = 1;
 
+        c.gridx = 0;
+        c.gridy++;
+        c.weightx = 0;
+        c.fill = GridBagConstraints.NONE;
+        panel.add(new JLabel("Python path:"), c);
+        c.gridx = 1;
+        c.weightx = 1;
+        c.gridwidth = GridBagConstraints.REMAINDER;
+        c.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(pythonPath, c);
+        c.gridwidth = 1;
+
         JButton checkBtn = new JButton("Check connectivity");
         checkBtn.addActionListener(e -> {
             checkBtn.setEnabled(false);
@@ -409,6 +425,7 @@ public class JaridaConnectionPanel extends JPanel {
         cfg.setAdbPath(adbPath.getText().trim());
         cfg.setFridaPath(fridaPath.getText().trim());
         cfg.setFridaPsPath(fridaPsPath.getText().trim());
+        cfg.setPythonPath(pythonPath.getText().trim());
         if (onSavePaths != null) {
             onSavePaths.accept(cfg);
         }
@@ -454,9 +471,15 @@ public class JaridaConnectionPanel extends JPanel {
             cfg.setTargetProcess("");
         }
         cfg.setExtraFridaArgs(extraArgs.getText().trim());
+        String argsError = FridaArgs.validate(cfg.getExtraFridaArgs());
+        if (argsError != null) {
+            JOptionPane.showMessageDialog(this, argsError, "Invalid", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
         cfg.setAdbPath(adbPath.getText().trim());
         cfg.setFridaPath(fridaPath.getText().trim());
         cfg.setFridaPsPath(fridaPsPath.getText().trim());
+        cfg.setPythonPath(pythonPath.getText().trim());
         if (cfg.getTargetPackage().isEmpty() && cfg.isSpawn()) {
             JOptionPane.showMessageDialog(this, "Target package is required for spawn", "Missing data", JOptionPane.ERROR_MESSAGE);
             return null;
@@ -677,6 +700,21 @@ public class JaridaConnectionPanel extends JPanel {
             } catch (Exception e) {
                 sb.append("frida-ps not found: ").append(e.getMessage()).append("\n");
             }
+            try {
+                String python = pythonPath.getText().trim();
+                if (python.isEmpty()) {
+                    python = FridaSessionConfig.defaultPythonPath();
+                }
+                ProcessResult pyRes = ProcessUtils.run(java.util.Arrays.asList(python, "-c",
+                        "import frida; print(frida.__version__)"), 7000);
+                if (pyRes.getExitCode() == 0) {
+                    sb.append("python frida module: ").append(pyRes.getStdout().trim()).append("\n");
+                } else {
+                    sb.append("python frida module missing: ").append(lastLine(pyRes.getStderr())).append("\n");
+                }
+            } catch (Exception e) {
+                sb.append("python not found: ").append(e.getMessage()).append("\n");
+            }
             DeviceMode mode = (DeviceMode) deviceMode.getSelectedItem();
             if (mode == DeviceMode.USB) {
                 AdbDevice dev = (AdbDevice) deviceList.getSelectedItem();
@@ -703,6 +741,12 @@ public class JaridaConnectionPanel extends JPanel {
         }, "jarida-check").start();
     }
 
+    private static String lastLine(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        int idx = trimmed.lastIndexOf('\n');
+        return idx >= 0 ? trimmed.substring(idx + 1).trim() : trimmed;
+    }
+
     private boolean looksLikePath(String value) {
         if (value == null) {
             return false;
@@ -0,0 +1,100 @@
+package com.jarida.jadxfrida.ui;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * Console lines kept in a fixed-capacity ring; once full, each new line evicts the oldest one.
+ * Must only be used on the EDT.
+ */
+public class LogListModel extends AbstractListModel<String> {
+    private final String[] lines;
+    private int head;
+    private int size;
+    private int maxLineLength;
+
+    public LogListModel(int capacity) {
+        this.lines = new String[Math.max(1, capacity)];
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        if (index < 0 || index >= size) {
+            return "";
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    /**
+     * Length of the longest line appended since the last clear; used to size the view without
+     * measuring every row.
+     */
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public void add(String line) {
+        addAll(java.util.Collections.singletonList(line));
+    }
+
+    /**
+     * Appends a batch with at most one removed and one added event, however many lines it holds.
+     */
+    public void addAll(java.util.List<String> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int oldRemaining = size;
+        int evicted = 0;
+        int added = 0;
+        for (String line : batch) {
+            String value = line == null ? "" : line;
+            maxLineLength = Math.max(maxLineLength, value.length());
+            if (size == lines.length) {
+                lines[head] = null;
+                head = (head + 1) % lines.length;
+                size--;
+                if (oldRemaining > 0) {
+                    oldRemaining--;
+                    evicted++;
+                } else {
+                    added--;
+                }
+            }
+            lines[(head + size) % lines.length] = value;
+            size++;
+            added++;
+        }
+        if (evicted > 0) {
+            fireIntervalRemoved(this, 0, evicted - 1);
+        }
+        fireIntervalAdded(this, size - added, size - 1);
+    }
+
+    public void clear() {
+        int oldSize = size;
+        java.util.Arrays.fill(lines, null);
+        head = 0;
+        size = 0;
+        maxLineLength = 0;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+    }
+
+    public String getText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(getElementAt(i)).append('\n');
+        }
+        return sb.toString();
+    }
+}
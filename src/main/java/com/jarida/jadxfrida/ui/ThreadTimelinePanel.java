@@ -0,0 +1,314 @@
+package com.jarida.jadxfrida.ui;
+
+import com.jarida.jadxfrida.model.TraceEvent;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.Scrollable;
+import javax.swing.Timer;
+import javax.swing.ToolTipManager;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "Threads" tab: one lane per native thread id, with a row per nesting depth and a bar per traced
+ * call from its CALL to its RETURN timestamp. Events may be added from any thread; they are applied
+ * on the EDT in batches, like {@link CallsPanel}.
+ */
+public class ThreadTimelinePanel extends JPanel {
+    private static final int MAX_SPANS = 100000;
+    private static final int MAX_OPEN_CALLS = 65536;
+    private static final int FLUSH_INTERVAL_MS = 200;
+    private static final int ROW_HEIGHT = 14;
+    private static final int LANE_GAP = 6;
+    private static final int LABEL_WIDTH = 180;
+    private static final String[] WINDOWS = {"1 s", "5 s", "30 s", "5 min", "All"};
+    private static final long[] WINDOW_MS = {1000L, 5000L, 30000L, 300000L, 0L};
+
+    private final ConcurrentLinkedQueue<TraceEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer flushTimer;
+    private final ArrayDeque<Span> spans = new ArrayDeque<>();
+    private final Map<Long, Span> openCalls = new LinkedHashMap<Long, Span>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Span> eldest) {
+            return size() > MAX_OPEN_CALLS;
+        }
+    };
+    // insertion order = order in which threads were first seen
+    private final Map<Long, Lane> lanes = new LinkedHashMap<>();
+    private final JComboBox<String> windowBox = new JComboBox<>(WINDOWS);
+    private final JCheckBox follow = new JCheckBox("Follow", true);
+    private final JLabel countLabel = new JLabel("0 threads");
+    private final TimelineCanvas canvas = new TimelineCanvas();
+    private long latestTimestamp;
+    private long frozenEnd;
+
+    private static final class Span {
+        final long threadId;
+        final String signature;
+        final long start;
+        final int depth;
+        long end;
+
+        Span(long threadId, String signature, long start, int depth) {
+            this.threadId = threadId;
+            this.signature = signature;
+            this.start = start;
+            this.depth = depth;
+        }
+    }
+
+    private static final class Lane {
+        final long threadId;
+        String name;
+        int maxDepth;
+
+        Lane(long threadId) {
+            this.threadId = threadId;
+        }
+
+        String label() {
+            return name == null ? "tid " + threadId : name + " (" + threadId + ")";
+        }
+    }
+
+    public ThreadTimelinePanel() {
+        super(new BorderLayout());
+        windowBox.setSelectedIndex(1);
+        windowBox.addActionListener(e -> canvas.repaint());
+        follow.addActionListener(e -> {
+            frozenEnd = latestTimestamp;
+            canvas.repaint();
+        });
+        JButton clear = new JButton("Clear");
+        clear.addActionListener(e -> clear());
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        toolbar.add(clear);
+        toolbar.add(new JLabel("Window:"));
+        toolbar.add(windowBox);
+        toolbar.add(follow);
+        toolbar.add(countLabel);
+        add(toolbar, BorderLayout.NORTH);
+        add(new JScrollPane(canvas), BorderLayout.CENTER);
+
+        flushTimer = new Timer(FLUSH_INTERVAL_MS, e -> flushPending());
+        flushTimer.setRepeats(false);
+    }
+
+    /**
+     * Thread-safe; only CALL and RETURN / PATCHED_RETURN events are used.
+     */
+    public void addEvent(TraceEvent event) {
+        if (event == null || event.getThreadId() == 0L) {
+            return;
+        }
+        TraceEvent.Kind kind = event.getKind();
+        if (kind != TraceEvent.Kind.CALL && kind != TraceEvent.Kind.RETURN && kind != TraceEvent.Kind.PATCHED_RETURN) {
+            return;
+        }
+        pending.offer(event);
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushTimer.restart();
+        }
+    }
+
+    public void clear() {
+        pending.clear();
+        spans.clear();
+        openCalls.clear();
+        lanes.clear();
+        latestTimestamp = 0L;
+        frozenEnd = 0L;
+        countLabel.setText("0 threads");
+        canvas.revalidate();
+        canvas.repaint();
+    }
+
+    private void flushPending() {
+        flushScheduled.set(false);
+        boolean lanesChanged = false;
+        TraceEvent event;
+        while ((event = pending.poll()) != null) {
+            long key = ((long) event.getHookId() << 40) ^ event.getCallId();
+            if (event.getKind() == TraceEvent.Kind.CALL) {
+                Lane lane = lanes.get(event.getThreadId());
+                if (lane == null) {
+                    lane = new Lane(event.getThreadId());
+                    lanes.put(event.getThreadId(), lane);
+                    lanesChanged = true;
+                }
+                if (lane.name == null && event.getThreadName() != null) {
+                    lane.name = event.getThreadName();
+                }
+                if (event.getDepth() > lane.maxDepth) {
+                    lane.maxDepth = event.getDepth();
+                    lanesChanged = true;
+                }
+                Span span = new Span(event.getThreadId(), event.getSignature(), event.getTimestamp(), event.getDepth());
+                spans.addLast(span);
+                openCalls.put(key, span);
+                if (spans.size() > MAX_SPANS) {
+                    spans.removeFirst();
+                }
+            } else {
+                Span span = openCalls.remove(key);
+                if (span != null && event.getTimestamp() > 0) {
+                    span.end = event.getTimestamp();
+                }
+            }
+            latestTimestamp = Math.max(latestTimestamp, event.getTimestamp());
+        }
+        if (lanesChanged) {
+            countLabel.setText(lanes.size() + " threads");
+            canvas.revalidate();
+        }
+        if (follow.isSelected()) {
+            canvas.repaint();
+        }
+    }
+
+    private static Color colorFor(String signature) {
+        int hash = signature == null ? 0 : signature.hashCode();
+        float hue = ((hash >>> 4) & 0xff) / 255f;
+        return Color.getHSBColor(hue, 0.45f, 0.9f);
+    }
+
+    private final class TimelineCanvas extends JComponent implements Scrollable {
+        private final List<Rectangle> hitBoxes = new ArrayList<>();
+        private final List<Span> hitSpans = new ArrayList<>();
+
+        TimelineCanvas() {
+            setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+            ToolTipManager.sharedInstance().registerComponent(this);
+        }
+
+        @Override
+        public String getToolTipText(MouseEvent event) {
+            for (int i = hitBoxes.size() - 1; i >= 0; i--) {
+                if (hitBoxes.get(i).contains(event.getPoint())) {
+                    Span span = hitSpans.get(i);
+                    String duration = span.end > 0 ? (span.end - span.start) + " ms" : "no return";
+                    return span.signature + " [depth " + span.depth + ", " + duration + "]";
+                }
+            }
+            return null;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            hitBoxes.clear();
+            hitSpans.clear();
+            g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            if (lanes.isEmpty() || spans.isEmpty()) {
+                return;
+            }
+            long end = follow.isSelected() ? latestTimestamp : frozenEnd;
+            long window = WINDOW_MS[Math.max(0, windowBox.getSelectedIndex())];
+            long start = window > 0 ? end - window : spans.peekFirst().start;
+            if (end <= start) {
+                end = start + 1;
+            }
+            int plotWidth = Math.max(1, getWidth() - LABEL_WIDTH);
+            double scale = plotWidth / (double) (end - start);
+
+            Map<Long, Integer> laneTop = new HashMap<>();
+            FontMetrics metrics = g.getFontMetrics();
+            int y = 0;
+            for (Lane lane : lanes.values()) {
+                laneTop.put(lane.threadId, y);
+                int height = (lane.maxDepth + 1) * ROW_HEIGHT;
+                g.setColor(new Color(0xf0f0f0));
+                g.fillRect(0, y, getWidth(), height);
+                g.setColor(Color.DARK_GRAY);
+                g.drawString(clip(lane.label(), metrics, LABEL_WIDTH - 6), 2, y + ROW_HEIGHT - 3);
+                y += height + LANE_GAP;
+            }
+            for (Span span : spans) {
+                long spanEnd = span.end > 0 ? span.end : span.start;
+                if (spanEnd < start || span.start > end) {
+                    continue;
+                }
+                Integer top = laneTop.get(span.threadId);
+                if (top == null) {
+                    continue;
+                }
+                int x1 = LABEL_WIDTH + (int) ((Math.max(span.start, start) - start) * scale);
+                int x2 = LABEL_WIDTH + (int) ((Math.min(spanEnd, end) - start) * scale);
+                Rectangle box = new Rectangle(x1, top + span.depth * ROW_HEIGHT, Math.max(2, x2 - x1), ROW_HEIGHT - 1);
+                g.setColor(colorFor(span.signature));
+                g.fillRect(box.x, box.y, box.width, box.height);
+                if (box.width > 40) {
+                    g.setColor(Color.BLACK);
+                    g.drawString(clip(span.signature, metrics, box.width - 4), box.x + 2, box.y + ROW_HEIGHT - 3);
+                }
+                hitBoxes.add(box);
+                hitSpans.add(span);
+            }
+        }
+
+        private String clip(String text, FontMetrics metrics, int width) {
+            if (text == null || metrics.stringWidth(text) <= width) {
+                return text == null ? "" : text;
+            }
+            int chars = Math.max(0, width / Math.max(1, metrics.charWidth('m')) - 2);
+            return chars <= 0 ? "" : text.substring(0, Math.min(chars, text.length())) + "..";
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            int height = 0;
+            for (Lane lane : lanes.values()) {
+                height += (lane.maxDepth + 1) * ROW_HEIGHT + LANE_GAP;
+            }
+            return new Dimension(LABEL_WIDTH + 200, Math.max(ROW_HEIGHT, height));
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return getPreferredSize();
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return ROW_HEIGHT;
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return ROW_HEIGHT * 10;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return true;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return getParent() != null && getParent().getHeight() > getPreferredSize().height;
+        }
+    }
+}
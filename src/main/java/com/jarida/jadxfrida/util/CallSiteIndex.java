@@ -0,0 +1,327 @@
+package com.jarida.jadxfrida.util;
+
+import com.jarida.jadxfrida.model.CallSite;
+import com.jarida.jadxfrida.model.MethodTarget;
+import jadx.api.ICodeInfo;
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+import jadx.api.JavaClass;
+import jadx.api.JavaMethod;
+import jadx.api.JavaNode;
+import jadx.core.Jadx;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Declarations and call sites of the hooked methods across all decompiled classes, built in the
+ * background from Jadx's usage info ({@link JavaNode#getUseIn()} and
+ * {@link JavaClass#getUsePlacesFor(ICodeInfo, JavaNode)}). Only signatures that are not indexed yet
+ * are scanned; a new request cancels a scan whose set of hooks is out of date.
+ */
+public final class CallSiteIndex {
+    private static final int MAX_CODE_LENGTH = 200;
+
+    private final JadxDecompiler decompiler;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "jarida-usages");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, List<CallSite>> sites = new LinkedHashMap<>();
+    private Future<?> running;
+    private Set<String> runningSignatures = Collections.emptySet();
+    private volatile Runnable changeListener;
+
+    public CallSiteIndex(JadxDecompiler decompiler) {
+        this.decompiler = decompiler;
+    }
+
+    /**
+     * Called on the scanning thread after each finished scan.
+     */
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Identifies the code the index is built from: the Jadx version, the hash Jadx keys its own code
+     * cache with (decompiler options and plugins) and the path, size and modification time of each
+     * input file. Saved sites are only reused while this key is unchanged, since offsets and lines
+     * move as soon as any of these does.
+     */
+    public String getValidityKey() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            sb.append(Jadx.getVersion());
+        } catch (Exception | LinkageError e) {
+            sb.append('?');
+        }
+        sb.append('|');
+        JadxArgs args = decompiler == null ? null : decompiler.getArgs();
+        if (args != null) {
+            try {
+                sb.append(args.makeCodeArgsHash(decompiler));
+            } catch (Exception | LinkageError e) {
+                sb.append('?');
+            }
+            CRC32 inputs = new CRC32();
+            for (File file : args.getInputFiles()) {
+                String entry = file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified() + ';';
+                inputs.update(entry.getBytes(StandardCharsets.UTF_8));
+            }
+            sb.append('|').append(Long.toHexString(inputs.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Seeds the index with sites saved in the project, so they are available before any scan.
+     */
+    public synchronized void restore(Collection<CallSite> saved) {
+        sites.clear();
+        if (saved == null) {
+            return;
+        }
+        for (CallSite site : saved) {
+            sites.computeIfAbsent(site.getHookSignature(), k -> new ArrayList<>()).add(site);
+        }
+    }
+
+    /**
+     * Brings the index in line with {@code targets} (keyed by display signature): entries of removed
+     * hooks are dropped and new ones are scanned in the background.
+     *
+     * @param rescan true to scan every target again, e.g. after the code was reloaded
+     */
+    public synchronized void update(Map<String, MethodTarget> targets, boolean rescan) {
+        sites.keySet().retainAll(targets.keySet());
+        Set<String> wanted = new LinkedHashSet<>(targets.keySet());
+        if (rescan) {
+            sites.clear();
+        } else {
+            wanted.removeAll(sites.keySet());
+        }
+        if (running != null && !running.isDone()) {
+            if (!rescan && runningSignatures.equals(wanted)) {
+                return;
+            }
+            running.cancel(true);
+        }
+        if (wanted.isEmpty()) {
+            running = null;
+            runningSignatures = Collections.emptySet();
+            return;
+        }
+        Map<String, MethodTarget> pending = new LinkedHashMap<>();
+        for (String signature : wanted) {
+            pending.put(signature, targets.get(signature));
+        }
+        runningSignatures = wanted;
+        running = executor.submit(() -> scan(pending));
+    }
+
+    public synchronized boolean isScanning() {
+        return running != null && !running.isDone();
+    }
+
+    /**
+     * True when every signature has been scanned, so lookups need no fallback.
+     */
+    public synchronized boolean covers(Collection<String> signatures) {
+        return sites.keySet().containsAll(signatures);
+    }
+
+    public synchronized List<CallSite> getSites(String signature) {
+        List<CallSite> list = sites.get(signature);
+        return list == null ? Collections.emptyList() : new ArrayList<>(list);
+    }
+
+    public synchronized List<CallSite> getAllSites() {
+        List<CallSite> all = new ArrayList<>();
+        for (List<CallSite> list : sites.values()) {
+            all.addAll(list);
+        }
+        return all;
+    }
+
+    /**
+     * Zero-based lines of {@code className} (a top-level class raw name) that declare, or with
+     * {@code includeUsages} also call, one of {@code signatures}.
+     */
+    public synchronized Set<Integer> lines(String className, Collection<String> signatures, boolean includeUsages) {
+        Set<Integer> out = new HashSet<>();
+        for (String signature : signatures) {
+            List<CallSite> list = sites.get(signature);
+            if (list == null) {
+                continue;
+            }
+            for (CallSite site : list) {
+                if ((includeUsages || site.isDeclaration()) && site.getClassName().equals(className)) {
+                    out.add(site.getLine());
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Those of {@code signatures} that {@code className} (a top-level class raw name) declares.
+     */
+    public synchronized Set<String> declaredIn(String className, Collection<String> signatures) {
+        Set<String> out = new HashSet<>();
+        for (String signature : signatures) {
+            List<CallSite> list = sites.get(signature);
+            if (list == null) {
+                continue;
+            }
+            for (CallSite site : list) {
+                if (site.isDeclaration() && site.getClassName().equals(className)) {
+                    out.add(signature);
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    private void scan(Map<String, MethodTarget> targets) {
+        Map<String, List<CallSite>> found = new LinkedHashMap<>();
+        for (Map.Entry<String, MethodTarget> entry : targets.entrySet()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            JavaMethod method = findMethod(entry.getValue(), entry.getKey());
+            found.put(entry.getKey(), method == null ? Collections.emptyList() : scanMethod(entry.getKey(), method));
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        synchronized (this) {
+            if (!runningSignatures.equals(targets.keySet())) {
+                return;
+            }
+            sites.putAll(found);
+        }
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private List<CallSite> scanMethod(String signature, JavaMethod method) {
+        List<CallSite> out = new ArrayList<>();
+        try {
+            JavaClass declaringTop = method.getTopParentClass();
+            ICodeInfo declaringCode = declaringTop.getCodeInfo();
+            int defPos = method.getDefPos();
+            if (declaringCode != null && defPos > 0) {
+                out.add(site(signature, declaringTop, declaringCode.getCodeStr(), method, defPos, true));
+            }
+            Map<JavaClass, List<JavaNode>> usersByClass = new LinkedHashMap<>();
+            for (JavaNode user : method.getUseIn()) {
+                JavaClass top = user.getTopParentClass();
+                if (top != null) {
+                    usersByClass.computeIfAbsent(top, k -> new ArrayList<>()).add(user);
+                }
+            }
+            for (Map.Entry<JavaClass, List<JavaNode>> entry : usersByClass.entrySet()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                JavaClass top = entry.getKey();
+                ICodeInfo codeInfo = top.getCodeInfo();
+                if (codeInfo == null) {
+                    continue;
+                }
+                String code = codeInfo.getCodeStr();
+                for (Integer pos : top.getUsePlacesFor(codeInfo, method)) {
+                    out.add(site(signature, top, code, enclosing(entry.getValue(), pos), pos, false));
+                }
+            }
+        } catch (Exception e) {
+            // classes that fail to decompile simply contribute no sites
+        }
+        return out;
+    }
+
+    /**
+     * The user node declared closest before {@code pos}, i.e. the method that contains the call.
+     */
+    private static JavaNode enclosing(List<JavaNode> users, int pos) {
+        JavaNode best = null;
+        int bestPos = -1;
+        for (JavaNode user : users) {
+            int defPos = user.getDefPos();
+            if (defPos <= pos && defPos > bestPos) {
+                best = user;
+                bestPos = defPos;
+            }
+        }
+        return best;
+    }
+
+    private static CallSite site(String signature, JavaClass top, String code, JavaNode caller, int pos,
+                                 boolean declaration) {
+        int line = 0;
+        int lineStart = 0;
+        int limit = code == null ? 0 : Math.min(pos, code.length());
+        for (int i = 0; i < limit; i++) {
+            if (code.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        String text = "";
+        if (code != null && lineStart < code.length()) {
+            int end = code.indexOf('\n', lineStart);
+            text = code.substring(lineStart, end < 0 ? code.length() : end).trim();
+            if (text.length() > MAX_CODE_LENGTH) {
+                text = text.substring(0, MAX_CODE_LENGTH);
+            }
+        }
+        String callerClass = top.getRawName();
+        String callerName = null;
+        if (caller instanceof JavaMethod) {
+            JavaClass declaring = caller.getDeclaringClass();
+            if (declaring != null) {
+                callerClass = declaring.getRawName();
+            }
+            callerName = caller.getName();
+        }
+        return new CallSite(signature, top.getRawName(), callerClass, callerName, pos, line, text, declaration);
+    }
+
+    private JavaMethod findMethod(MethodTarget target, String signature) {
+        if (target == null || decompiler == null) {
+            return null;
+        }
+        JavaClass cls = null;
+        try {
+            cls = decompiler.searchJavaClassByOrigFullName(target.getClassName());
+        } catch (Exception ignored) {
+        }
+        if (cls == null) {
+            return null;
+        }
+        for (JavaMethod method : cls.getMethods()) {
+            if (method != null && signature.equals(MethodResolver.fromJavaMethod(method).getDisplaySignature())) {
+                return method;
+            }
+        }
+        return null;
+    }
+}
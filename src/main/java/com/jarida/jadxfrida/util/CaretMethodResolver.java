@@ -0,0 +1,219 @@
+package com.jarida.jadxfrida.util;
+
+import com.jarida.jadxfrida.model.MethodTarget;
+import jadx.api.ICodeInfo;
+import jadx.api.JadxDecompiler;
+import jadx.api.JavaClass;
+import jadx.api.JavaMethod;
+import jadx.api.metadata.ICodeAnnotation;
+import jadx.api.metadata.ICodeMetadata;
+import jadx.api.metadata.ICodeNodeRef;
+import jadx.api.metadata.annotations.NodeDeclareRef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resolves the hookable method at a caret offset of a code view, off the EDT. Results are cached per
+ * (code, offset) so the popup can use a resolution prefetched while the caret moved. Resolution
+ * tries, in order: the enclosing method reference or declaration, the nearest method reference on
+ * the caret line (or within {@link #MAX_NEAREST_DISTANCE} chars), and lambda methods of the class
+ * when the caret line looks like a lambda.
+ */
+public final class CaretMethodResolver {
+    private static final int MAX_NEAREST_DISTANCE = 3000;
+    private static final int MAX_OFFSETS_PER_CLASS = 256;
+
+    private final JadxDecompiler decompiler;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "jarida-caret");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<ICodeInfo, Map<Integer, CompletableFuture<Resolution>>> cache = new WeakHashMap<>();
+
+    /**
+     * Outcome for one offset: a single target, or several lambda candidates for the user to pick.
+     */
+    public static final class Resolution {
+        static final Resolution NONE = new Resolution(null, Collections.emptyList());
+
+        private final MethodTarget target;
+        private final List<MethodTarget> lambdaCandidates;
+
+        private Resolution(MethodTarget target, List<MethodTarget> lambdaCandidates) {
+            this.target = target;
+            this.lambdaCandidates = lambdaCandidates;
+        }
+
+        public MethodTarget getTarget() {
+            return target;
+        }
+
+        public List<MethodTarget> getLambdaCandidates() {
+            return lambdaCandidates;
+        }
+
+        public boolean isEmpty() {
+            return target == null && lambdaCandidates.isEmpty();
+        }
+    }
+
+    public CaretMethodResolver(JadxDecompiler decompiler) {
+        this.decompiler = decompiler;
+    }
+
+    /**
+     * Cached or newly scheduled resolution of {@code offset} in {@code codeInfo}; {@code cls} is the
+     * class shown, used for lambdas.
+     */
+    public CompletableFuture<Resolution> resolve(ICodeInfo codeInfo, JavaClass cls, int offset) {
+        Map<Integer, CompletableFuture<Resolution>> offsets;
+        synchronized (cache) {
+            offsets = cache.computeIfAbsent(codeInfo, k -> new LinkedHashMap<Integer, CompletableFuture<Resolution>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<Resolution>> eldest) {
+                    return size() > MAX_OFFSETS_PER_CLASS;
+                }
+            });
+            CompletableFuture<Resolution> cached = offsets.get(offset);
+            if (cached != null) {
+                return cached;
+            }
+            CompletableFuture<Resolution> future = CompletableFuture.supplyAsync(() -> compute(codeInfo, cls, offset), executor);
+            offsets.put(offset, future);
+            return future;
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private Resolution compute(ICodeInfo codeInfo, JavaClass cls, int offset) {
+        ICodeMetadata metadata = codeInfo.hasMetadata() ? codeInfo.getCodeMetadata() : null;
+        if (metadata == null) {
+            return Resolution.NONE;
+        }
+        ICodeNodeRef nodeRef = extractNodeRef(metadata.searchUp(offset, ICodeAnnotation.AnnType.METHOD));
+        if (nodeRef == null) {
+            nodeRef = extractNodeRef(metadata.searchUp(offset, ICodeAnnotation.AnnType.DECLARATION));
+        }
+        MethodTarget resolved = nodeRef == null ? null : MethodResolver.resolve(decompiler, nodeRef);
+        if (resolved == null) {
+            String code = codeInfo.getCodeStr();
+            nodeRef = findNearestMethodRef(metadata, code, offset);
+            if (nodeRef != null) {
+                resolved = MethodResolver.resolve(decompiler, nodeRef);
+            }
+            if (resolved == null) {
+                return lambdaCandidates(cls, lineAt(code, offset));
+            }
+        }
+        return new Resolution(resolved, Collections.emptyList());
+    }
+
+    private ICodeNodeRef findNearestMethodRef(ICodeMetadata metadata, String code, int offset) {
+        Map<Integer, ICodeAnnotation> map = metadata.getAsMap();
+        if (map == null || map.isEmpty()) {
+            return null;
+        }
+        int lineStart = lineStart(code, offset);
+        int lineEnd = lineEnd(code, offset);
+        ICodeNodeRef best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, ICodeAnnotation> entry : map.entrySet()) {
+            ICodeAnnotation ann = entry.getValue();
+            if (ann == null) {
+                continue;
+            }
+            ICodeAnnotation.AnnType type = ann.getAnnType();
+            if (type != ICodeAnnotation.AnnType.METHOD && type != ICodeAnnotation.AnnType.DECLARATION) {
+                continue;
+            }
+            ICodeNodeRef ref = extractNodeRef(ann);
+            if (ref == null || MethodResolver.resolve(decompiler, ref) == null) {
+                continue;
+            }
+            int pos = entry.getKey();
+            if (code != null && pos >= lineStart && pos <= lineEnd) {
+                return ref;
+            }
+            int distance = Math.abs(pos - offset);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = ref;
+            }
+        }
+        return bestDistance > MAX_NEAREST_DISTANCE ? null : best;
+    }
+
+    private static Resolution lambdaCandidates(JavaClass cls, String lineText) {
+        if (cls == null || lineText == null) {
+            return Resolution.NONE;
+        }
+        String trimmed = lineText.trim();
+        if (!(trimmed.contains("->") || trimmed.contains("lambda$") || trimmed.contains("Lambda"))) {
+            return Resolution.NONE;
+        }
+        List<MethodTarget> targets = new ArrayList<>();
+        for (JavaMethod method : cls.getMethods()) {
+            String name = method == null ? null : method.getName();
+            if (name != null && name.contains("lambda$")) {
+                MethodTarget target = MethodResolver.fromJavaMethod(method);
+                if (target != null) {
+                    targets.add(target);
+                }
+            }
+        }
+        if (targets.size() == 1) {
+            return new Resolution(targets.get(0), Collections.emptyList());
+        }
+        return targets.isEmpty() ? Resolution.NONE : new Resolution(null, targets);
+    }
+
+    private static ICodeNodeRef extractNodeRef(ICodeAnnotation ann) {
+        if (ann instanceof NodeDeclareRef) {
+            return ((NodeDeclareRef) ann).getNode();
+        }
+        if (ann instanceof ICodeNodeRef) {
+            return (ICodeNodeRef) ann;
+        }
+        return null;
+    }
+
+    private static int lineStart(String code, int offset) {
+        if (code == null) {
+            return 0;
+        }
+        int start = Math.min(offset, code.length());
+        while (start > 0 && code.charAt(start - 1) != '\n') {
+            start--;
+        }
+        return start;
+    }
+
+    private static int lineEnd(String code, int offset) {
+        if (code == null) {
+            return 0;
+        }
+        int end = code.indexOf('\n', Math.min(offset, code.length()));
+        return end < 0 ? code.length() : end;
+    }
+
+    private static String lineAt(String code, int offset) {
+        if (code == null || offset < 0 || offset > code.length()) {
+            return null;
+        }
+        return code.substring(lineStart(code, offset), lineEnd(code, offset));
+    }
+}
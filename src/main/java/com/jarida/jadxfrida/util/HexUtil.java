@@ -0,0 +1,56 @@
+package com.jarida.jadxfrida.util;
+
+public final class HexUtil {
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final int DUMP_WIDTH = 16;
+
+    private HexUtil() {
+    }
+
+    public static String toHex(byte[] data) {
+        if (data == null) {
+            return "";
+        }
+        char[] out = new char[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            out[i * 2] = DIGITS[(data[i] >> 4) & 0xf];
+            out[i * 2 + 1] = DIGITS[data[i] & 0xf];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Classic offset / hex / ASCII dump, 16 bytes per line.
+     */
+    public static String hexDump(byte[] data) {
+        if (data == null || data.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(data.length * 4 + (data.length / DUMP_WIDTH + 1) * 12);
+        for (int offset = 0; offset < data.length; offset += DUMP_WIDTH) {
+            String pos = Integer.toHexString(offset);
+            for (int i = pos.length(); i < 8; i++) {
+                sb.append('0');
+            }
+            sb.append(pos).append("  ");
+            int end = Math.min(offset + DUMP_WIDTH, data.length);
+            for (int i = offset; i < offset + DUMP_WIDTH; i++) {
+                if (i < end) {
+                    sb.append(DIGITS[(data[i] >> 4) & 0xf]).append(DIGITS[data[i] & 0xf]).append(' ');
+                } else {
+                    sb.append("   ");
+                }
+                if (i == offset + DUMP_WIDTH / 2 - 1) {
+                    sb.append(' ');
+                }
+            }
+            sb.append(" |");
+            for (int i = offset; i < end; i++) {
+                int c = data[i] & 0xff;
+                sb.append(c >= 0x20 && c < 0x7f ? (char) c : '.');
+            }
+            sb.append("|\n");
+        }
+        return sb.toString();
+    }
+}
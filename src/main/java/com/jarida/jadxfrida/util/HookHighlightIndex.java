@@ -0,0 +1,198 @@
+package com.jarida.jadxfrida.util;
+
+import com.jarida.jadxfrida.model.MethodTarget;
+import jadx.api.ICodeInfo;
+import jadx.api.JadxDecompiler;
+import jadx.api.metadata.ICodeAnnotation;
+import jadx.api.metadata.ICodeMetadata;
+import jadx.api.metadata.ICodeNodeRef;
+import jadx.api.metadata.annotations.NodeDeclareRef;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-class index from method signature ({@link MethodTarget#getDisplaySignature()}) to the source
+ * lines declaring or calling that method. Indexes only depend on the decompiled code, not on the
+ * hooks, so they are built once per {@link ICodeInfo} (off the EDT) and every hook change is a lookup.
+ */
+public final class HookHighlightIndex {
+    private final Function<ICodeNodeRef, MethodTarget> resolver;
+    private final Map<ICodeInfo, ClassIndex> indexes = new WeakHashMap<>();
+
+    public HookHighlightIndex(JadxDecompiler decompiler) {
+        this(nodeRef -> MethodResolver.resolve(decompiler, nodeRef));
+    }
+
+    /**
+     * Index resolving method references with {@code resolver}; references it maps to null are skipped.
+     */
+    public HookHighlightIndex(Function<ICodeNodeRef, MethodTarget> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Index of {@code codeInfo}, built on first use; may resolve every method reference of the class,
+     * so call it from a background thread.
+     */
+    public ClassIndex get(ICodeInfo codeInfo) {
+        if (codeInfo == null) {
+            return ClassIndex.EMPTY;
+        }
+        synchronized (indexes) {
+            ClassIndex cached = indexes.get(codeInfo);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ClassIndex built = build(codeInfo);
+        synchronized (indexes) {
+            indexes.put(codeInfo, built);
+        }
+        return built;
+    }
+
+    public void clear() {
+        synchronized (indexes) {
+            indexes.clear();
+        }
+    }
+
+    private ClassIndex build(ICodeInfo codeInfo) {
+        ICodeMetadata metadata = codeInfo.hasMetadata() ? codeInfo.getCodeMetadata() : null;
+        Map<Integer, ICodeAnnotation> map = metadata == null ? null : metadata.getAsMap();
+        if (map == null || map.isEmpty()) {
+            return ClassIndex.EMPTY;
+        }
+        int[] lineStarts = lineStarts(codeInfo.getCodeStr());
+        Map<ICodeNodeRef, String> signatures = new HashMap<>();
+        Map<String, Set<Integer>> declarations = new HashMap<>();
+        Map<String, Set<Integer>> usages = new HashMap<>();
+        Map<String, ICodeNodeRef> refs = new HashMap<>();
+        for (Map.Entry<Integer, ICodeAnnotation> entry : map.entrySet()) {
+            ICodeAnnotation ann = entry.getValue();
+            boolean declaration = ann instanceof NodeDeclareRef;
+            ICodeNodeRef nodeRef = declaration ? ((NodeDeclareRef) ann).getNode()
+                    : ann instanceof ICodeNodeRef ? (ICodeNodeRef) ann : null;
+            if (nodeRef == null || nodeRef.getAnnType() != ICodeAnnotation.AnnType.METHOD) {
+                continue;
+            }
+            String signature;
+            if (signatures.containsKey(nodeRef)) {
+                signature = signatures.get(nodeRef);
+            } else {
+                MethodTarget resolved = resolver.apply(nodeRef);
+                signature = resolved == null ? null : resolved.getDisplaySignature();
+                signatures.put(nodeRef, signature);
+            }
+            if (signature == null) {
+                continue;
+            }
+            int line = lineOf(lineStarts, entry.getKey());
+            (declaration ? declarations : usages).computeIfAbsent(signature, k -> new HashSet<>()).add(line);
+            if (declaration) {
+                refs.putIfAbsent(signature, nodeRef);
+            }
+        }
+        return new ClassIndex(toArrays(declarations), toArrays(usages), refs);
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, Set<Integer>> lines) {
+        Map<String, int[]> out = new HashMap<>(lines.size() * 2);
+        for (Map.Entry<String, Set<Integer>> entry : lines.entrySet()) {
+            int[] sorted = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            Arrays.sort(sorted);
+            out.put(entry.getKey(), sorted);
+        }
+        return out;
+    }
+
+    private static int[] lineStarts(String code) {
+        if (code == null) {
+            return new int[]{0};
+        }
+        int count = 1;
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        int[] starts = new int[count];
+        int line = 1;
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) == '\n') {
+                starts[line++] = i + 1;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Zero-based line of {@code offset}, as the code area's {@code getLineOfOffset} reports it.
+     */
+    private static int lineOf(int[] lineStarts, int offset) {
+        int idx = Arrays.binarySearch(lineStarts, offset);
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    public static final class ClassIndex {
+        static final ClassIndex EMPTY = new ClassIndex(Collections.emptyMap(), Collections.emptyMap(),
+                Collections.emptyMap());
+
+        private final Map<String, int[]> declarations;
+        private final Map<String, int[]> usages;
+        private final Map<String, ICodeNodeRef> refs;
+
+        private ClassIndex(Map<String, int[]> declarations, Map<String, int[]> usages, Map<String, ICodeNodeRef> refs) {
+            this.declarations = declarations;
+            this.usages = usages;
+            this.refs = refs;
+        }
+
+        /**
+         * Lines to highlight for {@code signatures}: their declarations, plus their call sites when
+         * {@code includeUsages} is set.
+         */
+        public Set<Integer> lines(Collection<String> signatures, boolean includeUsages) {
+            Set<Integer> out = new HashSet<>();
+            for (String signature : signatures) {
+                addAll(out, declarations.get(signature));
+                if (includeUsages) {
+                    addAll(out, usages.get(signature));
+                }
+            }
+            return out;
+        }
+
+        public boolean mentionsAny(Collection<String> signatures, boolean includeUsages) {
+            for (String signature : signatures) {
+                if (declarations.containsKey(signature) || (includeUsages && usages.containsKey(signature))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Declaration node of a method declared in this class, or null.
+         */
+        public ICodeNodeRef getDeclaredRef(String signature) {
+            return refs.get(signature);
+        }
+
+        private static void addAll(Set<Integer> out, int[] lines) {
+            if (lines != null) {
+                for (int line : lines) {
+                    out.add(line);
+                }
+            }
+        }
+    }
+}
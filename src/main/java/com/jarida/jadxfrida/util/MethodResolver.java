@@ -2,17 +2,35 @@ package com.jarida.jadxfrida.util;
 
 import com.jarida.jadxfrida.model.MethodTarget;
 import jadx.api.JadxDecompiler;
+import jadx.api.JavaClass;
 import jadx.api.JavaMethod;
 import jadx.api.JavaNode;
 import jadx.api.metadata.ICodeNodeRef;
+import jadx.core.dex.info.AccessInfo;
 import jadx.core.dex.info.MethodInfo;
 import jadx.core.dex.instructions.args.ArgType;
 import jadx.core.dex.nodes.MethodNode;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
+/**
+ * Builds {@link MethodTarget}s from Jadx nodes. Results are memoized in weak-keyed caches, by node
+ * ref and by method, so the highlighting, call site and popup paths that resolve the same methods
+ * over and over get the same instance back; {@link #invalidate()} drops them when the decompiler is
+ * (re)loaded.
+ */
 public final class MethodResolver {
+    // cached ref -> node misses, so refs to fields, classes etc. are not looked up again either
+    private static final Object NOT_A_METHOD = new Object();
+    private static final Map<ICodeNodeRef, Object> REF_CACHE = new WeakHashMap<>();
+    private static final Map<JavaMethod, MethodTarget> METHOD_CACHE = new WeakHashMap<>();
+    private static JadxDecompiler refDecompiler;
+
     private MethodResolver() {
     }
 
@@ -20,14 +38,82 @@ public final class MethodResolver {
         if (decompiler == null || ref == null) {
             return null;
         }
+        synchronized (REF_CACHE) {
+            if (refDecompiler != decompiler) {
+                REF_CACHE.clear();
+                refDecompiler = decompiler;
+            }
+            Object cached = REF_CACHE.get(ref);
+            if (cached != null) {
+                return cached == NOT_A_METHOD ? null : (MethodTarget) cached;
+            }
+        }
         JavaNode node = decompiler.getJavaNodeByRef(ref);
-        if (node instanceof JavaMethod) {
-            return fromJavaMethod((JavaMethod) node);
+        MethodTarget target = node instanceof JavaMethod ? fromJavaMethod((JavaMethod) node) : null;
+        synchronized (REF_CACHE) {
+            if (refDecompiler == decompiler) {
+                REF_CACHE.put(ref, target == null ? NOT_A_METHOD : target);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Drops every memoized target; called when the decompiler is (re)loaded, since the node
+     * instances and names behind them may have changed.
+     */
+    public static void invalidate() {
+        synchronized (REF_CACHE) {
+            REF_CACHE.clear();
+            refDecompiler = null;
+        }
+        synchronized (METHOD_CACHE) {
+            METHOD_CACHE.clear();
+        }
+    }
+
+    /**
+     * Hookable methods declared by {@code cls}: static initializers and abstract methods are skipped,
+     * as are methods sharing a name and argument list with an earlier one (bridges), since Frida
+     * selects overloads by arguments only.
+     */
+    public static List<MethodTarget> fromJavaClass(JavaClass cls) {
+        List<MethodTarget> targets = new ArrayList<>();
+        if (cls == null || cls.getMethods() == null) {
+            return targets;
         }
-        return null;
+        Set<String> seen = new HashSet<>();
+        for (JavaMethod method : cls.getMethods()) {
+            if (method == null || method.isClassInit()) {
+                continue;
+            }
+            AccessInfo flags = method.getAccessFlags();
+            if (flags != null && flags.isAbstract()) {
+                continue;
+            }
+            MethodTarget target = fromJavaMethod(method);
+            if (seen.add(target.getMethodName() + "(" + String.join(",", target.getArgTypes()) + ")")) {
+                targets.add(target);
+            }
+        }
+        return targets;
     }
 
     public static MethodTarget fromJavaMethod(JavaMethod method) {
+        synchronized (METHOD_CACHE) {
+            MethodTarget cached = METHOD_CACHE.get(method);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        MethodTarget target = buildTarget(method);
+        synchronized (METHOD_CACHE) {
+            METHOD_CACHE.put(method, target);
+        }
+        return target;
+    }
+
+    private static MethodTarget buildTarget(JavaMethod method) {
         MethodNode methodNode = method.getMethodNode();
         MethodInfo methodInfo = methodNode.getMethodInfo();
 
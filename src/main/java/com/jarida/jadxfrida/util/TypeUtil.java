@@ -2,7 +2,12 @@ package com.jarida.jadxfrida.util;
 
 import jadx.core.dex.instructions.args.ArgType;
 
+import java.util.regex.Pattern;
+
 public final class TypeUtil {
+    private static final String ANONYMOUS_CLASS_MARKER = ".AnonymousClass";
+    private static final Pattern ANONYMOUS_CLASS = Pattern.compile("\\.AnonymousClass(\\d+)");
+
     private TypeUtil() {
     }
 
@@ -46,9 +51,10 @@ public final class TypeUtil {
         if (name == null) {
             return null;
         }
-        String out = name;
-        out = out.replaceAll("\\.AnonymousClass(\\d+)", "\\$$1");
-        return out;
+        if (!name.contains(ANONYMOUS_CLASS_MARKER)) {
+            return name;
+        }
+        return ANONYMOUS_CLASS.matcher(name).replaceAll("\\$$1");
     }
 
     public static boolean isVoid(String returnType) {
@@ -0,0 +1,238 @@
+#!/usr/bin/env python3
+"""Jarida session bridge.
+
+Keeps a single Frida session open on behalf of the Jarida jadx plugin and
+speaks a line-delimited JSON protocol over stdin/stdout:
+
+  request       {"id": 1, "method": "attach", "params": {...}}
+  response      {"id": 1, "result": ...}  or  {"id": 1, "error": "..."}
+  notification  {"event": "message" | "log" | "detached", ...}
+
+A binary result (an export returning an ArrayBuffer) is sent as
+{"$bytes": "<base64>"}. stdout carries protocol lines only; diagnostics go
+to stderr. The frida module is imported lazily so "ping" answers even when
+it is missing.
+
+Ordering: requests that change the session (attach, load, detach, shutdown) run
+one at a time, in the order they arrive, on a session worker. "call" and "ping"
+each run on their own thread as soon as they are read, so a slow load or
+installHook never holds up expandHandle; responses may therefore arrive out of
+request order and are matched by id.
+"""
+
+import base64
+import json
+import sys
+import threading
+
+try:
+    import queue
+except ImportError:  # Python 2
+    import Queue as queue
+
+PROTOCOL_VERSION = 1
+
+_out_lock = threading.Lock()
+
+
+def emit(obj):
+    line = json.dumps(obj, separators=(",", ":"))
+    with _out_lock:
+        sys.stdout.write(line + "\n")
+        sys.stdout.flush()
+
+
+class Bridge(object):
+    def __init__(self):
+        self._frida = None
+        self.device = None
+        self.session = None
+        self.script = None
+        self.pid = None
+        self.pending_resume = False
+        self.runtime = None
+        self.kill_on_exit = False
+        self.running = True
+
+    def frida(self):
+        if self._frida is None:
+            try:
+                import frida
+            except ImportError as e:
+                raise RuntimeError("frida python module not available: %s" % e)
+            self._frida = frida
+        return self._frida
+
+    # ---- RPC methods ----
+
+    def ping(self, params):
+        version = None
+        try:
+            version = self.frida().__version__
+        except RuntimeError:
+            pass
+        return {"protocol": PROTOCOL_VERSION, "frida": version}
+
+    def attach(self, params):
+        frida = self.frida()
+        self.detach(None)
+        mode = params.get("mode", "usb")
+        if mode == "remote":
+            remote = {}
+            for key, name in (("certificate", "certificate"), ("origin", "origin"), ("token", "token"),
+                              ("keepaliveInterval", "keepalive_interval")):
+                if params.get(key) is not None:
+                    remote[name] = params[key]
+            self.device = frida.get_device_manager().add_remote_device(params["host"], **remote)
+        elif params.get("deviceId"):
+            self.device = frida.get_device(params["deviceId"], timeout=5)
+        else:
+            self.device = frida.get_usb_device(timeout=5)
+        self.runtime = params.get("runtime") or None
+        self.kill_on_exit = bool(params.get("killOnExit"))
+        attach = {}
+        if params.get("realm"):
+            attach["realm"] = params["realm"]
+        if params.get("spawn"):
+            spawn = {}
+            if params.get("stdio"):
+                spawn["stdio"] = params["stdio"]
+            self.pid = self.device.spawn([params["target"]], **spawn)
+            self.pending_resume = True
+            self.session = self.device.attach(self.pid, **attach)
+        else:
+            target = params.get("pid") or params.get("target")
+            self.session = self.device.attach(target, **attach)
+            self.pid = getattr(self.session, "pid", None) or params.get("pid")
+        self.session.on("detached", self._on_detached)
+        return {"pid": self.pid}
+
+    def load(self, params):
+        if self.session is None:
+            raise RuntimeError("no session attached")
+        old = self.script
+        self.script = None
+        if old is not None:
+            try:
+                old.unload()
+            except Exception:
+                pass
+        kwargs = {}
+        if self.runtime:
+            kwargs["runtime"] = self.runtime
+        script = self.session.create_script(params["source"], **kwargs)
+        script.on("message", self._on_message)
+        if hasattr(script, "set_log_handler"):
+            script.set_log_handler(self._on_log)
+        script.load()
+        self.script = script
+        if self.pending_resume:
+            self.pending_resume = False
+            self.device.resume(self.pid)
+        return {}
+
+    def call(self, params):
+        if self.script is None:
+            raise RuntimeError("no script loaded")
+        exports = getattr(self.script, "exports_sync", None) or self.script.exports
+        fn = getattr(exports, params["fn"])
+        result = fn(*params.get("args", []))
+        if isinstance(result, (bytes, bytearray)):
+            return {"$bytes": base64.b64encode(bytes(result)).decode("ascii")}
+        return result
+
+    def detach(self, params):
+        script, session = self.script, self.session
+        self.script = None
+        self.session = None
+        if script is not None:
+            try:
+                script.unload()
+            except Exception:
+                pass
+        if session is not None:
+            try:
+                session.detach()
+            except Exception:
+                pass
+        return {}
+
+    def shutdown(self, params):
+        self.detach(None)
+        if self.kill_on_exit and self.device is not None and self.pid:
+            try:
+                self.device.kill(self.pid)
+            except Exception:
+                pass
+        self.running = False
+        return {}
+
+    # ---- frida callbacks (invoked on frida threads) ----
+
+    def _on_message(self, message, data):
+        encoded = base64.b64encode(data).decode("ascii") if data else None
+        emit({"event": "message", "message": message, "data": encoded})
+
+    def _on_log(self, level, text):
+        emit({"event": "log", "level": level, "text": text})
+
+    def _on_detached(self, reason, *args):
+        emit({"event": "detached", "reason": str(reason)})
+
+
+SESSION_METHODS = ("attach", "load", "detach", "shutdown")
+CONCURRENT_METHODS = ("ping", "call")
+
+
+def handle(bridge, req):
+    rid = req.get("id")
+    method = req.get("method")
+    try:
+        if method not in SESSION_METHODS and method not in CONCURRENT_METHODS:
+            raise RuntimeError("unknown method: %s" % method)
+        result = getattr(bridge, method)(req.get("params") or {})
+        emit({"id": rid, "result": result})
+    except Exception as e:
+        emit({"id": rid, "error": "%s: %s" % (type(e).__name__, e)})
+
+
+def session_worker(bridge, requests):
+    while True:
+        req = requests.get()
+        try:
+            handle(bridge, req)
+        finally:
+            requests.task_done()
+
+
+def main():
+    bridge = Bridge()
+    session_requests = queue.Queue()
+    worker = threading.Thread(target=session_worker, args=(bridge, session_requests), name="jarida-session")
+    worker.daemon = True
+    worker.start()
+    for raw in iter(sys.stdin.readline, ""):
+        raw = raw.strip()
+        if not raw:
+            continue
+        try:
+            req = json.loads(raw)
+        except ValueError as e:
+            sys.stderr.write("jarida-bridge: bad request: %s\n" % e)
+            continue
+        if req.get("method") in CONCURRENT_METHODS:
+            t = threading.Thread(target=handle, args=(bridge, req))
+            t.daemon = True
+            t.start()
+            continue
+        session_requests.put(req)
+        if req.get("method") == "shutdown":
+            session_requests.join()
+            if not bridge.running:
+                break
+    session_requests.join()
+    bridge.detach(None)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,502 @@
+package com.jarida.jadxfrida;
+
+import com.jarida.jadxfrida.model.HookRecord;
+import com.jarida.jadxfrida.model.MethodTarget;
+import com.jarida.jadxfrida.util.HookHighlightIndex;
+import jadx.api.ICodeInfo;
+import jadx.api.impl.AnnotatedCodeInfo;
+import jadx.api.metadata.ICodeAnnotation;
+import jadx.api.metadata.ICodeMetadata;
+import jadx.api.metadata.ICodeNodeRef;
+import jadx.api.metadata.annotations.NodeDeclareRef;
+import jadx.api.metadata.impl.CodeMetadataStorage;
+
+import java.awt.Color;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times one hook toggle's highlight pass on a synthetic class with 10k method annotations: the
+ * pre-index pass (every annotation resolved and every line re-highlighted through reflection) against
+ * the {@link HookHighlightIndex} lookup plus the {@link CodeAreaAdapter} line diff that
+ * {@code FridaTracePlugin.updateHighlights}/{@code applyHighlights} run now.
+ * <p>
+ * Both passes are copies of the plugin's code with the Swing plumbing (tab lookup, EDT and executor
+ * hops, retry timer) left out and run on one thread. Method references are resolved by a lookup that
+ * builds a {@link MethodTarget}, not by {@code MethodResolver}, which needs a loaded decompiler; the
+ * old pass resolves every reference on every toggle, so this understates its cost.
+ * <p>
+ * Not a unit test; run it by hand against the test classpath, e.g.
+ * {@code java -cp target/test-classes:target/classes:<jadx jars> com.jarida.jadxfrida.HighlightPassBenchmark [annotations] [methods] [warmup] [rounds] [allInstances]}.
+ */
+public final class HighlightPassBenchmark {
+    private static final String CLASS_NAME = "com.example.Big";
+    private static final int CALLS_PER_LINE = 4;
+    private static final int BASE_HOOKS = 20;
+    private static final int TOGGLED_HOOKS = 50;
+
+    private HighlightPassBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int annotations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int methods = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+        boolean allInstances = args.length <= 4 || Boolean.parseBoolean(args[4]);
+        if (methods < BASE_HOOKS + TOGGLED_HOOKS || annotations <= methods) {
+            throw new IllegalArgumentException("need annotations > methods >= " + (BASE_HOOKS + TOGGLED_HOOKS));
+        }
+
+        SyntheticClass cls = new SyntheticClass(annotations, methods);
+        // each pass fills in node refs on its own records
+        Map<String, HookRecord> oldHooks = hooks(cls);
+        Map<String, HookRecord> newHooks = hooks(cls);
+        OldPass oldPass = new OldPass(cls, allInstances);
+        NewPass newPass = new NewPass(cls, allInstances);
+        FakePanel oldPanel = new FakePanel(new FakeArea(cls.codeInfo));
+        FakePanel newPanel = new FakePanel(new FakeArea(cls.codeInfo));
+
+        long[] oldTimes = new long[rounds];
+        long[] newTimes = new long[rounds];
+        for (int i = 0; i < warmup + rounds; i++) {
+            toggle(cls, oldHooks, i);
+            toggle(cls, newHooks, i);
+            long t0 = System.nanoTime();
+            oldPass.run(oldPanel, oldHooks);
+            long t1 = System.nanoTime();
+            newPass.run(newPanel, newHooks);
+            long t2 = System.nanoTime();
+            if (!oldPanel.area.lines().equals(newPanel.area.lines())) {
+                throw new IllegalStateException("passes disagree on pass " + i);
+            }
+            if (i >= warmup) {
+                oldTimes[i - warmup] = t1 - t0;
+                newTimes[i - warmup] = t2 - t1;
+            }
+        }
+
+        // a tab's first pass also builds its index
+        long[] coldTimes = new long[Math.max(1, rounds / 10)];
+        for (int i = 0; i < coldTimes.length; i++) {
+            NewPass cold = new NewPass(cls, allInstances);
+            FakePanel panel = new FakePanel(new FakeArea(cls.codeInfo));
+            long t0 = System.nanoTime();
+            cold.run(panel, newHooks);
+            coldTimes[i] = System.nanoTime() - t0;
+        }
+
+        System.out.printf("%d annotations (%d declarations) on %d lines, %d active hooks, allInstances=%s, Java %s%n",
+                cls.annotationCount, methods, cls.lineCount, BASE_HOOKS + 1, allInstances,
+                System.getProperty("java.version"));
+        System.out.printf("%d warm-up toggles, %d measured; %d lines highlighted%n",
+                warmup, rounds, newPanel.area.lines().size());
+        report("old pass (resolve all, clear + re-add)", oldTimes);
+        report("index lookup + line diff (per toggle)", newTimes);
+        report("index build + full apply (new tab)", coldTimes);
+    }
+
+    private static Map<String, HookRecord> hooks(SyntheticClass cls) {
+        Map<String, HookRecord> hooks = new LinkedHashMap<>();
+        for (int i = 0; i < BASE_HOOKS + TOGGLED_HOOKS; i++) {
+            String signature = cls.signature(i);
+            HookRecord record = new HookRecord(signature, signature, null);
+            record.setActive(i < BASE_HOOKS);
+            hooks.put(signature, record);
+        }
+        return hooks;
+    }
+
+    /**
+     * Pass {@code i} deactivates the previous toggled hook and activates the next one.
+     */
+    private static void toggle(SyntheticClass cls, Map<String, HookRecord> hooks, int i) {
+        hooks.get(cls.signature(BASE_HOOKS + (i + TOGGLED_HOOKS - 1) % TOGGLED_HOOKS)).setActive(false);
+        hooks.get(cls.signature(BASE_HOOKS + i % TOGGLED_HOOKS)).setActive(true);
+    }
+
+    private static void report(String label, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long t : sorted) {
+            total += t;
+        }
+        System.out.printf("%-40s median %9.1f us, best %9.1f us, mean %9.1f us%n", label,
+                sorted[sorted.length / 2] / 1e3, sorted[0] / 1e3, total / 1e3 / sorted.length);
+    }
+
+    /**
+     * One class of {@code methods} methods, each declared on its own line, followed by lines of
+     * {@value #CALLS_PER_LINE} calls until there are {@code annotations} method annotations.
+     */
+    static final class SyntheticClass {
+        final ICodeInfo codeInfo;
+        final int annotationCount;
+        final int lineCount;
+        private final MethodRef[] refs;
+
+        SyntheticClass(int annotations, int methods) {
+            refs = new MethodRef[methods];
+            for (int i = 0; i < methods; i++) {
+                refs[i] = new MethodRef(i);
+            }
+            StringBuilder code = new StringBuilder("class Big {\n");
+            Map<Integer, ICodeAnnotation> map = new HashMap<>();
+            for (int i = 0; i < methods; i++) {
+                code.append("    void ");
+                refs[i].setDefPosition(code.length());
+                map.put(code.length(), new NodeDeclareRef(refs[i]));
+                code.append('m').append(i).append("() {}\n");
+            }
+            code.append("    void calls() {\n");
+            int count = methods;
+            int next = 0;
+            while (count < annotations) {
+                code.append("       ");
+                for (int c = 0; c < CALLS_PER_LINE && count < annotations; c++, count++) {
+                    int target = next;
+                    next = (next + 7919) % methods;
+                    code.append(' ');
+                    map.put(code.length(), refs[target]);
+                    code.append('m').append(target).append("();");
+                }
+                code.append('\n');
+            }
+            code.append("    }\n}\n");
+            annotationCount = count;
+            lineCount = (int) code.chars().filter(c -> c == '\n').count();
+            codeInfo = new AnnotatedCodeInfo(code.toString(), CodeMetadataStorage.build(Collections.<Integer, Integer>emptyMap(), map));
+        }
+
+        String signature(int method) {
+            return CLASS_NAME + ".m" + method + "():void";
+        }
+
+        MethodTarget resolve(ICodeNodeRef nodeRef) {
+            if (!(nodeRef instanceof MethodRef)) {
+                return null;
+            }
+            return new MethodTarget(CLASS_NAME, "m" + ((MethodRef) nodeRef).id, "void",
+                    Collections.<String>emptyList(), false, false, null);
+        }
+    }
+
+    static final class MethodRef implements ICodeNodeRef {
+        final int id;
+        private int defPosition;
+
+        MethodRef(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public AnnType getAnnType() {
+            return AnnType.METHOD;
+        }
+
+        @Override
+        public int getDefPosition() {
+            return defPosition;
+        }
+
+        public void setDefPosition(int defPosition) {
+            this.defPosition = defPosition;
+        }
+    }
+
+    /**
+     * The code area methods the passes call, with the line lookup of a text component.
+     */
+    public static final class FakeArea {
+        private final ICodeInfo codeInfo;
+        private final int[] lineStarts;
+        private final Map<Object, Integer> highlights = new IdentityHashMap<>();
+
+        FakeArea(ICodeInfo codeInfo) {
+            this.codeInfo = codeInfo;
+            String code = codeInfo.getCodeStr();
+            List<Integer> starts = new ArrayList<>();
+            starts.add(0);
+            for (int i = 0; i < code.length(); i++) {
+                if (code.charAt(i) == '\n') {
+                    starts.add(i + 1);
+                }
+            }
+            lineStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        public ICodeInfo getCodeInfo() {
+            return codeInfo;
+        }
+
+        public int getCaretPosition() {
+            return 0;
+        }
+
+        public int getLineOfOffset(int offset) {
+            int idx = Arrays.binarySearch(lineStarts, offset);
+            return idx >= 0 ? idx : -idx - 2;
+        }
+
+        public Object addLineHighlight(int line, Color color) {
+            Object tag = new Object();
+            highlights.put(tag, line);
+            return tag;
+        }
+
+        public void removeLineHighlight(Object tag) {
+            highlights.remove(tag);
+        }
+
+        Set<Integer> lines() {
+            return new HashSet<>(highlights.values());
+        }
+    }
+
+    public static final class FakePanel {
+        final FakeArea area;
+
+        FakePanel(FakeArea area) {
+            this.area = area;
+        }
+
+        public Object getCurrentCodeArea() {
+            return area;
+        }
+    }
+
+    /**
+     * The highlight pass before {@link HookHighlightIndex}: clear every tag, walk all annotations,
+     * resolve each method reference once per pass and highlight matching lines through reflection.
+     */
+    static final class OldPass {
+        private final SyntheticClass cls;
+        private final boolean highlightAllInstances;
+        private final Map<Object, List<Object>> highlightTags = new HashMap<>();
+        private final ConcurrentMap<String, Method> reflectionCache = new ConcurrentHashMap<>();
+
+        OldPass(SyntheticClass cls, boolean highlightAllInstances) {
+            this.cls = cls;
+            this.highlightAllInstances = highlightAllInstances;
+        }
+
+        void run(Object panel, Map<String, HookRecord> hooks) {
+            clearAllHighlights();
+            Set<ICodeNodeRef> activeRefs = new HashSet<>();
+            Map<String, HookRecord> activeBySignature = new HashMap<>();
+            for (HookRecord record : hooks.values()) {
+                if (!record.isActive()) {
+                    continue;
+                }
+                if (record.getNodeRef() != null) {
+                    activeRefs.add(record.getNodeRef());
+                }
+                activeBySignature.put(record.getKey(), record);
+            }
+            if (activeBySignature.isEmpty()) {
+                return;
+            }
+            Object area = invoke(panel, "getCurrentCodeArea", new Class<?>[0]);
+            if (area == null) {
+                return;
+            }
+            Object info = invoke(area, "getCodeInfo", new Class<?>[0]);
+            ICodeInfo codeInfo = info instanceof ICodeInfo ? (ICodeInfo) info : null;
+            if (codeInfo == null || !codeInfo.hasMetadata()) {
+                return;
+            }
+            ICodeMetadata metadata = codeInfo.getCodeMetadata();
+            Map<Integer, ICodeAnnotation> map = metadata == null ? null : metadata.getAsMap();
+            if (map == null || map.isEmpty()) {
+                return;
+            }
+            Color highlight = Color.YELLOW;
+            List<Object> tags = new ArrayList<>();
+            Set<Integer> highlightedLines = new HashSet<>();
+            Map<ICodeNodeRef, Boolean> resolvedCache = new HashMap<>();
+            for (Map.Entry<Integer, ICodeAnnotation> entry : map.entrySet()) {
+                ICodeAnnotation ann = entry.getValue();
+                if (ann == null) {
+                    continue;
+                }
+                ICodeNodeRef nodeRef = ann instanceof NodeDeclareRef ? ((NodeDeclareRef) ann).getNode()
+                        : ann instanceof ICodeNodeRef ? (ICodeNodeRef) ann : null;
+                if (nodeRef == null) {
+                    continue;
+                }
+                boolean isDeclaration = ann instanceof NodeDeclareRef;
+                if (!highlightAllInstances && !isDeclaration) {
+                    continue;
+                }
+                boolean matches = activeRefs.contains(nodeRef);
+                if (!matches) {
+                    Boolean cached = resolvedCache.get(nodeRef);
+                    if (Boolean.TRUE.equals(cached)) {
+                        matches = true;
+                    } else if (cached == null) {
+                        MethodTarget resolved = cls.resolve(nodeRef);
+                        boolean matched = false;
+                        if (resolved != null) {
+                            HookRecord pending = activeBySignature.get(resolved.getDisplaySignature());
+                            if (pending != null) {
+                                if (pending.getNodeRef() != nodeRef) {
+                                    pending.setNodeRef(nodeRef);
+                                }
+                                activeRefs.add(nodeRef);
+                                matched = true;
+                            }
+                        }
+                        resolvedCache.put(nodeRef, matched);
+                        matches = matched;
+                    }
+                }
+                if (!matches) {
+                    continue;
+                }
+                Object line = invoke(area, "getLineOfOffset", new Class<?>[]{int.class}, entry.getKey());
+                if (!(line instanceof Integer) || !highlightedLines.add((Integer) line)) {
+                    continue;
+                }
+                Object tag = invoke(area, "addLineHighlight", new Class<?>[]{int.class, Color.class}, line, highlight);
+                if (tag != null) {
+                    tags.add(tag);
+                }
+            }
+            if (!tags.isEmpty()) {
+                highlightTags.put(area, tags);
+            }
+        }
+
+        private void clearAllHighlights() {
+            if (highlightTags.isEmpty()) {
+                return;
+            }
+            Map<Object, List<Object>> snapshot = new HashMap<>(highlightTags);
+            highlightTags.clear();
+            for (Map.Entry<Object, List<Object>> entry : snapshot.entrySet()) {
+                for (Object tag : entry.getValue()) {
+                    invoke(entry.getKey(), "removeLineHighlight", new Class<?>[]{Object.class}, tag);
+                }
+            }
+        }
+
+        private Object invoke(Object target, String name, Class<?>[] params, Object... args) {
+            String key = target.getClass().getName() + "#" + name;
+            Method method = reflectionCache.get(key);
+            try {
+                if (method == null) {
+                    method = target.getClass().getMethod(name, params);
+                    reflectionCache.put(key, method);
+                }
+                return method.invoke(target, args);
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The current pass: signature diff against what the area shows, {@link HookHighlightIndex} lines
+     * for areas that mention a changed hook, and only the added and removed lines applied.
+     */
+    static final class NewPass {
+        private final boolean highlightAllInstances;
+        private final HookHighlightIndex index;
+        private final Map<Object, Map<Integer, Object>> appliedTags = new HashMap<>();
+        private final Map<Object, Set<String>> appliedSignatures = new HashMap<>();
+
+        NewPass(SyntheticClass cls, boolean highlightAllInstances) {
+            this.highlightAllInstances = highlightAllInstances;
+            this.index = new HookHighlightIndex(cls::resolve);
+        }
+
+        void run(Object panel, Map<String, HookRecord> hooks) {
+            Set<String> signatures = new HashSet<>();
+            Set<String> unresolved = new HashSet<>();
+            for (HookRecord record : hooks.values()) {
+                if (!record.isActive()) {
+                    continue;
+                }
+                if (record.getNodeRef() == null) {
+                    unresolved.add(record.getKey());
+                }
+                signatures.add(record.getKey());
+            }
+            Object area = CodeAreaAdapter.currentCodeArea(panel);
+            if (area == null) {
+                return;
+            }
+            CodeAreaAdapter adapter = CodeAreaAdapter.of(area);
+            ICodeInfo codeInfo = adapter.getCodeInfo(area);
+            if (codeInfo == null || !codeInfo.hasMetadata() || codeInfo.getCodeMetadata() == null) {
+                return;
+            }
+            Set<String> applied = appliedSignatures.get(area);
+            boolean full = applied == null;
+            Set<String> changed = new HashSet<>();
+            if (!full) {
+                for (String signature : signatures) {
+                    if (!applied.contains(signature)) {
+                        changed.add(signature);
+                    }
+                }
+                for (String signature : applied) {
+                    if (!signatures.contains(signature)) {
+                        changed.add(signature);
+                    }
+                }
+            }
+
+            HookHighlightIndex.ClassIndex classIndex = index.get(codeInfo);
+            Set<Integer> lines = null;
+            if (full || classIndex.mentionsAny(changed, highlightAllInstances)) {
+                lines = classIndex.lines(signatures, highlightAllInstances);
+            }
+            Map<String, ICodeNodeRef> declared = new HashMap<>();
+            for (String signature : unresolved) {
+                ICodeNodeRef ref = classIndex.getDeclaredRef(signature);
+                if (ref != null) {
+                    declared.put(signature, ref);
+                }
+            }
+
+            for (Map.Entry<String, ICodeNodeRef> entry : declared.entrySet()) {
+                hooks.get(entry.getKey()).setNodeRef(entry.getValue());
+            }
+            appliedSignatures.put(area, signatures);
+            if (lines == null) {
+                return;
+            }
+            Map<Integer, Object> tags = appliedTags.computeIfAbsent(area, k -> new HashMap<>());
+            Iterator<Map.Entry<Integer, Object>> it = tags.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Object> entry = it.next();
+                if (!lines.contains(entry.getKey())) {
+                    adapter.removeLineHighlight(area, entry.getValue());
+                    it.remove();
+                }
+            }
+            for (Integer line : lines) {
+                if (!tags.containsKey(line)) {
+                    Object tag = adapter.addLineHighlight(area, line, Color.YELLOW);
+                    if (tag != null) {
+                        tags.put(line, tag);
+                    }
+                }
+            }
+        }
+    }
+}
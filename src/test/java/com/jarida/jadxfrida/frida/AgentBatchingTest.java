@@ -0,0 +1,326 @@
+package com.jarida.jadxfrida.frida;
+
+import com.jarida.jadxfrida.model.HookSpec;
+import com.jarida.jadxfrida.model.MethodTarget;
+import com.jarida.jadxfrida.model.ScriptOptions;
+import com.jarida.jadxfrida.model.TemplatePosition;
+import com.jarida.jadxfrida.model.TraceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs generated agents under node (skipped when node is not installed) with the stand-in in
+ * {@code agent-harness.js}, to check the event ring, latency stats and byte[] capture end to end.
+ */
+class AgentBatchingTest {
+    private static final MethodTarget TARGET = new MethodTarget("com.example.Foo", "bar", "int",
+            Collections.singletonList("int"), false, false, "com.example.Foo.bar(int):int");
+
+    @Test
+    void burstBeyondCapacityIsDroppedAndReported() throws Exception {
+        ScriptOptions options = options(4, 6, 1000);
+        List<Map<?, ?>> batches = batches(run(options, 5, 200));
+
+        // 5 calls produce 10 events; the ring keeps 6 and the full batch is flushed without waiting
+        // for the 1 s interval, carrying the 4 dropped ones.
+        assertEquals(1, batches.size());
+        assertEquals(6, ((List<?>) batches.get(0).get("ev")).size());
+        assertEquals(4L, batches.get(0).get("d"));
+
+        TraceEventDecoder decoder = new TraceEventDecoder();
+        List<TraceEvent> events = new ArrayList<>();
+        for (Map<?, ?> batch : batches) {
+            decoder.decodeMessage(message(batch), events::add);
+        }
+        TraceEvent dropped = events.get(events.size() - 1);
+        assertEquals(TraceEvent.Kind.DROPPED, dropped.getKind());
+        assertEquals("4", dropped.getValue());
+    }
+
+    @Test
+    void smallBurstWaitsForTheFlushInterval() throws Exception {
+        assertTrue(batches(run(options(4, 6, 1000), 1, 200)).isEmpty());
+        List<Map<?, ?>> batches = batches(run(options(4, 6, 50), 1, 300));
+        assertEquals(1, batches.size());
+        assertEquals(0L, batches.get(0).get("d"));
+    }
+
+    @Test
+    void batchSizeIsCappedAtTheBufferCapacity() throws Exception {
+        ScriptOptions options = options(64, 6, 1000);
+        assertNotNull(options.validateEventBatching());
+        assertNull(options(6, 6, 0).validateEventBatching());
+
+        List<Map<?, ?>> batches = batches(run(options, 5, 200));
+        assertEquals(1, batches.size());
+        assertEquals(4L, batches.get(0).get("d"));
+    }
+
+    @Test
+    void latencyIsTimedWithTheMonotonicClock() throws Exception {
+        ScriptOptions options = options(4, 64, 50);
+        options.setMeasureLatency(true);
+        List<Map<?, ?>> messages = run(options, 3, 1300);
+
+        Map<?, ?> stats = null;
+        Map<?, ?> natives = null;
+        for (Map<?, ?> message : messages) {
+            if ("st".equals(message.get("k"))) {
+                stats = (Map<?, ?>) ((List<?>) message.get("hs")).get(0);
+            } else if ("native".equals(message.get("k"))) {
+                natives = message;
+            }
+        }
+        assertNotNull(stats);
+        assertNotNull(natives);
+        // two clock_gettime reads per call, none through System.nanoTime or Date.now
+        assertEquals(6L, natives.get("clock"));
+        assertEquals(3L, stats.get("n"));
+        long max = (Long) stats.get("max");
+        assertTrue(max >= 2000 && max < 1000000, "max latency " + max + " us");
+    }
+
+    @Test
+    void truncatedByteArraysArePinnedAndReadableInFull() throws Exception {
+        ScriptOptions options = options(16, 64, 50);
+        options.setByteCaptureLimit(64);
+        options.setKeepFullBytes(true);
+        List<Map<?, ?>> messages = run(options, 3, 300, 1000);
+
+        List<Map<?, ?>> batches = batches(messages);
+        assertEquals(1, batches.size());
+        List<?> events = (List<?>) batches.get(0).get("ev");
+        Map<?, ?> call = (Map<?, ?>) events.get(0);
+        assertEquals(Arrays.asList(0L, 0L, 64L, 1000L, ((List<?>) call.get("ah")).get(0)),
+                ((List<?>) call.get("ab")).get(0));
+
+        int reads = 0;
+        for (Map<?, ?> message : messages) {
+            if ("rb".equals(message.get("k"))) {
+                reads++;
+                assertEquals(1000L, message.get("n"));
+                assertEquals(Boolean.TRUE, message.get("ok"));
+            } else if ("native".equals(message.get("k"))) {
+                // the clock's timespec plus one scratch buffer shared by the captures and full reads
+                assertEquals(2L, message.get("allocs"));
+            }
+        }
+        assertEquals(3, reads);
+    }
+
+    @Test
+    void truncatedByteArraysAreOnlyPinnedOnRequest() throws Exception {
+        ScriptOptions options = options(16, 64, 50);
+        options.setByteCaptureLimit(64);
+        List<Map<?, ?>> batches = batches(run(options, 1, 300, 1000));
+        Map<?, ?> call = (Map<?, ?>) ((List<?>) batches.get(0).get("ev")).get(0);
+        assertEquals(Arrays.asList(0L, 0L, 64L, 1000L, 0L), ((List<?>) call.get("ab")).get(0));
+        assertNull(call.get("ah"));
+    }
+
+    @Test
+    void blobHoldsOnlyTheBytesOfShippedEvents() throws Exception {
+        ScriptOptions options = options(4, 6, 1000);
+        options.setByteCaptureLimit(10);
+        List<Map<?, ?>> batches = batches(run(options, 5, 200, 10));
+
+        // 10 events, 4 of them dropped: their captures must not end up in the blob
+        assertEquals(1, batches.size());
+        assertEquals(4L, batches.get(0).get("d"));
+        long next = 0;
+        for (Object event : (List<?>) batches.get(0).get("ev")) {
+            Object ab = ((Map<?, ?>) event).get("ab");
+            for (Object ref : ab == null ? Collections.emptyList() : (List<?>) ab) {
+                assertEquals(next, ((List<?>) ref).get(1));
+                next += (Long) ((List<?>) ref).get(2);
+            }
+            // the harness's original returns its argument
+            List<?> vb = (List<?>) ((Map<?, ?>) event).get("vb");
+            if (vb != null) {
+                assertEquals(next, vb.get(0));
+                next += (Long) vb.get(1);
+            }
+        }
+        assertTrue(next > 0);
+        assertEquals(next, batches.get(0).get("blob"));
+    }
+
+    @Test
+    void shortByteArraysAreNotPinned() throws Exception {
+        ScriptOptions options = options(16, 64, 50);
+        options.setByteCaptureLimit(64);
+        List<Map<?, ?>> batches = batches(run(options, 1, 300, 10));
+        Map<?, ?> call = (Map<?, ?>) ((List<?>) batches.get(0).get("ev")).get(0);
+        assertEquals(Arrays.asList(0L, 0L, 10L, 10L, 0L), ((List<?>) call.get("ab")).get(0));
+        assertNull(call.get("ah"));
+    }
+
+    @Test
+    void singleAndClassHooksOnOneMethodOutliveEachOther() throws Exception {
+        ScriptOptions options = options(16, 64, 50);
+        HookSpec single = new HookSpec(TARGET, options, null, null, TemplatePosition.APPEND, "single", false, null, null);
+        HookSpec bulk = new HookSpec("com.example.Foo", Collections.singletonList(TARGET), options, "class");
+        List<HookSpec> both = Arrays.asList(single, bulk);
+
+        // the single hook wins while both are installed, whatever the order
+        assertEquals(Collections.singletonList("single"), tracingKeys(run(both, 1, 200, 0, "")));
+        assertEquals(Collections.singletonList("single"),
+                tracingKeys(run(Arrays.asList(bulk, single), 1, 200, 0, "")));
+        // removing either one leaves the other hooked
+        assertEquals(Collections.singletonList("class"), tracingKeys(run(both, 1, 200, 0, "single")));
+        assertEquals(Collections.singletonList("single"), tracingKeys(run(both, 1, 200, 0, "class")));
+        assertTrue(tracingKeys(run(both, 1, 200, 0, "single,class")).isEmpty());
+    }
+
+    @Test
+    void depthComesDownWhenTheHookLeavesEarly() throws Exception {
+        // a PREPEND template that returns skips the original call and everything after it
+        HookSpec spec = new HookSpec(TARGET, options(16, 64, 50), null, "if (callId === 1) { return 0; }",
+                TemplatePosition.PREPEND, "k1", false, null, null);
+        List<Map<?, ?>> batches = batches(run(Collections.singletonList(spec), 2, 200, 0, ""));
+        List<?> events = (List<?>) batches.get(0).get("ev");
+        Map<?, ?> second = (Map<?, ?>) events.get(1);
+        assertEquals("c", second.get("k"));
+        assertEquals(2L, second.get("c"));
+        assertNull(second.get("d"));
+    }
+
+    /**
+     * Keys of the hooks that reported call events, in order of first appearance.
+     */
+    private static List<String> tracingKeys(List<Map<?, ?>> messages) {
+        Map<Object, Object> keysById = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (Map<?, ?> message : messages) {
+            if ("h".equals(message.get("k"))) {
+                keysById.put(message.get("h"), message.get("key"));
+            }
+        }
+        for (Map<?, ?> batch : batches(messages)) {
+            for (Object event : (List<?>) batch.get("ev")) {
+                String key = String.valueOf(keysById.get(((Map<?, ?>) event).get("h")));
+                if ("c".equals(((Map<?, ?>) event).get("k")) && !keys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static ScriptOptions options(int batchSize, int capacity, int flushMs) {
+        ScriptOptions options = new ScriptOptions();
+        options.setEventBatchSize(batchSize);
+        options.setEventBufferCapacity(capacity);
+        options.setEventFlushIntervalMs(flushMs);
+        return options;
+    }
+
+    private static List<Map<?, ?>> run(ScriptOptions options, int calls, int waitMs) throws Exception {
+        return run(options, calls, waitMs, 0);
+    }
+
+    private static List<Map<?, ?>> run(ScriptOptions options, int calls, int waitMs, int byteArgLength)
+            throws Exception {
+        HookSpec spec = new HookSpec(TARGET, options, null, null, TemplatePosition.APPEND, "k1", false, null, null);
+        return run(Collections.singletonList(spec), calls, waitMs, byteArgLength, "");
+    }
+
+    private static List<Map<?, ?>> run(List<HookSpec> specs, int calls, int waitMs, int byteArgLength,
+                                       String uninstallKeys) throws Exception {
+        assumeTrue(nodeAvailable(), "node is not installed");
+        String agent = HookScriptGenerator.generateScript(specs, null, null).getSource();
+        Path dir = Files.createTempDirectory("jarida-agent");
+        try {
+            Path agentFile = dir.resolve("agent.js");
+            Path harness = dir.resolve("agent-harness.js");
+            Files.write(agentFile, agent.getBytes(StandardCharsets.UTF_8));
+            try (InputStream in = AgentBatchingTest.class.getResourceAsStream("agent-harness.js")) {
+                assertNotNull(in, "agent-harness.js test resource");
+                Files.copy(in, harness, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Process process = new ProcessBuilder("node", harness.toString(), agentFile.toString(),
+                    TARGET.getClassName(), TARGET.getMethodName(), String.valueOf(calls), String.valueOf(waitMs),
+                    byteArgLength > 0 ? String.valueOf(byteArgLength) : "", uninstallKeys)
+                    .redirectErrorStream(true)
+                    .start();
+            byte[] output = readAll(process.getInputStream());
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+            String text = new String(output, StandardCharsets.UTF_8);
+            assertEquals(0, process.exitValue(), text);
+            List<Map<?, ?>> messages = new ArrayList<>();
+            for (String line : text.split("\n")) {
+                if (line.startsWith("{")) {
+                    Map<?, ?> sent = (Map<?, ?>) new LiteralParser(line, 0).parseValue();
+                    Map<Object, Object> payload = new LinkedHashMap<>((Map<?, ?>) sent.get("payload"));
+                    if (sent.get("bytes") != null) {
+                        // length of the binary data sent with the payload
+                        payload.put("blob", sent.get("bytes"));
+                    }
+                    messages.add(payload);
+                }
+            }
+            return messages;
+        } finally {
+            for (Path file : Arrays.asList(dir.resolve("agent.js"), dir.resolve("agent-harness.js"), dir)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static List<Map<?, ?>> batches(List<Map<?, ?>> messages) {
+        List<Map<?, ?>> out = new ArrayList<>();
+        for (Map<?, ?> message : messages) {
+            if ("b".equals(message.get("k"))) {
+                out.add(message);
+            }
+        }
+        return out;
+    }
+
+    private static Map<String, Object> message(Map<?, ?> payload) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "send");
+        message.put("payload", payload);
+        return message;
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            Process process = new ProcessBuilder("node", "--version").redirectErrorStream(true).start();
+            readAll(process.getInputStream());
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.jarida.jadxfrida.frida;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FridaArgsTest {
+
+    @Test
+    void mapsSupportedOptions() {
+        Map<String, Object> params = FridaArgs.toAttachParams(
+                "--runtime=v8 --realm emulated --stdio=pipe -D emulator-5554 --kill-on-exit");
+        assertEquals("v8", params.get("runtime"));
+        assertEquals("emulated", params.get("realm"));
+        assertEquals("pipe", params.get("stdio"));
+        assertEquals("emulator-5554", params.get("deviceId"));
+        assertEquals(Boolean.TRUE, params.get("killOnExit"));
+    }
+
+    @Test
+    void hostSwitchesToARemoteDevice() {
+        Map<String, Object> params = FridaArgs.toAttachParams("-H 10.0.0.2:27042 --token 's3cr3t x' --keepalive-interval=30");
+        assertEquals("remote", params.get("mode"));
+        assertEquals("10.0.0.2:27042", params.get("host"));
+        assertEquals("s3cr3t x", params.get("token"));
+        assertEquals(30, params.get("keepaliveInterval"));
+        assertEquals("usb", FridaArgs.toAttachParams("-U").get("mode"));
+    }
+
+    @Test
+    void acceptsReplOnlyFlagsWithoutEffect() {
+        assertTrue(FridaArgs.toAttachParams("-q --no-pause --auto-reload --no-auto-reload").isEmpty());
+        assertTrue(FridaArgs.toAttachParams("  ").isEmpty());
+        assertNull(FridaArgs.validate(null));
+    }
+
+    @Test
+    void rejectsUnsupportedAndMalformedOptions() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> FridaArgs.toAttachParams("--pause -l extra.js --runtime=duk --realm"));
+        assertEquals("Unsupported frida arguments: --pause -l extra.js --runtime=duk (expected one of qjs, v8)"
+                + " --realm (missing value)", error.getMessage());
+        assertEquals("Unsupported frida arguments: --keepalive-interval=soon (expected seconds)",
+                FridaArgs.validate("--keepalive-interval=soon"));
+    }
+
+    @Test
+    void splitsQuotedWords() {
+        assertEquals(Arrays.asList("a", "b c", "d\"e", "f\\g"), FridaArgs.split("a 'b c' \"d\\\"e\" 'f\\\\g'"));
+        assertEquals(Collections.emptyList(), FridaArgs.split(null));
+    }
+}
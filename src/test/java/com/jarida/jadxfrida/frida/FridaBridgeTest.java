@@ -0,0 +1,146 @@
+package com.jarida.jadxfrida.frida;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FridaBridgeTest {
+    private final BlockingQueue<Map<String, Object>> events = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<>();
+    private FridaBridge bridge;
+
+    @AfterEach
+    void tearDown() {
+        if (bridge != null) {
+            bridge.close();
+        }
+    }
+
+    @Test
+    void matchesResponsesToRequestsById() throws Exception {
+        startStub();
+        CompletableFuture<Object> slow = bridge.callAsync("sleep", Collections.singletonMap("ms", 500));
+        Object echoed = bridge.call("echo", Collections.singletonMap("value", "a\"b"), 5000);
+
+        assertEquals(Collections.singletonMap("value", "a\"b"), echoed);
+        assertFalse(slow.isDone());
+        assertEquals("slept", slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void errorRepliesFailTheCall() throws Exception {
+        startStub();
+        IOException error = assertThrows(IOException.class, () -> bridge.call("fail", null, 5000));
+        assertEquals("RuntimeError: boom", error.getMessage());
+        assertEquals(Collections.emptyMap(), bridge.call("echo", null, 5000));
+    }
+
+    @Test
+    void deliversNotificationsAndStrayOutput() throws Exception {
+        startStub();
+        bridge.call("notify", Collections.singletonMap("text", "hello"), 5000);
+
+        Map<String, Object> event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("log", event.get("event"));
+        assertEquals("hello", event.get("text"));
+        assertTrue(awaitOutput("stray output"));
+        assertTrue(awaitOutput("stub ready"));
+    }
+
+    @Test
+    void processExitFailsPendingCalls() throws Exception {
+        startStub();
+        CompletableFuture<Object> pending = bridge.callAsync("sleep", Collections.singletonMap("ms", 60000));
+        bridge.callAsync("exit", null);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> pending.get(10, TimeUnit.SECONDS));
+        assertEquals("Bridge process exited", error.getCause().getMessage());
+        assertTrue(bridge.getProcess().waitFor(10, TimeUnit.SECONDS));
+        assertEquals(3, bridge.getProcess().exitValue());
+        assertFalse(bridge.isAlive());
+        IOException notRunning = assertThrows(IOException.class, () -> bridge.call("echo", null, 1000));
+        assertEquals("Bridge process not running", notRunning.getMessage());
+    }
+
+    @Test
+    void closeShutsTheProcessDown() throws Exception {
+        startStub();
+        Process process = bridge.getProcess();
+        bridge.close();
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+    }
+
+    @Test
+    void bundledHelperAnswersWithoutFrida() throws Exception {
+        assumeTrue(commandWorks("python3", "--version"), "python3 is not installed");
+        bridge = new FridaBridge(FridaBridge.defaultCommand("python3"));
+        bridge.start(events::add, output::add);
+
+        Object pong = bridge.call("ping", null, 10000);
+        assertEquals(1L, ((Map<?, ?>) pong).get("protocol"));
+        IOException noScript = assertThrows(IOException.class,
+                () -> bridge.call("call", Collections.singletonMap("fn", "listHooks"), 10000));
+        assertEquals("RuntimeError: no script loaded", noScript.getMessage());
+        IOException unknown = assertThrows(IOException.class, () -> bridge.call("nope", null, 10000));
+        assertEquals("RuntimeError: unknown method: nope", unknown.getMessage());
+        Process process = bridge.getProcess();
+        bridge.close();
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+    }
+
+    private void startStub() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+                StubBridgeProcess.class.getName());
+        bridge = new FridaBridge(command);
+        bridge.start(events::add, output::add);
+    }
+
+    private boolean awaitOutput(String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String line = output.poll(100, TimeUnit.MILLISECONDS);
+            if (expected.equals(line)) {
+                return true;
+            }
+            if (line != null) {
+                output.add(line);
+            }
+        }
+        return false;
+    }
+
+    private static boolean commandWorks(String... command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            byte[] buffer = new byte[1024];
+            while (process.getInputStream().read(buffer) > 0) {
+                // drain so the command is not blocked on a full pipe
+            }
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+}
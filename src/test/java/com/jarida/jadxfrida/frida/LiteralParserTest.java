@@ -0,0 +1,55 @@
+package com.jarida.jadxfrida.frida;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LiteralParserTest {
+
+    @Test
+    void parsesJsonObjects() {
+        Map<?, ?> map = (Map<?, ?>) parse("{\"id\": 3, \"ok\": true, \"v\": [1, -2.5, null], \"s\": \"a\\\"b\\u00e9\"}");
+        assertEquals(3L, map.get("id"));
+        assertEquals(Boolean.TRUE, map.get("ok"));
+        assertEquals(Arrays.asList(1L, -2.5, null), map.get("v"));
+        assertEquals("a\"bé", map.get("s"));
+    }
+
+    @Test
+    void parsesPythonLiterals() {
+        Map<?, ?> map = (Map<?, ?>) parse("{'type': 'send', 'payload': {'k': 'c', 'a': ['x\\ny', None]}, 'e': False}");
+        Map<?, ?> payload = (Map<?, ?>) map.get("payload");
+        assertEquals("send", map.get("type"));
+        assertEquals(Arrays.asList("x\ny", null), payload.get("a"));
+        assertEquals(Boolean.FALSE, map.get("e"));
+        assertEquals("ÿ😀", parse("'\\xff\\U0001f600'"));
+    }
+
+    @Test
+    void parsesFromOffsetAndEmptyContainers() {
+        assertEquals(Collections.emptyList(), new LiteralParser("message: []", 9).parseValue());
+        assertEquals(Collections.emptyMap(), parse("{ }"));
+        assertNull(parse("null"));
+        List<?> nested = (List<?>) parse("[[1e3], {}]");
+        assertEquals(Collections.singletonList(1000.0), nested.get(0));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> parse("\"open"));
+        assertThrows(IllegalArgumentException.class, () -> parse("undefined"));
+        assertThrows(IllegalArgumentException.class, () -> parse("'\\u12'"));
+    }
+
+    private static Object parse(String text) {
+        return new LiteralParser(text, 0).parseValue();
+    }
+}
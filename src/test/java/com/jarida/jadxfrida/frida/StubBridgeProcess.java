@@ -0,0 +1,91 @@
+package com.jarida.jadxfrida.frida;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stand-in for {@code jarida_bridge.py} used by {@link FridaBridgeTest}: speaks the same
+ * line-delimited JSON protocol with a few scripted methods.
+ * <ul>
+ * <li>{@code echo} answers with its params</li>
+ * <li>{@code fail} answers with an error</li>
+ * <li>{@code sleep} answers after {@code params.ms}, on its own thread</li>
+ * <li>{@code notify} emits an event and a stray non-protocol line before answering</li>
+ * <li>{@code exit} terminates the process without answering</li>
+ * <li>{@code shutdown} answers and exits normally</li>
+ * </ul>
+ */
+public final class StubBridgeProcess {
+    private StubBridgeProcess() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.err.println("stub ready");
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            Map<?, ?> request = (Map<?, ?>) new LiteralParser(line, 0).parseValue();
+            Object id = request.get("id");
+            Map<?, ?> params = request.get("params") instanceof Map ? (Map<?, ?>) request.get("params") : Collections.emptyMap();
+            switch (String.valueOf(request.get("method"))) {
+                case "echo":
+                    reply(id, "result", params);
+                    break;
+                case "fail":
+                    reply(id, "error", "RuntimeError: boom");
+                    break;
+                case "sleep":
+                    long ms = ((Number) params.get("ms")).longValue();
+                    Thread sleeper = new Thread(() -> {
+                        try {
+                            Thread.sleep(ms);
+                        } catch (InterruptedException ignored) {
+                        }
+                        reply(id, "result", "slept");
+                    });
+                    sleeper.setDaemon(true);
+                    sleeper.start();
+                    break;
+                case "notify":
+                    Map<String, Object> event = new LinkedHashMap<>();
+                    event.put("event", "log");
+                    event.put("text", params.get("text"));
+                    print(event);
+                    printLine("stray output");
+                    reply(id, "result", null);
+                    break;
+                case "exit":
+                    System.exit(3);
+                    break;
+                case "shutdown":
+                    reply(id, "result", Collections.emptyMap());
+                    System.exit(0);
+                    break;
+                default:
+                    reply(id, "error", "RuntimeError: unknown method");
+            }
+        }
+    }
+
+    private static void reply(Object id, String field, Object value) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", id);
+        response.put(field, value);
+        print(response);
+    }
+
+    private static void print(Map<String, Object> message) {
+        StringBuilder sb = new StringBuilder();
+        FridaBridge.appendJson(sb, message);
+        printLine(sb.toString());
+    }
+
+    private static synchronized void printLine(String line) {
+        System.out.println(line);
+        System.out.flush();
+    }
+}
@@ -0,0 +1,184 @@
+package com.jarida.jadxfrida.frida;
+
+import com.jarida.jadxfrida.model.HookStats;
+import com.jarida.jadxfrida.model.TraceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceEventDecoderTest {
+    private final TraceEventDecoder decoder = new TraceEventDecoder();
+    private final List<TraceEvent> events = new ArrayList<>();
+
+    @Test
+    void ignoresNonJaridaMessages() {
+        assertFalse(decoder.decodeMessage(map("type", "log", "payload", "hello"), events::add));
+        assertFalse(decoder.decodeMessage(map("type", "send", "payload", "text"), events::add));
+        assertFalse(decoder.decodeMessage(map("type", "send", "payload", map("k", "c")), events::add));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void decodesBatchUsingHookDefinitions() {
+        send(map("j", 1, "k", "h", "h", 3, "sig", "a.B.m(int):void", "key", "a.B#m"));
+        send(batch(0,
+                map("j", 1, "k", "c", "h", 3, "c", 7, "tid", 12, "ts", 1000, "a", Arrays.asList("1", null)),
+                map("j", 1, "k", "r", "h", 3, "c", 7, "tid", 12, "ts", 1001, "v", "ok", "d", 2),
+                map("j", 1, "k", "c", "h", 9, "c", 8)));
+
+        assertEquals(3, events.size());
+        TraceEvent call = events.get(0);
+        assertEquals(TraceEvent.Kind.CALL, call.getKind());
+        assertEquals("a.B.m(int):void", call.getSignature());
+        assertEquals(7L, call.getCallId());
+        assertEquals(12L, call.getThreadId());
+        assertEquals(Arrays.asList("1", "null"), call.getArgs());
+        TraceEvent ret = events.get(1);
+        assertEquals(TraceEvent.Kind.RETURN, ret.getKind());
+        assertEquals("ok", ret.getValue());
+        assertEquals(2, ret.getDepth());
+        assertEquals("hook#9", events.get(2).getSignature());
+    }
+
+    @Test
+    void reportsDroppedEventsOfABatch() {
+        send(batch(5));
+        assertEquals(1, events.size());
+        assertEquals(TraceEvent.Kind.DROPPED, events.get(0).getKind());
+        assertEquals("5", events.get(0).getValue());
+    }
+
+    @Test
+    void resolvesThreadNamesAnnouncedSeparately() {
+        send(map("j", 1, "k", "tn", "tid", 42, "n", "main"));
+        send(map("j", 1, "k", "c", "h", 1, "tid", 42));
+        send(map("j", 1, "k", "c", "h", 1, "tid", 43, "tn", "worker"));
+        assertEquals("main", events.get(0).getThreadName());
+        assertEquals("worker", events.get(1).getThreadName());
+    }
+
+    @Test
+    void rendersInternedStacks() {
+        send(map("j", 1, "k", "h", "h", 1, "sig", "a.B.m():void"));
+        send(map("j", 1, "k", "sd", "si", 4, "f", Arrays.asList(
+                Arrays.asList("a.B", "m", "B.java", 10),
+                Arrays.asList("a.C", "run", null, 0))));
+        send(map("j", 1, "k", "s", "h", 1, "si", 4));
+        send(map("j", 1, "k", "s", "h", 1, "si", 5));
+
+        assertEquals("\tat a.B.m(B.java:10)\n\tat a.C.run(Unknown Source)\n", events.get(0).getValue());
+        assertEquals("<stack #5 unavailable>", events.get(1).getValue());
+        assertEquals(Long.valueOf(1L), decoder.getStackProfile().snapshot().get("a.B.m():void").get(4));
+    }
+
+    @Test
+    void mergesStatsIntoHookAggregates() {
+        send(map("j", 1, "k", "h", "h", 2, "sig", "a.B.m():void", "key", "a.B#m"));
+        Map<String, Object> entry = map("h", 2, "n", 3, "sum", 300, "max", 200,
+                "b", Arrays.asList(10, 2, 25, 1), "s", 3, "d", 1, "c", 4, "x", 1, "p", 2, "e", 512);
+        send(map("j", 1, "k", "st", "ms", 2000, "hs", Collections.singletonList(entry)));
+        send(map("j", 1, "k", "st", "hs", Collections.singletonList(entry)));
+
+        HookStats stats = decoder.getHookStats().get("a.B#m");
+        assertEquals(8L, stats.getCallCount());
+        assertEquals(2L, stats.getExceptionCount());
+        assertEquals(4L, stats.getPatchedCount());
+        assertEquals(1024L, stats.getBytesEmitted());
+        assertEquals(6L, stats.getSampledCount());
+        assertEquals(2L, stats.getDroppedCount());
+        assertEquals(6L, stats.getLatency().getCount());
+        assertEquals(200L, stats.getLatency().getMaxMicros());
+        assertEquals(100L, stats.getLatency().getMeanMicros());
+    }
+
+    @Test
+    void slicesCapturedBytesFromTheBatchBlob() {
+        byte[] blob = {1, 2, 3, 4, (byte) 0xff};
+        Map<String, Object> call = map("j", 1, "k", "c", "h", 1, "a", Arrays.asList("x", "y"),
+                "ab", Arrays.asList(Arrays.asList(1, 1, 2, 10)));
+        Map<String, Object> ret = map("j", 1, "k", "r", "h", 1, "vb", Arrays.asList(3, 2, 2));
+        send(batch(0, call, ret), Base64.getEncoder().encodeToString(blob));
+
+        TraceEvent callEvent = events.get(0);
+        assertNull(callEvent.getArgBytes()[0]);
+        assertArrayEquals(new byte[]{2, 3}, callEvent.getArgBytes()[1]);
+        assertEquals("0203...<10B>", callEvent.getArgs().get(1));
+        assertArrayEquals(new byte[]{4, (byte) 0xff}, events.get(1).getValueBytes());
+        assertEquals("04ff", events.get(1).getValue());
+    }
+
+    @Test
+    void ignoresByteReferencesOutsideTheBlob() {
+        String blob = Base64.getEncoder().encodeToString(new byte[]{1, 2, 3});
+        Map<String, Object> call = map("j", 1, "k", "c", "h", 1, "a", Arrays.asList("x", "y"),
+                "ab", Arrays.asList(Arrays.asList(0, 2, 2, 2), Arrays.asList(5, 0, 1, 1), Arrays.asList(1, -1, 1, 1)));
+        Map<String, Object> ret = map("j", 1, "k", "r", "h", 1, "v", "[B", "vb", Arrays.asList(0, 4, 4));
+        send(batch(0, call, ret), blob);
+        send(batch(0, ret), "not base64!");
+
+        assertNull(events.get(0).getArgBytes());
+        assertEquals(Arrays.asList("x", "y"), events.get(0).getArgs());
+        assertNull(events.get(1).getValueBytes());
+        assertEquals("[B", events.get(1).getValue());
+        assertEquals("[B", events.get(2).getValue());
+    }
+
+    @Test
+    void resetForgetsHooksAndStats() {
+        send(map("j", 1, "k", "h", "h", 1, "sig", "a.B.m():void"));
+        send(map("j", 1, "k", "st", "hs", Collections.singletonList(map("h", 1, "c", 1))));
+        decoder.reset();
+        send(map("j", 1, "k", "c", "h", 1));
+        assertEquals("hook#1", events.get(0).getSignature());
+        assertTrue(decoder.getHookStats().isEmpty());
+    }
+
+    @Test
+    void scriptResetForgetsIdsButKeepsStats() {
+        send(map("j", 1, "k", "h", "h", 1, "sig", "a.B.m():void", "key", "a.B.m():void"));
+        send(map("j", 1, "k", "sd", "si", 0, "f", Collections.singletonList(Arrays.asList("a.B", "m", "B.java", 3))));
+        send(batch(0, map("j", 1, "k", "s", "h", 1, "si", 0)));
+        send(map("j", 1, "k", "st", "hs", Collections.singletonList(map("h", 1, "c", 1))));
+        assertEquals(1, decoder.getStackProfile().snapshot().size());
+
+        decoder.resetScript();
+        send(map("j", 1, "k", "c", "h", 1));
+        assertEquals("hook#1", events.get(events.size() - 1).getSignature());
+        assertTrue(decoder.getStackProfile().snapshot().isEmpty());
+        assertEquals(0, decoder.getStacks().size());
+        assertEquals(1, decoder.getHookStats().get("a.B.m():void").getCallCount());
+    }
+
+    private void send(Map<String, Object> payload) {
+        send(payload, null);
+    }
+
+    private void send(Map<String, Object> payload, String data) {
+        assertTrue(decoder.decodeMessage(map("type", "send", "payload", payload), data, events::add));
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> batch(int dropped, Map<String, Object>... events) {
+        return map("j", 1, "k", "b", "ev", Arrays.asList(events), "d", dropped);
+    }
+
+    private static Map<String, Object> map(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,88 @@
+package com.jarida.jadxfrida.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallTreeTest {
+    private final StackDictionary stacks = new StackDictionary();
+
+    CallTreeTest() {
+        // innermost frame first, as the agent sends them
+        stacks.define(1, Arrays.asList(frame("Hooked", "target"), frame("Service", "handle"), frame("Thread", "run")));
+        stacks.define(2, Arrays.asList(frame("Hooked", "target"), frame("Worker", "loop"), frame("Thread", "run")));
+        stacks.define(3, Arrays.asList(frame("Hooked", "target"), frame("Service", "handle"), frame("Main", "main")));
+    }
+
+    @Test
+    void defaultTreeStartsAtTheOutermostFrames() {
+        CallTree root = CallTree.build(counts(1, 5L, 2, 2L, 3, 1L), stacks, false);
+
+        assertNull(root.getFrame());
+        assertEquals("all", root.getLabel());
+        assertEquals(8, root.getCount());
+        assertEquals(4, root.getDepth());
+        List<CallTree> entries = root.getChildren();
+        assertEquals(Arrays.asList("Thread.run", "Main.main"), labels(entries));
+        assertEquals(7, entries.get(0).getCount());
+
+        List<CallTree> callers = entries.get(0).getChildren();
+        assertEquals(Arrays.asList("Service.handle", "Worker.loop"), labels(callers));
+        assertEquals(5, callers.get(0).getCount());
+        CallTree leaf = callers.get(0).getChildren().get(0);
+        assertEquals("Hooked.target", leaf.getLabel());
+        assertTrue(leaf.getChildren().isEmpty());
+    }
+
+    @Test
+    void invertedTreeBranchesIntoCallers() {
+        CallTree root = CallTree.build(counts(1, 5L, 2, 2L, 3, 1L), stacks, true);
+
+        List<CallTree> hooked = root.getChildren();
+        assertEquals(Arrays.asList("Hooked.target"), labels(hooked));
+        assertEquals(8, hooked.get(0).getCount());
+        List<CallTree> callers = hooked.get(0).getChildren();
+        assertEquals(Arrays.asList("Service.handle", "Worker.loop"), labels(callers));
+        assertEquals(6, callers.get(0).getCount());
+        assertEquals(Arrays.asList("Thread.run", "Main.main"), labels(callers.get(0).getChildren()));
+    }
+
+    @Test
+    void skipsStacksThatWereNeverDefined() {
+        CallTree root = CallTree.build(counts(1, 3L, 99, 10L), stacks, false);
+        assertEquals(3, root.getCount());
+        assertEquals(1, root.getChildren().size());
+
+        CallTree empty = CallTree.build(counts(), stacks, false);
+        assertEquals(0, empty.getCount());
+        assertEquals(1, empty.getDepth());
+        assertTrue(empty.getChildren().isEmpty());
+    }
+
+    private static StackDictionary.Frame frame(String className, String method) {
+        return new StackDictionary.Frame(className, method, className + ".java", 1);
+    }
+
+    private static Map<Integer, Long> counts(Object... pairs) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            counts.put((Integer) pairs[i], (Long) pairs[i + 1]);
+        }
+        return counts;
+    }
+
+    private static List<String> labels(List<CallTree> nodes) {
+        String[] labels = new String[nodes.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = nodes.get(i).getLabel();
+        }
+        return Arrays.asList(labels);
+    }
+}
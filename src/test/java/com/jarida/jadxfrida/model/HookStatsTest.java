@@ -0,0 +1,53 @@
+package com.jarida.jadxfrida.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HookStatsTest {
+    @Test
+    void accumulatesReportsAndRatesOverTheWindow() {
+        HookStats stats = new HookStats("k1");
+        stats.addActivityCounts(100, 2, 1, 4000, 1000, 10_000L);
+        stats.addActivityCounts(50, 0, 3, 1000, 500, 11_000L);
+        stats.addSamplingCounts(10, 40);
+
+        assertEquals("k1", stats.getHookKey());
+        assertEquals(150, stats.getCallCount());
+        assertEquals(2, stats.getExceptionCount());
+        assertEquals(4, stats.getPatchedCount());
+        assertEquals(5000, stats.getBytesEmitted());
+        assertEquals(10, stats.getSampledCount());
+        assertEquals(40, stats.getDroppedCount());
+        // rates come from the latest report only
+        assertEquals(100.0, stats.getCallsPerSecond(11_000L), 1e-9);
+        assertEquals(2000.0, stats.getBytesPerSecond(11_000L), 1e-9);
+    }
+
+    @Test
+    void ratesGoStaleWithoutReports() {
+        HookStats stats = new HookStats("k1");
+        stats.addActivityCounts(10, 0, 0, 0, 0, 1_000L);
+        // a zero-length window counts as 1 ms
+        assertEquals(10_000.0, stats.getCallsPerSecond(1_000L + HookStats.RATE_STALE_MS), 1e-9);
+        assertEquals(0.0, stats.getCallsPerSecond(1_001L + HookStats.RATE_STALE_MS), 1e-9);
+        assertEquals(0.0, stats.getBytesPerSecond(1_001L + HookStats.RATE_STALE_MS), 1e-9);
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        HookStats stats = new HookStats("k1");
+        stats.getLatency().record(120);
+        stats.addActivityCounts(1, 0, 0, 10, 1000, 5_000L);
+        HookStats copy = stats.copy();
+        stats.getLatency().record(300);
+        stats.addActivityCounts(1, 1, 1, 10, 1000, 6_000L);
+
+        assertEquals(1, copy.getLatency().getCount());
+        assertEquals(120, copy.getLatency().getMaxMicros());
+        assertEquals(1, copy.getCallCount());
+        assertEquals(0, copy.getExceptionCount());
+        assertEquals(1.0, copy.getCallsPerSecond(5_000L), 1e-9);
+        assertEquals(2, stats.getLatency().getCount());
+    }
+}
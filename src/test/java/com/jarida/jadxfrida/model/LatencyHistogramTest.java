@@ -0,0 +1,73 @@
+package com.jarida.jadxfrida.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, LatencyHistogram.bucketIndex(i));
+            assertEquals(i, LatencyHistogram.bucketUpperBound(i));
+        }
+        assertEquals(0, LatencyHistogram.bucketIndex(-5));
+    }
+
+    @Test
+    void largeValuesStayWithinTheirBucket() {
+        long[] samples = {16, 17, 31, 32, 100, 1000, 12345, 999999, 1L << 30};
+        for (long value : samples) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, value + " <= " + upper);
+            assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+            // 8 sub-buckets per power of two: at most 12.5% above the value
+            assertTrue(upper - value <= value / 8, value + " -> " + upper);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentilesUseBucketUpperBoundsCappedAtTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(-1, histogram.getPercentile(50));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getMeanMicros());
+        assertEquals(100, histogram.getMaxMicros());
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(50)), histogram.getPercentile(50));
+        assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(90)), histogram.getPercentile(90));
+        // the top bucket ends at 103 but no call took longer than 100
+        assertEquals(100, histogram.getPercentile(99));
+        assertEquals(100, histogram.getPercentile(100));
+        assertEquals(100, histogram.getPercentile(250));
+    }
+
+    @Test
+    void mergesAgentDeltas() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.addBucket(LatencyHistogram.bucketIndex(10), 9);
+        histogram.addBucket(LatencyHistogram.bucketIndex(5000), 1);
+        histogram.addBucket(-1, 5);
+        histogram.addBucket(LatencyHistogram.BUCKET_COUNT, 5);
+        histogram.addBucket(3, 0);
+        histogram.addTotals(9 * 10 + 5000, 5000);
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(509, histogram.getMeanMicros());
+        assertEquals(10, histogram.getPercentile(90));
+        assertEquals(5000, histogram.getPercentile(95));
+
+        LatencyHistogram copy = histogram.copy();
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+        assertEquals(-1, histogram.getPercentile(50));
+        assertEquals(10, copy.getCount());
+        assertEquals(5000, copy.getMaxMicros());
+    }
+}
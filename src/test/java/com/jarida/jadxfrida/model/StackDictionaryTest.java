@@ -0,0 +1,46 @@
+package com.jarida.jadxfrida.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StackDictionaryTest {
+    @Test
+    void rendersFramesLikePrintStackTrace() {
+        StackDictionary stacks = new StackDictionary();
+        stacks.define(1, Arrays.asList(
+                new StackDictionary.Frame("com.example.Foo", "bar", "Foo.java", 42),
+                new StackDictionary.Frame("com.example.Foo", "run", "Foo.java", 0),
+                new StackDictionary.Frame("java.lang.Thread", "run", null, -1)));
+
+        assertEquals("\tat com.example.Foo.bar(Foo.java:42)\n"
+                + "\tat com.example.Foo.run(Foo.java)\n"
+                + "\tat java.lang.Thread.run(Unknown Source)\n", stacks.render(1));
+        assertSame(stacks.render(1), stacks.render(1));
+        assertEquals(1, stacks.size());
+    }
+
+    @Test
+    void unknownStacksRenderAPlaceholder() {
+        StackDictionary stacks = new StackDictionary();
+        assertEquals("<stack #7 unavailable>", stacks.render(7));
+        assertNull(stacks.getFrames(7));
+    }
+
+    @Test
+    void redefiningAStackDropsItsRenderedText() {
+        StackDictionary stacks = new StackDictionary();
+        stacks.define(1, Arrays.asList(new StackDictionary.Frame("a.A", "x", "A.java", 1)));
+        assertEquals("\tat a.A.x(A.java:1)\n", stacks.render(1));
+        stacks.define(1, Arrays.asList(new StackDictionary.Frame("b.B", "y", "B.java", 2)));
+        assertEquals("\tat b.B.y(B.java:2)\n", stacks.render(1));
+
+        stacks.clear();
+        assertEquals(0, stacks.size());
+        assertEquals("<stack #1 unavailable>", stacks.render(1));
+    }
+}
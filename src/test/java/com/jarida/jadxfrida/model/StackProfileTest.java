@@ -0,0 +1,42 @@
+package com.jarida.jadxfrida.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StackProfileTest {
+    @Test
+    void countsStacksPerHook() {
+        StackProfile profile = new StackProfile();
+        long start = profile.getVersion();
+        profile.record("a.A.x()", 1);
+        profile.record("a.A.x()", 1);
+        profile.record("a.A.x()", 2);
+        profile.record("b.B.y()", 1);
+
+        Map<String, Map<Integer, Long>> snapshot = profile.snapshot();
+        assertEquals(Arrays.asList("a.A.x()", "b.B.y()"), Arrays.asList(snapshot.keySet().toArray()));
+        assertEquals(Long.valueOf(2), snapshot.get("a.A.x()").get(1));
+        assertEquals(Long.valueOf(1), snapshot.get("a.A.x()").get(2));
+        assertEquals(Long.valueOf(1), snapshot.get("b.B.y()").get(1));
+        assertEquals(start + 4, profile.getVersion());
+    }
+
+    @Test
+    void snapshotsAreDetachedCopies() {
+        StackProfile profile = new StackProfile();
+        profile.record("a.A.x()", 1);
+        Map<String, Map<Integer, Long>> snapshot = profile.snapshot();
+        profile.record("a.A.x()", 1);
+        assertEquals(Long.valueOf(1), snapshot.get("a.A.x()").get(1));
+
+        long before = profile.getVersion();
+        profile.clear();
+        assertTrue(profile.snapshot().isEmpty());
+        assertTrue(profile.getVersion() > before);
+    }
+}
@@ -0,0 +1,129 @@
+package com.jarida.jadxfrida.ui;
+
+import com.jarida.jadxfrida.model.TraceEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallStoreTest {
+    @Test
+    void completesCallsWithTheirReturn() {
+        CallStore store = new CallStore(16);
+        assertEquals(CallStore.ROW_APPENDED, store.apply(call(1, 10, "a", "b")));
+        assertEquals(CallStore.ROW_APPENDED, store.apply(call(1, 11, "c")));
+        assertEquals(-1, store.apply(ret(TraceEvent.Kind.RETURN, 1, 99, "x", 0)));
+
+        assertEquals(0, store.apply(ret(TraceEvent.Kind.RETURN, 1, 10, "true", 1500)));
+        assertEquals(2, store.size());
+        assertEquals("a, b", store.getArgs(0));
+        assertEquals("true", store.getReturn(0));
+        assertTrue(store.isReturned(0));
+        assertFalse(store.isPatched(0));
+        assertEquals(1000L, store.getStartTime(0));
+        assertEquals(1500L, store.getEndTime(0));
+        assertEquals("main", store.getThread(0));
+        assertEquals("com.example.Foo.bar", store.getSignature(0));
+        assertFalse(store.isReturned(1));
+
+        assertEquals(0, store.apply(ret(TraceEvent.Kind.PATCHED_RETURN, 1, 10, "false", 1600)));
+        assertTrue(store.isPatched(0));
+        assertEquals("false", store.getReturn(0));
+        // the patched return closes the call
+        assertEquals(-1, store.apply(ret(TraceEvent.Kind.RETURN, 1, 10, "late", 1700)));
+    }
+
+    @Test
+    void sharesShortRepeatedValues() {
+        CallStore store = new CallStore(16);
+        store.apply(call(1, 1, "null"));
+        store.apply(call(1, 2, "null"));
+        assertSame(store.getArgs(0), store.getArgs(1));
+    }
+
+    @Test
+    void evictsTheOldestRowsOnceFull() {
+        CallStore store = new CallStore(3);
+        for (int i = 0; i < 5; i++) {
+            store.apply(call(1, i, "arg" + i));
+        }
+        assertEquals(3, store.size());
+        assertEquals(2, store.drainEvicted());
+        assertEquals(0, store.drainEvicted());
+        assertEquals(2L, store.getFirstRowNumber());
+        assertEquals(2L, store.getCallId(0));
+        assertEquals("arg4", store.getArgs(2));
+
+        // returns of evicted calls are ignored; live ones land on their shifted row
+        assertEquals(-1, store.apply(ret(TraceEvent.Kind.RETURN, 1, 0, "gone", 0)));
+        assertEquals(1, store.apply(ret(TraceEvent.Kind.RETURN, 1, 3, "ok", 0)));
+        assertEquals("ok", store.getReturn(1));
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0L, store.getFirstRowNumber());
+        assertEquals(-1, store.apply(ret(TraceEvent.Kind.RETURN, 1, 4, "x", 0)));
+    }
+
+    @Test
+    void clipsLongCellsAndKeepsTheFullText() {
+        CallStore store = new CallStore(4);
+        String longArg = repeat('x', 500);
+        String longReturn = repeat('é', 200);
+        store.apply(call(1, 1, longArg, "1"));
+        store.apply(ret(TraceEvent.Kind.RETURN, 1, 1, longReturn, 0));
+
+        assertTrue(store.isArgsClipped(0));
+        assertTrue(store.isReturnClipped(0));
+        assertTrue(store.getArgs(0).endsWith("..."));
+        assertTrue(store.getArgs(0).length() < 120);
+        // two-byte characters are never cut in half
+        assertEquals(repeat('é', 48) + "...", store.getReturn(0));
+        assertEquals(longArg + ", 1", store.getFullArgs(0));
+        assertEquals(longReturn, store.getFullReturn(0));
+
+        store.apply(call(1, 2, "short"));
+        assertFalse(store.isArgsClipped(1));
+        assertEquals("short", store.getFullArgs(1));
+        assertNull(store.getFullReturn(1));
+    }
+
+    @Test
+    void fullTextGoesWithItsRow() {
+        CallStore store = new CallStore(2);
+        store.apply(call(1, 1, repeat('a', 200)));
+        store.apply(call(1, 2, repeat('b', 200)));
+        store.apply(call(1, 3, repeat('c', 200)));
+        assertEquals(repeat('b', 200), store.getFullArgs(0));
+        assertEquals(repeat('c', 200), store.getFullArgs(1));
+
+        // a later, shorter return replaces a clipped one
+        store.apply(ret(TraceEvent.Kind.RETURN, 1, 3, repeat('d', 200), 0));
+        assertTrue(store.isReturnClipped(1));
+        store.apply(ret(TraceEvent.Kind.PATCHED_RETURN, 1, 3, "short", 0));
+        assertFalse(store.isReturnClipped(1));
+        assertEquals("short", store.getFullReturn(1));
+    }
+
+    private static TraceEvent call(int hookId, long callId, String... args) {
+        return new TraceEvent(TraceEvent.Kind.CALL, hookId, "com.example.Foo.bar", callId, 7L, "main",
+                1000L, Arrays.asList(args), null);
+    }
+
+    private static TraceEvent ret(TraceEvent.Kind kind, int hookId, long callId, String value, long timestamp) {
+        return new TraceEvent(kind, hookId, "com.example.Foo.bar", callId, 7L, "main", timestamp,
+                Collections.<String>emptyList(), value);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
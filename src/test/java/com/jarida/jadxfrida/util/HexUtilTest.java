@@ -0,0 +1,32 @@
+package com.jarida.jadxfrida.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HexUtilTest {
+    @Test
+    void encodesLowercaseHex() {
+        assertEquals("", HexUtil.toHex(null));
+        assertEquals("", HexUtil.toHex(new byte[0]));
+        assertEquals("00017f80ff", HexUtil.toHex(new byte[]{0, 1, 0x7f, (byte) 0x80, (byte) 0xff}));
+    }
+
+    @Test
+    void dumpsFullLinesWithOffsetsAndAscii() {
+        byte[] data = "0123456789abcdefXYZ".getBytes(StandardCharsets.US_ASCII);
+        String expected = "00000000  30 31 32 33 34 35 36 37  38 39 61 62 63 64 65 66  |0123456789abcdef|\n"
+                + "00000010  58 59 5a                                          |XYZ|\n";
+        assertEquals(expected, HexUtil.hexDump(data));
+    }
+
+    @Test
+    void replacesNonPrintableBytesWithDots() {
+        String dump = HexUtil.hexDump(new byte[]{0x00, 0x1f, 0x20, 0x7e, 0x7f, (byte) 0xe9});
+        assertEquals("00000000  00 1f 20 7e 7f e9                                 |.. ~..|\n", dump);
+        assertEquals("", HexUtil.hexDump(null));
+        assertEquals("", HexUtil.hexDump(new byte[0]));
+    }
+}
@@ -0,0 +1,139 @@
+// Runs a generated agent under node with a minimal Frida/Java stand-in.
+// Usage: node agent-harness.js <agent.js> <className> <methodName> <calls> <waitMs> [byteArgLength]
+//        [uninstallKeys]
+// Uninstalls the comma-separated hook keys through rpc.exports.uninstallHook, then invokes the
+// method <calls> times back to back, as a burst on a hooked thread would, with the call index as
+// argument, or a byte[] of <byteArgLength> bytes (value i & 0xff at index i) when given. Once <waitMs> have passed it prints every send() payload as one JSON line, then
+// {"payload": {"k": "rb", "h": handle, "n": length, "ok": contentsMatch}} for every "ah" handle read
+// back through rpc.exports.readBytes, then {"payload": {"k": "native", "clock": reads, "allocs": n}}
+// counting the agent's clock_gettime calls and Memory.alloc calls.
+'use strict';
+const fs = require('fs');
+const [agentPath, className, methodName, calls, waitMs, byteArgLength, uninstallKeys] = process.argv.slice(2);
+const messages = [];
+const implementations = {};
+
+global.send = function(payload, data) {
+  messages.push(data ? { payload: payload, bytes: data.byteLength } : { payload: payload });
+};
+global.rpc = { exports: {} };
+global.Process = { pointerSize: 8, getCurrentThreadId: function() { return 1; } };
+
+// Native memory, clock_gettime(CLOCK_MONOTONIC) and the JNI GetArrayLength / GetByteArrayRegion
+// functions, backed by Buffers and process.hrtime.
+let clockReads = 0;
+let allocs = 0;
+function pointer(buffer, offset) {
+  return {
+    buffer: buffer,
+    offset: offset,
+    add: function(n) { return pointer(buffer, offset + Number(n)); },
+    readS32: function() { return buffer.readInt32LE(offset); },
+    readByteArray: function(n) { return buffer.buffer.slice(buffer.byteOffset + offset, buffer.byteOffset + offset + n); },
+    readS64: function() {
+      const value = buffer.readBigInt64LE(offset);
+      return { toNumber: function() { return Number(value); } };
+    }
+  };
+}
+global.Memory = { alloc: function(size) { allocs++; return pointer(Buffer.alloc(Number(size)), 0); } };
+global.Module = {
+  findGlobalExportByName: function(name) { return name === 'clock_gettime' ? { name: name } : null; }
+};
+global.NativeFunction = function(address) {
+  if (address.jni === 171) {
+    return function(env, array) { return array.length; };
+  }
+  if (address.jni === 200) {
+    return function(env, array, start, count, buf) {
+      for (let i = 0; i < count; i++) {
+        buf.buffer[buf.offset + i] = array[start + i] & 0xff;
+      }
+    };
+  }
+  if (address.name !== 'clock_gettime') {
+    throw new Error('unexpected native function');
+  }
+  return function(clockId, ts) {
+    if (clockId !== 1) {
+      throw new Error('expected CLOCK_MONOTONIC');
+    }
+    clockReads++;
+    const now = process.hrtime.bigint();
+    ts.buffer.writeBigInt64LE(now / 1000000000n, ts.offset);
+    ts.buffer.writeBigInt64LE(now % 1000000000n, ts.offset + 8);
+    return 0;
+  };
+};
+
+function overload(name) {
+  return {
+    set implementation(fn) { implementations[name] = fn; },
+    get implementation() { return implementations[name]; },
+    call: function(self, value) {
+      // keep the original busy for ~2 ms so measured latencies are visible
+      const until = process.hrtime.bigint() + 2000000n;
+      while (process.hrtime.bigint() < until) {
+      }
+      return value;
+    },
+    apply: function(self, args) {
+      return this.call(self, args[0]);
+    }
+  };
+}
+
+const jniTable = { add: function(offset) { return { readPointer: function() { return { jni: offset / 8 }; } }; } };
+global.Java = {
+  vm: { getEnv: function() { return { handle: { readPointer: function() { return jniTable; } } }; } },
+  perform: function(fn) { fn(); },
+  use: function(name) {
+    if (name === className) {
+      const wrapper = {};
+      wrapper[methodName] = { overload: function() { return overload(methodName); } };
+      return wrapper;
+    }
+    if (name === 'java.lang.Thread') {
+      return { currentThread: function() { return { getName: function() { return 'main'; } }; } };
+    }
+    throw new Error('ClassNotFoundException: ' + name);
+  }
+};
+
+(0, eval)(fs.readFileSync(agentPath, 'utf8'));
+
+function byteArray(length) {
+  const values = new Int8Array(length);
+  for (let i = 0; i < length; i++) {
+    values[i] = i & 0xff;
+  }
+  return { $className: '[B', $h: values, length: length };
+}
+
+for (const key of (uninstallKeys || '').split(',').filter(Boolean)) {
+  rpc.exports.uninstallHook(key);
+}
+const target = { $className: className, toString: function() { return className; } };
+for (let i = 0; i < Number(calls); i++) {
+  const implementation = implementations[methodName];
+  if (implementation) {
+    implementation.call(target, byteArgLength ? byteArray(Number(byteArgLength)) : i);
+  }
+}
+setTimeout(async function() {
+  const out = messages.slice();
+  for (const message of messages) {
+    for (const ev of (message.payload.k === 'b' ? message.payload.ev : [])) {
+      for (const h of (ev.ah || []).filter(Boolean)) {
+        const data = new Uint8Array(await rpc.exports.readBytes(h));
+        const ok = data.every(function(value, i) { return value === (i & 0xff); });
+        out.push({ payload: { k: 'rb', h: h, n: data.length, ok: ok } });
+      }
+    }
+  }
+  out.push({ payload: { k: 'native', clock: clockReads, allocs: allocs } });
+  for (const message of out) {
+    process.stdout.write(JSON.stringify(message) + '\n');
+  }
+  process.exit(0);
+}, Number(waitMs));